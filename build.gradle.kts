@@ -5,6 +5,7 @@ plugins {
     // Only used in tests
     kotlin("jvm") version "1.5.21"
     id("jacoco")
+    id("me.champeau.jmh") version "0.6.5"
 
     id("maven-publish")
     id("signing")
@@ -13,6 +14,13 @@ plugins {
 
 val javaVersion = file(".java-version").readText().trim()
 
+// Classes in here replace their Java 8 counterparts on Java 9+ through the
+// multi-release JAR, see META-INF/versions/9.
+val java9: SourceSet by sourceSets.creating {
+    java.setSrcDirs(listOf("src/main/java9"))
+    compileClasspath += sourceSets.main.get().output + sourceSets.main.get().compileClasspath
+}
+
 dependencies {
     val jba = "21.0.0"
     compileOnly("org.jetbrains:annotations:$jba")
@@ -30,13 +38,25 @@ dependencies {
 repositories.mavenCentral()
 
 tasks {
+    named<JavaCompile>(java9.compileJavaTaskName) {
+        javaCompiler.set(project.javaToolchains.compilerFor { languageVersion.set(JavaLanguageVersion.of(11)) })
+        options.release.set(9)
+    }
+
     jar.configure {
         isPreserveFileTimestamps = false
         isReproducibleFileOrder = true
+        manifest.attributes("Multi-Release" to true)
+        into("META-INF/versions/9") { from(java9.output) }
+    }
+
+    withType<Jar>().matching { it.name == "sourcesJar" }.configureEach {
+        into("META-INF/versions/9") { from(java9.allSource) }
     }
 
     test.configure {
         useJUnitPlatform()
+        if (JavaVersion.current().isJava9Compatible) classpath = java9.output + classpath
         systemProperty("java.io.tmpdir", temporaryDir.absolutePath)
     }
 
@@ -52,6 +72,11 @@ tasks {
     }
 }
 
+jmh {
+    jmhVersion.set("1.33")
+    profilers.add("gc")
+}
+
 idea {
     project {
         jdkName = javaVersion
@@ -0,0 +1,63 @@
+package com.fleshgrinder.platform;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the packed attribute checks of {@link Arch} with the
+ * {@code name().contains} and identity comparison checks that they
+ * replaced, which are inlined here as the {@code legacy} benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ArchAttributesBenchmark {
+    @Param({"ARM_64_BE", "X86_64"})
+    public Arch arch;
+
+    @Benchmark public int getBitness() {
+        return arch.getBitness();
+    }
+
+    @Benchmark public int getBitnessLegacy() {
+        return arch.name().contains("32") ? 32 : 64;
+    }
+
+    @Benchmark public boolean is64bit() {
+        return arch.is64bit();
+    }
+
+    @Benchmark public boolean is64bitLegacy() {
+        return arch.name().contains("64");
+    }
+
+    @Benchmark public boolean isArm() {
+        return arch.isArm();
+    }
+
+    @Benchmark public boolean isArmLegacy() {
+        final Arch arch = this.arch;
+        return arch == Arch.ARM_32_BE || arch == Arch.ARM_64_BE || arch == Arch.ARM_32 || arch == Arch.ARM_64;
+    }
+
+    @Benchmark public boolean isArmBe() {
+        return arch.isArmBe();
+    }
+
+    @Benchmark public boolean isArmBeLegacy() {
+        final Arch arch = this.arch;
+        return arch == Arch.ARM_32_BE || arch == Arch.ARM_64_BE;
+    }
+}
@@ -0,0 +1,10 @@
+package com.fleshgrinder.platform;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * {@link EntryPointBenchmark} on as many threads as there are processors,
+ * all sharing the same state and the caches of the library.
+ */
+@Threads(Threads.MAX)
+public class ContendedBenchmark extends EntryPointBenchmark {}
@@ -0,0 +1,130 @@
+package com.fleshgrinder.platform;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of every public entry point of {@link Platform}, {@link Os}, and
+ * {@link Arch}, run with {@code -prof gc} to see the allocations per call.
+ *
+ * <p>The benchmarks are inherited by {@link SingleThreadedBenchmark} and
+ * {@link ContendedBenchmark} which only differ in the number of threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public abstract class EntryPointBenchmark {
+    /** Exact id, the best case for {@code parse}. */
+    private static final String ID = "linux-x86-64";
+
+    /** Input without any keyword, the worst case for {@code parse}. */
+    private static final String MISS = "lorem-ipsum-dolor-amet-consectetur-adipiscing-elit-sed-do-eiusmod-tempor-incididunt-ut-labore-et-dolore-magna-aliqua";
+
+    /** Typical artifact path with the keywords at the very end. */
+    private static final String LONG_PATH = "/home/user/.m2/repository/com/acme/native/acme-native-bindings/1.23.456/acme-native-bindings-1.23.456-natives-linux-x86_64-musl.tar.gz";
+
+    private Platform a;
+    private Platform b;
+
+    @Setup public void setup() {
+        if (Platform.parseOrNull(MISS) != null) throw new IllegalStateException("MISS must not match: " + MISS);
+        if (Platform.parseOrNull(LONG_PATH) == null) throw new IllegalStateException("LONG_PATH must match: " + LONG_PATH);
+        a = Platform.of(Os.LINUX, Arch.ARM_64);
+        b = Platform.of(Os.LINUX, Arch.X86_64);
+    }
+
+    // region current
+    @Benchmark public Platform platformCurrent() {
+        return Platform.current();
+    }
+
+    @Benchmark public Os osCurrent() {
+        return Os.current();
+    }
+
+    @Benchmark public Arch archCurrent() {
+        return Arch.current();
+    }
+    // endregion current
+
+    // region fromString
+    @Benchmark public Platform platformFromString() {
+        return Platform.fromString(ID);
+    }
+
+    @Benchmark public Platform platformFromStringOrNullMiss() {
+        return Platform.fromStringOrNull(MISS);
+    }
+
+    @Benchmark public Os osFromString() {
+        return Os.fromString("linux");
+    }
+
+    @Benchmark public Arch archFromString() {
+        return Arch.fromString("x86-64");
+    }
+    // endregion fromString
+
+    // region parse
+    @Benchmark public Platform platformParseBest() {
+        return Platform.parse(ID);
+    }
+
+    @Benchmark public Platform platformParseOrNullWorst() {
+        return Platform.parseOrNull(MISS);
+    }
+
+    @Benchmark public Platform platformParseLongPath() {
+        return Platform.parse(LONG_PATH);
+    }
+
+    @Benchmark public Os osParseLongPath() {
+        return Os.parse(LONG_PATH);
+    }
+
+    @Benchmark public Arch archParseLongPath() {
+        return Arch.parse(LONG_PATH);
+    }
+    // endregion parse
+
+    // region hasMusl
+    @Benchmark public boolean hasMusl() {
+        return Platform.hasMusl();
+    }
+
+    /** The uncached ELF header read of {@code /proc/self/exe}. */
+    @Benchmark public boolean hasMuslUncached() {
+        return Platform.hasMusl("/proc/self/exe", "ldd");
+    }
+    // endregion hasMusl
+
+    // region Object
+    @Benchmark public String platformToString() {
+        return b.toString();
+    }
+
+    @Benchmark public int platformCompareTo() {
+        return a.compareTo(b);
+    }
+
+    @Benchmark public int platformHashCode() {
+        return b.hashCode();
+    }
+
+    @Benchmark public boolean platformEquals() {
+        return a.equals(b);
+    }
+    // endregion Object
+}
@@ -0,0 +1,111 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a batch of CPU-bound tasks on a pool that is sized with
+ * {@link Runtime#availableProcessors()} versus one that is sized with
+ * {@link PlatformExecutors#getParallelism()}, together with the involuntary
+ * context switches of all threads of the JVM per iteration.
+ *
+ * <p>The difference only shows under a CPU quota that the JVM does not
+ * consider itself, e.g.:
+ *
+ * <pre>{@code
+ * docker run --cpus=2 -e JAVA_TOOL_OPTIONS=-XX:-UseContainerSupport ...
+ * }</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class ExecutorSizingBenchmark {
+    private static final int TASKS = 256;
+
+    @Param({"available-processors", "platform-executors"})
+    public String sizing;
+
+    private ForkJoinPool pool;
+
+    @Setup public void setup() {
+        pool = new ForkJoinPool(sizing.equals("platform-executors") ? PlatformExecutors.current().getParallelism() : Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark public long batch(final ContextSwitches counters) {
+        final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[TASKS];
+        for (int i = 0; i < TASKS; i++) {
+            final long seed = i;
+            tasks[i] = pool.submit(() -> spin(seed));
+        }
+        long sum = 0;
+        for (final ForkJoinTask<?> task : tasks) sum += (Long) task.join();
+        return sum;
+    }
+
+    private static long spin(long x) {
+        for (int i = 0; i < 200_000; i++) x = x * 6364136223846793005L + 1442695040888963407L;
+        return x;
+    }
+
+    /** Involuntary context switches of all threads of the JVM per iteration. */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ContextSwitches {
+        public long contextSwitches;
+        private long start;
+
+        @Setup(Level.Iteration) public void start() {
+            start = read();
+        }
+
+        @TearDown(Level.Iteration) public void stop() {
+            contextSwitches = read() - start;
+        }
+
+        private static long read() {
+            long sum = 0;
+            try (final DirectoryStream<Path> tasks = Files.newDirectoryStream(Paths.get("/proc/self/task"))) {
+                for (final Path task : tasks) {
+                    try {
+                        final String status = new String(Files.readAllBytes(task.resolve("status")), StandardCharsets.ISO_8859_1);
+                        final int i = status.indexOf("nonvoluntary_ctxt_switches:");
+                        if (i >= 0) sum += Long.parseLong(status.substring(i + 27, status.indexOf('\n', i)).trim());
+                    } catch (final IOException ignored) {
+                        // the thread exited
+                    }
+                }
+            } catch (final IOException ignored) {
+                // not Linux
+            }
+            return sum;
+        }
+    }
+}
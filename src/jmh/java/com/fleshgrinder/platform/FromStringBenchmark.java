@@ -0,0 +1,85 @@
+package com.fleshgrinder.platform;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the id table lookup of {@code fromStringOrNull} with the linear
+ * scan over {@code values()} that it replaced, which is inlined here as the
+ * {@code legacy} benchmarks. The ids are the first and last constants, and an
+ * id that is unknown but has the same length as a known one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class FromStringBenchmark {
+    @Param({"aix-alpha-64", "zos-x86-64", "zos-x86-65"})
+    public String id;
+
+    private String os;
+    private String arch;
+
+    @Setup public void setup() {
+        final int i = id.indexOf('-');
+        os = id.substring(0, i);
+        arch = id.substring(i + 1);
+    }
+
+    @Benchmark public Os osFromStringOrNull() {
+        return Os.fromStringOrNull(os);
+    }
+
+    @Benchmark public Os osFromStringOrNullLegacy() {
+        return legacyOs(os);
+    }
+
+    @Benchmark public Arch archFromStringOrNull() {
+        return Arch.fromStringOrNull(arch);
+    }
+
+    @Benchmark public Arch archFromStringOrNullLegacy() {
+        return legacyArch(arch);
+    }
+
+    @Benchmark public Platform platformFromStringOrNull() {
+        return Platform.fromStringOrNull(id);
+    }
+
+    @Benchmark @SuppressWarnings("deprecation")
+    public Platform platformFromStringOrNullLegacy() {
+        final int len = id.length();
+        if (len > 0) {
+            final int i = id.indexOf('-');
+            final int j = i + 1;
+            if (i > 0 && j < (len - 1)) {
+                final Os os = legacyOs(id.substring(0, i));
+                final Arch arch = legacyArch(id.substring(j, len));
+                if (os != null && arch != null) return new Platform(os, arch);
+            }
+        }
+        return null;
+    }
+
+    private static Os legacyOs(final String value) {
+        for (final Os os : Os.values()) if (os.toString().equals(value)) return os;
+        return null;
+    }
+
+    private static Arch legacyArch(final String value) {
+        for (final Arch arch : Arch.values()) if (arch.toString().equals(value)) return arch;
+        return null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.fleshgrinder.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the lookup of {@link PlatformMap} with a {@link HashMap} of the
+ * same entries, which is what it replaces. The maps contain every other
+ * platform, the probes are one key and one absent key.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class PlatformMapBenchmark {
+    private final Platform member = Platform.of(Os.LINUX, Arch.X86_64);
+    private final Platform other = Platform.of(Os.LINUX, Arch.ARM_64);
+
+    private PlatformMap<String> platformMap;
+    private Map<Platform, String> hashMap;
+
+    @Setup public void setup() {
+        platformMap = new PlatformMap<>();
+        hashMap = new HashMap<>();
+        for (final Os os : Os.values()) {
+            for (final Arch arch : Arch.values()) {
+                final Platform platform = Platform.of(os, arch);
+                if (platform.equals(other) || (platform.index() & 1) != (member.index() & 1)) continue;
+                platformMap.put(platform, platform.toString());
+                hashMap.put(platform, platform.toString());
+            }
+        }
+        platformMap.put(member, member.toString());
+        hashMap.put(member, member.toString());
+    }
+
+    @Benchmark public String platformMapKey() {
+        return platformMap.get(member);
+    }
+
+    @Benchmark public String platformMapAbsent() {
+        return platformMap.get(other);
+    }
+
+    @Benchmark public String hashMapKey() {
+        return hashMap.get(member);
+    }
+
+    @Benchmark public String hashMapAbsent() {
+        return hashMap.get(other);
+    }
+}
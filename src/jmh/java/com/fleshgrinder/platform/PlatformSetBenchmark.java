@@ -0,0 +1,66 @@
+package com.fleshgrinder.platform;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the membership test of {@link PlatformSet} with a
+ * {@link HashSet} of the same platforms, which is what it replaces. The sets
+ * contain every other platform, the probes are one member and one non-member.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class PlatformSetBenchmark {
+    private final Platform member = Platform.of(Os.LINUX, Arch.X86_64);
+    private final Platform other = Platform.of(Os.LINUX, Arch.ARM_64);
+
+    private PlatformSet platformSet;
+    private Set<Platform> hashSet;
+
+    @Setup public void setup() {
+        final PlatformSet.Builder builder = PlatformSet.builder();
+        hashSet = new HashSet<>();
+        for (final Os os : Os.values()) {
+            for (final Arch arch : Arch.values()) {
+                final Platform platform = Platform.of(os, arch);
+                if (platform.equals(other) || (platform.index() & 1) != (member.index() & 1)) continue;
+                builder.add(platform);
+                hashSet.add(platform);
+            }
+        }
+        builder.add(member);
+        hashSet.add(member);
+        platformSet = builder.build();
+    }
+
+    @Benchmark public boolean platformSetMember() {
+        return platformSet.contains(member);
+    }
+
+    @Benchmark public boolean platformSetOther() {
+        return platformSet.contains(other);
+    }
+
+    @Benchmark public boolean hashSetMember() {
+        return hashSet.contains(member);
+    }
+
+    @Benchmark public boolean hashSetOther() {
+        return hashSet.contains(other);
+    }
+}
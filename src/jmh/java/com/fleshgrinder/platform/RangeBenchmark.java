@@ -0,0 +1,105 @@
+package com.fleshgrinder.platform;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parses a name that is embedded in a larger buffer through every range
+ * overload, run with {@code -prof gc} to verify that
+ * {@code gc.alloc.rate.norm} is zero bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class RangeBenchmark {
+    private static final String PREFIX = "GET /download?file=";
+    private static final String NAME = "/repo/com/acme/foo/1.2.3/foo-1.2.3-linux-x86_64-musl.tar.gz";
+    private static final String ID = "linux-x86-64";
+    private static final int FROM = PREFIX.length();
+
+    private String string;
+    private char[] chars;
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int to;
+    private int idTo;
+
+    @Setup public void setup() {
+        string = PREFIX + NAME + " HTTP/1.1";
+        chars = string.toCharArray();
+        bytes = string.getBytes(StandardCharsets.US_ASCII);
+        buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        buffer.position(FROM).limit(FROM + NAME.length());
+        to = FROM + NAME.length();
+        idTo = FROM + ID.length();
+        System.arraycopy(ID.getBytes(StandardCharsets.US_ASCII), 0, bytes, FROM, ID.length());
+        ID.getChars(0, ID.length(), chars, FROM);
+    }
+
+    @Benchmark public Os osParseOrNullCharSequence() {
+        return Os.parseOrNull(string, FROM, to);
+    }
+
+    @Benchmark public Os osParseOrNullChars() {
+        return Os.parseOrNull(chars, FROM, to);
+    }
+
+    @Benchmark public Os osParseOrNullBytes() {
+        return Os.parseOrNull(bytes, FROM, to);
+    }
+
+    @Benchmark public Os osParseOrNullByteBuffer() {
+        return Os.parseOrNull(buffer);
+    }
+
+    @Benchmark public Arch archParseOrNullCharSequence() {
+        return Arch.parseOrNull(string, FROM, to);
+    }
+
+    @Benchmark public Arch archParseOrNullChars() {
+        return Arch.parseOrNull(chars, FROM, to);
+    }
+
+    @Benchmark public Arch archParseOrNullBytes() {
+        return Arch.parseOrNull(bytes, FROM, to);
+    }
+
+    @Benchmark public Arch archParseOrNullByteBuffer() {
+        return Arch.parseOrNull(buffer);
+    }
+
+    @Benchmark public Platform platformParseOrNullCharSequence() {
+        return Platform.parseOrNull(string, FROM, to);
+    }
+
+    @Benchmark public Platform platformParseOrNullBytes() {
+        return Platform.parseOrNull(bytes, FROM, to);
+    }
+
+    @Benchmark public Os osFromStringOrNullChars() {
+        return Os.fromStringOrNull(chars, FROM, FROM + 5);
+    }
+
+    @Benchmark public Arch archFromStringOrNullBytes() {
+        return Arch.fromStringOrNull(bytes, FROM + 6, idTo);
+    }
+
+    @Benchmark public Platform platformFromStringOrNullBytes() {
+        return Platform.fromStringOrNull(bytes, FROM, idTo);
+    }
+}
@@ -0,0 +1,7 @@
+package com.fleshgrinder.platform;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/** {@link EntryPointBenchmark} on a single thread. */
+@Threads(1)
+public class SingleThreadedBenchmark extends EntryPointBenchmark {}
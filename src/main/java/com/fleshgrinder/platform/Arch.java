@@ -1,9 +1,26 @@
 package com.fleshgrinder.platform;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import static com.fleshgrinder.platform.Arch.Attributes.ALPHA;
+import static com.fleshgrinder.platform.Arch.Attributes.ARM;
+import static com.fleshgrinder.platform.Arch.Attributes.BIG_ENDIAN;
+import static com.fleshgrinder.platform.Arch.Attributes.BITS_64;
+import static com.fleshgrinder.platform.Arch.Attributes.ITANIUM;
+import static com.fleshgrinder.platform.Arch.Attributes.M68K;
+import static com.fleshgrinder.platform.Arch.Attributes.MIPS;
+import static com.fleshgrinder.platform.Arch.Attributes.PPC;
+import static com.fleshgrinder.platform.Arch.Attributes.RISCV;
+import static com.fleshgrinder.platform.Arch.Attributes.S390;
+import static com.fleshgrinder.platform.Arch.Attributes.SPARC;
+import static com.fleshgrinder.platform.Arch.Attributes.SUPERH;
+import static com.fleshgrinder.platform.Arch.Attributes.X86;
+import static com.fleshgrinder.platform.Utils.checkRange;
 import static com.fleshgrinder.platform.Utils.id;
 import static com.fleshgrinder.platform.Utils.normalize;
 
@@ -19,186 +36,219 @@ public enum Arch {
      *
      * @see <a href="https://en.wikipedia.org/wiki/DEC_Alpha">Wikipedia</a>
      */
-    ALPHA_64,
+    ALPHA_64(ALPHA | BITS_64),
 
     /**
      * ARM v1+ 32-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/ARM_architecture">Wikipedia</a>
      */
-    ARM_32,
+    ARM_32(ARM),
 
     /**
      * ARM v1+ 32-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/ARM_architecture">Wikipedia</a>
      */
-    ARM_32_BE,
+    ARM_32_BE(ARM | BIG_ENDIAN),
 
     /**
      * ARM v8+ 64-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/ARM_architecture">Wikipedia</a>
      */
-    ARM_64,
+    ARM_64(ARM | BITS_64),
 
     /**
      * ARM v8+ 64-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/ARM_architecture">Wikipedia</a>
      */
-    ARM_64_BE,
+    ARM_64_BE(ARM | BITS_64 | BIG_ENDIAN),
 
     /**
      * Itanium 32-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/Itanium">Wikipedia</a>
      */
-    ITANIUM_32,
+    ITANIUM_32(ITANIUM),
 
     /**
      * Itanium 64-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/Itanium">Wikipedia</a>
      */
-    ITANIUM_64,
+    ITANIUM_64(ITANIUM | BITS_64),
 
     /**
      * Motorola 68000 32-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/Motorola_68000">Wikipedia</a>
      */
-    M68K_32,
+    M68K_32(M68K | BIG_ENDIAN),
 
     /**
      * MIPS 32-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/MIPS_architecture">Wikipedia</a>
      */
-    MIPS_32,
+    MIPS_32(MIPS | BIG_ENDIAN),
 
     /**
      * MIPS 32-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/MIPS_architecture">Wikipedia</a>
      */
-    MIPS_32_LE,
+    MIPS_32_LE(MIPS),
 
     /**
      * MIPS 64-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/MIPS_architecture">Wikipedia</a>
      */
-    MIPS_64,
+    MIPS_64(MIPS | BITS_64 | BIG_ENDIAN),
 
     /**
      * MIPS 64-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/MIPS_architecture">Wikipedia</a>
      */
-    MIPS_64_LE,
+    MIPS_64_LE(MIPS | BITS_64),
 
     /**
      * PowerPC 32-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/PowerPC">Wikipedia</a>
      */
-    PPC_32,
+    PPC_32(PPC | BIG_ENDIAN),
 
     /**
      * PowerPC 32-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/PowerPC">Wikipedia</a>
      */
-    PPC_32_LE,
+    PPC_32_LE(PPC),
 
     /**
      * PowerPC 64-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/PowerPC">Wikipedia</a>
      */
-    PPC_64,
+    PPC_64(PPC | BITS_64 | BIG_ENDIAN),
 
     /**
      * PowerPC 64-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/PowerPC">Wikipedia</a>
      */
-    PPC_64_LE,
+    PPC_64_LE(PPC | BITS_64),
 
     /**
      * RISC-V 32-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/RISC-V">Wikipedia</a>
      */
-    RISCV_32,
+    RISCV_32(RISCV),
 
     /**
      * RISC-V 64-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/RISC-V">Wikipedia</a>
      */
-    RISCV_64,
+    RISCV_64(RISCV | BITS_64),
 
     /**
      * s390 32-bit (IBM Z)
      *
      * @see <a href="https://en.wikipedia.org/wiki/IBM_Z">Wikipedia</a>
      */
-    S390_32,
+    S390_32(S390 | BIG_ENDIAN),
 
     /**
      * s390x 64-bit (IBM Z)
      *
      * @see <a href="https://en.wikipedia.org/wiki/IBM_Z">Wikipedia</a>
      */
-    S390_64,
+    S390_64(S390 | BITS_64 | BIG_ENDIAN),
 
     /**
      * SPARC 32-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/SPARC">Wikipedia</a>
      */
-    SPARC_32,
+    SPARC_32(SPARC | BIG_ENDIAN),
 
     /**
      * SPARC 64-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/SPARC">Wikipedia</a>
      */
-    SPARC_64,
+    SPARC_64(SPARC | BITS_64 | BIG_ENDIAN),
 
     /**
      * SuperH 32-bit Little Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/SuperH">Wikipedia</a>
      */
-    SUPERH_32,
+    SUPERH_32(SUPERH),
 
     /**
      * SuperH 32-bit Big Endian
      *
      * @see <a href="https://en.wikipedia.org/wiki/SuperH">Wikipedia</a>
      */
-    SUPERH_32_BE,
+    SUPERH_32_BE(SUPERH | BIG_ENDIAN),
 
     /**
      * x86 32-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/X86">Wikipedia</a>
      */
-    X86_32,
+    X86_32(X86),
 
     /**
      * x86 64-bit
      *
      * @see <a href="https://en.wikipedia.org/wiki/X86">Wikipedia</a>
      */
-    X86_64;
+    X86_64(X86 | BITS_64);
+
+    /** Shared copy of {@link #values()}, must never be modified. */
+    private static final Arch @NotNull [] VALUES = values();
+
+    /** Number of constants, cheaper than {@code values().length}. */
+    static final int COUNT = VALUES.length;
+
+    /**
+     * Memo of the last {@link #currentOrNull()} result, replaced whenever the
+     * system property it was derived from changes. Racy publication is fine
+     * because {@link Current} is immutable.
+     */
+    private static @Nullable Current current;
 
     /** @see #toString() */
     private final @NotNull String id = id(name());
 
+    /** Packed {@link Attributes} of this arch. */
+    private final int attributes;
+
+    Arch(final int attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * Gets the constant with the given ordinal without copying
+     * {@link #values()}.
+     *
+     * @param ordinal of the constant.
+     * @return the constant.
+     * @throws ArrayIndexOutOfBoundsException if the ordinal is out of bounds.
+     */
+    @Contract(pure = true)
+    static @NotNull Arch of(final int ordinal) {
+        return VALUES[ordinal];
+    }
+
     /**
      * Gets the arch of the current platform.
      *
@@ -229,7 +279,8 @@ public enum Arch {
      * compatible with the currently running JVM.
      *
      * <p>Note that the value of the {@code os.arch} system property can be
-     * changed by a user, like any other system property.
+     * changed by a user, like any other system property. The result is cached
+     * and only determined again if it changed since the last call.
      *
      * @return the current arch.
      * @throws IllegalStateException if it cannot be determined.
@@ -272,16 +323,30 @@ public enum Arch {
      * compatible with the currently running JVM.
      *
      * <p>Note that the value of the {@code os.arch} system property can be
-     * changed by a user, like any other system property.
+     * changed by a user, like any other system property. The result is cached
+     * and only determined again if it changed since the last call.
      *
      * @return the current arch or {@code null} if it cannot be determined.
      * @see #current()
      */
     @Contract(pure = true)
     public static @Nullable Arch currentOrNull() {
-        final @Nullable String it = System.getProperty("os.arch");
-        if (it == null) return null;
-        switch (normalize(it, true)) {
+        final @Nullable String name = System.getProperty("os.arch");
+        @Nullable Current it = current;
+        if (it == null || it.name != name) current = it = new Current(name, currentOrNull(name));
+        return it.arch;
+    }
+
+    /**
+     * Determines the arch from the given system property value.
+     *
+     * @param name value of {@code os.arch}.
+     * @return the arch or {@code null} if it cannot be determined.
+     */
+    @Contract(pure = true)
+    private static @Nullable Arch currentOrNull(final @Nullable String name) {
+        if (name == null) return null;
+        switch (normalize(name, true)) {
             case "alpha":
                 return ALPHA_64;
             case "arm":
@@ -329,7 +394,7 @@ public enum Arch {
             case "pentium":
                 return X86_32;
         }
-        return parseOrNull(it);
+        return parseOrNull(name);
     }
 
     /**
@@ -374,8 +439,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public static @Nullable Arch fromStringOrNull(final @NotNull String value) {
-        for (final Arch arch : Arch.values()) if (arch.id.equals(value)) return arch;
-        return null;
+        return fromStringOrNull(value, 0, value.length());
     }
 
     /**
@@ -410,49 +474,327 @@ public enum Arch {
      */
     @Contract(pure = true)
     public static @Nullable Arch parseOrNull(final @NotNull CharSequence value) {
-        if (value.length() > 0) {
-            final String it = normalize(value);
-            for (final Arch arch : Arch.values()) if (arch.id.equals(it)) return arch;
-            // region common
-            if (it.matches("(?s).*\\b((amd|x(86)?)-?64|em64t|i[89]86|ia32e)\\b.*?")) return X86_64;
-            if (it.matches("(?s).*\\b((ia|x)32|(i[1-7]|x)86|pentium)\\b.*?")) return X86_32;
-            if (it.matches("(?s).*\\b(aarch(-?64)?-?(be|eb)(-?64)?|arm-?(64-?(eb|be)|(eb|be)-?64))\\b.*?")) return ARM_64_BE;
-            if (it.matches("(?s).*\\barm(-?32)?-?(be|eb)(32)?\\b.*?")) return ARM_32_BE;
-            if (it.matches("(?s).*\\ba(arch|rm)-?(64|v([8-9]|[1-9]\\d+))\\b.*?")) return ARM_64;
-            if (it.matches("(?s).*\\barm(-?32|-?v([1-36]|4t?|5(te)?|7e?)?)?\\b.*?")) return ARM_32;
-            // endregion common
-            // region uncommon
-            if (it.matches("(?s).*\\bi(a-?64-?(32|n)|tanium-?32)\\b.*?")) return ITANIUM_32;
-            if (it.matches("(?s).*\\bi(a-?64|tanium(64)?)\\b.*?")) return ITANIUM_64;
-            if (it.matches("(?s).*\\bm68(k|000)\\b.*?")) return M68K_32;
-            if (it.matches("(?s).*\\bmips-?(64-?(le|el)|(le|el)-?64)\\b.*?")) return MIPS_64_LE;
-            if (it.matches("(?s).*\\bmips(-?32)?-?(le|el)(32)?\\b.*?")) return MIPS_32_LE;
-            if (it.matches("(?s).*\\bmips-?64\\b.*?")) return MIPS_64;
-            if (it.matches("(?s).*\\bmips(32)?\\b.*?")) return MIPS_32;
-            if (it.matches("(?s).*\\bp(ower(-?(pc|rs))?|pc)-?(64-?(le|el)|(le|el)-?64)\\b.*?")) return PPC_64_LE;
-            if (it.matches("(?s).*\\bp(ower(-?(pc|rs))?|pc)(-?32)?-?(le|el)(32)?\\b.*?")) return PPC_32_LE;
-            if (it.matches("(?s).*\\bp(ower(-?(pc|rs))?|pc)-?64\\b.*?")) return PPC_64;
-            if (it.matches("(?s).*\\bp(ower(-?(pc|rs))?|pc)(32)?\\b.*?")) return PPC_32;
-            if (it.matches("(?s).*\\brisc-?v-?64\\b.*?")) return RISCV_64;
-            if (it.matches("(?s).*\\brisc-?v(32)?\\b.*?")) return RISCV_32;
-            if (it.matches("(?s).*\\b(s390(x(64)?|-?64)|ibm-?z-?64)\\b.*?")) return S390_64;
-            if (it.matches("(?s).*\\b(s390|ibm-?z)(32)?\\b.*?")) return S390_32;
-            if (it.matches("(?s).*\\b(sparc-?(64|v(9|[1-9]\\d+))|ultra-?sparc)\\b.*?")) return SPARC_64;
-            if (it.matches("(?s).*\\b(hyper|micro|super|turbo)?sparc(32)?\\b.*?")) return SPARC_32;
-            if (it.matches("(?s).*\\bs(uper)?h(-?32)?-?(be|eb)(32)?\\b.*?")) return SUPERH_32_BE;
-            if (it.matches("(?s).*\\b(superh(32)?|sh-?32)\\b.*?")) return SUPERH_32;
-            if (it.matches("(?s).*\\b(dec)?alpha(64)?\\b.*?")) return ALPHA_64;
-            // endregion uncommon
-            // region special
-            // These are not real arch identifiers but used by some vendors to
-            // indicate the OS and arch at once, this MUST come last because
-            // Windows has support for other archs, and we can only make this
-            // assumption if absolutely nothing else matched.
-            if (it.matches("(?s).*\\bw(in)?-?32\\b.*?")) return X86_32;
-            if (it.matches("(?s).*\\bw(in)?-?64\\b.*?")) return X86_64;
-            // endregion special
-        }
-        return null;
+        return Keywords.MATCHER.match(value);
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of chars.
+     *
+     * @param chars to get the arch for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(CharSequence, int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch fromString(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = fromStringOrNull(chars, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + chars.subSequence(from, to));
+        return arch;
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the arch for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(CharSequence, int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch fromStringOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        return Ids.TABLE.get(chars, from, to);
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of chars.
+     *
+     * @param chars to get the arch for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(char[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch fromString(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = fromStringOrNull(chars, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + new String(chars, from, to - from));
+        return arch;
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the arch for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(char[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch fromStringOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return Ids.TABLE.get(chars, from, to);
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of ASCII bytes.
+     *
+     * @param bytes to get the arch for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromStringOrNull(byte[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch fromString(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = fromStringOrNull(bytes, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return arch;
+    }
+
+    /**
+     * Gets the arch whose string matches the given range of ASCII bytes.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the arch for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromString(byte[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch fromStringOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        return Ids.TABLE.get(bytes, from, to);
+    }
+
+    /**
+     * Gets the arch whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * @param bytes to get the arch for, its position is not modified.
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromStringOrNull(ByteBuffer)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch fromString(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Arch arch = fromStringOrNull(bytes);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + Utils.toString(bytes));
+        return arch;
+    }
+
+    /**
+     * Gets the arch whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the arch for, its position is not modified.
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromString(ByteBuffer)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch fromStringOrNull(final @NotNull ByteBuffer bytes) {
+        return fromStringOrNull(bytes, bytes.position(), bytes.limit());
+    }
+
+    /** @see #fromStringOrNull(ByteBuffer) */
+    @Contract(pure = true)
+    static @Nullable Arch fromStringOrNull(final @NotNull ByteBuffer bytes, final int from, final int to) {
+        return Ids.TABLE.get(bytes, from, to);
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an arch.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no matching arch is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(CharSequence, int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch parse(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = parseOrNull(chars, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + chars.subSequence(from, to));
+        return arch;
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an arch.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(CharSequence, int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch parseOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an arch.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no matching arch is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(char[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch parse(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = parseOrNull(chars, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + new String(chars, from, to - from));
+        return arch;
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an arch.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(char[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch parseOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and tries to match it with an arch.
+     *
+     * @param bytes to parse and match.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no matching arch is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parseOrNull(byte[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch parse(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        final Arch arch = parseOrNull(bytes, from, to);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return arch;
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and tries to match it with an arch.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse and match.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parse(byte[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch parseOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(bytes, from, to));
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and tries to match it with an arch.
+     *
+     * @param bytes to parse and match, its position is not modified.
+     * @return the matching arch.
+     * @throws IllegalArgumentException if no matching arch is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parseOrNull(ByteBuffer)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Arch parse(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Arch arch = parseOrNull(bytes);
+        if (arch == null) throw new IllegalArgumentException("Unknown architecture: " + Utils.toString(bytes));
+        return arch;
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and tries to match it with an arch.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse and match, its position is not modified.
+     * @return the matching arch or {@code null} if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parse(ByteBuffer)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Arch parseOrNull(final @NotNull ByteBuffer bytes) {
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(bytes, bytes.position(), bytes.limit()));
     }
 
     /**
@@ -464,7 +806,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public int getBitness() {
-        return is32bit() ? 32 : 64;
+        return (attributes & BITS_64) == 0 ? 32 : 64;
     }
 
     /**
@@ -474,7 +816,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean is32bit() {
-        return name().contains("32");
+        return (attributes & BITS_64) == 0;
     }
 
     /**
@@ -484,7 +826,28 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean is64bit() {
-        return name().contains("64");
+        return (attributes & BITS_64) != 0;
+    }
+
+    /**
+     * Gets the byte order of this arch.
+     *
+     * @return {@link ByteOrder#BIG_ENDIAN} or {@link ByteOrder#LITTLE_ENDIAN}.
+     */
+    @Contract(pure = true)
+    public @NotNull ByteOrder getByteOrder() {
+        return (attributes & BIG_ENDIAN) == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * Gets the size of a native pointer of this arch.
+     *
+     * @return the size of a pointer in bytes, {@code 4} or {@code 8}.
+     * @see #getBitness()
+     */
+    @Contract(pure = true)
+    public int getPointerSize() {
+        return (attributes & BITS_64) == 0 ? 4 : 8;
     }
 
     /**
@@ -498,7 +861,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isArm() {
-        return isArmBe() || isArmLe();
+        return (attributes & ARM) != 0;
     }
 
     /**
@@ -510,7 +873,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isArmBe() {
-        return this == ARM_32_BE || this == ARM_64_BE;
+        return (attributes & (ARM | BIG_ENDIAN)) == (ARM | BIG_ENDIAN);
     }
 
     /**
@@ -522,7 +885,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isArmLe() {
-        return this == ARM_32 || this == ARM_64;
+        return (attributes & (ARM | BIG_ENDIAN)) == ARM;
     }
 
     /**
@@ -532,7 +895,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isItanium() {
-        return this == ITANIUM_32 || this == ITANIUM_64;
+        return (attributes & ITANIUM) != 0;
     }
 
     /**
@@ -546,7 +909,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isMips() {
-        return isMipsBe() || isMipsLe();
+        return (attributes & MIPS) != 0;
     }
 
     /**
@@ -558,7 +921,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isMipsBe() {
-        return this == MIPS_32 || this == MIPS_64;
+        return (attributes & (MIPS | BIG_ENDIAN)) == (MIPS | BIG_ENDIAN);
     }
 
     /**
@@ -570,7 +933,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isMipsLe() {
-        return this == MIPS_32_LE || this == MIPS_64_LE;
+        return (attributes & (MIPS | BIG_ENDIAN)) == MIPS;
     }
 
     /**
@@ -584,7 +947,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isPpc() {
-        return isPpcBe() || isPpcLe();
+        return (attributes & PPC) != 0;
     }
 
     /**
@@ -596,7 +959,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isPpcBe() {
-        return this == PPC_32 || this == PPC_64;
+        return (attributes & (PPC | BIG_ENDIAN)) == (PPC | BIG_ENDIAN);
     }
 
     /**
@@ -608,7 +971,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isPpcLe() {
-        return this == PPC_32_LE || this == PPC_64_LE;
+        return (attributes & (PPC | BIG_ENDIAN)) == PPC;
     }
 
     /**
@@ -618,7 +981,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isRiscv() {
-        return this == RISCV_32 || this == RISCV_64;
+        return (attributes & RISCV) != 0;
     }
 
     /**
@@ -628,7 +991,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isS390() {
-        return this == S390_32 || this == S390_64;
+        return (attributes & S390) != 0;
     }
 
     /**
@@ -638,7 +1001,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isSparc() {
-        return this == SPARC_32 || this == SPARC_64;
+        return (attributes & SPARC) != 0;
     }
 
     /**
@@ -648,7 +1011,7 @@ public enum Arch {
      */
     @Contract(pure = true)
     public boolean isX86() {
-        return this == X86_32 || this == X86_64;
+        return (attributes & X86) != 0;
     }
 
     /**
@@ -667,4 +1030,109 @@ public enum Arch {
     @Override public @NotNull String toString() {
         return id;
     }
+
+    /**
+     * Adds the keywords in order of priority that are used to find the arch in
+     * arbitrary input to the given builder.
+     *
+     * @param builder to add the keywords to.
+     * @return the given builder.
+     * @see #parseOrNull(CharSequence)
+     * @see Platform#parseOrNull(CharSequence)
+     */
+    @Contract("_ -> param1")
+    static <B extends KeywordMatcher.Builder<? super Arch>> @NotNull B keywords(final @NotNull B builder) {
+        builder
+            // region common
+            .add("((amd|x(86)?)-?64|em64t|i[89]86|ia32e)", X86_64)
+            .add("((ia|x)32|(i[1-7]|x)86|pentium)", X86_32)
+            .add("(aarch(-?64)?-?(be|eb)(-?64)?|arm-?(64-?(eb|be)|(eb|be)-?64))", ARM_64_BE)
+            .add("arm(-?32)?-?(be|eb)(32)?", ARM_32_BE)
+            .add("a(arch|rm)-?(64|v([8-9]|[1-9]\\d+))", ARM_64)
+            .add("arm(-?32|-?v([1-36]|4t?|5(te)?|7e?)?)?", ARM_32)
+            // endregion common
+            // region uncommon
+            .add("i(a-?64-?(32|n)|tanium-?32)", ITANIUM_32)
+            .add("i(a-?64|tanium(64)?)", ITANIUM_64)
+            .add("m68(k|000)", M68K_32)
+            .add("mips-?(64-?(le|el)|(le|el)-?64)", MIPS_64_LE)
+            .add("mips(-?32)?-?(le|el)(32)?", MIPS_32_LE)
+            .add("mips-?64", MIPS_64)
+            .add("mips(32)?", MIPS_32)
+            .add("p(ower(-?(pc|rs))?|pc)-?(64-?(le|el)|(le|el)-?64)", PPC_64_LE)
+            .add("p(ower(-?(pc|rs))?|pc)(-?32)?-?(le|el)(32)?", PPC_32_LE)
+            .add("p(ower(-?(pc|rs))?|pc)-?64", PPC_64)
+            .add("p(ower(-?(pc|rs))?|pc)(32)?", PPC_32)
+            .add("risc-?v-?64", RISCV_64)
+            .add("risc-?v(32)?", RISCV_32)
+            .add("(s390(x(64)?|-?64)|ibm-?z-?64)", S390_64)
+            .add("(s390|ibm-?z)(32)?", S390_32)
+            .add("(sparc-?(64|v(9|[1-9]\\d+))|ultra-?sparc)", SPARC_64)
+            .add("(hyper|micro|super|turbo)?sparc(32)?", SPARC_32)
+            .add("s(uper)?h(-?32)?-?(be|eb)(32)?", SUPERH_32_BE)
+            .add("(superh(32)?|sh-?32)", SUPERH_32)
+            .add("(dec)?alpha(64)?", ALPHA_64)
+            // endregion uncommon
+            // region special
+            // These are not real arch identifiers but used by some vendors to
+            // indicate the OS and arch at once, this MUST come last because
+            // Windows has support for other archs, and we can only make this
+            // assumption if absolutely nothing else matched.
+            .add("w(in)?-?32", X86_32)
+            .add("w(in)?-?64", X86_64);
+            // endregion special
+        return builder;
+    }
+
+    /**
+     * Current arch together with the system property value it was derived
+     * from.
+     *
+     * <p>The value is compared by identity, which is enough to detect any
+     * change since strings are immutable, and setting the property to an equal
+     * but different string only costs a recomputation.
+     */
+    private static final class Current {
+        final @Nullable String name;
+        final @Nullable Arch arch;
+
+        Current(final @Nullable String name, final @Nullable Arch arch) {
+            this.name = name;
+            this.arch = arch;
+        }
+    }
+
+    /**
+     * Bits of the packed attributes of an arch: one bit per family, and one
+     * bit each for 64-bit and big endian archs. A check of any combination
+     * of them is a single mask and comparison.
+     */
+    static final class Attributes {
+        private Attributes() {}
+
+        static final int ALPHA = 1;
+        static final int ARM = 1 << 1;
+        static final int ITANIUM = 1 << 2;
+        static final int M68K = 1 << 3;
+        static final int MIPS = 1 << 4;
+        static final int PPC = 1 << 5;
+        static final int RISCV = 1 << 6;
+        static final int S390 = 1 << 7;
+        static final int SPARC = 1 << 8;
+        static final int SUPERH = 1 << 9;
+        static final int X86 = 1 << 10;
+
+        static final int BITS_64 = 1 << 16;
+        static final int BIG_ENDIAN = 1 << 17;
+    }
+
+    /** Lazy holder of the id table that is built upon first use. */
+    private static final class Ids {
+        static final @NotNull IdTable<Arch> TABLE = new IdTable<>(values());
+    }
+
+    /** Lazy holder of the matcher that is compiled upon first use. */
+    private static final class Keywords {
+        static final @NotNull KeywordMatcher<Arch> MATCHER = keywords(new KeywordMatcher.Builder<Arch>()).build();
+    }
 }
@@ -0,0 +1,53 @@
+package com.fleshgrinder.platform;
+
+import java.util.Map;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Map with {@link Arch} keys whose values are stored in a flat array indexed
+ * by the ordinal of their key, see {@link PlatformMap} for details.
+ *
+ * @param <V> type of the values.
+ * @see PlatformMap
+ * @see OsMap
+ */
+public final class ArchMap<V> extends OrdinalMap<Arch, V> {
+    private static final long serialVersionUID = 1;
+
+    /** Constructs a new empty map. */
+    public ArchMap() {
+        super(Arch.COUNT);
+    }
+
+    /**
+     * Constructs a new map with the entries of the given map.
+     *
+     * @param entries to put into the new map.
+     * @throws NullPointerException if any key or value is {@code null}.
+     */
+    public ArchMap(final @NotNull Map<Arch, ? extends V> entries) {
+        this();
+        putAll(entries);
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Class<Arch> keyType() {
+        return Arch.class;
+    }
+
+    @Contract(pure = true)
+    @Override int index(final @NotNull Arch key) {
+        return key.ordinal();
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Arch key(final int index) {
+        return Arch.of(index);
+    }
+
+    @Contract(pure = true)
+    @Override int capacity() {
+        return Arch.COUNT;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Detection of the platform that a binary was built for from its headers,
+ * regardless of its name.
+ *
+ * @see Elf
+ * @see MachO
+ * @see Pe
+ */
+final class Binaries {
+    private Binaries() {}
+
+    /**
+     * Number of bytes that are read from the start of a file, enough for the
+     * ELF and Mach-O headers, the {@code fat_arch} entries of the first
+     * slices, and the PE header of most files.
+     */
+    static final int HEAD = 512;
+
+    /**
+     * Gets the platform that the given image was built for.
+     *
+     * @param image of the binary.
+     * @return the platform or {@code null} if the format or platform is
+     *     unknown, or if a required header is not within the image.
+     */
+    @Contract(pure = true)
+    static @Nullable Platform platformOrNull(final @NotNull ByteBuffer image) {
+        Platform platform = Elf.platformOrNull(image);
+        if (platform == null) platform = MachO.platformOrNull(image);
+        if (platform == null) platform = Pe.platformOrNull(image);
+        return platform;
+    }
+
+    /**
+     * Gets the platform that the given file was built for, with at most two
+     * positional reads: the first {@link #HEAD} bytes, and the PE header if
+     * it is not within them.
+     *
+     * @param ch to read from, its position is not changed.
+     * @return the platform or {@code null} if the format or platform is
+     *     unknown.
+     * @throws IOException if reading fails.
+     */
+    static @Nullable Platform platformOrNull(final @NotNull FileChannel ch) throws IOException {
+        final ByteBuffer head = read(ch, 0, HEAD);
+        final Platform platform = platformOrNull(head);
+        if (platform != null) return platform;
+        final int pe = Pe.headerOffset(head);
+        if (pe < 0 || pe <= head.limit() - Pe.HEADER_SIZE) return null;
+        return Pe.platformOrNull(read(ch, pe, Pe.HEADER_SIZE), 0);
+    }
+
+    /**
+     * Reads up to the given number of bytes at the given position.
+     *
+     * @param ch to read from, its position is not changed.
+     * @param position to start reading at.
+     * @param length maximum number of bytes to read.
+     * @return buffer with the bytes that were read from index zero to its
+     *     limit, fewer than requested if the end of the file was reached.
+     * @throws IOException if reading fails.
+     */
+    static @NotNull ByteBuffer read(final @NotNull FileChannel ch, final long position, final int length) throws IOException {
+        final ByteBuffer b = ByteBuffer.allocate(length);
+        while (b.hasRemaining() && ch.read(b, position + b.position()) >= 0) {
+            // read until full or EOF
+        }
+        b.flip();
+        return b;
+    }
+}
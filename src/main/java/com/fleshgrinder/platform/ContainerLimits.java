@@ -0,0 +1,458 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * CPU and memory limits that cgroups impose on the current process, e.g., the
+ * 1.5 CPUs and 2 GiB of a container in a Kubernetes pod.
+ *
+ * <p>{@link Runtime#availableProcessors()} only considers the limits in JDK
+ * builds with container support, and only in some of their versions, hence,
+ * the limits are probed from the filesystem instead: the cgroups of the
+ * process are read from {@code /proc/self/cgroup}, their mount points from
+ * {@code /proc/self/mountinfo}, and the limits from the controller files of
+ * cgroup v2 ({@code cpu.max}, {@code cpuset.cpus.effective},
+ * {@code memory.max}), or of cgroup v1 ({@code cpu.cfs_quota_us},
+ * {@code cpu.cfs_period_us}, {@code cpuset.effective_cpus},
+ * {@code memory.limit_in_bytes}). Every file is read once into a small buffer
+ * that is reused for all of them.
+ *
+ * <p>Only the cgroup of the process itself is considered, not its ancestors,
+ * container runtimes put the limits on the cgroup of the container. Limits
+ * are unknown on operating systems other than Linux, which is the same as
+ * unlimited.
+ *
+ * <pre>{@code
+ * final ContainerLimits limits = ContainerLimits.current();
+ * final int threads = limits.getAvailableCpus();
+ * }</pre>
+ */
+public final class ContainerLimits {
+    /**
+     * Limits of cgroup v1 at or above this value are unlimited. The kernel
+     * reports {@code LONG_MAX} rounded down to its page size, which is up to
+     * 64 KiB on aarch64 and ppc64 and 256 KiB on some other archs, hence,
+     * this is {@code LONG_MAX} rounded down to the largest page size.
+     */
+    private static final long V1_UNLIMITED = 0x7FFF_FFFF_FFFC_0000L;
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private final double cpuLimit;
+    private final @Nullable BitSet cpuset;
+    private final long memoryLimit;
+    private final int availableCpus;
+
+    private ContainerLimits(final double cpuLimit, final @Nullable BitSet cpuset, final long memoryLimit, final int cpus) {
+        this.cpuLimit = cpuLimit;
+        this.cpuset = cpuset;
+        this.memoryLimit = memoryLimit;
+        int available = cpus;
+        if (cpuset != null && !cpuset.isEmpty()) available = Math.min(available, cpuset.cardinality());
+        if (cpuLimit > 0) available = Math.min(available, (int) Math.ceil(cpuLimit));
+        this.availableCpus = Math.max(1, available);
+    }
+
+    /**
+     * Gets the limits of the current process, which are probed once.
+     *
+     * @return the limits of the current process.
+     */
+    @Contract(pure = true)
+    public static @NotNull ContainerLimits current() {
+        return Current.LIMITS;
+    }
+
+    /**
+     * Reads the limits of a process from the given filesystem.
+     *
+     * @param proc path of the {@code /proc} filesystem.
+     * @param root path of the root directory that the mount points in
+     *     {@code /proc/self/mountinfo} are relative to.
+     * @param cpus number of logical CPUs of the host.
+     * @return the limits, unlimited if they cannot be determined.
+     */
+    @Contract(value = "_, _, _ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull ContainerLimits read(final @NotNull Path proc, final @NotNull Path root, final int cpus) {
+        final Reader reader = new Reader();
+        final Cgroup cgroup = cgroup(reader, proc, root);
+        return cgroup == null ? unlimited(cpus) : cgroup.read(reader, cpus);
+    }
+
+    /**
+     * Gets the limits of a process without any limits.
+     *
+     * @param cpus number of logical CPUs of the host.
+     * @return the limits.
+     */
+    @Contract(value = "_ -> new", pure = true)
+    static @NotNull ContainerLimits unlimited(final int cpus) {
+        return new ContainerLimits(-1, null, -1, cpus);
+    }
+
+    /**
+     * Finds the cgroup of a process in the given filesystem.
+     *
+     * @param reader to read the files with.
+     * @param proc path of the {@code /proc} filesystem.
+     * @param root path of the root directory that the mount points in
+     *     {@code /proc/self/mountinfo} are relative to.
+     * @return the cgroup, or {@code null} if the process has none.
+     */
+    @Contract(pure = true)
+    static @Nullable Cgroup cgroup(final @NotNull Reader reader, final @NotNull Path proc, final @NotNull Path root) {
+        final String cgroup = reader.read(proc.resolve("self/cgroup"));
+        final String mountinfo = cgroup == null ? null : reader.read(proc.resolve("self/mountinfo"));
+        if (mountinfo == null) return null;
+
+        // Hybrid hosts mount cgroup v2 next to v1, but the controllers are in v1.
+        final Path cpu = controller(cgroup, mountinfo, root, "cpu");
+        final Path cpuset = controller(cgroup, mountinfo, root, "cpuset");
+        final Path memory = controller(cgroup, mountinfo, root, "memory");
+        if (cpu != null || cpuset != null || memory != null) return new Cgroup(false, cpu, cpuset, memory);
+        final Path v2 = controller(cgroup, mountinfo, root, null);
+        return v2 == null ? null : new Cgroup(true, v2, v2, v2);
+    }
+
+    /**
+     * Finds the directory of the cgroup of the process for the given
+     * controller.
+     *
+     * @param cgroup content of {@code /proc/self/cgroup}.
+     * @param mountinfo content of {@code /proc/self/mountinfo}.
+     * @param root that the mount points are relative to.
+     * @param controller name of the cgroup v1 controller, or {@code null} for
+     *     the unified cgroup v2 hierarchy.
+     * @return the directory, or {@code null} if the process has no such
+     *     cgroup or it is not mounted.
+     */
+    @Contract(pure = true)
+    private static @Nullable Path controller(final @NotNull String cgroup, final @NotNull String mountinfo, final @NotNull Path root, final @Nullable String controller) {
+        // hierarchy-ID:controller-list:cgroup-path
+        String path = null;
+        for (final String line : cgroup.split("\n")) {
+            final int first = line.indexOf(':');
+            final int second = first < 0 ? -1 : line.indexOf(':', first + 1);
+            if (second < 0) continue;
+            final String controllers = line.substring(first + 1, second);
+            if (controller == null ? line.startsWith("0::") : contains(controllers, controller)) {
+                path = line.substring(second + 1);
+                break;
+            }
+        }
+        if (path == null) return null;
+
+        // id parent major:minor root mount-point options [optional...] - type source super-options
+        for (final String line : mountinfo.split("\n")) {
+            final int dash = line.indexOf(" - ");
+            if (dash < 0) continue;
+            final String[] fields = split(line.substring(0, dash), ' ');
+            final String[] fs = split(line.substring(dash + 3), ' ');
+            if (fields.length < 5 || fs.length < 3) continue;
+            if (controller == null ? !fs[0].equals("cgroup2") : !(fs[0].equals("cgroup") && contains(fs[2], controller))) continue;
+
+            final String mountRoot = unescape(fields[3]);
+            final String relative;
+            if (mountRoot.equals("/")) relative = path;
+            else if (path.equals(mountRoot)) relative = "";
+            else if (path.startsWith(mountRoot + '/')) relative = path.substring(mountRoot.length());
+            else relative = ""; // cgroup namespace, the mount root is the cgroup of the process
+            final String dir = unescape(fields[4]) + relative;
+            int i = 0;
+            while (i < dir.length() && dir.charAt(i) == '/') i++;
+            return root.resolve(dir.substring(i));
+        }
+        return null;
+    }
+
+    /**
+     * Checks if the given comma separated list contains the given value.
+     *
+     * @param list to search.
+     * @param value to find.
+     * @return {@code true} if the value is an element of the list.
+     */
+    @Contract(pure = true)
+    private static boolean contains(final @NotNull String list, final @NotNull String value) {
+        for (final String element : list.split(",")) {
+            if (element.equals(value)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unescapes the octal escapes of space, tab, newline, and backslash of
+     * paths in {@code /proc/self/mountinfo}.
+     *
+     * @param value to unescape.
+     * @return the unescaped value.
+     */
+    @Contract(pure = true)
+    private static @NotNull String unescape(final @NotNull String value) {
+        if (value.indexOf('\\') < 0) return value;
+        return value.replace("\\040", " ").replace("\\011", "\t").replace("\\012", "\n").replace("\\134", "\\");
+    }
+
+    /**
+     * Splits the given value at the given char, ignoring empty parts.
+     *
+     * @param value to split, or {@code null}.
+     * @param c to split at.
+     * @return the parts, empty if the value is {@code null}.
+     */
+    @Contract(pure = true)
+    private static @NotNull String @NotNull [] split(final @Nullable String value, final char c) {
+        if (value == null) return new String[0];
+        final String[] parts = value.split(String.valueOf(c));
+        int n = 0;
+        for (final String part : parts) if (!part.isEmpty()) parts[n++] = part;
+        return n == parts.length ? parts : Arrays.copyOf(parts, n);
+    }
+
+    /**
+     * Parses a CPU quota and period in microseconds.
+     *
+     * @param quota to parse, {@code max} or negative if unlimited.
+     * @param period to parse.
+     * @return the number of CPUs, or {@code -1} if unlimited or unknown.
+     */
+    @Contract(pure = true)
+    private static double quota(final @Nullable String quota, final @Nullable String period) {
+        if (quota == null || period == null || quota.equals("max")) return -1;
+        try {
+            final long q = Long.parseLong(quota), p = Long.parseLong(period);
+            return q > 0 && p > 0 ? (double) q / p : -1;
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a memory limit.
+     *
+     * @param limit to parse, {@code max} if unlimited.
+     * @return the limit in bytes, or {@code -1} if unlimited or unknown.
+     */
+    @Contract(pure = true)
+    private static long limit(final @Nullable String limit) {
+        if (limit == null || limit.equals("max")) return -1;
+        try {
+            final long l = Long.parseLong(limit);
+            return l > 0 ? l : -1;
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a cpuset.
+     *
+     * @param list to parse.
+     * @return the CPUs, or {@code null} if the list is empty or invalid.
+     */
+    @Contract(pure = true)
+    private static @Nullable BitSet cpuset(final @Nullable String list) {
+        if (list == null || list.isEmpty()) return null;
+        try {
+            return CpuTopology.list(list);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of CPUs that the process may use per scheduling period.
+     *
+     * @return the CPU quota divided by its period, e.g., {@code 1.5}, or
+     *     {@code -1} if unlimited or unknown.
+     */
+    @Contract(pure = true)
+    public double getCpuLimit() {
+        return cpuLimit;
+    }
+
+    /**
+     * Gets the logical CPUs that the process may run on.
+     *
+     * @return new set with the indices of the CPUs, or {@code null} if
+     *     unknown.
+     */
+    @Contract(value = "-> new", pure = true)
+    public @Nullable BitSet getCpuset() {
+        return cpuset == null ? null : (BitSet) cpuset.clone();
+    }
+
+    /**
+     * Gets the maximum memory that the process may use.
+     *
+     * @return the limit in bytes, or {@code -1} if unlimited or unknown.
+     */
+    @Contract(pure = true)
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    /**
+     * Gets the number of CPUs that the process can keep busy, which is the
+     * number of logical CPUs of the host, capped by the cpuset and by the CPU
+     * limit rounded up.
+     *
+     * @return the number of available CPUs, at least {@code 1}.
+     */
+    @Contract(pure = true)
+    public int getAvailableCpus() {
+        return availableCpus;
+    }
+
+    @Contract(pure = true)
+    @Override public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (!(other instanceof ContainerLimits)) return false;
+        final ContainerLimits that = (ContainerLimits) other;
+        return Double.compare(cpuLimit, that.cpuLimit) == 0
+            && memoryLimit == that.memoryLimit
+            && availableCpus == that.availableCpus
+            && Objects.equals(cpuset, that.cpuset);
+    }
+
+    @Contract(pure = true)
+    @Override public int hashCode() {
+        int result = Double.hashCode(cpuLimit);
+        result = 31 * result + Objects.hashCode(cpuset);
+        result = 31 * result + Long.hashCode(memoryLimit);
+        return 31 * result + availableCpus;
+    }
+
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        return "ContainerLimits{cpuLimit=" + cpuLimit + ", cpuset=" + cpuset + ", memoryLimit=" + memoryLimit + ", availableCpus=" + availableCpus + '}';
+    }
+
+    /**
+     * Directories of the controllers of the cgroup of a process, which are
+     * all the same directory in cgroup v2.
+     */
+    static final class Cgroup {
+        private final boolean v2;
+        private final @Nullable Path cpu;
+        private final @Nullable Path cpuset;
+        private final @Nullable Path memory;
+
+        private Cgroup(final boolean v2, final @Nullable Path cpu, final @Nullable Path cpuset, final @Nullable Path memory) {
+            this.v2 = v2;
+            this.cpu = cpu;
+            this.cpuset = cpuset;
+            this.memory = memory;
+        }
+
+        /**
+         * Gets the controller files that the limits are read from.
+         *
+         * @return new list with the files, which might not exist.
+         */
+        @Contract(value = "-> new", pure = true)
+        @NotNull List<Path> files() {
+            final List<Path> files = new ArrayList<>(5);
+            if (cpu != null) {
+                if (v2) {
+                    files.add(cpu.resolve("cpu.max"));
+                } else {
+                    files.add(cpu.resolve("cpu.cfs_quota_us"));
+                    files.add(cpu.resolve("cpu.cfs_period_us"));
+                }
+            }
+            if (cpuset != null) {
+                if (v2) {
+                    files.add(cpuset.resolve("cpuset.cpus.effective"));
+                } else {
+                    files.add(cpuset.resolve("cpuset.effective_cpus"));
+                    files.add(cpuset.resolve("cpuset.cpus"));
+                }
+            }
+            if (memory != null) files.add(memory.resolve(v2 ? "memory.max" : "memory.limit_in_bytes"));
+            return files;
+        }
+
+        /**
+         * Reads the limits of this cgroup.
+         *
+         * @param reader to read the files with.
+         * @param cpus number of logical CPUs of the host.
+         * @return the limits, unlimited where they cannot be determined.
+         */
+        @Contract(value = "_, _ -> new", pure = true)
+        @NotNull ContainerLimits read(final @NotNull Reader reader, final int cpus) {
+            if (v2) {
+                final String[] max = cpu == null ? new String[0] : split(reader.read(cpu.resolve("cpu.max")), ' ');
+                return new ContainerLimits(
+                    max.length == 2 ? quota(max[0], max[1]) : -1,
+                    cpuset == null ? null : cpuset(reader.read(cpuset.resolve("cpuset.cpus.effective"))),
+                    memory == null ? -1 : limit(reader.read(memory.resolve("memory.max"))),
+                    cpus
+                );
+            }
+
+            String list = null;
+            if (cpuset != null) {
+                list = reader.read(cpuset.resolve("cpuset.effective_cpus"));
+                if (list == null) list = reader.read(cpuset.resolve("cpuset.cpus"));
+            }
+            final long limit = memory == null ? -1 : limit(reader.read(memory.resolve("memory.limit_in_bytes")));
+            return new ContainerLimits(
+                cpu == null ? -1 : quota(reader.read(cpu.resolve("cpu.cfs_quota_us")), reader.read(cpu.resolve("cpu.cfs_period_us"))),
+                cpuset(list),
+                limit >= V1_UNLIMITED ? -1 : limit,
+                cpus
+            );
+        }
+    }
+
+    /** Reader of small files that reuses its buffer for all of them. */
+    static final class Reader {
+        private byte @NotNull [] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        /**
+         * Reads the given file, files in {@code /proc} and {@code /sys} have
+         * no size, hence, they are read until the end.
+         *
+         * @param path of the file.
+         * @return the trimmed content, or {@code null} if it cannot be read.
+         */
+        @Nullable String read(final @NotNull Path path) {
+            try (final InputStream in = Files.newInputStream(path)) {
+                int length = 0;
+                for (int n; (n = in.read(buffer, length, buffer.length - length)) >= 0; ) {
+                    length += n;
+                    if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                return new String(buffer, 0, length, StandardCharsets.UTF_8).trim();
+            } catch (final IOException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    /** Lazy holder of the limits of the current process. */
+    private static final class Current {
+        static final @NotNull ContainerLimits LIMITS = create();
+
+        private static @NotNull ContainerLimits create() {
+            final int cpus = CpuTopology.current().getLogicalCpus();
+            return Os.currentOrNull() == Os.LINUX ? read(Paths.get("/proc"), Paths.get("/"), cpus) : unlimited(cpus);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.fleshgrinder.platform;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.fleshgrinder.platform.Utils.id;
+
+/**
+ * CPU feature that native code might require beyond the baseline of its
+ * {@link Arch}, e.g., a build with {@code -mavx2} crashes with an illegal
+ * instruction on an {@link Arch#X86_64} CPU without {@link #AVX2}.
+ *
+ * <p>Features are named after the flags that Linux reports for them in
+ * {@code /proc/cpuinfo}, where those are not too cryptic.
+ *
+ * @see CpuFeatures
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public enum CpuFeature {
+    // x86
+
+    /** Streaming SIMD Extensions */
+    SSE("sse", null, -1),
+
+    /** Streaming SIMD Extensions 2 */
+    SSE2("sse2", null, -1),
+
+    /** Streaming SIMD Extensions 3 (Prescott New Instructions) */
+    SSE3("pni", null, -1),
+
+    /** Supplemental Streaming SIMD Extensions 3 */
+    SSSE3("ssse3", null, -1),
+
+    /** Streaming SIMD Extensions 4.1 */
+    SSE4_1("sse4_1", null, -1),
+
+    /** Streaming SIMD Extensions 4.2 */
+    SSE4_2("sse4_2", null, -1),
+
+    /** Population count instruction */
+    POPCNT("popcnt", null, -1),
+
+    /** {@code CMPXCHG16B} instruction */
+    CX16("cx16", null, -1),
+
+    /** {@code LAHF} and {@code SAHF} instructions in 64-bit mode */
+    LAHF("lahf_lm", null, -1),
+
+    /** {@code XSAVE} and {@code XRSTOR} instructions */
+    XSAVE("xsave", null, -1),
+
+    /** Advanced Vector Extensions */
+    AVX("avx", null, -1),
+
+    /** Advanced Vector Extensions 2 */
+    AVX2("avx2", null, -1),
+
+    /** Fused multiply-add with three operands (FMA3) */
+    FMA("fma", null, -1),
+
+    /** Half-precision float conversion */
+    F16C("f16c", null, -1),
+
+    /** Bit Manipulation Instruction Set 1 */
+    BMI1("bmi1", null, -1),
+
+    /** Bit Manipulation Instruction Set 2 */
+    BMI2("bmi2", null, -1),
+
+    /** Leading zero count instruction, reported as advanced bit manipulation ({@code abm}) */
+    LZCNT("abm", null, -1),
+
+    /** {@code MOVBE} instruction */
+    MOVBE("movbe", null, -1),
+
+    /** Carry-less multiplication */
+    PCLMULQDQ("pclmulqdq", null, -1),
+
+    /** SHA-1 and SHA-256 extensions */
+    SHA("sha_ni", null, -1),
+
+    /** AVX-512 Foundation */
+    AVX512F("avx512f", null, -1),
+
+    /** AVX-512 Byte and Word Instructions */
+    AVX512BW("avx512bw", null, -1),
+
+    /** AVX-512 Conflict Detection Instructions */
+    AVX512CD("avx512cd", null, -1),
+
+    /** AVX-512 Doubleword and Quadword Instructions */
+    AVX512DQ("avx512dq", null, -1),
+
+    /** AVX-512 Vector Length Extensions */
+    AVX512VL("avx512vl", null, -1),
+
+    /** AVX-512 Vector Neural Network Instructions */
+    AVX512_VNNI("avx512_vnni", null, -1),
+
+    // x86 and ARM
+
+    /** AES instructions */
+    AES("aes", "aes", 3),
+
+    // ARM
+
+    /** Floating point (aarch64) */
+    FP(null, "fp", 0),
+
+    /** Advanced SIMD, called {@code asimd} on aarch64 and {@code neon} on 32-bit ARM */
+    NEON(null, "asimd neon", 1),
+
+    /** Polynomial multiply long */
+    PMULL(null, "pmull", 4),
+
+    /** SHA-1 instructions */
+    SHA1(null, "sha1", 5),
+
+    /** SHA-256 instructions */
+    SHA2(null, "sha2", 6),
+
+    /** CRC32 instructions */
+    CRC32(null, "crc32", 7),
+
+    /** Large System Extensions (LSE) atomic instructions */
+    ATOMICS(null, "atomics", 8),
+
+    /** Half-precision floating point */
+    FPHP(null, "fphp", 9),
+
+    /** Half-precision Advanced SIMD */
+    ASIMDHP(null, "asimdhp", 10),
+
+    /** Rounding double multiply accumulate */
+    ASIMDRDM(null, "asimdrdm", 12),
+
+    /** JavaScript conversion instruction */
+    JSCVT(null, "jscvt", 13),
+
+    /** Floating point complex number instructions */
+    FCMA(null, "fcma", 14),
+
+    /** Load-acquire RCpc instructions */
+    LRCPC(null, "lrcpc", 15),
+
+    /** Data cache clean to point of persistence */
+    DCPOP(null, "dcpop", 16),
+
+    /** SHA-3 instructions */
+    SHA3(null, "sha3", 17),
+
+    /** Advanced SIMD dot product instructions */
+    ASIMDDP(null, "asimddp", 20),
+
+    /** SHA-512 instructions */
+    SHA512(null, "sha512", 21),
+
+    /** Scalable Vector Extension */
+    SVE(null, "sve", 22),
+
+    /** Data independent timing */
+    DIT(null, "dit", 24),
+
+    /** Unaligned single-copy atomicity */
+    USCAT(null, "uscat", 25),
+
+    /** Load-acquire RCpc instructions with immediate offsets */
+    ILRCPC(null, "ilrcpc", 26),
+
+    /** Flag manipulation instructions */
+    FLAGM(null, "flagm", 27),
+
+    /** Scalable Vector Extension 2 */
+    SVE2(null, "sve2", 64 + 1),
+
+    /** Int8 matrix multiplication */
+    I8MM(null, "i8mm", 64 + 13),
+
+    /** BFloat16 instructions */
+    BF16(null, "bf16", 64 + 14);
+
+    /** Index of the bit in {@code AT_HWCAP2} plus this, if the feature is in {@code AT_HWCAP2}. */
+    static final int HWCAP2 = 64;
+
+    /** @see #toString() */
+    private final @NotNull String id = id(name());
+    private final @Nullable String x86;
+    private final @Nullable String arm;
+    private final int hwcap;
+
+    CpuFeature(final @Nullable String x86, final @Nullable String arm, final int hwcap) {
+        this.x86 = x86;
+        this.arm = arm;
+        this.hwcap = hwcap;
+    }
+
+    /**
+     * Gets the names of this feature in the {@code flags} (x86) or
+     * {@code Features} (ARM) line of {@code /proc/cpuinfo}.
+     *
+     * @param isX86 whether to get the x86 or ARM names.
+     * @return space separated names or {@code null} if the feature does not
+     *     exist on the given arch family.
+     */
+    @Contract(pure = true)
+    @Nullable String cpuinfo(final boolean isX86) {
+        return isX86 ? x86 : arm;
+    }
+
+    /**
+     * Gets the bit of this feature in the aarch64 {@code AT_HWCAP} auxiliary
+     * vector entry, or in {@code AT_HWCAP2} offset by {@link #HWCAP2}.
+     *
+     * @return the bit or {@code -1} if the feature is not reported there.
+     */
+    @Contract(pure = true)
+    int hwcap() {
+        return hwcap;
+    }
+
+    /**
+     * Checks if the CPU of the current process has this feature.
+     *
+     * @return {@code true} if the feature is present, {@code false} if it is
+     *     not or the features cannot be determined.
+     * @see CpuFeatures#current()
+     */
+    @Contract(pure = true)
+    public boolean isPresent() {
+        return CpuFeatures.has(this);
+    }
+
+    /** @return the name of the feature in {@code lower-dash-case}. */
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        return id;
+    }
+}
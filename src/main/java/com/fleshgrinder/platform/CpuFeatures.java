@@ -0,0 +1,180 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Detection of the {@link CpuFeature}s of the CPU of the current process.
+ *
+ * <p>The features are read once from the {@code /proc} filesystem of Linux
+ * and Android, with a single read of one file:
+ *
+ * <ul>
+ *   <li>{@code /proc/self/auxv} on 64-bit ARM, whose {@code AT_HWCAP} and
+ *     {@code AT_HWCAP2} entries are what the kernel reports to userspace
+ *     code that checks for features itself;
+ *   <li>the {@code flags} (x86) or {@code Features} (ARM) line of the first
+ *     processor in {@code /proc/cpuinfo} everywhere else, and as a fallback.
+ * </ul>
+ *
+ * <p>Linux only reports features that the kernel supports, e.g., no
+ * {@link CpuFeature#AVX} if it does not save the AVX registers. The features
+ * are unknown on other operating systems and other archs, the set is empty
+ * there.
+ *
+ * <pre>{@code
+ * final String variant = CpuFeature.AVX2.isPresent() ? "-avx2" : "";
+ * loader.load(os.withSharedLibraryExtension("libfoo" + variant));
+ * }</pre>
+ */
+public final class CpuFeatures {
+    private CpuFeatures() {}
+
+    /** {@code a_type} of the auxiliary vector entry with the hardware capabilities. */
+    private static final long AT_HWCAP = 16;
+    /** {@code a_type} of the auxiliary vector entry with more hardware capabilities. */
+    private static final long AT_HWCAP2 = 26;
+    private static final CpuFeature[] VALUES = CpuFeature.values();
+
+    /**
+     * Gets the features of the CPU of the current process.
+     *
+     * @return new set with the features, empty if they cannot be determined.
+     */
+    @Contract(value = "-> new", pure = true)
+    public static @NotNull EnumSet<CpuFeature> current() {
+        return Current.FEATURES.clone();
+    }
+
+    /**
+     * Checks if the CPU of the current process has the given feature without
+     * allocating anything.
+     *
+     * @param feature to check.
+     * @return {@code true} if the feature is present.
+     * @see CpuFeature#isPresent()
+     */
+    @Contract(pure = true)
+    static boolean has(final @NotNull CpuFeature feature) {
+        return Current.FEATURES.contains(feature);
+    }
+
+    /**
+     * Reads the features from the given {@code /proc} filesystem.
+     *
+     * @param proc path of the {@code /proc} filesystem.
+     * @param arch of the process.
+     * @return new set with the features, empty if they cannot be determined.
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull EnumSet<CpuFeature> read(final @NotNull Path proc, final @Nullable Arch arch) {
+        if (arch == null || !(arch.isX86() || arch.isArm())) return EnumSet.noneOf(CpuFeature.class);
+        if (arch.isArm() && arch.is64bit()) {
+            try {
+                final ByteBuffer auxv = ByteBuffer.wrap(Files.readAllBytes(proc.resolve("self/auxv"))).order(ByteOrder.nativeOrder());
+                final EnumSet<CpuFeature> features = parseAuxv(auxv);
+                if (features != null) return features;
+            } catch (final IOException | RuntimeException ignored) {
+                // fall back to /proc/cpuinfo
+            }
+        }
+        try {
+            return parseCpuinfo(Files.readAllBytes(proc.resolve("cpuinfo")), arch.isX86());
+        } catch (final IOException | RuntimeException e) {
+            return EnumSet.noneOf(CpuFeature.class);
+        }
+    }
+
+    /**
+     * Parses the features from the first {@code flags} (x86) or
+     * {@code Features} (ARM) line of {@code /proc/cpuinfo}.
+     *
+     * @param cpuinfo content of {@code /proc/cpuinfo}.
+     * @param isX86 whether the content is from an x86 or ARM CPU.
+     * @return new set with the features.
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull EnumSet<CpuFeature> parseCpuinfo(final byte @NotNull [] cpuinfo, final boolean isX86) {
+        final EnumSet<CpuFeature> features = EnumSet.noneOf(CpuFeature.class);
+        final String label = isX86 ? "flags" : "Features";
+        final String content = new String(cpuinfo, StandardCharsets.ISO_8859_1);
+        for (int i = 0; i < content.length(); ) {
+            int end = content.indexOf('\n', i);
+            if (end < 0) end = content.length();
+            if (content.startsWith(label, i)) {
+                final int colon = content.indexOf(':', i);
+                if (colon > 0 && colon < end && content.substring(i + label.length(), colon).trim().isEmpty()) {
+                    final String flags = ' ' + content.substring(colon + 1, end).replace('\t', ' ') + ' ';
+                    for (final CpuFeature feature : VALUES) {
+                        final String names = feature.cpuinfo(isX86);
+                        if (names == null) continue;
+                        for (final String name : names.split(" ")) {
+                            if (flags.contains(' ' + name + ' ')) features.add(feature);
+                        }
+                    }
+                    return features;
+                }
+            }
+            i = end + 1;
+        }
+        return features;
+    }
+
+    /**
+     * Parses the features from the {@code AT_HWCAP} and {@code AT_HWCAP2}
+     * entries of the auxiliary vector of a 64-bit ARM process.
+     *
+     * @param auxv content of {@code /proc/self/auxv} in native byte order.
+     * @return new set with the features, or {@code null} if there is no
+     *     {@code AT_HWCAP} entry.
+     */
+    @Contract(pure = true)
+    @VisibleForTesting
+    static @Nullable EnumSet<CpuFeature> parseAuxv(final @NotNull ByteBuffer auxv) {
+        long hwcap = 0, hwcap2 = 0;
+        boolean found = false;
+        for (int i = 0; i <= auxv.limit() - 16; i += 16) {
+            final long type = auxv.getLong(i);
+            if (type == 0) break; // AT_NULL
+            if (type == AT_HWCAP) {
+                hwcap = auxv.getLong(i + 8);
+                found = true;
+            } else if (type == AT_HWCAP2) {
+                hwcap2 = auxv.getLong(i + 8);
+            }
+        }
+        if (!found) return null;
+
+        final EnumSet<CpuFeature> features = EnumSet.noneOf(CpuFeature.class);
+        for (final CpuFeature feature : VALUES) {
+            final int bit = feature.hwcap();
+            if (bit < 0) continue;
+            final long word = bit < CpuFeature.HWCAP2 ? hwcap : hwcap2;
+            if ((word & (1L << (bit & 63))) != 0) features.add(feature);
+        }
+        return features;
+    }
+
+    /** Lazy holder of the features of the current process. */
+    private static final class Current {
+        static final @NotNull EnumSet<CpuFeature> FEATURES = hasProc(Os.currentOrNull())
+            ? read(Paths.get("/proc"), Arch.currentOrNull())
+            : EnumSet.noneOf(CpuFeature.class);
+
+        private static boolean hasProc(final @Nullable Os os) {
+            return os == Os.LINUX || os == Os.ANDROID;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Topology and cache hierarchy of the CPUs of the current host, e.g., to size
+ * striped counters and work queues, or to pad fields against false sharing.
+ *
+ * <p>The topology is read once from {@code /sys/devices/system} on Linux and
+ * Android with a handful of small reads: the online CPUs and NUMA nodes are
+ * read from their range lists, the caches from those of the first CPU, and
+ * the SMT siblings with one read per physical core. Everything that cannot be
+ * read falls back to the defaults of the {@link Arch}, which is everything on
+ * other operating systems: every logical CPU is a physical core in a single
+ * NUMA node, the L1 data cache has 32 KiB, and the cache line size is the
+ * common one of the arch. The sizes of the L2 and L3 caches have no sensible
+ * default and are {@code 0} if they are unknown.
+ *
+ * <pre>{@code
+ * final int stripes = Integer.highestOneBit(CpuTopology.current().getLogicalCpus() * 2 - 1);
+ * }</pre>
+ *
+ * <p>The logical CPUs are those of the host, the JVM might be limited to
+ * fewer of them, see {@link Runtime#availableProcessors()}.
+ */
+public final class CpuTopology {
+    private static final int DEFAULT_L1 = 32 * 1024;
+
+    private final int logicalCpus;
+    private final int physicalCores;
+    private final int threadsPerCore;
+    private final int numaNodes;
+    private final int l1DataCacheSize;
+    private final int l2CacheSize;
+    private final int l3CacheSize;
+    private final int cacheLineSize;
+
+    private CpuTopology(
+        final int logicalCpus,
+        final int physicalCores,
+        final int threadsPerCore,
+        final int numaNodes,
+        final int l1DataCacheSize,
+        final int l2CacheSize,
+        final int l3CacheSize,
+        final int cacheLineSize
+    ) {
+        this.logicalCpus = logicalCpus;
+        this.physicalCores = physicalCores;
+        this.threadsPerCore = threadsPerCore;
+        this.numaNodes = numaNodes;
+        this.l1DataCacheSize = l1DataCacheSize;
+        this.l2CacheSize = l2CacheSize;
+        this.l3CacheSize = l3CacheSize;
+        this.cacheLineSize = cacheLineSize;
+    }
+
+    /**
+     * Gets the topology of the current host.
+     *
+     * @return the topology of the current host.
+     */
+    @Contract(pure = true)
+    public static @NotNull CpuTopology current() {
+        return Current.TOPOLOGY;
+    }
+
+    /**
+     * Reads the topology from the given {@code /sys} filesystem.
+     *
+     * @param sys path of the {@code /sys} filesystem.
+     * @param arch of the host, used for the defaults.
+     * @param cpus number of logical CPUs if they cannot be read.
+     * @return the topology.
+     */
+    @Contract(value = "_, _, _ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull CpuTopology read(final @NotNull Path sys, final @Nullable Arch arch, final int cpus) {
+        final Path cpu = sys.resolve("devices/system/cpu");
+        final BitSet online = list(cpu.resolve("online"));
+        if (online == null || online.isEmpty()) return defaults(arch, cpus);
+
+        // Hybrid CPUs have cores with and without SMT, hence, every core is read.
+        final BitSet covered = new BitSet();
+        int cores = 0, threads = 1;
+        for (int i = online.nextSetBit(0); i >= 0; i = online.nextSetBit(i + 1)) {
+            if (covered.get(i)) continue;
+            final BitSet siblings = list(cpu.resolve("cpu" + i + "/topology/thread_siblings_list"));
+            cores += 1;
+            if (siblings == null) {
+                covered.set(i);
+            } else {
+                siblings.and(online);
+                covered.or(siblings);
+                threads = Math.max(threads, siblings.cardinality());
+            }
+        }
+
+        final BitSet nodes = list(sys.resolve("devices/system/node/online"));
+        final int[] caches = caches(cpu.resolve("cpu" + online.nextSetBit(0) + "/cache"));
+        return new CpuTopology(
+            online.cardinality(),
+            cores,
+            threads,
+            nodes == null || nodes.isEmpty() ? 1 : nodes.cardinality(),
+            caches[1] > 0 ? caches[1] : DEFAULT_L1,
+            caches[2],
+            caches[3],
+            caches[0] > 0 ? caches[0] : defaultCacheLineSize(arch)
+        );
+    }
+
+    /**
+     * Gets the default topology of the given arch.
+     *
+     * @param arch of the host.
+     * @param cpus number of logical CPUs.
+     * @return the default topology.
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull CpuTopology defaults(final @Nullable Arch arch, final int cpus) {
+        return new CpuTopology(cpus, cpus, 1, 1, DEFAULT_L1, 0, 0, defaultCacheLineSize(arch));
+    }
+
+    /**
+     * Gets the common cache line size of the given arch.
+     *
+     * @param arch to get the cache line size for.
+     * @return the cache line size in bytes.
+     */
+    @Contract(pure = true)
+    private static int defaultCacheLineSize(final @Nullable Arch arch) {
+        if (arch == Arch.PPC_64 || arch == Arch.PPC_64_LE) return 128;
+        if (arch == Arch.S390_64) return 256;
+        return 64;
+    }
+
+    /**
+     * Reads the caches from the {@code index*} directories of the
+     * {@code cache} directory of a CPU.
+     *
+     * @param dir the {@code cache} directory of a CPU.
+     * @return the line size of the L1 data cache, followed by the sizes of the
+     *     L1 data, L2, and L3 cache, every value is {@code 0} if unknown.
+     */
+    @Contract(value = "_ -> new", pure = true)
+    private static int @NotNull [] caches(final @NotNull Path dir) {
+        final int[] caches = new int[4];
+        for (int i = 0; ; i++) {
+            final Path index = dir.resolve("index" + i);
+            final String level = string(index.resolve("level"));
+            if (level == null) break;
+            final String type = string(index.resolve("type"));
+            if ("Instruction".equals(type)) continue;
+            try {
+                final int l = Integer.parseInt(level);
+                if (l < 1 || l > 3) continue;
+                final int size = size(string(index.resolve("size")));
+                if (size > caches[l]) caches[l] = size;
+                if (l == 1) caches[0] = size(string(index.resolve("coherency_line_size")));
+            } catch (final NumberFormatException ignored) {
+                // skip this cache
+            }
+        }
+        return caches;
+    }
+
+    /**
+     * Parses a size like {@code 32K}, {@code 1M}, or {@code 64}.
+     *
+     * @param value to parse.
+     * @return the size in bytes, or {@code 0} if the value is {@code null}.
+     * @throws NumberFormatException if the value is not a size.
+     */
+    @Contract(pure = true)
+    private static int size(final @Nullable String value) throws NumberFormatException {
+        if (value == null || value.isEmpty()) return 0;
+        final char unit = value.charAt(value.length() - 1);
+        final int shift = unit == 'K' ? 10 : unit == 'M' ? 20 : unit == 'G' ? 30 : 0;
+        final long size = Long.parseLong(shift == 0 ? value : value.substring(0, value.length() - 1)) << shift;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses a list of ranges like {@code 0-3,8-11} of sysfs.
+     *
+     * @param value to parse.
+     * @return new set with every index of the list.
+     * @throws NumberFormatException if the value is not a list.
+     */
+    @Contract(value = "_ -> new", pure = true)
+    @VisibleForTesting
+    static @NotNull BitSet list(final @NotNull String value) throws NumberFormatException {
+        final BitSet set = new BitSet();
+        if (value.isEmpty()) return set;
+        for (final String range : value.split(",")) {
+            final int dash = range.indexOf('-');
+            final int from = Integer.parseInt(dash < 0 ? range : range.substring(0, dash));
+            final int to = dash < 0 ? from : Integer.parseInt(range.substring(dash + 1));
+            if (from < 0 || to < from) throw new NumberFormatException("Invalid range: " + range);
+            set.set(from, to + 1);
+        }
+        return set;
+    }
+
+    /** @see #list(String) */
+    private static @Nullable BitSet list(final @NotNull Path path) {
+        final String value = string(path);
+        if (value == null) return null;
+        try {
+            return list(value);
+        } catch (final NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads the given sysfs file.
+     *
+     * @param path of the file.
+     * @return the trimmed content, or {@code null} if it cannot be read.
+     */
+    private static @Nullable String string(final @NotNull Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1).trim();
+        } catch (final IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of online logical CPUs of the host, that is, hardware
+     * threads.
+     *
+     * @return the number of logical CPUs.
+     */
+    @Contract(pure = true)
+    public int getLogicalCpus() {
+        return logicalCpus;
+    }
+
+    /**
+     * Gets the number of physical cores of the host.
+     *
+     * @return the number of physical cores.
+     */
+    @Contract(pure = true)
+    public int getPhysicalCores() {
+        return physicalCores;
+    }
+
+    /**
+     * Gets the highest number of logical CPUs that share a physical core,
+     * that is, SMT siblings.
+     *
+     * @return the number of threads per core, {@code 1} without SMT.
+     */
+    @Contract(pure = true)
+    public int getThreadsPerCore() {
+        return threadsPerCore;
+    }
+
+    /**
+     * Gets the number of online NUMA nodes of the host.
+     *
+     * @return the number of NUMA nodes, at least {@code 1}.
+     */
+    @Contract(pure = true)
+    public int getNumaNodes() {
+        return numaNodes;
+    }
+
+    /**
+     * Gets the size of the L1 data cache of a core.
+     *
+     * @return the size in bytes.
+     */
+    @Contract(pure = true)
+    public int getL1DataCacheSize() {
+        return l1DataCacheSize;
+    }
+
+    /**
+     * Gets the size of the L2 cache of the first CPU, which might be shared
+     * with other cores.
+     *
+     * @return the size in bytes, or {@code 0} if unknown.
+     */
+    @Contract(pure = true)
+    public int getL2CacheSize() {
+        return l2CacheSize;
+    }
+
+    /**
+     * Gets the size of the L3 cache of the first CPU, which is usually shared
+     * with other cores.
+     *
+     * @return the size in bytes, or {@code 0} if there is none or it is
+     *     unknown.
+     */
+    @Contract(pure = true)
+    public int getL3CacheSize() {
+        return l3CacheSize;
+    }
+
+    /**
+     * Gets the line size of the L1 data cache, which is the distance that
+     * fields that are written by different threads should have.
+     *
+     * @return the size in bytes.
+     */
+    @Contract(pure = true)
+    public int getCacheLineSize() {
+        return cacheLineSize;
+    }
+
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        return "CpuTopology{" +
+            "logicalCpus=" + logicalCpus +
+            ", physicalCores=" + physicalCores +
+            ", threadsPerCore=" + threadsPerCore +
+            ", numaNodes=" + numaNodes +
+            ", l1DataCacheSize=" + l1DataCacheSize +
+            ", l2CacheSize=" + l2CacheSize +
+            ", l3CacheSize=" + l3CacheSize +
+            ", cacheLineSize=" + cacheLineSize +
+            '}';
+    }
+
+    /** Lazy holder of the topology of the current host. */
+    private static final class Current {
+        static final @NotNull CpuTopology TOPOLOGY = create();
+
+        private static @NotNull CpuTopology create() {
+            final Os os = Os.currentOrNull();
+            final Arch arch = Arch.currentOrNull();
+            final int cpus = Runtime.getRuntime().availableProcessors();
+            return os == Os.LINUX || os == Os.ANDROID ? read(Paths.get("/sys"), arch, cpus) : defaults(arch, cpus);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.fleshgrinder.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.fleshgrinder.platform.Arch.ARM_64;
+import static com.fleshgrinder.platform.Arch.M68K_32;
+import static com.fleshgrinder.platform.Arch.RISCV_32;
+import static com.fleshgrinder.platform.Arch.SUPERH_32;
+import static com.fleshgrinder.platform.Arch.SUPERH_32_BE;
+import static com.fleshgrinder.platform.Arch.X86_32;
+import static com.fleshgrinder.platform.Os.AIX;
+import static com.fleshgrinder.platform.Os.DARWIN;
+import static com.fleshgrinder.platform.Os.IBMI;
+import static com.fleshgrinder.platform.Os.WINDOWS;
+import static com.fleshgrinder.platform.Os.ZOS;
+
+/**
+ * Sizes and alignments of the fundamental C types of a {@link Platform}.
+ *
+ * <p>The values are the ones of the reference C ABI of the platform, that is,
+ * MSVC on Windows and the System V ABI supplement of the arch everywhere
+ * else. They are precomputed for every platform, and platforms that agree on
+ * all values share a single instance, hence, comparing instances with
+ * {@code ==} is fine.
+ *
+ * <p>Struct layouts can be computed once per platform with these values,
+ * instead of probing them at runtime, e.g., the offset of the {@code long}
+ * in {@code struct { int i; long l; }} is:
+ *
+ * <pre>{@code
+ * final DataModel m = Platform.current().getDataModel();
+ * final int offset = (m.sizeOf(INT) + m.alignOf(LONG) - 1) & -m.alignOf(LONG);
+ * }</pre>
+ *
+ * @see Platform#getDataModel()
+ * @see <a href="https://en.wikipedia.org/wiki/64-bit_computing#64-bit_data_models">Wikipedia</a>
+ */
+public final class DataModel {
+    /** Fundamental C types. */
+    public enum CType {
+        /** {@code int} */
+        INT,
+        /** {@code long} */
+        LONG,
+        /** {@code long long} */
+        LONG_LONG,
+        /** {@code void *} */
+        POINTER,
+        /** {@code size_t} */
+        SIZE_T,
+        /** {@code wchar_t} */
+        WCHAR_T,
+        /**
+         * {@code max_align_t}, only its alignment is available, because its
+         * size depends on the C library, not only on the ABI.
+         */
+        MAX_ALIGN_T,
+    }
+
+    private final @NotNull String name;
+    private final byte @NotNull [] sizes;
+    private final byte @NotNull [] alignments;
+
+    private DataModel(final @NotNull String name, final byte @NotNull [] sizes, final byte @NotNull [] alignments) {
+        this.name = name;
+        this.sizes = sizes;
+        this.alignments = alignments;
+    }
+
+    /**
+     * Gets the data model of the given platform.
+     *
+     * @param platform to get the data model of.
+     * @return the precomputed data model.
+     */
+    @Contract(pure = true)
+    static @NotNull DataModel of(final @NotNull Platform platform) {
+        return Models.TABLE[platform.index()];
+    }
+
+    /**
+     * Computes the data model of the given {@link Os} and {@link Arch}.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return new data model.
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    private static @NotNull DataModel compute(final @NotNull Os os, final @NotNull Arch arch) {
+        final int ptr = arch.getPointerSize();
+        final int lng = os == WINDOWS ? 4 : ptr;
+        final int wchar = os == WINDOWS || (ptr == 4 && (os == AIX || os == IBMI || os == ZOS)) ? 2 : 4;
+
+        final int max;
+        if (arch == M68K_32) max = 2; // everything is 2-byte aligned
+        else if (os == WINDOWS) max = 8; // typedef double max_align_t
+        else if (os == DARWIN && arch == ARM_64) max = 8; // typedef long double max_align_t, and long double is a double
+        else if (arch == X86_32 || arch == RISCV_32) max = 16; // __float128, and a 16-byte aligned long double on riscv-32
+        else if (arch == SUPERH_32 || arch == SUPERH_32_BE) max = 4;
+        else max = ptr == 8 ? 16 : 8;
+
+        final byte[] sizes = new byte[CType.values().length];
+        sizes[CType.INT.ordinal()] = 4;
+        sizes[CType.LONG.ordinal()] = (byte) lng;
+        sizes[CType.LONG_LONG.ordinal()] = 8;
+        sizes[CType.POINTER.ordinal()] = (byte) ptr;
+        sizes[CType.SIZE_T.ordinal()] = (byte) ptr;
+        sizes[CType.WCHAR_T.ordinal()] = (byte) wchar;
+
+        final byte[] alignments = sizes.clone();
+        for (int i = 0; i < alignments.length; i++) alignments[i] = (byte) Math.min(alignments[i], max);
+        alignments[CType.MAX_ALIGN_T.ordinal()] = (byte) max;
+        if (os != WINDOWS && arch == X86_32) alignments[CType.LONG_LONG.ordinal()] = 4;
+
+        return new DataModel(ptr == 4 ? "ILP32" : lng == 4 ? "LLP64" : "LP64", sizes, alignments);
+    }
+
+    /**
+     * Gets the size of the given type.
+     *
+     * @param type to get the size of.
+     * @return the size in bytes.
+     * @throws IllegalArgumentException if the type is
+     *     {@link CType#MAX_ALIGN_T}, whose size is unknown, see
+     *     {@link #alignOf(CType)}.
+     */
+    @Contract(pure = true)
+    public int sizeOf(final @NotNull CType type) throws IllegalArgumentException {
+        if (type == CType.MAX_ALIGN_T) throw new IllegalArgumentException("Unknown size of max_align_t, only its alignment is available");
+        return sizes[type.ordinal()];
+    }
+
+    /**
+     * Gets the alignment of the given type within structs.
+     *
+     * @param type to get the alignment of.
+     * @return the alignment in bytes, a power of two.
+     */
+    @Contract(pure = true)
+    public int alignOf(final @NotNull CType type) {
+        return alignments[type.ordinal()];
+    }
+
+    /**
+     * Gets the name of the classic data model that the sizes of {@code int},
+     * {@code long}, and pointers fit.
+     *
+     * @return {@code ILP32}, {@code LP64}, or {@code LLP64}.
+     */
+    @Contract(pure = true)
+    public @NotNull String getName() {
+        return name;
+    }
+
+    /** @return the name followed by all sizes and alignments, the unknown size of {@code max_align_t} as {@code ?}. */
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        final StringBuilder sb = new StringBuilder(128).append(name).append('{');
+        for (final CType type : CType.values()) {
+            if (type.ordinal() > 0) sb.append(", ");
+            sb.append(type).append('=');
+            if (type == CType.MAX_ALIGN_T) sb.append('?');
+            else sb.append(sizes[type.ordinal()]);
+            sb.append('/').append(alignments[type.ordinal()]);
+        }
+        return sb.append('}').toString();
+    }
+
+    /** Lazy holder of the data models of all platforms indexed by {@link Platform#index()}. */
+    private static final class Models {
+        static final @NotNull DataModel @NotNull [] TABLE = new DataModel[Platform.COUNT];
+
+        static {
+            final Map<String, DataModel> shared = new HashMap<>();
+            for (int i = 0; i < TABLE.length; i++) {
+                final Platform platform = Platform.of(i);
+                final DataModel model = compute(platform.getOs(), platform.getArch());
+                final @Nullable DataModel existing = shared.putIfAbsent(model.toString(), model);
+                TABLE[i] = existing == null ? model : existing;
+            }
+        }
+    }
+}
@@ -0,0 +1,588 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal reader for the headers of Executable and Linkable Format (ELF)
+ * files, only the parts that are required to answer questions about the
+ * platform a file was built for are supported.
+ *
+ * <p>Images are the bytes from index zero up to the limit of the given
+ * buffers, their position is ignored and neither is changed. Files are read
+ * with positional reads of only the parts that are required, and are never
+ * mapped, which would keep them locked on Windows until the mapping is
+ * garbage collected.
+ *
+ * @see <a href="https://refspecs.linuxfoundation.org/elf/gabi4+/ch4.eheader.html">ELF Header</a>
+ * @see <a href="https://refspecs.linuxfoundation.org/elf/gabi4+/ch5.pheader.html">Program Header</a>
+ */
+final class Elf {
+    private Elf() {}
+
+    /** {@code e_ident[EI_CLASS]} of 32-bit objects. */
+    static final byte ELFCLASS32 = 1;
+    /** {@code e_ident[EI_CLASS]} of 64-bit objects. */
+    static final byte ELFCLASS64 = 2;
+    /** {@code e_ident[EI_DATA]} of little-endian objects. */
+    static final byte ELFDATA2LSB = 1;
+    /** {@code e_ident[EI_DATA]} of big-endian objects. */
+    static final byte ELFDATA2MSB = 2;
+    /** {@code p_type} of loadable segments. */
+    static final int PT_LOAD = 1;
+    /** {@code p_type} of the segment with the dynamic section. */
+    static final int PT_DYNAMIC = 2;
+    /** {@code p_type} of the segment with the path of the program interpreter. */
+    static final int PT_INTERP = 3;
+    /** {@code d_tag} of the entry that ends the dynamic section. */
+    static final int DT_NULL = 0;
+    /** {@code d_tag} of the string table offsets of required libraries. */
+    static final int DT_NEEDED = 1;
+    /** {@code d_tag} of the address of the string table. */
+    static final int DT_STRTAB = 5;
+    /** {@code d_tag} of the size of the string table. */
+    static final int DT_STRSZ = 10;
+    /** {@code d_tag} of the string table offset of the deprecated library search path. */
+    static final int DT_RPATH = 15;
+    /** {@code d_tag} of the string table offset of the library search path. */
+    static final int DT_RUNPATH = 29;
+
+    /** Offset of {@code e_ident[EI_OSABI]}. */
+    private static final int EI_OSABI = 7;
+    /** Offset of {@code e_machine}. */
+    private static final int E_MACHINE = 0x12;
+    /** Maximum length of program interpreters that are read, {@code PATH_MAX} of Linux. */
+    private static final int MAX_INTERPRETER = 4096;
+
+    /**
+     * Checks if the given buffer starts with the ELF magic number.
+     *
+     * @param elf to check.
+     * @return {@code true} if it starts with {@code 0x7F 'E' 'L' 'F'}.
+     */
+    @Contract(pure = true)
+    static boolean isElf(final @NotNull ByteBuffer elf) {
+        return elf.limit() >= 16
+            && elf.get(0) == 0x7F
+            && elf.get(1) == 'E'
+            && elf.get(2) == 'L'
+            && elf.get(3) == 'F';
+    }
+
+    /**
+     * Gets the program interpreter of the given ELF file.
+     *
+     * @param path of the ELF file, symbolic links are followed.
+     * @return the path of the program interpreter, or {@code null} if the file
+     *     has none (e.g., a statically linked executable).
+     * @throws IllegalArgumentException if the file is not a valid ELF file.
+     * @throws IOException if reading the file fails.
+     * @see #interpreter(ByteBuffer)
+     */
+    static @Nullable String interpreter(final @NotNull Path path) throws IOException {
+        try (final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return interpreter(Binaries.read(ch, 0, Binaries.HEAD), ch.size(), source(ch));
+        }
+    }
+
+    /**
+     * Gets the program interpreter from the {@code PT_INTERP} segment of the
+     * given ELF image.
+     *
+     * @param elf image of the ELF file.
+     * @return the path of the program interpreter, or {@code null} if the image
+     *     has none (e.g., a statically linked executable).
+     * @throws IllegalArgumentException if the image is not a valid ELF image.
+     */
+    @Contract(pure = true)
+    static @Nullable String interpreter(final @NotNull ByteBuffer elf) throws IllegalArgumentException {
+        try {
+            return interpreter(elf, elf.limit(), source(elf));
+        } catch (final IOException e) {
+            throw new AssertionError("Images are not read from files", e);
+        }
+    }
+
+    /**
+     * @param head first bytes of the ELF file, at least its header.
+     * @param size of the whole file.
+     * @param source to read the rest of the file from.
+     * @see #interpreter(ByteBuffer)
+     */
+    private static @Nullable String interpreter(final @NotNull ByteBuffer head, final long size, final @NotNull Source source) throws IllegalArgumentException, IOException {
+        final ByteBuffer b = header(head);
+        return interpreter(b, programHeaders(b, size, source), size, source);
+    }
+
+    /**
+     * @param b view of the header in its byte order.
+     * @param ph program header table in the byte order of the file.
+     * @param size of the whole file.
+     * @param source to read the segment from.
+     * @see #interpreter(ByteBuffer)
+     */
+    private static @Nullable String interpreter(
+        final @NotNull ByteBuffer b,
+        final @NotNull ByteBuffer ph,
+        final long size,
+        final @NotNull Source source
+    ) throws IllegalArgumentException, IOException {
+        final boolean is64 = b.get(4) == ELFCLASS64;
+        final int entry = segment(b, ph, PT_INTERP, -1);
+        if (entry < 0) return null;
+        final long offset = offset(ph, is64, entry);
+        final long filesz = filesz(ph, is64, entry);
+        if (offset < 0 || filesz < 0 || offset > size || filesz > size - offset) {
+            throw new IllegalArgumentException("Malformed ELF PT_INTERP segment");
+        }
+        final ByteBuffer interp = read(source, b, offset, (int) Math.min(filesz, MAX_INTERPRETER));
+        return cString(interp, 0, interp.limit());
+    }
+
+    /**
+     * Gets the dynamic linking information of the given ELF file, with
+     * positional reads of the headers, the dynamic segment, and the string
+     * table.
+     *
+     * @param path of the ELF file, symbolic links are followed.
+     * @return the dynamic linking information.
+     * @throws IllegalArgumentException if the file is not a valid ELF file.
+     * @throws IOException if reading the file fails.
+     * @see #dynamic(ByteBuffer)
+     */
+    static @NotNull Dynamic dynamic(final @NotNull Path path) throws IOException {
+        try (final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return dynamic(Binaries.read(ch, 0, Binaries.HEAD), ch);
+        }
+    }
+
+    /**
+     * Gets the dynamic linking information of the given ELF file.
+     *
+     * @param head first bytes of the file, see {@link Binaries#HEAD}.
+     * @param ch to read the rest of the file from, its position is not
+     *     changed.
+     * @return the dynamic linking information.
+     * @throws IllegalArgumentException if the file is not a valid ELF file.
+     * @throws IOException if reading the file fails.
+     * @see #dynamic(ByteBuffer)
+     */
+    static @NotNull Dynamic dynamic(final @NotNull ByteBuffer head, final @NotNull FileChannel ch) throws IOException {
+        return dynamic(head, ch.size(), source(ch));
+    }
+
+    /**
+     * Gets the dynamic linking information from the {@code PT_INTERP} and
+     * {@code PT_DYNAMIC} segments of the given ELF image.
+     *
+     * <p>The address of the string table in {@code DT_STRTAB} is translated
+     * to a file offset with the {@code PT_LOAD} segment that contains it.
+     *
+     * @param elf image of the ELF file.
+     * @return the dynamic linking information, which is empty for statically
+     *     linked files.
+     * @throws IllegalArgumentException if the image is not a valid ELF image.
+     */
+    @Contract(pure = true)
+    static @NotNull Dynamic dynamic(final @NotNull ByteBuffer elf) throws IllegalArgumentException {
+        try {
+            return dynamic(elf, elf.limit(), source(elf));
+        } catch (final IOException e) {
+            throw new AssertionError("Images are not read from files", e);
+        }
+    }
+
+    /**
+     * @param head first bytes of the ELF file, at least its header.
+     * @param size of the whole file.
+     * @param source to read the rest of the file from.
+     * @see #dynamic(ByteBuffer)
+     */
+    private static @NotNull Dynamic dynamic(final @NotNull ByteBuffer head, final long size, final @NotNull Source source) throws IllegalArgumentException, IOException {
+        final ByteBuffer b = header(head);
+        final boolean is64 = b.get(4) == ELFCLASS64;
+        final ByteBuffer ph = programHeaders(b, size, source);
+        final String interpreter = interpreter(b, ph, size, source);
+        final int entry = segment(b, ph, PT_DYNAMIC, -1);
+        if (entry < 0) return new Dynamic(b.get(EI_OSABI), Elf.platformOrNull(b), interpreter, Collections.emptyList(), Collections.emptyList());
+        final long offset = offset(ph, is64, entry);
+        final long filesz = filesz(ph, is64, entry);
+        if (offset < 0 || filesz < 0 || offset > size || filesz > size - offset || filesz > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed ELF PT_DYNAMIC segment");
+        }
+
+        final ByteBuffer d = read(source, b, offset, (int) filesz);
+        final int entsize = is64 ? 16 : 8;
+        final List<Long> needed = new ArrayList<>();
+        long strtab = -1, strsz = -1, runpath = -1, rpath = -1;
+        for (int i = 0; i <= d.limit() - entsize; i += entsize) {
+            final long tag = is64 ? d.getLong(i) : d.getInt(i);
+            final long val = is64 ? d.getLong(i + 8) : d.getInt(i + 4) & 0xFFFFFFFFL;
+            if (tag == DT_NULL) break;
+            else if (tag == DT_NEEDED) needed.add(val);
+            else if (tag == DT_STRTAB) strtab = val;
+            else if (tag == DT_STRSZ) strsz = val;
+            else if (tag == DT_RUNPATH) runpath = val;
+            else if (tag == DT_RPATH) rpath = val;
+        }
+        if (needed.isEmpty() && runpath < 0 && rpath < 0) {
+            return new Dynamic(b.get(EI_OSABI), Elf.platformOrNull(b), interpreter, Collections.emptyList(), Collections.emptyList());
+        }
+
+        final int load = strtab < 0 ? -1 : segment(b, ph, PT_LOAD, strtab);
+        final long from = load < 0 ? -1 : offset(ph, is64, load) + (strtab - vaddr(ph, is64, load));
+        if (from < 0 || strsz < 0 || from > size || strsz > size - from || strsz > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed ELF DT_STRTAB");
+        }
+        final ByteBuffer str = read(source, b, from, (int) strsz);
+        final List<String> libs = new ArrayList<>(needed.size());
+        for (final long offs : needed) libs.add(string(str, offs));
+        final long path = runpath >= 0 ? runpath : rpath;
+        final List<String> paths = path < 0 ? Collections.emptyList() : Arrays.asList(string(str, path).split(":", -1));
+        return new Dynamic(b.get(EI_OSABI), Elf.platformOrNull(b), interpreter, Collections.unmodifiableList(libs), Collections.unmodifiableList(paths));
+    }
+
+    /**
+     * Reads the program header table.
+     *
+     * @param b view of the header in its byte order.
+     * @param size of the whole file.
+     * @param source to read the table from.
+     * @return the program header table in the byte order of the file, which
+     *     is empty if the file has none.
+     * @throws IllegalArgumentException if the program header table is not
+     *     within the file.
+     * @throws IOException if reading fails.
+     */
+    private static @NotNull ByteBuffer programHeaders(final @NotNull ByteBuffer b, final long size, final @NotNull Source source) throws IllegalArgumentException, IOException {
+        final boolean is64 = b.get(4) == ELFCLASS64;
+        final long phoff = is64 ? b.getLong(0x20) : b.getInt(0x1C) & 0xFFFFFFFFL;
+        final int phentsize = b.getShort(is64 ? 0x36 : 0x2A) & 0xFFFF;
+        final int phnum = b.getShort(is64 ? 0x38 : 0x2C) & 0xFFFF;
+        if (phnum == 0) return ByteBuffer.allocate(0);
+        final long length = (long) phentsize * phnum;
+        if (phentsize < (is64 ? 0x38 : 0x20) || phoff < 0 || phoff > size - length || length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Malformed ELF program header table");
+        }
+        return read(source, b, phoff, (int) length);
+    }
+
+    /**
+     * Gets the first program header of the given type.
+     *
+     * @param b view of the header in its byte order.
+     * @param ph program header table.
+     * @param type {@code p_type} of the segment.
+     * @param address that must be within the segment, or {@code -1} for the
+     *     first segment of the given type.
+     * @return offset of the program header within the table, or {@code -1}
+     *     if no such segment exists.
+     */
+    @Contract(pure = true)
+    private static int segment(final @NotNull ByteBuffer b, final @NotNull ByteBuffer ph, final int type, final long address) {
+        final boolean is64 = b.get(4) == ELFCLASS64;
+        final int phentsize = b.getShort(is64 ? 0x36 : 0x2A) & 0xFFFF;
+        for (int entry = 0; entry <= ph.limit() - phentsize; entry += phentsize) {
+            if (ph.getInt(entry) != type) continue;
+            if (address < 0) return entry;
+            final long vaddr = vaddr(ph, is64, entry);
+            if (address >= vaddr && address - vaddr < filesz(ph, is64, entry)) return entry;
+        }
+        return -1;
+    }
+
+    /** @return {@code p_offset} of the program header at the given offset. */
+    @Contract(pure = true)
+    private static long offset(final @NotNull ByteBuffer ph, final boolean is64, final int entry) {
+        return is64 ? ph.getLong(entry + 0x08) : ph.getInt(entry + 0x04) & 0xFFFFFFFFL;
+    }
+
+    /** @return {@code p_vaddr} of the program header at the given offset. */
+    @Contract(pure = true)
+    private static long vaddr(final @NotNull ByteBuffer ph, final boolean is64, final int entry) {
+        return is64 ? ph.getLong(entry + 0x10) : ph.getInt(entry + 0x08) & 0xFFFFFFFFL;
+    }
+
+    /** @return {@code p_filesz} of the program header at the given offset. */
+    @Contract(pure = true)
+    private static long filesz(final @NotNull ByteBuffer ph, final boolean is64, final int entry) {
+        return is64 ? ph.getLong(entry + 0x20) : ph.getInt(entry + 0x10) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a string from the string table.
+     *
+     * @param str string table.
+     * @param offset of the string within the string table.
+     * @return the string.
+     * @throws IllegalArgumentException if the offset is not within the string
+     *     table.
+     */
+    @Contract(pure = true)
+    private static @NotNull String string(final @NotNull ByteBuffer str, final long offset) throws IllegalArgumentException {
+        if (offset < 0 || offset >= str.limit()) throw new IllegalArgumentException("Malformed ELF string table offset: " + offset);
+        return cString(str, (int) offset, str.limit());
+    }
+
+    /**
+     * Gets the platform that the given ELF image was built for from its
+     * {@code e_ident[EI_CLASS]}, {@code e_ident[EI_DATA]},
+     * {@code e_ident[EI_OSABI]}, and {@code e_machine}.
+     *
+     * <p>Most toolchains leave {@code EI_OSABI} at {@code ELFOSABI_NONE}
+     * (System V), which is taken to mean Linux because that is where it is
+     * encountered the most, including Android.
+     *
+     * @param elf image of the ELF file, only the first 20 bytes are read.
+     * @return the platform or {@code null} if the image is not an ELF image,
+     *     or its OS or arch is unknown.
+     */
+    @Contract(pure = true)
+    static @Nullable Platform platformOrNull(final @NotNull ByteBuffer elf) {
+        if (!isElf(elf) || elf.limit() < E_MACHINE + 2) return null;
+        final byte cls = elf.get(4);
+        final byte data = elf.get(5);
+        if ((cls != ELFCLASS32 && cls != ELFCLASS64) || (data != ELFDATA2LSB && data != ELFDATA2MSB)) return null;
+        final boolean be = data == ELFDATA2MSB;
+        final int machine = be
+            ? (elf.get(E_MACHINE) & 0xFF) << 8 | elf.get(E_MACHINE + 1) & 0xFF
+            : (elf.get(E_MACHINE + 1) & 0xFF) << 8 | elf.get(E_MACHINE) & 0xFF;
+        final Os os = osOrNull(elf.get(EI_OSABI));
+        final Arch arch = archOrNull(machine, cls == ELFCLASS64, be);
+        return os == null || arch == null ? null : Platform.of(os, arch);
+    }
+
+    /**
+     * @param osabi {@code e_ident[EI_OSABI]}
+     * @return the OS or {@code null} if it is unknown.
+     */
+    @Contract(pure = true)
+    private static @Nullable Os osOrNull(final byte osabi) {
+        switch (osabi) {
+            case 0: // ELFOSABI_NONE
+            case 3: // ELFOSABI_GNU
+                return Os.LINUX;
+            case 1: // ELFOSABI_HPUX
+                return Os.HPUX;
+            case 2: // ELFOSABI_NETBSD
+                return Os.NETBSD;
+            case 6: // ELFOSABI_SOLARIS
+                return Os.SOLARIS;
+            case 7: // ELFOSABI_AIX
+                return Os.AIX;
+            case 9: // ELFOSABI_FREEBSD
+                return Os.FREEBSD;
+            case 12: // ELFOSABI_OPENBSD
+                return Os.OPENBSD;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param machine {@code e_machine}
+     * @param is64 whether {@code e_ident[EI_CLASS]} is {@link #ELFCLASS64}.
+     * @param be whether {@code e_ident[EI_DATA]} is {@link #ELFDATA2MSB}.
+     * @return the arch or {@code null} if it is unknown.
+     */
+    @Contract(pure = true)
+    private static @Nullable Arch archOrNull(final int machine, final boolean is64, final boolean be) {
+        switch (machine) {
+            case 2: // EM_SPARC
+            case 18: // EM_SPARC32PLUS
+                return be ? Arch.SPARC_32 : null;
+            case 3: // EM_386
+                return be ? null : Arch.X86_32;
+            case 4: // EM_68K
+                return be ? Arch.M68K_32 : null;
+            case 8: // EM_MIPS
+                return is64 ? (be ? Arch.MIPS_64 : Arch.MIPS_64_LE) : (be ? Arch.MIPS_32 : Arch.MIPS_32_LE);
+            case 20: // EM_PPC
+                return be ? Arch.PPC_32 : Arch.PPC_32_LE;
+            case 21: // EM_PPC64
+                return be ? Arch.PPC_64 : Arch.PPC_64_LE;
+            case 22: // EM_S390
+                return be ? (is64 ? Arch.S390_64 : Arch.S390_32) : null;
+            case 40: // EM_ARM
+                return be ? Arch.ARM_32_BE : Arch.ARM_32;
+            case 42: // EM_SH
+                return be ? Arch.SUPERH_32_BE : Arch.SUPERH_32;
+            case 43: // EM_SPARCV9
+                return be ? Arch.SPARC_64 : null;
+            case 50: // EM_IA_64
+                return is64 ? Arch.ITANIUM_64 : Arch.ITANIUM_32;
+            case 62: // EM_X86_64, x32 objects are ELFCLASS32
+                return is64 && !be ? Arch.X86_64 : null;
+            case 183: // EM_AARCH64
+                return be ? Arch.ARM_64_BE : Arch.ARM_64;
+            case 243: // EM_RISCV
+                return is64 ? Arch.RISCV_64 : Arch.RISCV_32;
+            case 41: // EM_ALPHA
+            case 0x9026: // EM_ALPHA as used by Linux
+                return Arch.ALPHA_64;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Validates the identification of the given ELF image.
+     *
+     * @param elf image to validate.
+     * @return a view of the image in its byte order.
+     * @throws IllegalArgumentException if the image is not a valid ELF image.
+     */
+    @Contract(pure = true)
+    private static @NotNull ByteBuffer header(final @NotNull ByteBuffer elf) throws IllegalArgumentException {
+        if (!isElf(elf)) throw new IllegalArgumentException("Not an ELF image");
+        final byte cls = elf.get(4);
+        if (cls != ELFCLASS32 && cls != ELFCLASS64) throw new IllegalArgumentException("Unknown ELF class: " + cls);
+        final byte data = elf.get(5);
+        if (data != ELFDATA2LSB && data != ELFDATA2MSB) throw new IllegalArgumentException("Unknown ELF data encoding: " + data);
+        if (elf.limit() < (cls == ELFCLASS64 ? 0x40 : 0x34)) throw new IllegalArgumentException("Truncated ELF header");
+        return elf.duplicate().order(data == ELFDATA2LSB ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads the given range of the file.
+     *
+     * @param source to read from.
+     * @param b view of the header in its byte order.
+     * @param position of the range, within the file.
+     * @param length of the range, within the file.
+     * @return the range from index zero in the byte order of the file.
+     * @throws IOException if reading fails, or if the file shrank.
+     */
+    private static @NotNull ByteBuffer read(final @NotNull Source source, final @NotNull ByteBuffer b, final long position, final int length) throws IOException {
+        final ByteBuffer range = source.read(position, length);
+        if (range.limit() < length) throw new IOException("ELF file was truncated while reading");
+        return range.order(b.order());
+    }
+
+    /**
+     * @param image to read from.
+     * @return source that slices the image.
+     */
+    @Contract(pure = true)
+    private static @NotNull Source source(final @NotNull ByteBuffer image) {
+        return (position, length) -> {
+            final ByteBuffer range = image.duplicate();
+            range.limit((int) position + length);
+            range.position((int) position);
+            return range.slice();
+        };
+    }
+
+    /**
+     * @param ch to read from, its position is not changed.
+     * @return source that reads the channel with positional reads.
+     */
+    @Contract(pure = true)
+    private static @NotNull Source source(final @NotNull FileChannel ch) {
+        return (position, length) -> Binaries.read(ch, position, length);
+    }
+
+    /**
+     * Reads a NUL-terminated ASCII string.
+     *
+     * @param b buffer to read from.
+     * @param from index of the first byte (inclusive).
+     * @param to index at which to stop if no NUL is found (exclusive).
+     * @return the string.
+     */
+    @Contract(pure = true)
+    private static @NotNull String cString(final @NotNull ByteBuffer b, final int from, final int to) {
+        int end = from;
+        while (end < to && b.get(end) != 0) end++;
+        final byte[] bytes = new byte[end - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = b.get(from + i);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /** Random access to the bytes of an ELF file. */
+    @FunctionalInterface
+    private interface Source {
+        /**
+         * Reads the given range of the file.
+         *
+         * @param position of the range, within the file.
+         * @param length of the range, within the file.
+         * @return buffer with the range from index zero to its limit, fewer
+         *     bytes than requested only if the file shrank.
+         * @throws IOException if reading fails.
+         */
+        @NotNull ByteBuffer read(long position, int length) throws IOException;
+    }
+
+    /** Dynamic linking information of an ELF file. */
+    static final class Dynamic {
+        /** {@code e_ident[EI_OSABI]}, zero if the file does not declare its OS. */
+        final byte osabi;
+        /** Platform of the file, see {@link Elf#platformOrNull(ByteBuffer)}. */
+        final @Nullable Platform platform;
+        /** Path of the program interpreter from {@code PT_INTERP}. */
+        final @Nullable String interpreter;
+        /** Names of the required libraries from {@code DT_NEEDED}. */
+        final @NotNull List<String> needed;
+        /** Library search path from {@code DT_RUNPATH}, or {@code DT_RPATH} if there is none. */
+        final @NotNull List<String> runpath;
+
+        Dynamic(
+            final byte osabi,
+            final @Nullable Platform platform,
+            final @Nullable String interpreter,
+            final @NotNull List<String> needed,
+            final @NotNull List<String> runpath
+        ) {
+            this.osabi = osabi;
+            this.platform = platform;
+            this.interpreter = interpreter;
+            this.needed = needed;
+            this.runpath = runpath;
+        }
+
+        /**
+         * Checks if the file was linked against musl, by its program
+         * interpreter ({@code ld-musl-*}) or required C standard library
+         * ({@code libc.so} or {@code libc.musl-*}).
+         *
+         * @return {@code true} if the file requires musl.
+         */
+        @Contract(pure = true)
+        boolean requiresMusl() {
+            if (interpreter != null && interpreter.startsWith("ld-musl-", interpreter.lastIndexOf('/') + 1)) return true;
+            for (final String lib : needed) if (lib.equals("libc.so") || lib.startsWith("libc.musl-")) return true;
+            return false;
+        }
+
+        /**
+         * Checks if the file was linked against glibc, by its program
+         * interpreter ({@code ld-linux*}, {@code ld64.so.*}, or
+         * {@code ld.so.*}) or required C standard library
+         * ({@code libc.so.6}).
+         *
+         * @return {@code true} if the file requires glibc.
+         */
+        @Contract(pure = true)
+        boolean requiresGlibc() {
+            if (interpreter != null) {
+                final int name = interpreter.lastIndexOf('/') + 1;
+                if (interpreter.startsWith("ld-linux", name) || interpreter.startsWith("ld64.so.", name) || interpreter.startsWith("ld.so.", name)) return true;
+            }
+            for (final String lib : needed) if (lib.equals("libc.so.6")) return true;
+            return false;
+        }
+    }
+}
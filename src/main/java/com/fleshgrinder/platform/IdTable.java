@@ -0,0 +1,166 @@
+package com.fleshgrinder.platform;
+
+import java.nio.ByteBuffer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.fleshgrinder.platform.Utils.regionEquals;
+
+/**
+ * Perfect hash table that maps the {@link Object#toString} ids of a fixed set
+ * of values to the values.
+ *
+ * <p>Every id has a slot of its own, hence, a lookup is a single hash of the
+ * input, a single array access, and a single comparison with the id that is
+ * stored in that slot, regardless of the number of values. Input that is
+ * longer than the longest id is rejected without looking at it.
+ *
+ * <p>The slot of an id is the upper bits of its {@link String#hashCode}
+ * multiplied with a seed. The seed and the table size are searched for at
+ * construction, starting with the smallest table that can hold all values.
+ *
+ * @param <T> type of the values.
+ */
+final class IdTable<T> {
+    /** Number of seeds that are tried before the table size is doubled. */
+    private static final int ATTEMPTS = 1 << 12;
+
+    private final @NotNull String @NotNull [] ids;
+    private final @Nullable Object @NotNull [] values;
+    private final int seed;
+    private final int shift;
+    private final int maxLength;
+
+    /**
+     * Constructs a new table for the given values.
+     *
+     * @param values to put into the table, all with unique ids.
+     * @throws IllegalArgumentException if any two values have the same
+     *     {@link String#hashCode}.
+     * @throws NullPointerException if any value is {@code null}.
+     */
+    IdTable(final @NotNull T @NotNull [] values) {
+        final String[] ids = new String[values.length];
+        int maxLength = 0;
+        for (int i = 0; i < values.length; i++) {
+            ids[i] = values[i].toString();
+            maxLength = Math.max(maxLength, ids[i].length());
+        }
+        this.maxLength = maxLength;
+
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, values.length - 1));
+        int seed = 0;
+        String[] slots = null;
+        search:
+        for (; bits < 16; bits++) {
+            seed = 0x9E3779B9;
+            for (int attempt = 0; attempt < ATTEMPTS; attempt++, seed += 0x6A09E668) {
+                if ((slots = slots(ids, seed, 32 - bits)) != null) break search;
+            }
+        }
+        if (slots == null) throw new IllegalArgumentException("Ids have colliding hash codes");
+
+        this.ids = slots;
+        this.values = new Object[slots.length];
+        this.seed = seed;
+        this.shift = 32 - bits;
+        for (int i = 0; i < values.length; i++) this.values[slot(ids[i].hashCode(), seed, shift)] = values[i];
+    }
+
+    /**
+     * Distributes the given ids over the slots of a table.
+     *
+     * @return the ids in their slots, with {@code ""} in every free slot, or
+     *     {@code null} if any two ids end up in the same slot.
+     */
+    @Contract(pure = true)
+    private static @NotNull String @Nullable [] slots(final @NotNull String @NotNull [] ids, final int seed, final int shift) {
+        final String[] slots = new String[1 << (32 - shift)];
+        for (final String id : ids) {
+            final int slot = slot(id.hashCode(), seed, shift);
+            if (slots[slot] != null) return null;
+            slots[slot] = id;
+        }
+        for (int i = 0; i < slots.length; i++) if (slots[i] == null) slots[i] = "";
+        return slots;
+    }
+
+    @Contract(pure = true)
+    private static int slot(final int hash, final int seed, final int shift) {
+        return (hash * seed) >>> shift;
+    }
+
+    /**
+     * Gets the value whose id is equal to the given range of chars.
+     *
+     * @param chars to look up.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching value or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T get(final @NotNull CharSequence chars, final int from, final int to) {
+        if (to - from > maxLength) return null;
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + chars.charAt(i);
+        final int slot = slot(hash, seed, shift);
+        return regionEquals(ids[slot], chars, from, to) ? (T) values[slot] : null;
+    }
+
+    /**
+     * Gets the value whose id is equal to the given range of chars.
+     *
+     * @param chars to look up.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching value or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T get(final char @NotNull [] chars, final int from, final int to) {
+        if (to - from > maxLength) return null;
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + chars[i];
+        final int slot = slot(hash, seed, shift);
+        return regionEquals(ids[slot], chars, from, to) ? (T) values[slot] : null;
+    }
+
+    /**
+     * Gets the value whose id is equal to the given range of ASCII bytes.
+     *
+     * @param bytes to look up.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching value or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T get(final byte @NotNull [] bytes, final int from, final int to) {
+        if (to - from > maxLength) return null;
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + (bytes[i] & 0xFF);
+        final int slot = slot(hash, seed, shift);
+        return regionEquals(ids[slot], bytes, from, to) ? (T) values[slot] : null;
+    }
+
+    /**
+     * Gets the value whose id is equal to the given range of ASCII bytes.
+     *
+     * @param bytes to look up, absolute access that does not change its
+     *     position.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching value or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T get(final @NotNull ByteBuffer bytes, final int from, final int to) {
+        if (to - from > maxLength) return null;
+        int hash = 0;
+        for (int i = from; i < to; i++) hash = 31 * hash + (bytes.get(i) & 0xFF);
+        final int slot = slot(hash, seed, shift);
+        return regionEquals(ids[slot], bytes, from, to) ? (T) values[slot] : null;
+    }
+}
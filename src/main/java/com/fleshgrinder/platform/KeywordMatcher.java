@@ -0,0 +1,477 @@
+package com.fleshgrinder.platform;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Deterministic finite automaton that finds the keyword with the highest
+ * priority in arbitrary input with a single left-to-right scan.
+ *
+ * <p>Keywords are described with a tiny subset of the regular expression
+ * syntax ({@code ( ) | ? * + [] \d}) over the alphabet of normalized chars
+ * ({@code [a-z0-9-]}, see {@link Utils#normalize(CharSequence)}). A keyword
+ * only matches if it is surrounded by word boundaries, exactly like
+ * {@code (?s).*\b(keyword)\b.*?} would, and the input is normalized on the
+ * fly while it is scanned. Matching therefore neither compiles nor allocates
+ * anything, regardless of the number of keywords.
+ *
+ * <p>The priority of a keyword is defined by the order in which it was added
+ * to the {@link Builder}, the first keyword has the highest priority. This
+ * mirrors a cascade of {@code if (matches) return} statements.
+ *
+ * <p>Keywords can be split into two independent channels. The keyword with the
+ * highest priority of each channel is found in the very same scan, which is
+ * how a {@link Platform} is parsed without scanning the input twice, once for
+ * the {@link Os} and once for the {@link Arch}.
+ *
+ * @param <T> type of the values that are associated with the keywords.
+ */
+final class KeywordMatcher<T> {
+    /** Size of the alphabet: dash, digits, and lowercase ASCII letters. */
+    private static final int SYMBOLS = 37;
+    private static final long ANY = (1L << SYMBOLS) - 1;
+    private static final int NONE = Integer.MAX_VALUE;
+    private static final long NO_MATCH = ((long) NONE << 32) | NONE;
+
+    private final @NotNull Object[] values;
+    private final int[] transitions;
+    /** Rank of the first and second channel of every state, interleaved. */
+    private final int[] ranks;
+    private final int start;
+    /** Packed match that cannot be improved anymore. */
+    private final long best;
+
+    private KeywordMatcher(final @NotNull Object[] values, final int[] transitions, final int[] ranks, final int start, final int split) {
+        this.values = values;
+        this.transitions = transitions;
+        this.ranks = ranks;
+        this.start = start;
+        this.best = (long) split << 32;
+    }
+
+    /**
+     * Gets the symbol of the given char, which is the index of the normalized
+     * char in the alphabet {@code -0123456789abcdefghijklmnopqrstuvwxyz}.
+     *
+     * @param c to get the symbol for.
+     * @return the symbol of the given char.
+     * @see Utils#normalize(CharSequence)
+     */
+    @Contract(pure = true)
+    static int symbol(final char c) {
+        if ('a' <= c && c <= 'z') return c - ('a' - 11);
+        if ('0' <= c && c <= '9') return c - ('0' - 1);
+        if ('A' <= c && c <= 'Z') return c - ('A' - 11);
+        return 0;
+    }
+
+    /**
+     * Finds the keyword with the highest priority in the given chars.
+     *
+     * @param chars to scan.
+     * @return value of the keyword with the highest priority or {@code null} if
+     *     no keyword matches.
+     * @throws NullPointerException if the given chars are {@code null}.
+     */
+    @Contract(pure = true)
+    @Nullable T match(final @NotNull CharSequence chars) {
+        return match(chars, 0, chars.length());
+    }
+
+    /**
+     * Finds the keyword with the highest priority in the given range of chars.
+     *
+     * @param chars to scan.
+     * @param from index of the first char to scan (inclusive).
+     * @param to index of the last char to scan (exclusive).
+     * @return value of the keyword with the highest priority or {@code null} if
+     *     no keyword matches.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     */
+    @Contract(pure = true)
+    @Nullable T match(final @NotNull CharSequence chars, final int from, final int to) {
+        return first(scan(chars, from, to));
+    }
+
+    /**
+     * Finds the keywords with the highest priority of both channels in the
+     * given range of chars.
+     *
+     * @param chars to scan.
+     * @param from index of the first char to scan (inclusive).
+     * @param to index of the last char to scan (exclusive).
+     * @return the packed match that must be passed to {@link #first(long)} and
+     *     {@link #second(long)} to get the actual values.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     */
+    @Contract(pure = true)
+    long scan(final @NotNull CharSequence chars, final int from, final int to) {
+        long match = NO_MATCH;
+        int state = start;
+        for (int i = from; i < to; i++) {
+            final int symbol = symbol(chars.charAt(i));
+            if (symbol == 0 && (match = boundary(state, match)) == best) return match;
+            state = transitions[state * SYMBOLS + symbol];
+        }
+        return boundary(state, match);
+    }
+
+    /** @see #scan(CharSequence, int, int) */
+    @Contract(pure = true)
+    long scan(final char @NotNull [] chars, final int from, final int to) {
+        long match = NO_MATCH;
+        int state = start;
+        for (int i = from; i < to; i++) {
+            final int symbol = symbol(chars[i]);
+            if (symbol == 0 && (match = boundary(state, match)) == best) return match;
+            state = transitions[state * SYMBOLS + symbol];
+        }
+        return boundary(state, match);
+    }
+
+    /**
+     * Finds the keywords with the highest priority of both channels in the
+     * given range of ASCII bytes, any other byte is treated like a
+     * non-alphanumeric char.
+     *
+     * @see #scan(CharSequence, int, int)
+     */
+    @Contract(pure = true)
+    long scan(final byte @NotNull [] bytes, final int from, final int to) {
+        long match = NO_MATCH;
+        int state = start;
+        for (int i = from; i < to; i++) {
+            final int symbol = symbol((char) (bytes[i] & 0xFF));
+            if (symbol == 0 && (match = boundary(state, match)) == best) return match;
+            state = transitions[state * SYMBOLS + symbol];
+        }
+        return boundary(state, match);
+    }
+
+    /** @see #scan(byte[], int, int) */
+    @Contract(pure = true)
+    long scan(final @NotNull ByteBuffer bytes, final int from, final int to) {
+        long match = NO_MATCH;
+        int state = start;
+        for (int i = from; i < to; i++) {
+            final int symbol = symbol((char) (bytes.get(i) & 0xFF));
+            if (symbol == 0 && (match = boundary(state, match)) == best) return match;
+            state = transitions[state * SYMBOLS + symbol];
+        }
+        return boundary(state, match);
+    }
+
+    /**
+     * Merges the ranks of the given state into the given match, called at
+     * every word boundary.
+     */
+    @Contract(pure = true)
+    private long boundary(final int state, final long match) {
+        final int first = Math.min((int) match, ranks[state << 1]);
+        final int second = Math.min((int) (match >>> 32), ranks[(state << 1) + 1]);
+        return ((long) second << 32) | first;
+    }
+
+    /**
+     * Gets the value of the first channel from the given packed match.
+     *
+     * @param match as returned by {@link #scan(CharSequence, int, int)}.
+     * @return value of the keyword with the highest priority in the first
+     *     channel or {@code null} if no keyword matched.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T first(final long match) {
+        final int rank = (int) match;
+        return rank == NONE ? null : (T) values[rank];
+    }
+
+    /**
+     * Gets the value of the second channel from the given packed match.
+     *
+     * @param match as returned by {@link #scan(CharSequence, int, int)}.
+     * @return value of the keyword with the highest priority in the second
+     *     channel or {@code null} if no keyword matched.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    @Nullable T second(final long match) {
+        final int rank = (int) (match >>> 32);
+        return rank == NONE ? null : (T) values[rank];
+    }
+
+    /**
+     * Builder for {@link KeywordMatcher} instances.
+     *
+     * @param <T> type of the values that are associated with the keywords.
+     */
+    static final class Builder<T> {
+        private final @NotNull List<String> keywords = new ArrayList<>();
+        private final @NotNull List<T> values = new ArrayList<>();
+        private int split = NONE;
+
+        /**
+         * Adds a keyword with a lower priority than all previously added ones.
+         *
+         * <p>Every string the keyword matches must start and end with an
+         * alphanumeric char, otherwise the word boundaries cannot be
+         * guaranteed.
+         *
+         * @param keyword pattern to add.
+         * @param value to return if the keyword matches.
+         * @return this builder.
+         * @throws NullPointerException if any argument is {@code null}.
+         */
+        @Contract("_, _ -> this")
+        @NotNull Builder<T> add(final @NotNull String keyword, final @NotNull T value) {
+            keywords.add(keyword);
+            values.add(value);
+            return this;
+        }
+
+        /**
+         * Starts the second channel, all keywords that are added afterwards
+         * are matched independently of the ones that were added before.
+         *
+         * @return this builder.
+         * @throws IllegalStateException if the second channel was already
+         *     started.
+         */
+        @Contract("-> this")
+        @NotNull Builder<T> channel() throws IllegalStateException {
+            if (split != NONE) throw new IllegalStateException("Second channel was already started");
+            split = keywords.size();
+            return this;
+        }
+
+        /**
+         * Compiles all keywords into a matcher.
+         *
+         * @return the matcher.
+         * @throws IllegalArgumentException if any keyword is invalid.
+         */
+        @Contract(value = "-> new", pure = true)
+        @NotNull KeywordMatcher<T> build() throws IllegalArgumentException {
+            final List<State> nfa = new ArrayList<>();
+
+            // Scanning starts at a virtual boundary, and every boundary that
+            // follows may be the start of any keyword.
+            final State root = State.of(nfa);
+            final State boundary = State.of(nfa);
+            final State keywordsStart = State.of(nfa);
+            root.connect(ANY, root);
+            root.epsilons.add(boundary);
+            boundary.connect(1L, keywordsStart);
+            for (int i = 0, n = keywords.size(); i < n; i++) {
+                final State[] keyword = new Parser(keywords.get(i), nfa).parse();
+                keywordsStart.epsilons.add(keyword[0]);
+                keyword[1].rank = i;
+                keyword[1].channel = i < split ? 0 : 1;
+            }
+
+            // Subset construction of the DFA, a dead state is impossible
+            // because the root always remains reachable.
+            final Map<BitSet, Integer> ids = new HashMap<>();
+            final List<BitSet> dfa = new ArrayList<>();
+            final ArrayDeque<BitSet> queue = new ArrayDeque<>();
+            final List<int[]> rows = new ArrayList<>();
+            final BitSet initial = closure(nfa, root.id);
+            ids.put(initial, 0);
+            dfa.add(initial);
+            queue.add(initial);
+            while (!queue.isEmpty()) {
+                final BitSet current = queue.poll();
+                final int[] row = new int[SYMBOLS];
+                for (int symbol = 0; symbol < SYMBOLS; symbol++) {
+                    final BitSet next = new BitSet(nfa.size());
+                    for (int i = current.nextSetBit(0); i >= 0; i = current.nextSetBit(i + 1)) {
+                        final State state = nfa.get(i);
+                        if ((state.symbols & (1L << symbol)) != 0) closure(nfa, state.next.id, next);
+                    }
+                    Integer id = ids.get(next);
+                    if (id == null) {
+                        ids.put(next, id = dfa.size());
+                        dfa.add(next);
+                        queue.add(next);
+                    }
+                    row[symbol] = id;
+                }
+                rows.add(row);
+            }
+
+            final int size = dfa.size();
+            final int[] transitions = new int[size * SYMBOLS];
+            final int[] ranks = new int[size << 1];
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(rows.get(i), 0, transitions, i * SYMBOLS, SYMBOLS);
+                ranks[i << 1] = ranks[(i << 1) + 1] = NONE;
+                final BitSet set = dfa.get(i);
+                for (int j = set.nextSetBit(0); j >= 0; j = set.nextSetBit(j + 1)) {
+                    final State state = nfa.get(j);
+                    final int k = (i << 1) + state.channel;
+                    if (state.rank < ranks[k]) ranks[k] = state.rank;
+                }
+            }
+
+            return new KeywordMatcher<>(values.toArray(), transitions, ranks, transitions[0], split);
+        }
+
+        private static @NotNull BitSet closure(final @NotNull List<State> nfa, final int id) {
+            final BitSet set = new BitSet(nfa.size());
+            closure(nfa, id, set);
+            return set;
+        }
+
+        private static void closure(final @NotNull List<State> nfa, final int id, final @NotNull BitSet set) {
+            if (set.get(id)) return;
+            set.set(id);
+            for (final State state : nfa.get(id).epsilons) closure(nfa, state.id, set);
+        }
+    }
+
+    /** Thompson NFA state with at most one symbol transition. */
+    private static final class State {
+        final int id;
+        final @NotNull List<State> epsilons = new ArrayList<>(2);
+        long symbols;
+        State next;
+        int rank = NONE;
+        int channel;
+
+        private State(final int id) {
+            this.id = id;
+        }
+
+        static @NotNull State of(final @NotNull List<State> nfa) {
+            final State state = new State(nfa.size());
+            nfa.add(state);
+            return state;
+        }
+
+        void connect(final long symbols, final @NotNull State next) {
+            this.symbols = symbols;
+            this.next = next;
+        }
+    }
+
+    /** Recursive descent parser that turns a keyword into an NFA fragment. */
+    private static final class Parser {
+        private final @NotNull String keyword;
+        private final @NotNull List<State> nfa;
+        private int i;
+
+        Parser(final @NotNull String keyword, final @NotNull List<State> nfa) {
+            this.keyword = keyword;
+            this.nfa = nfa;
+        }
+
+        @NotNull State[] parse() throws IllegalArgumentException {
+            final State[] fragment = alternation();
+            if (i < keyword.length()) throw error("unbalanced parenthesis");
+            return fragment;
+        }
+
+        private @NotNull State[] alternation() {
+            final State[] first = sequence();
+            if (!accept('|')) return first;
+            final State in = State.of(nfa);
+            final State out = State.of(nfa);
+            in.epsilons.add(first[0]);
+            first[1].epsilons.add(out);
+            do {
+                final State[] next = sequence();
+                in.epsilons.add(next[0]);
+                next[1].epsilons.add(out);
+            } while (accept('|'));
+            return new State[]{in, out};
+        }
+
+        private @NotNull State[] sequence() {
+            final State in = State.of(nfa);
+            State out = in;
+            while (i < keyword.length() && keyword.charAt(i) != '|' && keyword.charAt(i) != ')') {
+                final State[] next = quantified();
+                out.epsilons.add(next[0]);
+                out = next[1];
+            }
+            return new State[]{in, out};
+        }
+
+        private @NotNull State[] quantified() {
+            final State[] atom = atom();
+            if (accept('+')) {
+                final State out = State.of(nfa);
+                atom[1].epsilons.add(atom[0]);
+                atom[1].epsilons.add(out);
+                return new State[]{atom[0], out};
+            }
+            final boolean optional = accept('?');
+            final boolean repeated = !optional && accept('*');
+            if (!optional && !repeated) return atom;
+            final State in = State.of(nfa);
+            final State out = State.of(nfa);
+            in.epsilons.add(atom[0]);
+            in.epsilons.add(out);
+            if (repeated) atom[1].epsilons.add(atom[0]);
+            atom[1].epsilons.add(out);
+            return new State[]{in, out};
+        }
+
+        private @NotNull State[] atom() {
+            if (accept('(')) {
+                final State[] group = alternation();
+                if (!accept(')')) throw error("unbalanced parenthesis");
+                return group;
+            }
+            final long symbols;
+            if (accept('[')) {
+                long set = 0;
+                while (!accept(']')) {
+                    final char lo = literal();
+                    final char hi = accept('-') ? literal() : lo;
+                    for (char c = lo; c <= hi; c++) set |= 1L << symbol(c);
+                }
+                symbols = set;
+            } else if (accept('\\')) {
+                if (!accept('d')) throw error("unsupported escape sequence");
+                symbols = ((1L << 10) - 1) << 1;
+            } else {
+                symbols = 1L << symbol(literal());
+            }
+            final State in = State.of(nfa);
+            final State out = State.of(nfa);
+            in.connect(symbols, out);
+            return new State[]{in, out};
+        }
+
+        private char literal() {
+            if (i >= keyword.length()) throw error("unexpected end");
+            final char c = keyword.charAt(i);
+            if (c != '-' && !('0' <= c && c <= '9') && !('a' <= c && c <= 'z')) throw error("unsupported char '" + c + "'");
+            i++;
+            return c;
+        }
+
+        private boolean accept(final char c) {
+            if (i < keyword.length() && keyword.charAt(i) == c) {
+                i++;
+                return true;
+            }
+            return false;
+        }
+
+        private @NotNull IllegalArgumentException error(final @NotNull String reason) {
+            return new IllegalArgumentException("Invalid keyword, " + reason + " at index " + i + ": " + keyword);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.fleshgrinder.platform;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal reader for the headers of Mach-O files and universal (fat)
+ * binaries, only the parts that are required to answer questions about the
+ * platform a file was built for are supported.
+ *
+ * <p>Images are the bytes from index zero up to the limit of the given
+ * buffers, their position is ignored and neither is changed.
+ *
+ * @see <a href="https://github.com/apple-oss-distributions/xnu/blob/main/EXTERNAL_HEADERS/mach-o/loader.h">loader.h</a>
+ * @see <a href="https://github.com/apple-oss-distributions/xnu/blob/main/EXTERNAL_HEADERS/mach-o/fat.h">fat.h</a>
+ */
+final class MachO {
+    private MachO() {}
+
+    /** Magic of 32-bit Mach-O files in their byte order. */
+    static final int MH_MAGIC = 0xFEEDFACE;
+    /** Magic of 64-bit Mach-O files in their byte order. */
+    static final int MH_MAGIC_64 = 0xFEEDFACF;
+    /** Magic of universal binaries with 32-bit offsets, always big endian. */
+    static final int FAT_MAGIC = 0xCAFEBABE;
+    /** Magic of universal binaries with 64-bit offsets, always big endian. */
+    static final int FAT_MAGIC_64 = 0xCAFEBABF;
+    /** Size of a {@code fat_arch} entry. */
+    static final int FAT_ARCH_SIZE = 20;
+    /** Size of a {@code fat_arch_64} entry. */
+    static final int FAT_ARCH_64_SIZE = 32;
+    /**
+     * Java class files share {@link #FAT_MAGIC}, where universal binaries
+     * have {@code nfat_arch} class files have their version, which is at
+     * least 45 (Java 1.1).
+     */
+    private static final int MAX_FAT_ARCHS = 44;
+
+    /** {@code cputype} flag of 64-bit archs. */
+    private static final int CPU_ARCH_ABI64 = 0x01000000;
+
+    /**
+     * Gets the number of {@code fat_arch} entries of the given universal
+     * binary image.
+     *
+     * @param image to check.
+     * @return the number of entries, or {@code -1} if the image is not a
+     *     universal binary.
+     */
+    @Contract(pure = true)
+    static int fatArchCount(final @NotNull ByteBuffer image) {
+        if (image.limit() < 8) return -1;
+        final ByteBuffer b = image.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final int magic = b.getInt(0);
+        if (magic != FAT_MAGIC && magic != FAT_MAGIC_64) return -1;
+        final int count = b.getInt(4);
+        return count > 0 && count <= MAX_FAT_ARCHS ? count : -1;
+    }
+
+    /**
+     * Gets the platform that the given Mach-O image was built for from its
+     * {@code cputype}. Universal binaries contain more than one, the first
+     * slice with a known arch wins.
+     *
+     * @param image of the Mach-O file, only the headers are read.
+     * @return the platform or {@code null} if the image is not a Mach-O
+     *     image, or its arch is unknown.
+     */
+    @Contract(pure = true)
+    static @Nullable Platform platformOrNull(final @NotNull ByteBuffer image) {
+        if (image.limit() < 8) return null;
+        final ByteBuffer b = image.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final int magic = b.getInt(0);
+        final Arch arch;
+        if (magic == MH_MAGIC || magic == MH_MAGIC_64) {
+            arch = archOrNull(b.getInt(4));
+        } else if (Integer.reverseBytes(magic) == MH_MAGIC || Integer.reverseBytes(magic) == MH_MAGIC_64) {
+            arch = archOrNull(Integer.reverseBytes(b.getInt(4)));
+        } else {
+            arch = fatArchOrNull(b);
+        }
+        return arch == null ? null : Platform.of(Os.DARWIN, arch);
+    }
+
+    @Contract(pure = true)
+    private static @Nullable Arch fatArchOrNull(final @NotNull ByteBuffer b) {
+        final int count = fatArchCount(b);
+        final int size = b.getInt(0) == FAT_MAGIC_64 ? FAT_ARCH_64_SIZE : FAT_ARCH_SIZE;
+        for (int i = 0; i < count; i++) {
+            final int entry = 8 + i * size;
+            if (entry > b.limit() - 4) break;
+            final Arch arch = archOrNull(b.getInt(entry));
+            if (arch != null) return arch;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the slices of the given universal binary image.
+     *
+     * <p>Slices with an unknown {@code cputype} are skipped. Slices that only
+     * differ by their {@code cpusubtype} (e.g., {@code arm64} and
+     * {@code arm64e}) map to the same arch, the first one wins, like it does
+     * for {@link #platformOrNull(ByteBuffer)}.
+     *
+     * @param image of the universal binary, at least its {@code fat_arch}
+     *     entries, see {@link #fatHeaderSize(int, boolean)}.
+     * @param length of the whole file, to validate the slices against.
+     * @return the slices of all known archs.
+     * @throws IllegalArgumentException if the image is not a universal
+     *     binary, or any slice is not within the file.
+     */
+    @Contract(pure = true)
+    static @NotNull ArchMap<Slice> slices(final @NotNull ByteBuffer image, final long length) throws IllegalArgumentException {
+        final int count = fatArchCount(image);
+        if (count < 0) throw new IllegalArgumentException("Not a universal binary");
+        final ByteBuffer b = image.duplicate().order(ByteOrder.BIG_ENDIAN);
+        final boolean is64 = b.getInt(0) == FAT_MAGIC_64;
+        if (b.limit() < fatHeaderSize(count, is64)) throw new IllegalArgumentException("Truncated universal binary header");
+
+        final ArchMap<Slice> slices = new ArchMap<>();
+        for (int i = 0; i < count; i++) {
+            final int entry = 8 + i * (is64 ? FAT_ARCH_64_SIZE : FAT_ARCH_SIZE);
+            final long offset = is64 ? b.getLong(entry + 8) : b.getInt(entry + 8) & 0xFFFFFFFFL;
+            final long size = is64 ? b.getLong(entry + 16) : b.getInt(entry + 12) & 0xFFFFFFFFL;
+            if (offset < 0 || size < 0 || offset > length || size > length - offset) {
+                throw new IllegalArgumentException("Malformed universal binary slice " + i + ": offset=" + offset + ", size=" + size + ", length=" + length);
+            }
+            final Arch arch = archOrNull(b.getInt(entry));
+            if (arch != null && !slices.containsKey(arch)) slices.put(arch, new Slice(offset, size));
+        }
+        return slices;
+    }
+
+    /**
+     * Gets the size of the header of a universal binary.
+     *
+     * @param count of {@code fat_arch} entries.
+     * @param is64 whether the entries are {@code fat_arch_64} entries.
+     * @return size of the header including all entries.
+     */
+    @Contract(pure = true)
+    static int fatHeaderSize(final int count, final boolean is64) {
+        return 8 + count * (is64 ? FAT_ARCH_64_SIZE : FAT_ARCH_SIZE);
+    }
+
+    /** Location of a slice within a universal binary. */
+    static final class Slice {
+        /** Offset of the slice from the start of the file. */
+        final long offset;
+        /** Size of the slice. */
+        final long size;
+
+        Slice(final long offset, final long size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override public @NotNull String toString() {
+            return "Slice{offset=" + offset + ", size=" + size + '}';
+        }
+    }
+
+    /**
+     * @param cputype of a Mach-O header or {@code fat_arch} entry.
+     * @return the arch or {@code null} if it is unknown.
+     */
+    @Contract(pure = true)
+    static @Nullable Arch archOrNull(final int cputype) {
+        switch (cputype) {
+            case 6: // CPU_TYPE_MC680x0
+                return Arch.M68K_32;
+            case 7: // CPU_TYPE_X86
+                return Arch.X86_32;
+            case 7 | CPU_ARCH_ABI64: // CPU_TYPE_X86_64
+                return Arch.X86_64;
+            case 12: // CPU_TYPE_ARM
+                return Arch.ARM_32;
+            case 12 | CPU_ARCH_ABI64: // CPU_TYPE_ARM64
+                return Arch.ARM_64;
+            case 14: // CPU_TYPE_SPARC
+                return Arch.SPARC_32;
+            case 18: // CPU_TYPE_POWERPC
+                return Arch.PPC_32;
+            case 18 | CPU_ARCH_ABI64: // CPU_TYPE_POWERPC64
+                return Arch.PPC_64;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.fleshgrinder.platform;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Function;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import static com.fleshgrinder.platform.CpuFeature.ASIMDDP;
+import static com.fleshgrinder.platform.CpuFeature.ASIMDRDM;
+import static com.fleshgrinder.platform.CpuFeature.ATOMICS;
+import static com.fleshgrinder.platform.CpuFeature.AVX;
+import static com.fleshgrinder.platform.CpuFeature.AVX2;
+import static com.fleshgrinder.platform.CpuFeature.AVX512BW;
+import static com.fleshgrinder.platform.CpuFeature.AVX512CD;
+import static com.fleshgrinder.platform.CpuFeature.AVX512DQ;
+import static com.fleshgrinder.platform.CpuFeature.AVX512F;
+import static com.fleshgrinder.platform.CpuFeature.AVX512VL;
+import static com.fleshgrinder.platform.CpuFeature.BMI1;
+import static com.fleshgrinder.platform.CpuFeature.BMI2;
+import static com.fleshgrinder.platform.CpuFeature.CRC32;
+import static com.fleshgrinder.platform.CpuFeature.CX16;
+import static com.fleshgrinder.platform.CpuFeature.DCPOP;
+import static com.fleshgrinder.platform.CpuFeature.DIT;
+import static com.fleshgrinder.platform.CpuFeature.F16C;
+import static com.fleshgrinder.platform.CpuFeature.FCMA;
+import static com.fleshgrinder.platform.CpuFeature.FLAGM;
+import static com.fleshgrinder.platform.CpuFeature.FMA;
+import static com.fleshgrinder.platform.CpuFeature.FP;
+import static com.fleshgrinder.platform.CpuFeature.ILRCPC;
+import static com.fleshgrinder.platform.CpuFeature.JSCVT;
+import static com.fleshgrinder.platform.CpuFeature.LAHF;
+import static com.fleshgrinder.platform.CpuFeature.LRCPC;
+import static com.fleshgrinder.platform.CpuFeature.LZCNT;
+import static com.fleshgrinder.platform.CpuFeature.MOVBE;
+import static com.fleshgrinder.platform.CpuFeature.NEON;
+import static com.fleshgrinder.platform.CpuFeature.POPCNT;
+import static com.fleshgrinder.platform.CpuFeature.SSE3;
+import static com.fleshgrinder.platform.CpuFeature.SSE4_1;
+import static com.fleshgrinder.platform.CpuFeature.SSE4_2;
+import static com.fleshgrinder.platform.CpuFeature.SSSE3;
+import static com.fleshgrinder.platform.CpuFeature.USCAT;
+import static com.fleshgrinder.platform.CpuFeature.XSAVE;
+import static com.fleshgrinder.platform.Utils.id;
+
+/**
+ * Microarchitecture level of an {@link Arch}, that is, a set of
+ * {@link CpuFeature}s that compilers can target at once, e.g., with
+ * {@code -march=x86-64-v3} or {@code -march=armv8.2-a}.
+ *
+ * <p>The baseline of every arch is not a level of its own, it is the plain
+ * {@link Arch}. Native libraries that are built for a level are identified
+ * by the platform with the level appended, e.g.,
+ * {@code linux-x86-64-v3} (see {@link Platform#toString(MicroArch)}), which
+ * {@link Platform#parse(CharSequence)} still reads as the plain platform, and
+ * {@link #parse(CharSequence)} as the level. {@link #resolve} picks the
+ * highest level that the current CPU supports, falling back to the plain
+ * platform:
+ *
+ * <pre>{@code
+ * final URL url = MicroArch.resolve(Platform.current(), id -> classLoader.getResource("native/" + id + "/libfoo.so"));
+ * }</pre>
+ *
+ * @see <a href="https://gitlab.com/x86-psABIs/x86-64-ABI">x86-64 psABI</a>
+ * @see <a href="https://developer.arm.com/documentation/102378/latest">Arm A-profile extensions</a>
+ */
+@SuppressWarnings("SpellCheckingInspection")
+public enum MicroArch {
+    /**
+     * x86-64 v2: Nehalem, Jaguar, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/X86-64#Microarchitecture_levels">Wikipedia</a>
+     */
+    X86_64_V2(Arch.X86_64, "(amd|x(86)?)-?64-?v2", null, CX16, LAHF, POPCNT, SSE3, SSSE3, SSE4_1, SSE4_2),
+
+    /**
+     * x86-64 v3: Haswell, Excavator, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/X86-64#Microarchitecture_levels">Wikipedia</a>
+     */
+    X86_64_V3(Arch.X86_64, "(amd|x(86)?)-?64-?v3", X86_64_V2, AVX, AVX2, BMI1, BMI2, F16C, FMA, LZCNT, MOVBE, XSAVE),
+
+    /**
+     * x86-64 v4: Skylake-X, Zen 4, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/X86-64#Microarchitecture_levels">Wikipedia</a>
+     */
+    X86_64_V4(Arch.X86_64, "(amd|x(86)?)-?64-?v4", X86_64_V3, AVX512F, AVX512BW, AVX512CD, AVX512DQ, AVX512VL),
+
+    /**
+     * ARMv8.1-A: Neoverse E1, Cortex-A55, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/AArch64#ARMv8.1-A">Wikipedia</a>
+     */
+    ARM_64_V8_1(Arch.ARM_64, "a(arch|rm)(-?64)?-?v8-?1(-?a)?", null, FP, NEON, ATOMICS, ASIMDRDM, CRC32),
+
+    /**
+     * ARMv8.2-A: Neoverse N1 (AWS Graviton 2), Cortex-A76, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/AArch64#ARMv8.2-A">Wikipedia</a>
+     */
+    ARM_64_V8_2(Arch.ARM_64, "a(arch|rm)(-?64)?-?v8-?2(-?a)?", ARM_64_V8_1, DCPOP),
+
+    /**
+     * ARMv8.3-A: Apple A12, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/AArch64#ARMv8.3-A">Wikipedia</a>
+     */
+    ARM_64_V8_3(Arch.ARM_64, "a(arch|rm)(-?64)?-?v8-?3(-?a)?", ARM_64_V8_2, JSCVT, FCMA, LRCPC),
+
+    /**
+     * ARMv8.4-A: Neoverse V1 (AWS Graviton 3), Apple M1, and later
+     *
+     * @see <a href="https://en.wikipedia.org/wiki/AArch64#ARMv8.4-A">Wikipedia</a>
+     */
+    ARM_64_V8_4(Arch.ARM_64, "a(arch|rm)(-?64)?-?v8-?4(-?a)?", ARM_64_V8_3, ASIMDDP, DIT, FLAGM, ILRCPC, USCAT);
+
+    private static final MicroArch[] VALUES = values();
+
+    private final @NotNull String id = id(name());
+    private final @NotNull Arch arch;
+    private final @NotNull String keyword;
+    private final @NotNull Set<CpuFeature> features;
+
+    MicroArch(final @NotNull Arch arch, final @NotNull String keyword, final @Nullable MicroArch base, final @NotNull CpuFeature feature, final @NotNull CpuFeature... features) {
+        final EnumSet<CpuFeature> set = EnumSet.of(feature, features);
+        if (base != null) set.addAll(base.features);
+        this.arch = arch;
+        this.keyword = keyword;
+        this.features = Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Gets the arch of this level.
+     *
+     * @return the arch of this level.
+     */
+    @Contract(pure = true)
+    public @NotNull Arch getArch() {
+        return arch;
+    }
+
+    /**
+     * Gets the features that a CPU must have to support this level, including
+     * the features of all lower levels.
+     *
+     * @return unmodifiable set with the required features.
+     */
+    @Contract(pure = true)
+    public @NotNull Set<CpuFeature> getFeatures() {
+        return features;
+    }
+
+    /**
+     * Checks if the CPU of the current process supports this level.
+     *
+     * @return {@code true} if the current arch is the arch of this level and
+     *     every required feature is present.
+     * @see CpuFeatures
+     */
+    @Contract(pure = true)
+    public boolean isSupported() {
+        if (arch != Arch.currentOrNull()) return false;
+        for (final CpuFeature feature : features) {
+            if (!CpuFeatures.has(feature)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the highest level that the CPU of the current process supports.
+     *
+     * @return the highest supported level, or {@code null} if the CPU only
+     *     supports the baseline of its arch, or if it cannot be determined.
+     */
+    @Contract(pure = true)
+    public static @Nullable MicroArch current() {
+        for (int i = VALUES.length - 1; i >= 0; i--) {
+            if (VALUES[i].isSupported()) return VALUES[i];
+        }
+        return null;
+    }
+
+    /**
+     * Gets the highest level of the given arch that is supported by a CPU
+     * with the given features.
+     *
+     * @param arch to get the level for.
+     * @param features of the CPU.
+     * @return the highest supported level, or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @VisibleForTesting
+    static @Nullable MicroArch best(final @NotNull Arch arch, final @NotNull Set<CpuFeature> features) {
+        for (int i = VALUES.length - 1; i >= 0; i--) {
+            if (VALUES[i].arch == arch && features.containsAll(VALUES[i].features)) return VALUES[i];
+        }
+        return null;
+    }
+
+    /**
+     * Resolves the variant of something that is built for the given platform
+     * with the highest level that the CPU of the current process supports.
+     *
+     * <p>The lookup is called with the {@link Platform#toString(MicroArch)
+     * identifiers} of the platform and all supported levels of its arch, from
+     * the highest level downwards, and finally with the plain
+     * {@link Platform#toString() identifier} of the platform, until it
+     * returns something else than {@code null}.
+     *
+     * @param platform to resolve the variant for.
+     * @param lookup to find the variant of an identifier with.
+     * @param <T> type of the variants.
+     * @return the variant, or {@code null} if the lookup found none.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    public static <T> @Nullable T resolve(final @NotNull Platform platform, final @NotNull Function<? super String, ? extends T> lookup) {
+        return resolve(platform, CpuFeatures.current(), lookup);
+    }
+
+    /**
+     * @see #resolve(Platform, Function)
+     */
+    @VisibleForTesting
+    static <T> @Nullable T resolve(final @NotNull Platform platform, final @NotNull Set<CpuFeature> features, final @NotNull Function<? super String, ? extends T> lookup) {
+        final Arch arch = platform.getArch();
+        for (int i = VALUES.length - 1; i >= 0; i--) {
+            final MicroArch level = VALUES[i];
+            if (level.arch != arch || !features.containsAll(level.features)) continue;
+            final T value = lookup.apply(platform.toString(level));
+            if (value != null) return value;
+        }
+        return lookup.apply(platform.toString());
+    }
+
+    /**
+     * Gets the level whose string matches the given value.
+     *
+     * <p>This method is strict and only accepts values that perfectly match the
+     * strings as described in {@link #toString}. Use {@link #parse} or
+     * {@link #parseOrNull} for a lenient approach that accept arbitrary input.
+     *
+     * @param value to get the level for.
+     * @return the matching level.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws NullPointerException if the given value is {@code null}.
+     * @see #fromStringOrNull(String)
+     * @see #toString()
+     */
+    @Contract(pure = true)
+    public static @NotNull MicroArch fromString(final @NotNull String value) throws IllegalArgumentException {
+        final MicroArch level = fromStringOrNull(value);
+        if (level == null) throw new IllegalArgumentException("Unknown microarchitecture: " + value);
+        return level;
+    }
+
+    /**
+     * Gets the level whose string matches the given value.
+     *
+     * <p>This method is strict and only accepts values that perfectly match the
+     * strings as described in {@link #toString}. Use {@link #parse} or
+     * {@link #parseOrNull} for a lenient approach that accept arbitrary input.
+     *
+     * @param value to get the level for.
+     * @return the matching level or {@code null} if no match is found.
+     * @throws NullPointerException if the given value is {@code null}.
+     * @see #fromString(String)
+     * @see #toString()
+     */
+    @Contract(pure = true)
+    public static @Nullable MicroArch fromStringOrNull(final @NotNull String value) {
+        for (final MicroArch level : VALUES) {
+            if (level.id.equals(value)) return level;
+        }
+        return null;
+    }
+
+    /**
+     * Parses the given value and tries to match it with a level, e.g., the
+     * name of an artifact like {@code libfoo-linux-x86-64-v3.so}, or a
+     * compiler flag like {@code -march=armv8.2-a}.
+     *
+     * @param value to parse and match.
+     * @return the matching level.
+     * @throws IllegalArgumentException if no matching level is found.
+     * @throws NullPointerException if the given value is {@code null}.
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull MicroArch parse(final @NotNull CharSequence value) throws IllegalArgumentException {
+        final MicroArch level = parseOrNull(value);
+        if (level == null) throw new IllegalArgumentException("Unknown microarchitecture: " + value);
+        return level;
+    }
+
+    /**
+     * Parses the given value and tries to match it with a level, e.g., the
+     * name of an artifact like {@code libfoo-linux-x86-64-v3.so}, or a
+     * compiler flag like {@code -march=armv8.2-a}.
+     *
+     * @param value to parse and match.
+     * @return the matching level or {@code null} if no match is found.
+     * @throws NullPointerException if the given value is {@code null}.
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable MicroArch parseOrNull(final @NotNull CharSequence value) {
+        return Keywords.MATCHER.match(value);
+    }
+
+    /**
+     * Gets the identifier of this level, which is the identifier of its
+     * {@link Arch} followed by the level, e.g., {@code x86-64-v3} or
+     * {@code arm-64-v8-2}.
+     *
+     * @return the identifier of this level in {@code lower-dash-case}.
+     */
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        return id;
+    }
+
+    /** Lazy holder of the keyword matcher that is built upon first use. */
+    private static final class Keywords {
+        static final @NotNull KeywordMatcher<MicroArch> MATCHER = build();
+
+        private static @NotNull KeywordMatcher<MicroArch> build() {
+            final KeywordMatcher.Builder<MicroArch> builder = new KeywordMatcher.Builder<>();
+            for (final MicroArch level : VALUES) builder.add(level.keyword, level);
+            return builder.build();
+        }
+    }
+}
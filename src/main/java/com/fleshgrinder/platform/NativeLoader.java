@@ -0,0 +1,439 @@
+package com.fleshgrinder.platform;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Loader for native libraries that are bundled as resources.
+ *
+ * <p>Libraries are looked up as {@code native/<platform>/<name>} resources,
+ * where {@code <platform>} is the {@link Platform#toString() identifier} of
+ * the platform, e.g., {@code native/linux-x86-64/libfoo.so}. Builds for a
+ * {@link MicroArch microarchitecture level} are looked up first, from the
+ * highest level that the CPU supports downwards, e.g.,
+ * {@code native/linux-x86-64-v3/libfoo.so}. Every library is
+ * extracted once into a per-user cache directory, under a directory that is
+ * named after the SHA-256 hash of its content:
+ *
+ * <pre>{@code
+ * <cache>/<sha-256>/libfoo.so
+ * }</pre>
+ *
+ * <p>The hash is read from a {@code <name>.sha256} resource next to the
+ * library, in the format of {@code sha256sum}, which should be generated when
+ * the libraries are built. Hence, restarts and other processes that bundle the
+ * same library reuse the extracted file instead of writing it again, and
+ * different versions of a library never overwrite each other. Libraries
+ * without such a resource are extracted under a directory that is named after
+ * a fingerprint of their location, size, modification time, and CRC-32
+ * instead, which is shared by restarts only. Either way, the library is read
+ * and hashed only if it is extracted, and extraction fails if the written
+ * content does not match the hash from the resource. Extraction is guarded by
+ * a cross-process {@link FileLock} and writes to a temporary file that is
+ * atomically moved into place, hence, a library is never loaded while it is
+ * being written, and concurrent processes never extract the same library
+ * twice.
+ *
+ * <pre>{@code
+ * final NativeLoader loader = new NativeLoader(MyClass.class.getClassLoader());
+ * loader.load(Platform.current().getOs().withSharedLibraryExtension("libfoo"));
+ * }</pre>
+ *
+ * <p>The default cache directory is {@code %LOCALAPPDATA%\jvm-platform} on
+ * {@link Os#WINDOWS}, {@code ~/Library/Caches/jvm-platform} on
+ * {@link Os#DARWIN}, and {@code $XDG_CACHE_HOME/jvm-platform} (falling back to
+ * {@code ~/.cache/jvm-platform}) everywhere else.
+ */
+public final class NativeLoader {
+    /** Name of the directory within the user's cache directory. */
+    private static final String NAME = "jvm-platform";
+    /** Name of the lock file within every content directory. */
+    private static final String LOCK = ".lock";
+    /** Extension of the resource with the SHA-256 hash of a library. */
+    private static final String SHA256 = ".sha256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /** {@link FileLock} is per process, threads of the same process must be serialized separately by these stripes. */
+    private static final Object[] LOCKS = new Object[16];
+
+    static {
+        for (int i = 0; i < LOCKS.length; i++) LOCKS[i] = new Object();
+    }
+
+    private final @NotNull ClassLoader classLoader;
+    private final @NotNull Path cacheDir;
+    private final @NotNull Platform platform;
+    private final @NotNull Set<CpuFeature> features;
+    /** Extracted libraries by their resource name, so that every resource is looked up once per loader. */
+    private final @NotNull ConcurrentHashMap<String, Path> extracted = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new loader for the current platform with the default
+     * cache directory.
+     *
+     * @param classLoader to load the resources with.
+     * @throws IllegalStateException if the current platform or the user's
+     *     home directory cannot be determined.
+     * @throws NullPointerException if the given class loader is {@code null}.
+     */
+    public NativeLoader(final @NotNull ClassLoader classLoader) throws IllegalStateException {
+        this(classLoader, defaultCacheDir(Os.current()));
+    }
+
+    /**
+     * Constructs a new loader for the current platform.
+     *
+     * @param classLoader to load the resources with.
+     * @param cacheDir to extract the libraries into, created if it does not
+     *     exist.
+     * @throws IllegalStateException if the current platform cannot be
+     *     determined.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    public NativeLoader(final @NotNull ClassLoader classLoader, final @NotNull Path cacheDir) throws IllegalStateException {
+        this(classLoader, cacheDir, Platform.current());
+    }
+
+    @VisibleForTesting
+    NativeLoader(final @NotNull ClassLoader classLoader, final @NotNull Path cacheDir, final @NotNull Platform platform) {
+        this(classLoader, cacheDir, platform, CpuFeatures.current());
+    }
+
+    @VisibleForTesting
+    NativeLoader(final @NotNull ClassLoader classLoader, final @NotNull Path cacheDir, final @NotNull Platform platform, final @NotNull Set<CpuFeature> features) {
+        if (classLoader == null) throw new NullPointerException("classLoader");
+        if (cacheDir == null) throw new NullPointerException("cacheDir");
+        this.classLoader = classLoader;
+        this.cacheDir = cacheDir;
+        this.platform = platform;
+        this.features = features;
+    }
+
+    /**
+     * Gets the default per-user cache directory of the given OS.
+     *
+     * @param os to get the cache directory for.
+     * @return the cache directory.
+     * @throws IllegalStateException if the user's home directory cannot be
+     *     determined.
+     */
+    @Contract(pure = true)
+    static @NotNull Path defaultCacheDir(final @NotNull Os os) throws IllegalStateException {
+        if (os == Os.WINDOWS) {
+            final String appData = System.getenv("LOCALAPPDATA");
+            if (appData != null && !appData.isEmpty()) return Paths.get(appData, NAME);
+        } else if (os != Os.DARWIN) {
+            final String xdg = System.getenv("XDG_CACHE_HOME");
+            if (xdg != null && xdg.startsWith("/")) return Paths.get(xdg, NAME);
+        }
+        final String home = System.getProperty("user.home");
+        if (home == null || home.isEmpty()) throw new IllegalStateException("Unknown user home directory");
+        if (os == Os.WINDOWS) return Paths.get(home, "AppData", "Local", NAME);
+        if (os == Os.DARWIN) return Paths.get(home, "Library", "Caches", NAME);
+        return Paths.get(home, ".cache", NAME);
+    }
+
+    /**
+     * Loads the given native library of the platform of this loader.
+     *
+     * @param name of the library resource, including its prefix and
+     *     extension, see {@link Os#withSharedLibraryExtension(String)}.
+     * @throws IllegalArgumentException if there is no such resource.
+     * @throws IOException if extracting the library fails.
+     * @throws UnsatisfiedLinkError if loading the library fails.
+     * @throws NullPointerException if the given name is {@code null}.
+     * @see #extract(String)
+     */
+    public void load(final @NotNull String name) throws IllegalArgumentException, IOException {
+        System.load(extract(name).toString());
+    }
+
+    /**
+     * Extracts the given native library of the platform of this loader into
+     * the cache directory, unless a cached copy exists already.
+     *
+     * @param name of the library resource, including its prefix and
+     *     extension, see {@link Os#withSharedLibraryExtension(String)}.
+     * @return the absolute path of the cached library.
+     * @throws IllegalArgumentException if there is no such resource.
+     * @throws IOException if extracting the library fails.
+     * @throws NullPointerException if the given name is {@code null}.
+     * @see #extractOrNull(String)
+     */
+    public @NotNull Path extract(final @NotNull String name) throws IllegalArgumentException, IOException {
+        final Path path = extractOrNull(name);
+        if (path == null) throw new IllegalArgumentException("Unknown native library: " + resource(name));
+        return path;
+    }
+
+    /**
+     * Extracts the given native library of the platform of this loader into
+     * the cache directory, unless a cached copy exists already.
+     *
+     * @param name of the library resource, including its prefix and
+     *     extension, see {@link Os#withSharedLibraryExtension(String)}.
+     * @return the absolute path of the cached library, or {@code null} if
+     *     there is no such resource.
+     * @throws IllegalArgumentException if the name is empty or contains a
+     *     path separator.
+     * @throws IOException if extracting the library fails.
+     * @throws NullPointerException if the given name is {@code null}.
+     * @see #extract(String)
+     */
+    public @Nullable Path extractOrNull(final @NotNull String name) throws IllegalArgumentException, IOException {
+        if (name.isEmpty() || name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.equals(".") || name.equals("..") || name.equals(LOCK)) {
+            throw new IllegalArgumentException("Invalid native library name: " + name);
+        }
+        final Path cached = extracted.get(name);
+        if (cached != null) return cached;
+
+        final String id = MicroArch.resolve(platform, features, it -> classLoader.getResource(resource(it, name)) != null ? it : null);
+        if (id == null) return null;
+        final URL url = classLoader.getResource(resource(id, name));
+        if (url == null) return null;
+
+        final Digest digest = digest(url, classLoader.getResource(resource(id, name) + SHA256));
+        final Path dir = cacheDir.resolve(digest.hex).toAbsolutePath();
+        final Path target = dir.resolve(name);
+        if (!isCached(target, digest.size)) {
+            Files.createDirectories(dir);
+            synchronized (LOCKS[(dir.hashCode() & 0x7FFF_FFFF) % LOCKS.length]) {
+                try (final FileChannel channel = FileChannel.open(dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    final FileLock lock = channel.lock();
+                    try {
+                        if (!isCached(target, digest.size)) write(url, dir, target, digest);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        }
+        extracted.put(name, target);
+        return target;
+    }
+
+    /**
+     * @param name of the library.
+     * @return the name of the resource of the library.
+     */
+    @Contract(pure = true)
+    private @NotNull String resource(final @NotNull String name) {
+        return resource(platform.toString(), name);
+    }
+
+    /**
+     * @param id of the platform, optionally with a microarchitecture level.
+     * @param name of the library.
+     * @return the name of the resource of the library.
+     */
+    @Contract(pure = true)
+    private static @NotNull String resource(final @NotNull String id, final @NotNull String name) {
+        return "native/" + id + '/' + name;
+    }
+
+    /**
+     * Checks if a complete copy of a library exists. Libraries are moved
+     * into place only after they were written completely and verified,
+     * hence, checking the size detects truncation by other means. The content
+     * is not hashed again, a cached copy that was modified in place without
+     * changing its size is not detected.
+     *
+     * @param target path of the cached library.
+     * @param size of the library, or {@code -1} if it is unknown.
+     * @return {@code true} if a cached copy of the expected size exists.
+     */
+    private static boolean isCached(final @NotNull Path target, final long size) {
+        try {
+            return Files.isRegularFile(target) && (size < 0 || Files.size(target) == size);
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the library to a temporary file and atomically moves it into
+     * place after its content was verified.
+     *
+     * @param url of the library resource.
+     * @param dir content directory.
+     * @param target path of the cached library.
+     * @param expected digest of the library.
+     * @throws IOException if reading or writing fails, or if the content of
+     *     the resource does not match the expected hash or size.
+     */
+    private static void write(final @NotNull URL url, final @NotNull Path dir, final @NotNull Path target, final @NotNull Digest expected) throws IOException {
+        final Path tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+        try {
+            final MessageDigest md = sha256();
+            try (final InputStream in = url.openStream();
+                 final ReadableByteChannel src = Channels.newChannel(in);
+                 final FileChannel dst = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+                while (src.read(buffer) >= 0 || buffer.position() > 0) {
+                    buffer.flip();
+                    final ByteBuffer written = buffer.duplicate();
+                    dst.write(buffer);
+                    written.limit(buffer.position()); // partial writes are retried after compact
+                    md.update(written);
+                    buffer.compact();
+                }
+                dst.force(true);
+                if (expected.size >= 0 && expected.size != dst.size()) throw new IOException("Native library changed while extracting: " + url);
+                if (expected.sha256 != null && !expected.sha256.equals(hex(md.digest()))) {
+                    throw new IOException("Native library does not match its SHA-256 hash: " + url);
+                }
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Computes the digest of the given resource without reading it, unless
+     * it is neither a file nor a JAR entry.
+     *
+     * @param url of the resource.
+     * @param checksum resource with the hash of the resource, if any.
+     * @return the digest.
+     * @throws IOException if reading fails, or if the hash is invalid.
+     */
+    private static @NotNull Digest digest(final @NotNull URL url, final @Nullable URL checksum) throws IOException {
+        final String fingerprint;
+        final long size;
+        final URLConnection connection = url.openConnection();
+        if (connection instanceof JarURLConnection) {
+            final JarURLConnection jar = (JarURLConnection) connection;
+            final JarEntry entry = jar.getJarEntry();
+            size = entry.getSize();
+            fingerprint = jar.getJarFileURL() + "!/" + entry.getName() + '\0' + size + '\0' + entry.getTime() + '\0' + entry.getCrc();
+        } else if ("file".equals(url.getProtocol())) {
+            final BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(Paths.get(url.toURI()), BasicFileAttributes.class);
+            } catch (final URISyntaxException | IllegalArgumentException e) {
+                return read(url, checksum);
+            }
+            size = attributes.size();
+            fingerprint = url.toString() + '\0' + size + '\0' + attributes.lastModifiedTime().toMillis();
+        } else {
+            return read(url, checksum);
+        }
+        if (checksum != null) return new Digest(readSha256(checksum), size, true);
+        return new Digest(hex(sha256().digest(fingerprint.getBytes(UTF_8))), size, false);
+    }
+
+    /**
+     * Computes the digest of the given resource by reading it, if there is
+     * no resource with its hash.
+     *
+     * @param url of the resource.
+     * @param checksum resource with the hash of the resource, if any.
+     * @return the digest.
+     * @throws IOException if reading fails, or if the hash is invalid.
+     */
+    private static @NotNull Digest read(final @NotNull URL url, final @Nullable URL checksum) throws IOException {
+        if (checksum != null) return new Digest(readSha256(checksum), -1, true);
+        final MessageDigest md = sha256();
+        long size = 0;
+        try (final InputStream in = url.openStream(); final ReadableByteChannel src = Channels.newChannel(in)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            for (int n; (n = src.read(buffer)) >= 0; ) {
+                size += n;
+                buffer.flip();
+                md.update(buffer);
+                buffer.clear();
+            }
+        }
+        return new Digest(hex(md.digest()), size, true);
+    }
+
+    /**
+     * Reads the hash from the given resource in the format of
+     * {@code sha256sum}, that is, the hex encoded hash, optionally followed by
+     * whitespace and the name of the file.
+     *
+     * @param url of the resource.
+     * @return the lowercase hex encoded hash.
+     * @throws IOException if reading fails, or if the hash is invalid.
+     */
+    private static @NotNull String readSha256(final @NotNull URL url) throws IOException {
+        final byte[] buffer = new byte[65];
+        int n = 0;
+        try (final InputStream in = url.openStream()) {
+            for (int r; n < buffer.length && (r = in.read(buffer, n, buffer.length - n)) >= 0; ) n += r;
+        }
+        final String hash = new String(buffer, 0, Math.min(n, 64), US_ASCII).toLowerCase(Locale.ROOT);
+        if (n < 64 || (n > 64 && !Character.isWhitespace(buffer[64])) || !hash.matches("[0-9a-f]+")) {
+            throw new IOException("Invalid SHA-256 hash: " + url);
+        }
+        return hash;
+    }
+
+    @Contract("-> new")
+    private static @NotNull MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by the Java SE specification", e);
+        }
+    }
+
+    @Contract(pure = true)
+    private static @NotNull String hex(final byte @NotNull [] hash) {
+        final char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /** Name of the content directory, and the expected SHA-256 hash and size of a library. */
+    private static final class Digest {
+        /** SHA-256 hash of the content, or of the fingerprint of the resource. */
+        final @NotNull String hex;
+        /** Expected size, or {@code -1} if it is unknown. */
+        final long size;
+        /** Expected SHA-256 hash of the content, or {@code null} if it is unknown. */
+        final @Nullable String sha256;
+
+        Digest(final @NotNull String hex, final long size, final boolean content) {
+            this.hex = hex;
+            this.size = size;
+            this.sha256 = content ? hex : null;
+        }
+    }
+}
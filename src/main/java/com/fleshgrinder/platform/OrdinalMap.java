@@ -0,0 +1,312 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Map whose keys are a fixed set of values that are numbered from zero, in
+ * the spirit of {@link java.util.EnumMap}.
+ *
+ * <p>The values are stored in a flat array at the index of their key, hence,
+ * {@link #get}, {@link #put}, and {@link #remove} are a single array access
+ * without any allocation, and so is every step of {@link #forEach}. Iteration
+ * is in index order. {@code null} values are not supported, because a
+ * {@code null} slot is what marks an absent key.
+ *
+ * <p>Maps are not synchronized, exactly like {@link java.util.HashMap}.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the values.
+ */
+abstract class OrdinalMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1;
+
+    private transient @Nullable Object @NotNull [] values;
+    private transient int size;
+    private transient int modCount;
+    private transient @Nullable Set<Entry<K, V>> entrySet;
+
+    /**
+     * Constructs a new empty map.
+     *
+     * @param capacity number of possible keys, must be equal to
+     *     {@link #capacity()}, which cannot be called during construction.
+     */
+    OrdinalMap(final int capacity) {
+        values = new Object[capacity];
+    }
+
+    /**
+     * Gets the type of the keys.
+     *
+     * @return the type of the keys.
+     */
+    @Contract(pure = true)
+    abstract @NotNull Class<K> keyType();
+
+    /**
+     * Gets the index of the given key.
+     *
+     * @param key to get the index of.
+     * @return the index of the key.
+     * @throws NullPointerException if the key is {@code null}.
+     */
+    @Contract(pure = true)
+    abstract int index(final @NotNull K key);
+
+    /**
+     * Gets the key at the given index.
+     *
+     * @param index of the key.
+     * @return the key.
+     */
+    @Contract(pure = true)
+    abstract @NotNull K key(final int index);
+
+    /**
+     * Gets the number of possible keys.
+     *
+     * @return the number of possible keys.
+     */
+    @Contract(pure = true)
+    abstract int capacity();
+
+    @Contract(pure = true)
+    private int indexOrNegative(final @Nullable Object key) {
+        final Class<K> type = keyType();
+        return type.isInstance(key) ? index(type.cast(key)) : -1;
+    }
+
+    /**
+     * Gets the value at the given index.
+     *
+     * @param index of the key.
+     * @return the value or {@code null} if there is none.
+     */
+    @Contract(pure = true)
+    @SuppressWarnings("unchecked")
+    final @Nullable V getAt(final int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Puts the value at the given index.
+     *
+     * @param index of the key.
+     * @param value to put.
+     * @return the previous value or {@code null} if there was none.
+     * @throws NullPointerException if the value is {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    final @Nullable V putAt(final int index, final @NotNull V value) {
+        Objects.requireNonNull(value, "value");
+        final Object previous = values[index];
+        values[index] = value;
+        if (previous == null) {
+            size++;
+            modCount++;
+        }
+        return (V) previous;
+    }
+
+    /**
+     * Removes the value at the given index.
+     *
+     * @param index of the key.
+     * @return the removed value or {@code null} if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    final @Nullable V removeAt(final int index) {
+        final Object previous = values[index];
+        if (previous != null) {
+            values[index] = null;
+            size--;
+            modCount++;
+        }
+        return (V) previous;
+    }
+
+    @Contract(pure = true)
+    @Override public final int size() {
+        return size;
+    }
+
+    @Contract(pure = true)
+    @Override public final boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Contract(pure = true)
+    @Override public final boolean containsKey(final @Nullable Object key) {
+        final int index = indexOrNegative(key);
+        return index >= 0 && values[index] != null;
+    }
+
+    @Contract(pure = true)
+    @Override public final boolean containsValue(final @Nullable Object value) {
+        if (value == null) return false;
+        for (final Object it : values) if (value.equals(it)) return true;
+        return false;
+    }
+
+    @Contract(pure = true)
+    @Override public final @Nullable V get(final @Nullable Object key) {
+        final int index = indexOrNegative(key);
+        return index < 0 ? null : getAt(index);
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @throws NullPointerException if the key or value is {@code null}.
+     */
+    @Override public final @Nullable V put(final @NotNull K key, final @NotNull V value) {
+        return putAt(index(key), value);
+    }
+
+    @Override public final @Nullable V remove(final @Nullable Object key) {
+        final int index = indexOrNegative(key);
+        return index < 0 ? null : removeAt(index);
+    }
+
+    @Override public final void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+    }
+
+    /** Performs the action for each entry in index order, without allocating entries. */
+    @Override @SuppressWarnings("unchecked")
+    public final void forEach(final @NotNull BiConsumer<? super K, ? super V> action) {
+        final int expected = modCount;
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if (value != null) action.accept(key(i), (V) value);
+        }
+        if (modCount != expected) throw new ConcurrentModificationException();
+    }
+
+    @Contract(pure = true)
+    @Override public final @NotNull Set<Entry<K, V>> entrySet() {
+        final Set<Entry<K, V>> entrySet = this.entrySet;
+        return entrySet == null ? this.entrySet = new EntrySet() : entrySet;
+    }
+
+    @Contract(pure = true)
+    @Override public final int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if (value != null) hash += key(i).hashCode() ^ value.hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * Serializes the entries instead of the array because the indices of the
+     * keys depend on the order of their declaration.
+     */
+    private void writeObject(final @NotNull ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeInt(size);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                stream.writeObject(key(i));
+                stream.writeObject(values[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(final @NotNull ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        values = new Object[capacity()];
+        for (int i = stream.readInt(); i > 0; i--) put((K) stream.readObject(), (V) stream.readObject());
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Contract(pure = true)
+        @Override public int size() {
+            return size;
+        }
+
+        @Contract(pure = true)
+        @Override public boolean contains(final @Nullable Object other) {
+            if (!(other instanceof Map.Entry)) return false;
+            final Entry<?, ?> entry = (Entry<?, ?>) other;
+            final Object value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override public void clear() {
+            OrdinalMap.this.clear();
+        }
+
+        @Contract(value = "-> new", pure = true)
+        @Override public @NotNull Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+        private int next = 0;
+        private int last = -1;
+        private int expected = modCount;
+
+        @Override public boolean hasNext() {
+            while (next < values.length && values[next] == null) next++;
+            return next < values.length;
+        }
+
+        @Override public @NotNull Entry<K, V> next() {
+            if (modCount != expected) throw new ConcurrentModificationException();
+            if (!hasNext()) throw new NoSuchElementException();
+            last = next++;
+            return new OrdinalEntry(last);
+        }
+
+        @Override public void remove() {
+            if (last < 0) throw new IllegalStateException();
+            if (modCount != expected) throw new ConcurrentModificationException();
+            removeAt(last);
+            expected = modCount;
+            last = -1;
+        }
+    }
+
+    private final class OrdinalEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1;
+
+        private final int index;
+
+        OrdinalEntry(final int index) {
+            super(key(index), getAt(index));
+            this.index = index;
+        }
+
+        /**
+         * Writes the value through to the map.
+         *
+         * @throws NullPointerException if the value is {@code null}.
+         */
+        @Override public V setValue(final @NotNull V value) {
+            putAt(index, value);
+            return super.setValue(value);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.fleshgrinder.platform;
 
 import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import static com.fleshgrinder.platform.Utils.checkRange;
 import static com.fleshgrinder.platform.Utils.id;
 import static com.fleshgrinder.platform.Utils.normalize;
 
@@ -156,9 +159,35 @@ public enum Os {
      */
     ZOS;
 
+    /** Shared copy of {@link #values()}, must never be modified. */
+    private static final Os @NotNull [] VALUES = values();
+
+    /** Number of constants, cheaper than {@code values().length}. */
+    static final int COUNT = VALUES.length;
+
+    /**
+     * Memo of the last {@link #currentOrNull()} result, replaced whenever any
+     * of the system properties it was derived from changes. Racy publication
+     * is fine because {@link Current} is immutable.
+     */
+    private static @Nullable Current current;
+
     /** @see #toString() */
     private final @NotNull String id = id(name());
 
+    /**
+     * Gets the constant with the given ordinal without copying
+     * {@link #values()}.
+     *
+     * @param ordinal of the constant.
+     * @return the constant.
+     * @throws ArrayIndexOutOfBoundsException if the ordinal is out of bounds.
+     */
+    @Contract(pure = true)
+    static @NotNull Os of(final int ordinal) {
+        return VALUES[ordinal];
+    }
+
     /**
      * Gets the OS of the current platform.
      *
@@ -172,7 +201,8 @@ public enum Os {
      *
      * <p>Note that the values of the {@code file.separator} and {@code os.name}
      * system properties can be changed by a user, like any other system
-     * property.
+     * property. The result is cached and only determined again if any of them
+     * or {@code java.vm.name} changed since the last call.
      *
      * @return the current OS.
      * @throws IllegalStateException if it cannot be determined.
@@ -198,21 +228,41 @@ public enum Os {
      *
      * <p>Note that the values of the {@code file.separator} and {@code os.name}
      * system properties can be changed by a user, like any other system
-     * property.
+     * property. The result is cached and only determined again if any of them
+     * or {@code java.vm.name} changed since the last call.
      *
      * @return the current OS or {@code null} if it cannot be determined.
      * @see #current()
      */
     @Contract(pure = true)
     public static @Nullable Os currentOrNull() {
-        if ("\\".equals(System.getProperty("file.separator"))) return WINDOWS;
-        final @Nullable String it = System.getProperty("os.name");
-        if (it == null) return null;
-        switch (normalize(it, true)) {
+        final @Nullable String fileSeparator = System.getProperty("file.separator");
+        final @Nullable String name = System.getProperty("os.name");
+        final @Nullable String vmName = System.getProperty("java.vm.name");
+        @Nullable Current it = current;
+        if (it == null || it.fileSeparator != fileSeparator || it.name != name || it.vmName != vmName) {
+            current = it = new Current(fileSeparator, name, vmName, currentOrNull(fileSeparator, name, vmName));
+        }
+        return it.os;
+    }
+
+    /**
+     * Determines the OS from the given system property values.
+     *
+     * @param fileSeparator value of {@code file.separator}.
+     * @param name value of {@code os.name}.
+     * @param vmName value of {@code java.vm.name}.
+     * @return the OS or {@code null} if it cannot be determined.
+     */
+    @Contract(pure = true)
+    private static @Nullable Os currentOrNull(final @Nullable String fileSeparator, final @Nullable String name, final @Nullable String vmName) {
+        if ("\\".equals(fileSeparator)) return WINDOWS;
+        if (name == null) return null;
+        switch (normalize(name, true)) {
             case "aix":
                 return AIX;
             case "linux":
-                return "dalvik".equalsIgnoreCase(System.getProperty("java.vm.name", "")) ? ANDROID : LINUX;
+                return "dalvik".equalsIgnoreCase(vmName) ? ANDROID : LINUX;
             case "darwin":
             case "macosx":
             case "macos":
@@ -250,7 +300,7 @@ public enum Os {
             case "zos":
                 return ZOS;
         }
-        return parseOrNull(it);
+        return parseOrNull(name);
     }
 
     /**
@@ -295,8 +345,7 @@ public enum Os {
      */
     @Contract(pure = true)
     public static @Nullable Os fromStringOrNull(final @NotNull String value) {
-        for (final Os os : Os.values()) if (os.id.equals(value)) return os;
-        return null;
+        return fromStringOrNull(value, 0, value.length());
     }
 
     /**
@@ -331,36 +380,327 @@ public enum Os {
      */
     @Contract(pure = true)
     public static @Nullable Os parseOrNull(final @NotNull CharSequence value) {
-        if (value.length() > 0) {
-            final String it = normalize(value);
-            for (final Os os : Os.values()) if (os.id.equals(it)) return os;
-            // region common
-            // Android MUST come before Linux because they often come together
-            if (it.matches("(?s).*\\bandroid\\b.*?")) return ANDROID;
-            if (it.matches("(?s).*\\b(linux|u?nix)\\b.*?")) return LINUX;
-            if (it.matches("(?s).*\\b(apple|darwin|ios|mac(osx?)?|os-?x)\\b.*?")) return DARWIN;
-            if (it.matches("(?s).*\\b(w(7|8|1[01]|32|64|xp)|win(dows)?(\\d|\\d\\d|xp)?)\\b.*?")) return WINDOWS;
-            // endregion common
-            // region uncommon
-            if (it.matches("(?s).*\\baix\\b.*?")) return AIX;
-            if (it.matches("(?s).*\\bdragon-?fly(bsd)?\\b.*?")) return DRAGONFLYBSD;
-            if (it.matches("(?s).*\\bfree-?bsd\\b.*?")) return FREEBSD;
-            if (it.matches("(?s).*\\bfuchsia\\b.*?")) return FUCHSIA;
-            if (it.matches("(?s).*\\bhaiku\\b.*?")) return HAIKU;
-            if (it.matches("(?s).*\\bhp-?ux\\b.*?")) return HPUX;
-            if (it.matches("(?s).*\\b(ibm-?i|os-?400)\\b.*?")) return IBMI;
-            if (it.matches("(?s).*\\billum(os)?\\b.*?")) return ILLUMOS;
-            if (it.matches("(?s).*\\bnet-?bsd\\b.*?")) return NETBSD;
-            if (it.matches("(?s).*\\bopen-?bsd\\b.*?")) return OPENBSD;
-            if (it.matches("(?s).*\\bplan-?9\\b.*?")) return PLAN9;
-            if (it.matches("(?s).*\\b(qnx|procnto)\\b.*?")) return QNX;
-            if (it.matches("(?s).*\\bredox\\b.*?")) return REDOX;
-            if (it.matches("(?s).*\\b(s(olaris|un-?os))\\b.*?")) return SOLARIS;
-            if (it.matches("(?s).*\\bvx-?works\\b.*?")) return VXWORKS;
-            if (it.matches("(?s).*\\bz-?os\\b.*?")) return ZOS;
-            // endregion uncommon
-        }
-        return null;
+        return Keywords.MATCHER.match(value);
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of chars.
+     *
+     * @param chars to get the OS for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(CharSequence, int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os fromString(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        final Os os = fromStringOrNull(chars, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + chars.subSequence(from, to));
+        return os;
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the OS for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(CharSequence, int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os fromStringOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        return Ids.TABLE.get(chars, from, to);
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of chars.
+     *
+     * @param chars to get the OS for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(char[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os fromString(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        final Os os = fromStringOrNull(chars, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + new String(chars, from, to - from));
+        return os;
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the OS for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(char[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os fromStringOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return Ids.TABLE.get(chars, from, to);
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of ASCII bytes.
+     *
+     * @param bytes to get the OS for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromStringOrNull(byte[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os fromString(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        final Os os = fromStringOrNull(bytes, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return os;
+    }
+
+    /**
+     * Gets the OS whose string matches the given range of ASCII bytes.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the OS for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromString(byte[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os fromStringOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        return Ids.TABLE.get(bytes, from, to);
+    }
+
+    /**
+     * Gets the OS whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * @param bytes to get the OS for, its position is not modified.
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromStringOrNull(ByteBuffer)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os fromString(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Os os = fromStringOrNull(bytes);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + Utils.toString(bytes));
+        return os;
+    }
+
+    /**
+     * Gets the OS whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the OS for, its position is not modified.
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromString(ByteBuffer)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os fromStringOrNull(final @NotNull ByteBuffer bytes) {
+        return fromStringOrNull(bytes, bytes.position(), bytes.limit());
+    }
+
+    /** @see #fromStringOrNull(ByteBuffer) */
+    @Contract(pure = true)
+    static @Nullable Os fromStringOrNull(final @NotNull ByteBuffer bytes, final int from, final int to) {
+        return Ids.TABLE.get(bytes, from, to);
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an OS.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no matching OS is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(CharSequence, int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os parse(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        final Os os = parseOrNull(chars, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + chars.subSequence(from, to));
+        return os;
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an OS.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(CharSequence, int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os parseOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an OS.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no matching OS is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(char[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os parse(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        final Os os = parseOrNull(chars, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + new String(chars, from, to - from));
+        return os;
+    }
+
+    /**
+     * Parses the given range of chars and tries to match it with an OS.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse and match.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(char[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os parseOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and tries to match it with an OS.
+     *
+     * @param bytes to parse and match.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no matching OS is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parseOrNull(byte[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os parse(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        final Os os = parseOrNull(bytes, from, to);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return os;
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and tries to match it with an OS.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse and match.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parse(byte[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os parseOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(bytes, from, to));
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and tries to match it with an OS.
+     *
+     * @param bytes to parse and match, its position is not modified.
+     * @return the matching OS.
+     * @throws IllegalArgumentException if no matching OS is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parseOrNull(ByteBuffer)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Os parse(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Os os = parseOrNull(bytes);
+        if (os == null) throw new IllegalArgumentException("Unknown operating system: " + Utils.toString(bytes));
+        return os;
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and tries to match it with an OS.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse and match, its position is not modified.
+     * @return the matching OS or {@code null} if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parse(ByteBuffer)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Os parseOrNull(final @NotNull ByteBuffer bytes) {
+        return Keywords.MATCHER.first(Keywords.MATCHER.scan(bytes, bytes.position(), bytes.limit()));
     }
 
     /**
@@ -567,4 +907,76 @@ public enum Os {
     @Override public @NotNull String toString() {
         return id;
     }
+
+    /**
+     * Adds the keywords in order of priority that are used to find the OS in
+     * arbitrary input to the given builder.
+     *
+     * @param builder to add the keywords to.
+     * @return the given builder.
+     * @see #parseOrNull(CharSequence)
+     * @see Platform#parseOrNull(CharSequence)
+     */
+    @Contract("_ -> param1")
+    static <B extends KeywordMatcher.Builder<? super Os>> @NotNull B keywords(final @NotNull B builder) {
+        builder
+            // region common
+            // Android MUST come before Linux because they often come together
+            .add("android", ANDROID)
+            .add("(linux|u?nix)", LINUX)
+            .add("(apple|darwin|ios|mac(osx?)?|os-?x)", DARWIN)
+            .add("(w(7|8|1[01]|32|64|xp)|win(dows)?(\\d|\\d\\d|xp)?)", WINDOWS)
+            // endregion common
+            // region uncommon
+            .add("aix", AIX)
+            .add("dragon-?fly(bsd)?", DRAGONFLYBSD)
+            .add("free-?bsd", FREEBSD)
+            .add("fuchsia", FUCHSIA)
+            .add("haiku", HAIKU)
+            .add("hp-?ux", HPUX)
+            .add("(ibm-?i|os-?400)", IBMI)
+            .add("illum(os)?", ILLUMOS)
+            .add("net-?bsd", NETBSD)
+            .add("open-?bsd", OPENBSD)
+            .add("plan-?9", PLAN9)
+            .add("(qnx|procnto)", QNX)
+            .add("redox", REDOX)
+            .add("(s(olaris|un-?os))", SOLARIS)
+            .add("vx-?works", VXWORKS)
+            .add("z-?os", ZOS);
+            // endregion uncommon
+        return builder;
+    }
+
+    /**
+     * Current OS together with the system property values it was derived
+     * from.
+     *
+     * <p>The values are compared by identity, which is enough to detect any
+     * change since strings are immutable, and setting a property to an equal
+     * but different string only costs a recomputation.
+     */
+    private static final class Current {
+        final @Nullable String fileSeparator;
+        final @Nullable String name;
+        final @Nullable String vmName;
+        final @Nullable Os os;
+
+        Current(final @Nullable String fileSeparator, final @Nullable String name, final @Nullable String vmName, final @Nullable Os os) {
+            this.fileSeparator = fileSeparator;
+            this.name = name;
+            this.vmName = vmName;
+            this.os = os;
+        }
+    }
+
+    /** Lazy holder of the id table that is built upon first use. */
+    private static final class Ids {
+        static final @NotNull IdTable<Os> TABLE = new IdTable<>(values());
+    }
+
+    /** Lazy holder of the matcher that is compiled upon first use. */
+    private static final class Keywords {
+        static final @NotNull KeywordMatcher<Os> MATCHER = keywords(new KeywordMatcher.Builder<Os>()).build();
+    }
 }
@@ -0,0 +1,53 @@
+package com.fleshgrinder.platform;
+
+import java.util.Map;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Map with {@link Os} keys whose values are stored in a flat array indexed
+ * by the ordinal of their key, see {@link PlatformMap} for details.
+ *
+ * @param <V> type of the values.
+ * @see PlatformMap
+ * @see ArchMap
+ */
+public final class OsMap<V> extends OrdinalMap<Os, V> {
+    private static final long serialVersionUID = 1;
+
+    /** Constructs a new empty map. */
+    public OsMap() {
+        super(Os.COUNT);
+    }
+
+    /**
+     * Constructs a new map with the entries of the given map.
+     *
+     * @param entries to put into the new map.
+     * @throws NullPointerException if any key or value is {@code null}.
+     */
+    public OsMap(final @NotNull Map<Os, ? extends V> entries) {
+        this();
+        putAll(entries);
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Class<Os> keyType() {
+        return Os.class;
+    }
+
+    @Contract(pure = true)
+    @Override int index(final @NotNull Os key) {
+        return key.ordinal();
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Os key(final int index) {
+        return Os.of(index);
+    }
+
+    @Contract(pure = true)
+    @Override int capacity() {
+        return Os.COUNT;
+    }
+}
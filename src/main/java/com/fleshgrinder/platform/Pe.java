@@ -0,0 +1,110 @@
+package com.fleshgrinder.platform;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Minimal reader for the headers of Portable Executable (PE) files, only the
+ * parts that are required to answer questions about the platform a file was
+ * built for are supported.
+ *
+ * <p>Images are the bytes from index zero up to the limit of the given
+ * buffers, their position is ignored and neither is changed.
+ *
+ * @see <a href="https://learn.microsoft.com/en-us/windows/win32/debug/pe-format">PE Format</a>
+ */
+final class Pe {
+    private Pe() {}
+
+    /** Offset of {@code e_lfanew} in the MS-DOS stub. */
+    private static final int E_LFANEW = 0x3C;
+    /** Number of bytes of the signature and {@code Machine}. */
+    static final int HEADER_SIZE = 6;
+
+    /**
+     * Gets the offset of the PE signature of the given image.
+     *
+     * @param image to read the MS-DOS stub from.
+     * @return the offset of the PE signature, or {@code -1} if the image
+     *     does not start with an MS-DOS stub.
+     */
+    @Contract(pure = true)
+    static int headerOffset(final @NotNull ByteBuffer image) {
+        if (image.limit() < E_LFANEW + 4 || image.get(0) != 'M' || image.get(1) != 'Z') return -1;
+        final int offset = image.duplicate().order(ByteOrder.LITTLE_ENDIAN).getInt(E_LFANEW);
+        return offset < 0 ? -1 : offset;
+    }
+
+    /**
+     * Gets the platform that the given PE image was built for from its
+     * {@code Machine}.
+     *
+     * @param image of the PE file, only the headers are read.
+     * @return the platform or {@code null} if the image is not a PE image,
+     *     its PE header is not within the image, or its arch is unknown.
+     */
+    @Contract(pure = true)
+    static @Nullable Platform platformOrNull(final @NotNull ByteBuffer image) {
+        final int offset = headerOffset(image);
+        return offset < 0 ? null : platformOrNull(image, offset);
+    }
+
+    /**
+     * Gets the platform of the PE header at the given offset.
+     *
+     * @param b buffer to read from.
+     * @param offset of the PE signature.
+     * @return the platform or {@code null} if there is no PE header at the
+     *     offset, or its arch is unknown.
+     */
+    @Contract(pure = true)
+    static @Nullable Platform platformOrNull(final @NotNull ByteBuffer b, final int offset) {
+        if (offset < 0 || offset > b.limit() - HEADER_SIZE) return null;
+        if (b.get(offset) != 'P' || b.get(offset + 1) != 'E' || b.get(offset + 2) != 0 || b.get(offset + 3) != 0) return null;
+        final Arch arch = archOrNull((b.get(offset + 5) & 0xFF) << 8 | b.get(offset + 4) & 0xFF);
+        return arch == null ? null : Platform.of(Os.WINDOWS, arch);
+    }
+
+    /**
+     * @param machine of the COFF file header.
+     * @return the arch or {@code null} if it is unknown.
+     */
+    @Contract(pure = true)
+    private static @Nullable Arch archOrNull(final int machine) {
+        switch (machine) {
+            case 0x014C: // IMAGE_FILE_MACHINE_I386
+                return Arch.X86_32;
+            case 0x8664: // IMAGE_FILE_MACHINE_AMD64
+                return Arch.X86_64;
+            case 0x01C0: // IMAGE_FILE_MACHINE_ARM
+            case 0x01C2: // IMAGE_FILE_MACHINE_THUMB
+            case 0x01C4: // IMAGE_FILE_MACHINE_ARMNT
+                return Arch.ARM_32;
+            case 0xAA64: // IMAGE_FILE_MACHINE_ARM64
+                return Arch.ARM_64;
+            case 0x0200: // IMAGE_FILE_MACHINE_IA64
+                return Arch.ITANIUM_64;
+            case 0x0166: // IMAGE_FILE_MACHINE_R4000
+            case 0x0169: // IMAGE_FILE_MACHINE_WCEMIPSV2
+                return Arch.MIPS_32_LE;
+            case 0x01F0: // IMAGE_FILE_MACHINE_POWERPC
+            case 0x01F1: // IMAGE_FILE_MACHINE_POWERPCFP
+                return Arch.PPC_32_LE;
+            case 0x01A2: // IMAGE_FILE_MACHINE_SH3
+            case 0x01A6: // IMAGE_FILE_MACHINE_SH4
+                return Arch.SUPERH_32;
+            case 0x0184: // IMAGE_FILE_MACHINE_ALPHA
+            case 0x0284: // IMAGE_FILE_MACHINE_ALPHA64
+                return Arch.ALPHA_64;
+            case 0x5032: // IMAGE_FILE_MACHINE_RISCV32
+                return Arch.RISCV_32;
+            case 0x5064: // IMAGE_FILE_MACHINE_RISCV64
+                return Arch.RISCV_64;
+            default:
+                return null;
+        }
+    }
+}
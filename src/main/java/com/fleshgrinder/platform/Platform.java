@@ -3,17 +3,53 @@ package com.fleshgrinder.platform;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
+import static com.fleshgrinder.platform.Utils.checkRange;
+import static com.fleshgrinder.platform.Utils.indexOfDash;
+
 /**
  * Platform is the combination of {@link Os} and {@link Arch}.
  */
 public final class Platform implements Comparable<Platform>, Serializable {
     private static final long serialVersionUID = 1;
+    /** Name of the musl probe in the {@link ProbeCache}. */
+    private static final String MUSL_PROBE = "musl";
+
+    /** Number of {@link Os} and {@link Arch} combinations. */
+    static final int COUNT = Os.COUNT * Arch.COUNT;
+
+    /**
+     * Canonical instances of all {@link Os} and {@link Arch} combinations
+     * indexed by {@link #index}.
+     */
+    private static final Platform @NotNull [] PLATFORMS;
+
+    static {
+        final Os[] oss = Os.values();
+        final Arch[] archs = Arch.values();
+        PLATFORMS = new Platform[COUNT];
+        for (final Os os : oss) {
+            for (final Arch arch : archs) {
+                PLATFORMS[index(os, arch)] = new Platform(os, arch, os + "-" + arch);
+            }
+        }
+    }
 
     private final @NotNull Os os;
     private final @NotNull Arch arch;
@@ -25,11 +61,73 @@ public final class Platform implements Comparable<Platform>, Serializable {
      * @param os of the platform.
      * @param arch of the platform.
      * @throws NullPointerException if any argument is {@code null}.
+     * @deprecated use {@link #of(Os, Arch)} which returns the canonical
+     *     instance instead of allocating a new one.
      */
+    @Deprecated
     public Platform(final @NotNull Os os, final @NotNull Arch arch) {
+        this(os, arch, of(os, arch).id);
+    }
+
+    private Platform(final @NotNull Os os, final @NotNull Arch arch, final @NotNull String id) {
         this.os = os;
         this.arch = arch;
-        this.id = os + "-" + arch;
+        this.id = id;
+    }
+
+    /**
+     * Gets the canonical platform of the given {@link Os} and {@link Arch}.
+     *
+     * <p>There is exactly one instance per combination, hence, the returned
+     * platform can be compared by identity and this method never allocates.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return the canonical platform.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform of(final @NotNull Os os, final @NotNull Arch arch) {
+        return PLATFORMS[index(os, arch)];
+    }
+
+    /**
+     * Gets the index of the given {@link Os} and {@link Arch} combination.
+     *
+     * <p>Both enums are declared in the order of their ids, hence, the index
+     * order is equal to the order of the platform ids.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return the index of the combination.
+     */
+    @Contract(pure = true)
+    static int index(final @NotNull Os os, final @NotNull Arch arch) {
+        return os.ordinal() * Arch.COUNT + arch.ordinal();
+    }
+
+    /**
+     * Gets the canonical platform at the given index.
+     *
+     * @param index of the platform.
+     * @return the canonical platform.
+     * @throws ArrayIndexOutOfBoundsException if the index is out of bounds.
+     * @see #index(Os, Arch)
+     */
+    @Contract(pure = true)
+    static @NotNull Platform of(final int index) {
+        return PLATFORMS[index];
+    }
+
+    /**
+     * Gets the index of this platform.
+     *
+     * @return the index of this platform.
+     * @see #index(Os, Arch)
+     */
+    @Contract(pure = true)
+    int index() {
+        return index(os, arch);
     }
 
     /**
@@ -44,7 +142,7 @@ public final class Platform implements Comparable<Platform>, Serializable {
     @Contract(pure = true)
     public static @NotNull Platform current() throws IllegalStateException {
         try {
-            return new Platform(Os.current(), Arch.current());
+            return of(Os.current(), Arch.current());
         } catch (final IllegalStateException cause) {
             throw new IllegalStateException("Unknown platform", cause);
         }
@@ -62,7 +160,7 @@ public final class Platform implements Comparable<Platform>, Serializable {
     public static @Nullable Platform currentOrNull() {
         final Os os = Os.currentOrNull();
         final Arch arch = Arch.currentOrNull();
-        return os != null && arch != null ? new Platform(os, arch) : null;
+        return os != null && arch != null ? of(os, arch) : null;
     }
 
     /**
@@ -110,21 +208,15 @@ public final class Platform implements Comparable<Platform>, Serializable {
      */
     @Contract(pure = true)
     public static @Nullable Platform fromStringOrNull(final @NotNull String value) {
-        final int len = value.length();
-        if (len > 0) {
-            final int i = value.indexOf('-');
-            final int j = i + 1;
-            if (i > 0 && j < (len - 1)) {
-                final Os os = Os.fromStringOrNull(value.substring(0, i));
-                final Arch arch = Arch.fromStringOrNull(value.substring(j, len));
-                if (os != null && arch != null) return new Platform(os, arch);
-            }
-        }
-        return null;
+        return fromStringOrNull(value, 0, value.length());
     }
 
     /**
-     * Parses the given value and constructs a new platform instance.
+     * Parses the given value and gets the matching platform.
+     *
+     * <p>The value is scanned only once to find the {@link Os} as well as the
+     * {@link Arch}, the result is the same as if {@link Os#parse} and
+     * {@link Arch#parse} were called separately.
      *
      * @param value to parse.
      * @return parsed platform.
@@ -138,15 +230,18 @@ public final class Platform implements Comparable<Platform>, Serializable {
      */
     @Contract(pure = true)
     public static @NotNull Platform parse(final @NotNull CharSequence value) throws IllegalArgumentException {
-        try {
-            return new Platform(Os.parse(value), Arch.parse(value));
-        } catch (final IllegalArgumentException cause) {
-            throw new IllegalArgumentException("Unknown platform: " + value, cause);
-        }
+        final long match = Keywords.MATCHER.scan(value, 0, value.length());
+        final Platform platform = platform(match);
+        if (platform == null) throw unknown(match, value);
+        return platform;
     }
 
     /**
-     * Parses the given value and constructs a new platform instance.
+     * Parses the given value and gets the matching platform.
+     *
+     * <p>The value is scanned only once to find the {@link Os} as well as the
+     * {@link Arch}, the result is the same as if {@link Os#parseOrNull} and
+     * {@link Arch#parseOrNull} were called separately.
      *
      * @param value to parse.
      * @return parsed platform or {@code null} if fails.
@@ -159,55 +254,889 @@ public final class Platform implements Comparable<Platform>, Serializable {
      */
     @Contract(pure = true)
     public static @Nullable Platform parseOrNull(final @NotNull CharSequence value) {
-        final Os os = Os.parseOrNull(value);
-        final Arch arch = Arch.parseOrNull(value);
-        return os != null && arch != null ? new Platform(os, arch) : null;
+        return platform(Keywords.MATCHER.scan(value, 0, value.length()));
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of chars.
+     *
+     * @param chars to get the platform for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching platform.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(CharSequence, int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform fromString(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        final Platform platform = fromStringOrNull(chars, from, to);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform: " + chars.subSequence(from, to));
+        return platform;
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the platform for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching platform or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(CharSequence, int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform fromStringOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        final int i = indexOfDash(chars, from, to);
+        if (i > from && i + 2 < to) {
+            final Os os = Os.fromStringOrNull(chars, from, i);
+            final Arch arch = Arch.fromStringOrNull(chars, i + 1, to);
+            if (os != null && arch != null) return of(os, arch);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of chars.
+     *
+     * @param chars to get the platform for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching platform.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromStringOrNull(char[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform fromString(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        final Platform platform = fromStringOrNull(chars, from, to);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform: " + new String(chars, from, to - from));
+        return platform;
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of chars.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to get the platform for.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return the matching platform or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #fromString(char[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform fromStringOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        final int i = indexOfDash(chars, from, to);
+        if (i > from && i + 2 < to) {
+            final Os os = Os.fromStringOrNull(chars, from, i);
+            final Arch arch = Arch.fromStringOrNull(chars, i + 1, to);
+            if (os != null && arch != null) return of(os, arch);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of ASCII bytes.
+     *
+     * @param bytes to get the platform for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching platform.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromStringOrNull(byte[], int, int)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform fromString(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        final Platform platform = fromStringOrNull(bytes, from, to);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform: " + new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return platform;
+    }
+
+    /**
+     * Gets the platform whose string matches the given range of ASCII bytes.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the platform for.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return the matching platform or {@code null} if no match is found.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #fromString(byte[], int, int)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform fromStringOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        final int i = indexOfDash(bytes, from, to);
+        if (i > from && i + 2 < to) {
+            final Os os = Os.fromStringOrNull(bytes, from, i);
+            final Arch arch = Arch.fromStringOrNull(bytes, i + 1, to);
+            if (os != null && arch != null) return of(os, arch);
+        }
+        return null;
+    }
+
+    /**
+     * Gets the platform whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * @param bytes to get the platform for, its position is not modified.
+     * @return the matching platform.
+     * @throws IllegalArgumentException if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromStringOrNull(ByteBuffer)
+     * @see #fromString(String)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform fromString(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Platform platform = fromStringOrNull(bytes);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform: " + Utils.toString(bytes));
+        return platform;
+    }
+
+    /**
+     * Gets the platform whose string matches the remaining ASCII bytes of the given buffer.
+     *
+     * <p>This method is equivalent to {@link #fromStringOrNull(String)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to get the platform for, its position is not modified.
+     * @return the matching platform or {@code null} if no match is found.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #fromString(ByteBuffer)
+     * @see #fromStringOrNull(String)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform fromStringOrNull(final @NotNull ByteBuffer bytes) {
+        final int from = bytes.position();
+        final int to = bytes.limit();
+        final int i = indexOfDash(bytes, from, to);
+        if (i > from && i + 2 < to) {
+            final Os os = Os.fromStringOrNull(bytes, from, i);
+            final Arch arch = Arch.fromStringOrNull(bytes, i + 1, to);
+            if (os != null && arch != null) return of(os, arch);
+        }
+        return null;
+    }
+
+    /**
+     * Parses the given range of chars and constructs a new platform instance.
+     *
+     * @param chars to parse.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return parsed platform.
+     * @throws IllegalArgumentException if parsing fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(CharSequence, int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform parse(final @NotNull CharSequence chars, final int from, final int to) throws IllegalArgumentException {
+        checkRange(from, to, chars.length());
+        final long match = Keywords.MATCHER.scan(chars, from, to);
+        final Platform platform = platform(match);
+        if (platform == null) throw unknown(match, chars.subSequence(from, to));
+        return platform;
+    }
+
+    /**
+     * Parses the given range of chars and constructs a new platform instance.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return parsed platform or {@code null} if fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(CharSequence, int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform parseOrNull(final @NotNull CharSequence chars, final int from, final int to) {
+        checkRange(from, to, chars.length());
+        return platform(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of chars and constructs a new platform instance.
+     *
+     * @param chars to parse.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return parsed platform.
+     * @throws IllegalArgumentException if parsing fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parseOrNull(char[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform parse(final char @NotNull [] chars, final int from, final int to) throws IllegalArgumentException {
+        checkRange(from, to, chars.length);
+        final long match = Keywords.MATCHER.scan(chars, from, to);
+        final Platform platform = platform(match);
+        if (platform == null) throw unknown(match, new String(chars, from, to - from));
+        return platform;
+    }
+
+    /**
+     * Parses the given range of chars and constructs a new platform instance.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param chars to parse.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return parsed platform or {@code null} if fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given chars are {@code null}.
+     * @see #parse(char[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform parseOrNull(final char @NotNull [] chars, final int from, final int to) {
+        checkRange(from, to, chars.length);
+        return platform(Keywords.MATCHER.scan(chars, from, to));
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and constructs a new platform instance.
+     *
+     * @param bytes to parse.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return parsed platform.
+     * @throws IllegalArgumentException if parsing fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parseOrNull(byte[], int, int)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform parse(final byte @NotNull [] bytes, final int from, final int to) throws IllegalArgumentException {
+        checkRange(from, to, bytes.length);
+        final long match = Keywords.MATCHER.scan(bytes, from, to);
+        final Platform platform = platform(match);
+        if (platform == null) throw unknown(match, new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        return platform;
+    }
+
+    /**
+     * Parses the given range of ASCII bytes and constructs a new platform instance.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse.
+     * @param from index of the first byte (inclusive).
+     * @param to index of the last byte (exclusive).
+     * @return parsed platform or {@code null} if fails.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws NullPointerException if the given bytes are {@code null}.
+     * @see #parse(byte[], int, int)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform parseOrNull(final byte @NotNull [] bytes, final int from, final int to) {
+        checkRange(from, to, bytes.length);
+        return platform(Keywords.MATCHER.scan(bytes, from, to));
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and constructs a new platform instance.
+     *
+     * @param bytes to parse, its position is not modified.
+     * @return parsed platform.
+     * @throws IllegalArgumentException if parsing fails.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parseOrNull(ByteBuffer)
+     * @see #parse(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform parse(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final long match = Keywords.MATCHER.scan(bytes, bytes.position(), bytes.limit());
+        final Platform platform = platform(match);
+        if (platform == null) throw unknown(match, Utils.toString(bytes));
+        return platform;
+    }
+
+    /**
+     * Parses the remaining ASCII bytes of the given buffer and constructs a new platform instance.
+     *
+     * <p>This method is equivalent to {@link #parseOrNull(CharSequence)}
+     * but neither requires nor allocates a {@link String}.
+     *
+     * @param bytes to parse, its position is not modified.
+     * @return parsed platform or {@code null} if fails.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #parse(ByteBuffer)
+     * @see #parseOrNull(CharSequence)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform parseOrNull(final @NotNull ByteBuffer bytes) {
+        return platform(Keywords.MATCHER.scan(bytes, bytes.position(), bytes.limit()));
+    }
+
+    /**
+     * Gets the platform that the given binary was built for from its headers.
+     *
+     * @param path of the binary, symbolic links are followed.
+     * @return the platform.
+     * @throws IllegalArgumentException if the format or platform is unknown.
+     * @throws IOException if reading the file fails.
+     * @throws NullPointerException if the given path is {@code null}.
+     * @see #ofBinaryOrNull(Path)
+     * @see #ofBinary(ByteBuffer)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform ofBinary(final @NotNull Path path) throws IllegalArgumentException, IOException {
+        final Platform platform = ofBinaryOrNull(path);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform of binary: " + path);
+        return platform;
+    }
+
+    /**
+     * Gets the platform that the given binary was built for from its headers.
+     *
+     * <p>ELF ({@code e_machine}, {@code EI_CLASS}, {@code EI_DATA},
+     * {@code EI_OSABI}), Mach-O and universal binaries ({@code cputype}), and
+     * PE ({@code Machine}) files are supported. Unlike {@link #parse} the name
+     * of the file is irrelevant, hence, this works for files like
+     * {@code libfoo.so.1} that do not contain any hints. Only the first few
+     * hundred bytes are read with positional reads, and at most one more read
+     * for PE files with a large MS-DOS stub.
+     *
+     * <p>Universal binaries contain more than one platform, the one of the
+     * first slice with a known arch is returned. ELF files that do not declare
+     * their OS are taken to be Linux files.
+     *
+     * @param path of the binary, symbolic links are followed.
+     * @return the platform or {@code null} if the format or platform is
+     *     unknown.
+     * @throws IOException if reading the file fails.
+     * @throws NullPointerException if the given path is {@code null}.
+     * @see #ofBinary(Path)
+     * @see #ofBinaryOrNull(ByteBuffer)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform ofBinaryOrNull(final @NotNull Path path) throws IOException {
+        try (final FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return Binaries.platformOrNull(ch);
+        }
+    }
+
+    /**
+     * Gets the platform that the binary in the remaining bytes of the given
+     * buffer was built for from its headers.
+     *
+     * @param bytes of the binary, its position is not modified.
+     * @return the platform.
+     * @throws IllegalArgumentException if the format or platform is unknown.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #ofBinaryOrNull(ByteBuffer)
+     * @see #ofBinary(Path)
+     */
+    @Contract(pure = true)
+    public static @NotNull Platform ofBinary(final @NotNull ByteBuffer bytes) throws IllegalArgumentException {
+        final Platform platform = ofBinaryOrNull(bytes);
+        if (platform == null) throw new IllegalArgumentException("Unknown platform of binary");
+        return platform;
+    }
+
+    /**
+     * Gets the platform that the binary in the remaining bytes of the given
+     * buffer was built for from its headers.
+     *
+     * <p>The buffer must contain at least the headers of the binary, see
+     * {@link #ofBinaryOrNull(Path)} for details.
+     *
+     * @param bytes of the binary, its position is not modified.
+     * @return the platform or {@code null} if the format or platform is
+     *     unknown.
+     * @throws NullPointerException if the given buffer is {@code null}.
+     * @see #ofBinary(ByteBuffer)
+     * @see #ofBinaryOrNull(Path)
+     */
+    @Contract(pure = true)
+    public static @Nullable Platform ofBinaryOrNull(final @NotNull ByteBuffer bytes) {
+        return Binaries.platformOrNull(bytes.slice());
+    }
+
+    /**
+     * Gets the platform of the given match.
+     *
+     * @param match as returned by {@link KeywordMatcher#scan}.
+     * @return the platform or {@code null} if the OS or arch is missing.
+     */
+    @Contract(pure = true)
+    private static @Nullable Platform platform(final long match) {
+        final Os os = (Os) Keywords.MATCHER.first(match);
+        final Arch arch = (Arch) Keywords.MATCHER.second(match);
+        return os != null && arch != null ? of(os, arch) : null;
+    }
+
+    /**
+     * Creates the exception for a failed parse with the missing part as cause.
+     *
+     * @param match as returned by {@link KeywordMatcher#scan}.
+     * @param value that was parsed.
+     * @return the exception to throw.
+     */
+    @Contract(value = "_, _ -> new", pure = true)
+    private static @NotNull IllegalArgumentException unknown(final long match, final @NotNull Object value) {
+        final IllegalArgumentException cause = Keywords.MATCHER.first(match) == null
+            ? new IllegalArgumentException("Unknown operating system: " + value)
+            : new IllegalArgumentException("Unknown architecture: " + value);
+        return new IllegalArgumentException("Unknown platform: " + value, cause);
     }
 
     /**
      * Gets whether the current platform has musl, or not.
      *
-     * <p>Just because the default {@code ldd} in {@code PATH} points to musl
+     * <p>The program interpreter (dynamic loader) of the running JVM binary is
+     * read from the ELF header of {@code /proc/self/exe}. A JVM that is
+     * loaded by {@code ld-musl-*} was built against musl, any other loader
+     * means that it was not. If the binary cannot be read or has no program
+     * interpreter, the output of {@code ldd --version} is checked instead.
+     * Just because the default {@code ldd} in {@code PATH} points to musl
      * does not necessarily mean that no another C standard library is
      * available, however, it is a strong indicator that this platform requires
      * native executables that are either static or compiled against musl.
      *
+     * <p>The result is determined once and cached for the life of the
+     * process. Short-lived processes can additionally share the result across
+     * processes with the opt-in {@code com.fleshgrinder.platform.probe-cache}
+     * system property, see {@link ProbeCache}.
+     *
      * @return {@code true} if the current platform has musl.
      * @see <a href="https://en.wikipedia.org/wiki/Musl">Wikipedia</a>
      */
     @Contract(pure = true)
     public static boolean hasMusl() {
-        return hasMusl("ldd");
+        return Musl.PRESENT;
     }
 
-    /** @see #hasMusl() */
-    @Contract(pure = true)
+    /**
+     * Checks if the given native library was built for the current platform
+     * and C standard library, without loading it.
+     *
+     * <p>Loading an incompatible library with {@link System#load(String)}
+     * fails with an {@link UnsatisfiedLinkError} only after the dynamic
+     * linker tried to link it, which is expensive, especially when several
+     * candidates are tried one after the other. This pre-flight check reads
+     * only the headers of the file instead and verifies that:
+     *
+     * <ul>
+     *   <li>the file is an ELF, Mach-O, or PE file for the current
+     *     {@link Arch}, for ELF files including {@code EI_CLASS} and byte
+     *     order, universal binaries if any of their slices is;
+     *   <li>the {@link Os} matches, ELF files that do not declare their OS
+     *     match any;
+     *   <li>ELF files on Linux that require musl ({@code ld-musl-*},
+     *     {@code libc.musl-*}, or {@code libc.so}) are only loadable if
+     *     {@link #hasMusl()}, and files that require glibc ({@code ld-linux*}
+     *     or {@code libc.so.6}) only if not.
+     * </ul>
+     *
+     * <p>Other dependencies ({@code DT_NEEDED}) are not searched for, because
+     * their resolution depends on {@code LD_LIBRARY_PATH}, {@code ld.so.cache},
+     * and the libraries that are already loaded into the process. Hence, a
+     * loadable library might still fail to load, but a library that is not
+     * loadable never loads.
+     *
+     * @param library path of the native library, symbolic links are
+     *     followed.
+     * @return {@code true} if the library is loadable, {@code false} if it is
+     *     not, it is not a native library, or the current platform is unknown.
+     * @throws IOException if reading the file fails.
+     * @throws NullPointerException if the given path is {@code null}.
+     * @see #ofBinary(Path)
+     */
+    public static boolean isLoadable(final @NotNull Path library) throws IOException {
+        final Platform current = currentOrNull();
+        if (current == null) return false;
+        try (final FileChannel ch = FileChannel.open(library, StandardOpenOption.READ)) {
+            return isLoadable(ch, current, Platform::hasMusl);
+        }
+    }
+
+    /**
+     * @param ch to read the headers from with positional reads.
+     * @see #isLoadable(Path)
+     */
     @VisibleForTesting
-    static boolean hasMusl(final @NotNull String lddPath) {
-        final Process proc;
+    static boolean isLoadable(final @NotNull FileChannel ch, final @NotNull Platform platform, final @NotNull BooleanSupplier musl) throws IOException {
+        final ByteBuffer head = Binaries.read(ch, 0, Binaries.HEAD);
         try {
-            proc = new ProcessBuilder(lddPath, "--version").start();
-        } catch (final IOException ignored) {
+            if (Elf.isElf(head)) return isLoadable(Elf.dynamic(head, ch), platform, musl);
+            if (MachO.fatArchCount(head) >= 0) return platform.os == Os.DARWIN && UniversalBinary.slices(ch).containsKey(platform.arch);
+        } catch (final IllegalArgumentException e) {
             return false;
         }
+        return platform.equals(Binaries.platformOrNull(ch));
+    }
 
-        final StringBuilder sb = new StringBuilder(40);
+    /** @see #isLoadable(Path) */
+    @VisibleForTesting
+    static boolean isLoadable(final @NotNull ByteBuffer image, final @NotNull Platform platform, final @NotNull BooleanSupplier musl) {
         try {
-            if (proc.waitFor(1, TimeUnit.SECONDS)) {
-                try (final InputStream s = proc.getInputStream()) {
-                    int c;
-                    while ((c = s.read()) != -1 && c != '\n') {
-                        if ('A' <= c && c <= 'Z') sb.append((char) (c + 32));
-                        else sb.append((char) c);
+            if (Elf.isElf(image)) return isLoadable(Elf.dynamic(image), platform, musl);
+            if (MachO.fatArchCount(image) >= 0) return platform.os == Os.DARWIN && MachO.slices(image, image.limit()).containsKey(platform.arch);
+        } catch (final IllegalArgumentException e) {
+            return false;
+        }
+        return platform.equals(Binaries.platformOrNull(image));
+    }
+
+    /** @see #isLoadable(Path) */
+    @Contract(pure = true)
+    private static boolean isLoadable(final @NotNull Elf.Dynamic dynamic, final @NotNull Platform platform, final @NotNull BooleanSupplier musl) {
+        if (dynamic.platform == null || dynamic.platform.arch != platform.arch) return false;
+        if (dynamic.osabi != 0 && dynamic.platform.os != platform.os) return false;
+        if (platform.os == Os.LINUX) {
+            if (dynamic.requiresMusl()) return musl.getAsBoolean();
+            if (dynamic.requiresGlibc()) return !musl.getAsBoolean();
+        }
+        return true;
+    }
+
+    /**
+     * Gets whether the current platform has musl, or not, without blocking the
+     * calling thread.
+     *
+     * <p>The check is the same as {@link #hasMusl()} and gives the
+     * {@code ldd} fallback one second to exit.
+     *
+     * @param executor to run the check on.
+     * @return future that completes with {@code true} if the current platform
+     *     has musl.
+     * @see #hasMuslAsync(Executor, long, TimeUnit)
+     */
+    @Contract("_ -> new")
+    public static @NotNull CompletableFuture<Boolean> hasMuslAsync(final @NotNull Executor executor) {
+        return hasMuslAsync(executor, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gets whether the current platform has musl, or not, without blocking the
+     * calling thread.
+     *
+     * <p>The check is the same as {@link #hasMusl()}, however, the ELF header
+     * of the JVM binary is read on the given executor and the {@code ldd}
+     * fallback is awaited without blocking on Java 9+. On Java 8 the wait
+     * occupies a thread of the given executor. An {@code ldd} process that
+     * does not exit before the deadline is killed and counts as no musl.
+     *
+     * <p>The returned future never completes exceptionally because of a
+     * failed check, it completes with {@code false} instead, exactly like
+     * {@link #hasMusl()} returns {@code false}. Dependent stages run on the
+     * given executor, unless it rejects tasks.
+     *
+     * @param executor to run the check on.
+     * @param timeout maximum time to wait for {@code ldd}.
+     * @param unit of the timeout.
+     * @return future that completes with {@code true} if the current platform
+     *     has musl.
+     * @see #hasMuslAsync(Executor)
+     * @see #hasMusl()
+     */
+    @Contract("_, _, _ -> new")
+    public static @NotNull CompletableFuture<Boolean> hasMuslAsync(final @NotNull Executor executor, final long timeout, final @NotNull TimeUnit unit) {
+        return hasMuslAsync("/proc/self/exe", "ldd", executor, timeout, unit, ProbeCache.current());
+    }
+
+    /** @see #hasMuslAsync(Executor, long, TimeUnit) */
+    @Contract("_, _, _, _, _ -> new")
+    @VisibleForTesting
+    static @NotNull CompletableFuture<Boolean> hasMuslAsync(
+        final @NotNull String exePath,
+        final @NotNull String lddPath,
+        final @NotNull Executor executor,
+        final long timeout,
+        final @NotNull TimeUnit unit
+    ) {
+        return hasMuslAsync(exePath, lddPath, executor, timeout, unit, null);
+    }
+
+    /**
+     * @param cache to get the result from, results are not written back
+     *     because a timeout completes with {@code false} as well.
+     * @see #hasMuslAsync(Executor, long, TimeUnit)
+     */
+    @Contract("_, _, _, _, _, _ -> new")
+    @VisibleForTesting
+    static @NotNull CompletableFuture<Boolean> hasMuslAsync(
+        final @NotNull String exePath,
+        final @NotNull String lddPath,
+        final @NotNull Executor executor,
+        final long timeout,
+        final @NotNull TimeUnit unit,
+        final @Nullable ProbeCache cache
+    ) {
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    final String cached = cache == null ? null : cache.get(MUSL_PROBE);
+                    if (cached != null) {
+                        result.complete(Boolean.parseBoolean(cached));
+                        return;
                     }
+                    final String interpreter = interpreterOrNull(exePath);
+                    if (interpreter != null) {
+                        result.complete(isMuslInterpreter(interpreter));
+                        return;
+                    }
+                    hasMuslAsync(lddPath, executor, timeout, unit)
+                        .whenCompleteAsync((musl, ignored) -> result.complete(musl == Boolean.TRUE), executor)
+                        .whenComplete((ignored, e) -> {
+                            if (e != null) result.complete(false); // executor rejected
+                        });
+                } catch (final RuntimeException e) {
+                    result.completeExceptionally(e);
                 }
+            });
+        } catch (final RejectedExecutionException ignored) {
+            result.complete(false);
+        }
+        return result;
+    }
+
+    /**
+     * @param cache to get the result from, or to put it into after probing,
+     *     inconclusive results are not put into it.
+     * @see #hasMusl()
+     */
+    @VisibleForTesting
+    static boolean hasMusl(final @NotNull String exePath, final @NotNull String lddPath, final @Nullable ProbeCache cache) {
+        final String cached = cache == null ? null : cache.get(MUSL_PROBE);
+        if (cached != null) return Boolean.parseBoolean(cached);
+        final @Nullable Boolean musl = hasMuslOrNull(exePath, lddPath);
+        if (musl == null) return false;
+        if (cache != null) cache.put(MUSL_PROBE, musl.toString());
+        return musl;
+    }
+
+    /** @see #hasMusl() */
+    @Contract(pure = true)
+    @VisibleForTesting
+    static boolean hasMusl(final @NotNull String exePath, final @NotNull String lddPath) {
+        return hasMuslOrNull(exePath, lddPath) == Boolean.TRUE;
+    }
+
+    /**
+     * @return whether the program interpreter or {@code ldd} points to musl,
+     *     or {@code null} if neither gave a conclusive answer.
+     * @see #hasMusl()
+     */
+    @Contract(pure = true)
+    private static @Nullable Boolean hasMuslOrNull(final @NotNull String exePath, final @NotNull String lddPath) {
+        final String interpreter = interpreterOrNull(exePath);
+        return interpreter == null ? hasMuslOrNull(lddPath) : Boolean.valueOf(isMuslInterpreter(interpreter));
+    }
+
+    /**
+     * Gets whether the output of {@code ldd --version} mentions musl.
+     *
+     * <p>Concurrent callers with the same {@code lddPath} share a single
+     * probe: the first caller starts {@code ldd} and waits for it, all others
+     * wait for its result. Completed probes are cached for the life of the
+     * process, and looking them up does not lock. Only an interrupted, timed
+     * out, or failed probe is forgotten, so that the next caller tries again,
+     * the callers that were waiting for it get {@code false}.
+     *
+     * @see #hasMusl()
+     */
+    @Contract(pure = true)
+    @VisibleForTesting
+    static boolean hasMusl(final @NotNull String lddPath) {
+        return hasMuslOrNull(lddPath) == Boolean.TRUE;
+    }
+
+    /**
+     * @return whether the output of {@code ldd --version} mentions musl, or
+     *     {@code null} if {@code ldd} could not be started or did not exit.
+     * @see #hasMusl(String)
+     */
+    @Contract(pure = true)
+    private static @Nullable Boolean hasMuslOrNull(final @NotNull String lddPath) {
+        @Nullable CompletableFuture<Boolean> probe = LddProbes.PROBES.get(lddPath);
+        if (probe == null) {
+            final CompletableFuture<Boolean> own = new CompletableFuture<>();
+            probe = LddProbes.PROBES.putIfAbsent(lddPath, own);
+            if (probe == null) return probe(lddPath, own);
+        }
+        return probe.join();
+    }
+
+    /**
+     * Runs the {@code ldd} probe on the calling thread and completes the given
+     * future with its result.
+     *
+     * @param lddPath of the {@code ldd} executable.
+     * @param probe to complete, already registered in {@link LddProbes}.
+     * @return the result of the probe, or {@code null} if it is inconclusive.
+     */
+    private static @Nullable Boolean probe(final @NotNull String lddPath, final @NotNull CompletableFuture<Boolean> probe) {
+        @Nullable Process proc = null;
+        @Nullable Boolean musl = null;
+        try {
+            proc = lddOrNull(lddPath);
+            if (proc != null) {
+                if (proc.waitFor(1, TimeUnit.SECONDS)) musl = isMusl(proc);
+                else LddProbes.PROBES.remove(lddPath, probe);
             }
-        } catch (final InterruptedException | IOException ignored) {
-            return false;
+        } catch (final InterruptedException ignored) {
+            LddProbes.PROBES.remove(lddPath, probe);
+            Thread.currentThread().interrupt();
+        } catch (final RuntimeException | Error e) {
+            LddProbes.PROBES.remove(lddPath, probe);
+            throw e;
         } finally {
-            proc.destroyForcibly(); // closes all streams
+            if (proc != null) proc.destroyForcibly(); // closes all streams
+            probe.complete(musl);
+        }
+        return musl;
+    }
+
+    /**
+     * Gets whether the output of {@code ldd --version} mentions musl, without
+     * blocking the calling thread.
+     *
+     * <p>Shares the probes of {@link #hasMusl(String)}, the deadline of the
+     * caller that started a probe applies to all callers that share it. A
+     * probe that misses its deadline is forgotten, so that a short deadline
+     * does not decide the result for later callers.
+     *
+     * @return future that completes with the result of the probe, or with
+     *     {@code null} if it is inconclusive. It never completes
+     *     exceptionally, because synchronous callers share it, if the
+     *     executor rejected a task or the probe failed it completes with
+     *     {@code null} and the probe is forgotten.
+     * @see #hasMusl(String)
+     */
+    private static @NotNull CompletableFuture<Boolean> hasMuslAsync(
+        final @NotNull String lddPath,
+        final @NotNull Executor executor,
+        final long timeout,
+        final @NotNull TimeUnit unit
+    ) {
+        @Nullable CompletableFuture<Boolean> probe = LddProbes.PROBES.get(lddPath);
+        if (probe != null) return probe;
+        final CompletableFuture<Boolean> own = new CompletableFuture<>();
+        probe = LddProbes.PROBES.putIfAbsent(lddPath, own);
+        if (probe != null) return probe;
+
+        try {
+            final Process proc = lddOrNull(lddPath);
+            if (proc == null) {
+                own.complete(null);
+                return own;
+            }
+            Processes.onExit(proc, timeout, unit, executor)
+                .thenApplyAsync(exited -> {
+                    if (exited) return isMusl(proc);
+                    LddProbes.PROBES.remove(lddPath, own);
+                    return null;
+                }, executor)
+                .whenComplete((musl, e) -> {
+                    proc.destroyForcibly(); // closes all streams
+                    if (e != null) LddProbes.PROBES.remove(lddPath, own);
+                    own.complete(musl);
+                });
+        } catch (final RuntimeException | Error e) {
+            LddProbes.PROBES.remove(lddPath, own);
+            own.complete(null);
+        }
+        return own;
+    }
+
+    /**
+     * Gets the program interpreter of the given executable.
+     *
+     * @param exePath of the executable.
+     * @return the program interpreter or {@code null} if the executable cannot
+     *     be read, is not an ELF file, or has no program interpreter.
+     */
+    @Contract(pure = true)
+    private static @Nullable String interpreterOrNull(final @NotNull String exePath) {
+        try {
+            return Elf.interpreter(Paths.get(exePath));
+        } catch (final IOException | IllegalArgumentException | UnsupportedOperationException | SecurityException ignored) {
+            return null;
         }
+    }
+
+    /**
+     * Checks if the given program interpreter is the musl dynamic loader.
+     *
+     * @param interpreter to check.
+     * @return {@code true} if the file name starts with {@code ld-musl-}.
+     */
+    @Contract(pure = true)
+    private static boolean isMuslInterpreter(final @NotNull String interpreter) {
+        return interpreter.startsWith("ld-musl-", interpreter.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Starts {@code ldd --version}.
+     *
+     * @param lddPath of the {@code ldd} executable.
+     * @return the started process or {@code null} if it cannot be started.
+     */
+    private static @Nullable Process lddOrNull(final @NotNull String lddPath) {
+        try {
+            return new ProcessBuilder(lddPath, "--version").start();
+        } catch (final IOException | UnsupportedOperationException | SecurityException ignored) {
+            return null;
+        }
+    }
 
+    /**
+     * Checks if the first line of the output of the given exited
+     * {@code ldd --version} process mentions musl.
+     *
+     * @param proc to read the output from.
+     * @return {@code true} if the output mentions musl.
+     */
+    private static boolean isMusl(final @NotNull Process proc) {
+        final StringBuilder sb = new StringBuilder(40);
+        try (final InputStream s = proc.getInputStream()) {
+            int c;
+            while ((c = s.read()) != -1 && c != '\n') {
+                if ('A' <= c && c <= 'Z') sb.append((char) (c + 32));
+                else sb.append((char) c);
+            }
+        } catch (final IOException ignored) {
+            return false;
+        }
         return sb.toString().matches("(?s).*\\bmusl\\b.*");
     }
 
@@ -221,19 +1150,40 @@ public final class Platform implements Comparable<Platform>, Serializable {
         return arch;
     }
 
+    /**
+     * Gets the sizes and alignments of the fundamental C types of this
+     * platform.
+     *
+     * @return the precomputed data model of this platform.
+     */
+    @Contract(pure = true)
+    public @NotNull DataModel getDataModel() {
+        return DataModel.of(this);
+    }
+
     @Contract(pure = true)
     @Override public int compareTo(final @NotNull Platform other) {
-        return id.compareTo(other.id);
+        return Integer.compare(index(os, arch), index(other.os, other.arch));
     }
 
     @Contract(pure = true)
     @Override public boolean equals(final @Nullable Object other) {
-        return this == other || (other instanceof Platform && id.equals(((Platform) other).id));
+        return this == other || (other instanceof Platform && os == ((Platform) other).os && arch == ((Platform) other).arch);
     }
 
     @Contract(pure = true)
     @Override public int hashCode() {
-        return id.hashCode();
+        return index(os, arch);
+    }
+
+    /**
+     * Replaces deserialized instances with the canonical instance.
+     *
+     * @return the canonical platform.
+     */
+    @Contract(pure = true)
+    private @NotNull Object readResolve() {
+        return of(os, arch);
     }
 
     /**
@@ -263,4 +1213,46 @@ public final class Platform implements Comparable<Platform>, Serializable {
     @Override public @NotNull String toString() {
         return id;
     }
+
+    /**
+     * Gets the machine-readable identifier of this platform with the given
+     * microarchitecture level, e.g., {@code linux-x86-64-v3}.
+     *
+     * <p>{@link #parse(CharSequence)} reads such identifiers as this platform,
+     * and {@link MicroArch#parse(CharSequence)} as the level.
+     *
+     * @param level to append to the identifier.
+     * @return {@link Os#toString} and {@link MicroArch#toString} joined with a
+     *     dash ({@code -}).
+     * @throws IllegalArgumentException if the level is not a level of the
+     *     arch of this platform.
+     * @throws NullPointerException if the given level is {@code null}.
+     * @see MicroArch#resolve
+     */
+    @Contract(pure = true)
+    public @NotNull String toString(final @NotNull MicroArch level) throws IllegalArgumentException {
+        if (level.getArch() != arch) throw new IllegalArgumentException("Microarchitecture " + level + " is not a level of " + arch);
+        return os + "-" + level;
+    }
+
+    /**
+     * Lazy holder of the {@code ldd --version} probes keyed by the path of
+     * {@code ldd}.
+     */
+    private static final class LddProbes {
+        static final @NotNull ConcurrentHashMap<String, CompletableFuture<Boolean>> PROBES = new ConcurrentHashMap<>();
+    }
+
+    /** Lazy holder of the musl detection result of the current process. */
+    private static final class Musl {
+        static final boolean PRESENT = hasMusl("/proc/self/exe", "ldd", ProbeCache.current());
+    }
+
+    /**
+     * Lazy holder of the matcher that finds the {@link Os} in the first and
+     * the {@link Arch} in the second channel.
+     */
+    private static final class Keywords {
+        static final @NotNull KeywordMatcher<Enum<?>> MATCHER = Arch.keywords(Os.keywords(new KeywordMatcher.Builder<Enum<?>>()).channel()).build();
+    }
 }
@@ -0,0 +1,207 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Parallelism of thread pools that is derived from the limits of the current
+ * process, and factory of such pools.
+ *
+ * <p>Pools that are sized with {@link Runtime#availableProcessors()} are
+ * oversubscribed in containers where the JDK does not consider the cgroup CPU
+ * quota, e.g., 16 threads that share a quota of 2 CPUs are throttled most of
+ * every period, and switch contexts all the time. The parallelism is instead
+ * derived from:
+ *
+ * <ul>
+ *   <li>the CPUs that the process may run on ({@code Cpus_allowed_list} of
+ *     {@code /proc/self/status}), which reflects {@code taskset} as well as
+ *     the cpuset of the container;
+ *   <li>the CPU quota of the container, rounded up, see
+ *     {@link ContainerLimits#getCpuLimit()};
+ *   <li>the SMT siblings of the cores, see {@link CpuTopology}.
+ * </ul>
+ *
+ * <pre>{@code
+ * final ForkJoinPool compute = PlatformExecutors.current().newCpuBoundPool();
+ * final ExecutorService io = PlatformExecutors.current().newBlockingPool();
+ * }</pre>
+ *
+ * <p>Blocking pools use a virtual thread per task on Java 21+, and a bounded
+ * pool of platform threads everywhere else.
+ */
+public final class PlatformExecutors {
+    /** Platform threads per CPU of blocking pools, which spend most of their time waiting. */
+    private static final int BLOCKING_THREADS_PER_CPU = 8;
+
+    private final int parallelism;
+    private final int coreParallelism;
+    private final int blockingParallelism;
+
+    /**
+     * @param allowedCpus number of CPUs that the process may run on.
+     * @param cpuLimit CPU quota of the process, or {@code -1} if unlimited.
+     * @param threadsPerCore number of SMT siblings per core.
+     */
+    @VisibleForTesting
+    PlatformExecutors(final int allowedCpus, final double cpuLimit, final int threadsPerCore) {
+        int parallelism = Math.max(1, allowedCpus);
+        if (cpuLimit > 0) parallelism = Math.min(parallelism, (int) Math.ceil(cpuLimit));
+        this.parallelism = parallelism;
+        this.coreParallelism = Math.min(parallelism, Math.max(1, (allowedCpus + threadsPerCore - 1) / Math.max(1, threadsPerCore)));
+        this.blockingParallelism = parallelism * BLOCKING_THREADS_PER_CPU;
+    }
+
+    /**
+     * Gets the parallelism of the current process, which is probed once.
+     *
+     * @return the parallelism of the current process.
+     */
+    @Contract(pure = true)
+    public static @NotNull PlatformExecutors current() {
+        return Current.EXECUTORS;
+    }
+
+    /**
+     * Reads the number of CPUs that the process may run on.
+     *
+     * @param proc path of the {@code /proc} filesystem.
+     * @return the number of allowed CPUs, or {@code -1} if unknown.
+     */
+    @Contract(pure = true)
+    @VisibleForTesting
+    static int allowedCpus(final @NotNull Path proc) {
+        final String status;
+        try {
+            status = new String(Files.readAllBytes(proc.resolve("self/status")), StandardCharsets.ISO_8859_1);
+        } catch (final IOException | RuntimeException e) {
+            return -1;
+        }
+        final String label = "\nCpus_allowed_list:";
+        final int start = status.indexOf(label);
+        if (start < 0) return -1;
+        int end = status.indexOf('\n', start + 1);
+        if (end < 0) end = status.length();
+        try {
+            final BitSet cpus = CpuTopology.list(status.substring(start + label.length(), end).trim());
+            return cpus.isEmpty() ? -1 : cpus.cardinality();
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the number of threads that keep all CPUs busy that the process may
+     * use, without exceeding its CPU quota. This is the parallelism of pools
+     * for CPU-bound tasks.
+     *
+     * @return the parallelism, at least {@code 1}.
+     */
+    @Contract(pure = true)
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the number of physical cores among the CPUs that the process may
+     * use, without exceeding its CPU quota. This is the parallelism of pools
+     * for tasks that saturate the execution units of a core, e.g., SIMD
+     * kernels, and gain nothing from SMT siblings.
+     *
+     * @return the parallelism, at least {@code 1}.
+     */
+    @Contract(pure = true)
+    public int getCoreParallelism() {
+        return coreParallelism;
+    }
+
+    /**
+     * Gets the maximum number of platform threads of pools for blocking tasks,
+     * which is a multiple of the {@link #getParallelism() parallelism}.
+     *
+     * @return the parallelism, at least {@code 1}.
+     */
+    @Contract(pure = true)
+    public int getBlockingParallelism() {
+        return blockingParallelism;
+    }
+
+    /**
+     * Creates a new pool for CPU-bound tasks with the
+     * {@link #getParallelism() parallelism}.
+     *
+     * @return the new pool.
+     */
+    @Contract(value = "-> new", pure = true)
+    public @NotNull ForkJoinPool newCpuBoundPool() {
+        return new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Creates a new pool for blocking tasks, which starts a new virtual thread
+     * for every task on Java 21+, and is otherwise a pool of up to
+     * {@link #getBlockingParallelism()} platform threads that time out after
+     * a minute of idling.
+     *
+     * @return the new pool.
+     */
+    @Contract(value = "-> new", pure = true)
+    public @NotNull ExecutorService newBlockingPool() {
+        final ExecutorService virtual = VirtualThreads.newExecutorOrNull("blocking-");
+        return virtual != null ? virtual : newPlatformBlockingPool();
+    }
+
+    /** @see #newBlockingPool() */
+    @Contract(value = "-> new", pure = true)
+    @VisibleForTesting
+    @NotNull ThreadPoolExecutor newPlatformBlockingPool() {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(blockingParallelism, blockingParallelism, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(), new NamedThreadFactory("blocking-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Contract(pure = true)
+    @Override public @NotNull String toString() {
+        return "PlatformExecutors{parallelism=" + parallelism + ", coreParallelism=" + coreParallelism + ", blockingParallelism=" + blockingParallelism + '}';
+    }
+
+    /** Factory of numbered threads. */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final @NotNull String name;
+        private final @NotNull AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(final @NotNull String name) {
+            this.name = name;
+        }
+
+        @Override public @NotNull Thread newThread(final @NotNull Runnable task) {
+            return new Thread(task, name + count.getAndIncrement());
+        }
+    }
+
+    /** Lazy holder of the parallelism of the current process. */
+    private static final class Current {
+        static final @NotNull PlatformExecutors EXECUTORS = create();
+
+        private static @NotNull PlatformExecutors create() {
+            final ContainerLimits limits = ContainerLimits.current();
+            int allowed = Os.currentOrNull() == Os.LINUX ? allowedCpus(Paths.get("/proc")) : -1;
+            if (allowed < 1) allowed = limits.getAvailableCpus();
+            return new PlatformExecutors(allowed, limits.getCpuLimit(), CpuTopology.current().getThreadsPerCore());
+        }
+    }
+}
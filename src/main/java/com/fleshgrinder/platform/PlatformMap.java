@@ -0,0 +1,102 @@
+package com.fleshgrinder.platform;
+
+import java.util.Map;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Map with {@link Platform} keys, in the spirit of {@link java.util.EnumMap}.
+ *
+ * <p>The values are stored in a flat array indexed by the ordinals of the
+ * {@link Os} and {@link Arch} of their platform, hence, a lookup neither
+ * hashes nor compares ids, and does not allocate. {@link #forEach} visits
+ * the entries in the order of {@link Platform#compareTo} without allocating
+ * entries. {@code null} values are not supported.
+ *
+ * <p>Maps are not synchronized, exactly like {@link java.util.HashMap}.
+ *
+ * @param <V> type of the values.
+ * @see OsMap
+ * @see ArchMap
+ */
+public final class PlatformMap<V> extends OrdinalMap<Platform, V> {
+    private static final long serialVersionUID = 1;
+
+    /** Constructs a new empty map. */
+    public PlatformMap() {
+        super(Platform.COUNT);
+    }
+
+    /**
+     * Constructs a new map with the entries of the given map.
+     *
+     * @param entries to put into the new map.
+     * @throws NullPointerException if any key or value is {@code null}.
+     */
+    public PlatformMap(final @NotNull Map<? extends Platform, ? extends V> entries) {
+        this();
+        putAll(entries);
+    }
+
+    /**
+     * Gets the value of the platform of the given {@link Os} and
+     * {@link Arch}.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return the value or {@code null} if there is none.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    @Contract(pure = true)
+    public @Nullable V get(final @NotNull Os os, final @NotNull Arch arch) {
+        return getAt(Platform.index(os, arch));
+    }
+
+    /**
+     * Associates the value with the platform of the given {@link Os} and
+     * {@link Arch}.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @param value to associate.
+     * @return the previous value or {@code null} if there was none.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    public @Nullable V put(final @NotNull Os os, final @NotNull Arch arch, final @NotNull V value) {
+        return putAt(Platform.index(os, arch), value);
+    }
+
+    /**
+     * Removes the value of the platform of the given {@link Os} and
+     * {@link Arch}.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return the removed value or {@code null} if there was none.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    public @Nullable V remove(final @NotNull Os os, final @NotNull Arch arch) {
+        return removeAt(Platform.index(os, arch));
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Class<Platform> keyType() {
+        return Platform.class;
+    }
+
+    @Contract(pure = true)
+    @Override int index(final @NotNull Platform key) {
+        return key.index();
+    }
+
+    @Contract(pure = true)
+    @Override @NotNull Platform key(final int index) {
+        return Platform.of(index);
+    }
+
+    @Contract(pure = true)
+    @Override int capacity() {
+        return Platform.COUNT;
+    }
+}
@@ -0,0 +1,384 @@
+package com.fleshgrinder.platform;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable set of {@link Platform}s, in the spirit of
+ * {@link java.util.EnumSet}.
+ *
+ * <p>Every combination of {@link Os} and {@link Arch} has a bit of its own,
+ * hence, the whole set is a handful of {@code long} words, a membership test
+ * is a shift and a mask, and the set algebra works on whole words. Iteration
+ * is in the order of {@link Platform#compareTo}.
+ *
+ * <p>Sets are created with {@link #of}, {@link #copyOf}, {@link #allOf},
+ * {@link #noneOf}, or the {@link Builder}. All mutating methods of the
+ * {@link java.util.Set} interface throw {@link UnsupportedOperationException}.
+ */
+public final class PlatformSet extends AbstractSet<Platform> implements Serializable {
+    private static final long serialVersionUID = 1;
+
+    /** Number of words required for a bit per platform. */
+    private static final int WORDS = (Platform.COUNT + 63) >>> 6;
+
+    private static final @NotNull PlatformSet NONE = new PlatformSet(new long[WORDS]);
+
+    private static final @NotNull PlatformSet ALL;
+
+    static {
+        final long[] words = new long[WORDS];
+        Arrays.fill(words, -1L);
+        words[WORDS - 1] = -1L >>> (WORDS * 64 - Platform.COUNT);
+        ALL = new PlatformSet(words);
+    }
+
+    private final transient long @NotNull [] words;
+    private final transient int size;
+
+    private PlatformSet(final long @NotNull [] words) {
+        this.words = words;
+        int size = 0;
+        for (final long word : words) size += Long.bitCount(word);
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty set.
+     *
+     * @return the empty set.
+     */
+    @Contract(pure = true)
+    public static @NotNull PlatformSet noneOf() {
+        return NONE;
+    }
+
+    /**
+     * Gets the set of all platforms.
+     *
+     * @return the set of all platforms.
+     */
+    @Contract(pure = true)
+    public static @NotNull PlatformSet allOf() {
+        return ALL;
+    }
+
+    /**
+     * Creates a set of the given platforms.
+     *
+     * @param platforms to include.
+     * @return the set of the given platforms.
+     * @throws NullPointerException if any platform is {@code null}.
+     */
+    @Contract(pure = true)
+    public static @NotNull PlatformSet of(final @NotNull Platform @NotNull ... platforms) {
+        final long[] words = new long[WORDS];
+        for (final Platform platform : platforms) set(words, platform.index());
+        return new PlatformSet(words);
+    }
+
+    /**
+     * Creates a set of the given platforms.
+     *
+     * @param platforms to include.
+     * @return the set of the given platforms, or the given set itself if it
+     *     is a {@link PlatformSet}.
+     * @throws NullPointerException if any platform is {@code null}.
+     */
+    @Contract(pure = true)
+    public static @NotNull PlatformSet copyOf(final @NotNull Collection<? extends Platform> platforms) {
+        if (platforms instanceof PlatformSet) return (PlatformSet) platforms;
+        final long[] words = new long[WORDS];
+        for (final Platform platform : platforms) set(words, platform.index());
+        return new PlatformSet(words);
+    }
+
+    /**
+     * Creates a new builder.
+     *
+     * @return new empty builder.
+     */
+    @Contract(value = "-> new", pure = true)
+    public static @NotNull Builder builder() {
+        return new Builder();
+    }
+
+    private static void set(final long @NotNull [] words, final int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Checks if the given platform is in this set.
+     *
+     * @param platform to check.
+     * @return {@code true} if the platform is in this set.
+     * @throws NullPointerException if the platform is {@code null}.
+     */
+    @Contract(pure = true)
+    public boolean contains(final @NotNull Platform platform) {
+        return has(platform.index());
+    }
+
+    /**
+     * Checks if the platform of the given {@link Os} and {@link Arch} is in
+     * this set.
+     *
+     * @param os of the platform.
+     * @param arch of the platform.
+     * @return {@code true} if the platform is in this set.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    @Contract(pure = true)
+    public boolean contains(final @NotNull Os os, final @NotNull Arch arch) {
+        return has(Platform.index(os, arch));
+    }
+
+    @Contract(pure = true)
+    @Override public boolean contains(final @Nullable Object other) {
+        return other instanceof Platform && has(((Platform) other).index());
+    }
+
+    @Contract(pure = true)
+    private boolean has(final int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets the union of this and the other set.
+     *
+     * @param other set to unite with.
+     * @return set of all platforms that are in this or the other set.
+     */
+    @Contract(pure = true)
+    public @NotNull PlatformSet union(final @NotNull PlatformSet other) {
+        final long[] words = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) words[i] = this.words[i] | other.words[i];
+        return new PlatformSet(words);
+    }
+
+    /**
+     * Gets the intersection of this and the other set.
+     *
+     * @param other set to intersect with.
+     * @return set of all platforms that are in this and the other set.
+     */
+    @Contract(pure = true)
+    public @NotNull PlatformSet intersection(final @NotNull PlatformSet other) {
+        final long[] words = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) words[i] = this.words[i] & other.words[i];
+        return new PlatformSet(words);
+    }
+
+    /**
+     * Gets the difference of this and the other set.
+     *
+     * @param other set to subtract.
+     * @return set of all platforms that are in this but not the other set.
+     */
+    @Contract(pure = true)
+    public @NotNull PlatformSet difference(final @NotNull PlatformSet other) {
+        final long[] words = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) words[i] = this.words[i] & ~other.words[i];
+        return new PlatformSet(words);
+    }
+
+    /**
+     * Gets the complement of this set.
+     *
+     * @return set of all platforms that are not in this set.
+     */
+    @Contract(pure = true)
+    public @NotNull PlatformSet complement() {
+        return ALL.difference(this);
+    }
+
+    @Contract(pure = true)
+    @Override public int size() {
+        return size;
+    }
+
+    @Contract(pure = true)
+    @Override public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Contract(pure = true)
+    @Override public boolean containsAll(final @NotNull Collection<?> other) {
+        if (!(other instanceof PlatformSet)) return super.containsAll(other);
+        final long[] that = ((PlatformSet) other).words;
+        for (int i = 0; i < WORDS; i++) if ((that[i] & ~words[i]) != 0) return false;
+        return true;
+    }
+
+    /** Iterates over the platforms in the order of {@link Platform#compareTo}. */
+    @Contract(value = "-> new", pure = true)
+    @Override public @NotNull Iterator<Platform> iterator() {
+        return new Iterator<Platform>() {
+            private int i = 0;
+            private long word = words[0];
+
+            @Override public boolean hasNext() {
+                while (word == 0) {
+                    if (i == WORDS - 1) return false;
+                    word = words[++i];
+                }
+                return true;
+            }
+
+            @Override public @NotNull Platform next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                final int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return Platform.of((i << 6) + bit);
+            }
+        };
+    }
+
+    /** Performs the action for each platform in the order of {@link Platform#compareTo}. */
+    @Override public void forEach(final @NotNull Consumer<? super Platform> action) {
+        for (int i = 0; i < WORDS; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                action.accept(Platform.of((i << 6) + Long.numberOfTrailingZeros(word)));
+            }
+        }
+    }
+
+    @Contract(pure = true)
+    @Override public boolean equals(final @Nullable Object other) {
+        if (this == other) return true;
+        if (other instanceof PlatformSet) return Arrays.equals(words, ((PlatformSet) other).words);
+        return super.equals(other);
+    }
+
+    /** Sum of the {@link Platform#hashCode}s as required by {@link java.util.Set#hashCode}. */
+    @Contract(pure = true)
+    @Override public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < WORDS; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                hash += (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Serializes the platforms instead of the bits because the bits depend on
+     * the order of the enum constants.
+     */
+    @Contract(value = "-> new", pure = true)
+    private @NotNull Object writeReplace() {
+        return new Proxy(toArray(new Platform[0]));
+    }
+
+    private void readObject(final @NotNull ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("Proxy required");
+    }
+
+    /** Serialized form of {@link PlatformSet}. */
+    private static final class Proxy implements Serializable {
+        private static final long serialVersionUID = 1;
+
+        private final @NotNull Platform @NotNull [] platforms;
+
+        Proxy(final @NotNull Platform @NotNull [] platforms) {
+            this.platforms = platforms;
+        }
+
+        @Contract(pure = true)
+        private @NotNull Object readResolve() {
+            return of(platforms);
+        }
+    }
+
+    /**
+     * Builder of {@link PlatformSet}s.
+     *
+     * <p>Building does not end the use of a builder, it can be changed and
+     * build again without affecting the sets that were built before.
+     */
+    public static final class Builder {
+        private final long @NotNull [] words = new long[WORDS];
+
+        private Builder() {}
+
+        /**
+         * Adds the given platform.
+         *
+         * @param platform to add.
+         * @return this builder.
+         * @throws NullPointerException if the platform is {@code null}.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder add(final @NotNull Platform platform) {
+            set(words, platform.index());
+            return this;
+        }
+
+        /**
+         * Adds the platform of the given {@link Os} and {@link Arch}.
+         *
+         * @param os of the platform.
+         * @param arch of the platform.
+         * @return this builder.
+         * @throws NullPointerException if any argument is {@code null}.
+         */
+        @Contract("_, _ -> this")
+        public @NotNull Builder add(final @NotNull Os os, final @NotNull Arch arch) {
+            set(words, Platform.index(os, arch));
+            return this;
+        }
+
+        /**
+         * Adds the given platforms.
+         *
+         * @param platforms to add.
+         * @return this builder.
+         * @throws NullPointerException if any platform is {@code null}.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder addAll(final @NotNull Iterable<? extends Platform> platforms) {
+            if (platforms instanceof PlatformSet) {
+                final long[] that = ((PlatformSet) platforms).words;
+                for (int i = 0; i < WORDS; i++) words[i] |= that[i];
+            } else {
+                for (final Platform platform : platforms) set(words, platform.index());
+            }
+            return this;
+        }
+
+        /**
+         * Removes the given platform.
+         *
+         * @param platform to remove.
+         * @return this builder.
+         * @throws NullPointerException if the platform is {@code null}.
+         */
+        @Contract("_ -> this")
+        public @NotNull Builder remove(final @NotNull Platform platform) {
+            final int index = platform.index();
+            words[index >>> 6] &= ~(1L << index);
+            return this;
+        }
+
+        /**
+         * Builds the set of all platforms that were added.
+         *
+         * @return new set.
+         */
+        @Contract(value = "-> new", pure = true)
+        public @NotNull PlatformSet build() {
+            return new PlatformSet(words.clone());
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.fleshgrinder.platform;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Watcher of the {@link ContainerLimits} of the current process, which change
+ * if an orchestrator resizes a container in place, so that pools and caches
+ * that are sized from the limits can resize themselves.
+ *
+ * <pre>{@code
+ * final PlatformWatcher watcher = PlatformWatcher.start(10, TimeUnit.SECONDS);
+ * watcher.addListener(limits -> pool.setParallelism(limits.getAvailableCpus()));
+ * }</pre>
+ *
+ * <p>The cgroup controller files that the limits are read from are kept open
+ * and checked on a daemon thread whenever a {@link WatchService} (inotify on
+ * Linux) reports a modification of their directories, and at least once per
+ * interval because the kernel does not report every change of a cgroup file.
+ * A check reads every file into a reused buffer and compares it with the
+ * previous content, hence, nothing is allocated while nothing changes. The
+ * limits are only read again, and listeners are only notified, if the content
+ * of a file changed and the limits differ from the previous ones.
+ *
+ * <p>Listeners are called on the thread of the watcher, exceptions that they
+ * throw are passed to the uncaught exception handler of the thread. Nothing
+ * is watched on operating systems other than Linux, or if the process is not
+ * in a cgroup with limits.
+ */
+public final class PlatformWatcher implements Closeable {
+    /** Size of the buffer that the files are read into, limits are never longer. */
+    private static final int BUFFER_SIZE = 4096;
+
+    private final @NotNull ContainerLimits.Reader reader = new ContainerLimits.Reader();
+    private final @Nullable ContainerLimits.Cgroup cgroup;
+    private final int cpus;
+    private final @NotNull Watched @NotNull [] files;
+    private final @NotNull ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final @NotNull List<Consumer<? super ContainerLimits>> listeners = new CopyOnWriteArrayList<>();
+    private volatile @NotNull ContainerLimits limits;
+    private volatile @Nullable Thread thread;
+    private volatile boolean closed;
+    private @Nullable WatchService watchService;
+
+    /**
+     * Constructs a new watcher without a thread, that only checks the files
+     * when {@link #check()} is called.
+     *
+     * @param proc path of the {@code /proc} filesystem.
+     * @param root path of the root directory that the mount points in
+     *     {@code /proc/self/mountinfo} are relative to.
+     * @param cpus number of logical CPUs of the host.
+     */
+    @VisibleForTesting
+    PlatformWatcher(final @NotNull Path proc, final @NotNull Path root, final int cpus) {
+        this.cgroup = ContainerLimits.cgroup(reader, proc, root);
+        this.cpus = cpus;
+        final List<Watched> files = new ArrayList<>();
+        if (cgroup != null) {
+            for (final Path file : cgroup.files()) {
+                try {
+                    files.add(new Watched(file, FileChannel.open(file)));
+                } catch (final IOException | RuntimeException ignored) {
+                    // controller files do not come and go
+                }
+            }
+        }
+        this.files = files.toArray(new Watched[0]);
+        for (final Watched file : this.files) file.update(buffer);
+        this.limits = read();
+    }
+
+    /**
+     * Starts a new watcher of the limits of the current process.
+     *
+     * @param interval at which the files are checked even if the
+     *     {@link WatchService} reports no modification.
+     * @param unit of the interval.
+     * @return the new watcher, which must be closed to stop it.
+     * @throws IllegalArgumentException if the interval is not positive.
+     * @throws NullPointerException if the unit is {@code null}.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull PlatformWatcher start(final long interval, final @NotNull TimeUnit unit) throws IllegalArgumentException {
+        return start(Paths.get("/proc"), Paths.get("/"), CpuTopology.current().getLogicalCpus(), interval, unit);
+    }
+
+    /** @see #start(long, TimeUnit) */
+    @Contract("_, _, _, _, _ -> new")
+    @VisibleForTesting
+    static @NotNull PlatformWatcher start(final @NotNull Path proc, final @NotNull Path root, final int cpus, final long interval, final @NotNull TimeUnit unit) throws IllegalArgumentException {
+        if (interval <= 0) throw new IllegalArgumentException("Interval must be positive: " + interval);
+        if (unit == null) throw new NullPointerException("unit");
+        final PlatformWatcher watcher = new PlatformWatcher(proc, root, cpus);
+        if (watcher.files.length > 0) {
+            watcher.watchService = watcher.newWatchService();
+            final Thread thread = new Thread(() -> watcher.run(interval, unit), "platform-watcher");
+            thread.setDaemon(true);
+            watcher.thread = thread;
+            thread.start();
+        }
+        return watcher;
+    }
+
+    /**
+     * Gets the limits that were read last.
+     *
+     * @return the current limits.
+     */
+    @Contract(pure = true)
+    public @NotNull ContainerLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Adds a listener that is called with the new limits whenever they
+     * change.
+     *
+     * @param listener to add.
+     * @throws NullPointerException if the listener is {@code null}.
+     */
+    public void addListener(final @NotNull Consumer<? super ContainerLimits> listener) {
+        if (listener == null) throw new NullPointerException("listener");
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener that was added before.
+     *
+     * @param listener to remove.
+     * @return {@code true} if the listener was removed.
+     */
+    public boolean removeListener(final @NotNull Consumer<? super ContainerLimits> listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Stops watching and closes all files, listeners are not called anymore
+     * once this method returns.
+     */
+    @Override public void close() {
+        closed = true;
+        final Thread thread = this.thread;
+        if (thread != null) {
+            thread.interrupt();
+            if (thread != Thread.currentThread()) {
+                try {
+                    thread.join();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        synchronized (this) {
+            final WatchService watchService = this.watchService;
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (final IOException ignored) {
+                    // nothing to do
+                }
+            }
+            for (final Watched file : files) file.close();
+        }
+    }
+
+    /**
+     * Checks the files once and notifies the listeners if the limits changed.
+     *
+     * @return {@code true} if the limits changed.
+     */
+    @VisibleForTesting
+    synchronized boolean check() {
+        if (closed) return false;
+        boolean modified = false;
+        for (final Watched file : files) modified |= file.update(buffer);
+        if (!modified) return false;
+
+        final ContainerLimits next = read();
+        if (next.equals(limits)) return false;
+        limits = next;
+        for (final Consumer<? super ContainerLimits> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (final RuntimeException e) {
+                final Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+        }
+        return true;
+    }
+
+    /** @return new limits read from the files. */
+    private @NotNull ContainerLimits read() {
+        return cgroup == null ? ContainerLimits.unlimited(cpus) : cgroup.read(reader, cpus);
+    }
+
+    /**
+     * Creates a watch service for the directories of the files.
+     *
+     * @return the watch service, or {@code null} if it is not supported.
+     */
+    private @Nullable WatchService newWatchService() {
+        WatchService service = null;
+        try {
+            service = files[0].path.getFileSystem().newWatchService();
+            final Set<Path> dirs = new HashSet<>();
+            for (final Watched file : files) {
+                final Path dir = file.path.getParent();
+                if (dir != null && dirs.add(dir)) dir.register(service, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            }
+            return service;
+        } catch (final IOException | RuntimeException e) {
+            if (service != null) {
+                try {
+                    service.close();
+                } catch (final IOException ignored) {
+                    // polling only
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Loop of the thread of the watcher.
+     *
+     * @param interval at which the files are checked.
+     * @param unit of the interval.
+     */
+    private void run(final long interval, final @NotNull TimeUnit unit) {
+        final WatchService watchService = this.watchService;
+        try {
+            while (!closed) {
+                if (watchService == null) {
+                    unit.sleep(interval);
+                } else {
+                    for (WatchKey key = watchService.poll(interval, unit); key != null; key = watchService.poll()) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+                check();
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    /** An open file and its content when it was checked last. */
+    private static final class Watched {
+        final @NotNull Path path;
+        private final @NotNull FileChannel channel;
+        private byte @NotNull [] content = new byte[64];
+        /** Length of the content, or {@code -1} if the file could not be read. */
+        private int length = -1;
+
+        Watched(final @NotNull Path path, final @NotNull FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        /**
+         * Reads the file from the start into the given buffer, cgroup files
+         * are generated anew on every read from the start.
+         *
+         * @param buffer to read into.
+         * @return {@code true} if the content changed.
+         */
+        boolean update(final @NotNull ByteBuffer buffer) {
+            buffer.clear();
+            int n = 0;
+            try {
+                while (buffer.hasRemaining() && channel.read(buffer, n) > 0) n = buffer.position();
+            } catch (final IOException | RuntimeException e) {
+                n = -1;
+            }
+            if (n == length) {
+                int i = 0;
+                while (i < n && buffer.get(i) == content[i]) i++;
+                if (i == n) return false;
+            }
+            if (n > content.length) content = Arrays.copyOf(content, BUFFER_SIZE);
+            for (int i = 0; i < n; i++) content[i] = buffer.get(i);
+            length = n;
+            return true;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (final IOException ignored) {
+                // nothing to do
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Opt-in on-disk cache of probe results that is shared by all JVMs of a host
+ * that run the same JVM executable.
+ *
+ * <p>Short-lived JVMs otherwise rerun every expensive probe on each start,
+ * e.g., the {@code ldd} process behind {@link Platform#hasMusl()}. The cache
+ * is enabled with the {@value #PROPERTY} system property, whose value is the
+ * path of the cache file, or empty for {@code probes} in the default cache
+ * directory of {@link NativeLoader}:
+ *
+ * <pre>{@code
+ * java -Dcom.fleshgrinder.platform.probe-cache -jar cli.jar
+ * }</pre>
+ *
+ * <p>Entries are only valid for the boot of the host
+ * ({@code /proc/sys/kernel/random/boot_id}) and the JVM executable (its real
+ * path and modification time) that they were probed with, the whole file is
+ * ignored if either differs. The file is small and read with a single read,
+ * and written atomically by moving a temporary file into place, hence,
+ * concurrent JVMs never see a partial file. Concurrent writers might lose
+ * each other's entries, which only means that the next start probes again.
+ * The cache is disabled where no boot identifier is available, which is
+ * everywhere but Linux.
+ */
+final class ProbeCache {
+    /** Name of the system property that enables the cache. */
+    static final String PROPERTY = "com.fleshgrinder.platform.probe-cache";
+    /** Name of the entry with the key, it is always the first line. */
+    private static final String KEY = "key";
+
+    private final @NotNull Path file;
+    private final @NotNull String key;
+    /** Entries of the file, {@code null} until they were read. */
+    private @Nullable Map<String, String> entries;
+
+    @VisibleForTesting
+    ProbeCache(final @NotNull Path file, final @NotNull String key) {
+        if (key.indexOf('\n') >= 0) throw new IllegalArgumentException("Key must be a single line: " + key);
+        this.file = file;
+        this.key = key;
+    }
+
+    /**
+     * Gets the cache of the current process.
+     *
+     * @return the cache or {@code null} if it is not enabled, or not
+     *     supported on this host.
+     */
+    @Contract(pure = true)
+    static @Nullable ProbeCache current() {
+        return Current.INSTANCE;
+    }
+
+    /**
+     * Creates the cache of the current process.
+     *
+     * @return the new cache or {@code null} if it is not enabled, or not
+     *     supported on this host.
+     */
+    @VisibleForTesting
+    @Contract(pure = true)
+    static @Nullable ProbeCache create() {
+        try {
+            final String path = System.getProperty(PROPERTY);
+            if (path == null) return null;
+            final String bootId = new String(Files.readAllBytes(Paths.get("/proc/sys/kernel/random/boot_id")), StandardCharsets.US_ASCII).trim();
+            final Path exe = Paths.get("/proc/self/exe").toRealPath();
+            final String key = bootId + ' ' + Files.getLastModifiedTime(exe).toMillis() + ' ' + exe;
+            return new ProbeCache(path.isEmpty() ? NativeLoader.defaultCacheDir(Os.current()).resolve("probes") : Paths.get(path), key);
+        } catch (final IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the cached result of the given probe.
+     *
+     * @param probe name of the probe.
+     * @return the result or {@code null} if none was cached.
+     */
+    synchronized @Nullable String get(final @NotNull String probe) {
+        return entries().get(probe);
+    }
+
+    /**
+     * Caches the result of the given probe, failures are ignored because the
+     * cache is only an optimization.
+     *
+     * @param probe name of the probe.
+     * @param result of the probe.
+     */
+    synchronized void put(final @NotNull String probe, final @NotNull String result) {
+        if (probe.equals(KEY) || probe.indexOf('=') >= 0 || probe.indexOf('\n') >= 0 || result.indexOf('\n') >= 0) {
+            throw new IllegalArgumentException("Invalid probe result: " + probe + '=' + result);
+        }
+        final Map<String, String> entries = entries();
+        if (result.equals(entries.put(probe, result))) return;
+
+        final StringBuilder sb = new StringBuilder(128).append(KEY).append('=').append(key).append('\n');
+        for (final Map.Entry<String, String> entry : entries.entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        try {
+            final Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            final Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tmp, sb.toString().getBytes(StandardCharsets.UTF_8));
+                try {
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (final IOException | RuntimeException ignored) {
+            // the next start probes again
+        }
+    }
+
+    /**
+     * Gets the entries, reading them from the file on first access.
+     *
+     * @return the entries, empty if the file does not exist, cannot be read,
+     *     or was written with another key.
+     */
+    private @NotNull Map<String, String> entries() {
+        Map<String, String> entries = this.entries;
+        if (entries == null) this.entries = entries = read();
+        return entries;
+    }
+
+    /** @see #entries() */
+    private @NotNull Map<String, String> read() {
+        final Map<String, String> entries = new TreeMap<>();
+        final String content;
+        try {
+            content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (final IOException | RuntimeException e) {
+            return entries;
+        }
+
+        final String header = KEY + '=' + key + '\n';
+        if (!content.startsWith(header)) return entries;
+        for (int i = header.length(), end; i < content.length(); i = end + 1) {
+            end = content.indexOf('\n', i);
+            if (end < 0) break; // truncated by someone else than us
+            final int eq = content.indexOf('=', i);
+            if (eq > i && eq < end) entries.put(content.substring(i, eq), content.substring(eq + 1, end));
+        }
+        return entries;
+    }
+
+    /** Lazy holder of the cache of the current process. */
+    private static final class Current {
+        static final @Nullable ProbeCache INSTANCE = create();
+    }
+}
@@ -0,0 +1,51 @@
+package com.fleshgrinder.platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Asynchronous process utilities.
+ *
+ * <p>Java 8 has no way to get notified when a process exits, hence, this
+ * implementation blocks a thread of the given executor until the process
+ * exits or the timeout elapses. The Java 9+ implementation in
+ * {@code META-INF/versions/9} uses {@code Process.onExit()} instead and never
+ * blocks any thread.
+ */
+final class Processes {
+    private Processes() {}
+
+    /**
+     * Waits asynchronously for the given process to exit.
+     *
+     * @param proc to wait for.
+     * @param timeout maximum time to wait.
+     * @param unit of the timeout.
+     * @param executor to wait on.
+     * @return future that completes with {@code true} if the process exited,
+     *     or with {@code false} if it did not exit in time, and exceptionally
+     *     if the executor rejected the wait or the waiting thread was
+     *     interrupted.
+     */
+    @Contract("_, _, _, _ -> new")
+    static @NotNull CompletableFuture<Boolean> onExit(final @NotNull Process proc, final long timeout, final @NotNull TimeUnit unit, final @NotNull Executor executor) {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(proc.waitFor(timeout, unit));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
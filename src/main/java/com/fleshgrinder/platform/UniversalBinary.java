@@ -0,0 +1,160 @@
+package com.fleshgrinder.platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Extraction of the per-arch slices of Mach-O universal (fat) binaries.
+ *
+ * <p>Only the header of the universal binary is read into memory, the slices
+ * are copied with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * which lets the operating system copy the bytes without passing them through
+ * the Java heap. Thin Mach-O files are treated like universal binaries with a
+ * single slice that spans the whole file, hence, callers do not have to care
+ * about which of the two they got.
+ *
+ * <pre>{@code
+ * if (!UniversalBinary.extract(Paths.get("libfoo.dylib"), Arch.ARM_64, Paths.get("arm64/libfoo.dylib"))) {
+ *     throw new IllegalStateException("libfoo.dylib has no arm64 slice");
+ * }
+ * }</pre>
+ *
+ * @see <a href="https://github.com/apple-oss-distributions/xnu/blob/main/EXTERNAL_HEADERS/mach-o/fat.h">fat.h</a>
+ */
+public final class UniversalBinary {
+    /** Number of times in a row that a target may accept no bytes, see {@link #transfer}. */
+    private static final int MAX_STALLS = 16;
+
+    private UniversalBinary() {}
+
+    /**
+     * Gets the archs that the given universal binary contains.
+     *
+     * @param source path of the universal binary, symbolic links are
+     *     followed.
+     * @return the archs of all slices with a known {@code cputype}.
+     * @throws IllegalArgumentException if the file is neither a universal
+     *     binary nor a thin Mach-O file, or if it is malformed.
+     * @throws IOException if reading the file fails.
+     * @throws NullPointerException if the given path is {@code null}.
+     */
+    @Contract(pure = true)
+    public static @NotNull Set<Arch> archs(final @NotNull Path source) throws IllegalArgumentException, IOException {
+        try (final FileChannel ch = FileChannel.open(source, StandardOpenOption.READ)) {
+            final Set<Arch> archs = slices(ch).keySet();
+            return Collections.unmodifiableSet(archs.isEmpty() ? EnumSet.noneOf(Arch.class) : EnumSet.copyOf(archs));
+        }
+    }
+
+    /**
+     * Copies the slice of the given arch of a universal binary to the given
+     * target, which is created or truncated.
+     *
+     * @param source path of the universal binary, symbolic links are
+     *     followed.
+     * @param arch of the slice to extract.
+     * @param target path to copy the slice to.
+     * @return {@code true} if the slice was copied, {@code false} if the
+     *     universal binary does not contain the arch, in which case the target
+     *     is not touched.
+     * @throws IllegalArgumentException if the source is neither a universal
+     *     binary nor a thin Mach-O file, or if it is malformed.
+     * @throws IOException if reading or writing fails.
+     * @throws NullPointerException if any argument is {@code null}.
+     * @see #transferTo(FileChannel, Arch, WritableByteChannel)
+     */
+    public static boolean extract(final @NotNull Path source, final @NotNull Arch arch, final @NotNull Path target) throws IllegalArgumentException, IOException {
+        try (final FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            final MachO.Slice slice = slices(in).get(arch);
+            if (slice == null) return false;
+            try (final FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                transfer(in, slice, out);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Copies the slice of the given arch of a universal binary to the given
+     * channel.
+     *
+     * @param source channel of the universal binary, its position is not
+     *     changed.
+     * @param arch of the slice to extract.
+     * @param target channel to copy the slice to, it must be in blocking
+     *     mode.
+     * @return number of bytes that were copied, or {@code -1} if the
+     *     universal binary does not contain the arch.
+     * @throws IllegalArgumentException if the source is neither a universal
+     *     binary nor a thin Mach-O file, or if it is malformed.
+     * @throws IOException if reading or writing fails, or if the target
+     *     repeatedly accepts no bytes, e.g., because it is non-blocking.
+     * @throws NullPointerException if any argument is {@code null}.
+     */
+    public static long transferTo(final @NotNull FileChannel source, final @NotNull Arch arch, final @NotNull WritableByteChannel target) throws IllegalArgumentException, IOException {
+        final MachO.Slice slice = slices(source).get(arch);
+        if (slice == null) return -1;
+        transfer(source, slice, target);
+        return slice.size;
+    }
+
+    /**
+     * Reads the slices of the given universal binary or thin Mach-O file.
+     *
+     * @param ch to read from, its position is not changed.
+     * @return the slices of all known archs.
+     * @throws IllegalArgumentException if the file is neither a universal
+     *     binary nor a thin Mach-O file, or if it is malformed.
+     * @throws IOException if reading fails.
+     */
+    static @NotNull ArchMap<MachO.Slice> slices(final @NotNull FileChannel ch) throws IllegalArgumentException, IOException {
+        final long length = ch.size();
+        final ByteBuffer head = Binaries.read(ch, 0, 8);
+        final int count = MachO.fatArchCount(head);
+        if (count < 0) {
+            final Platform platform = MachO.platformOrNull(head);
+            if (platform == null) throw new IllegalArgumentException("Not a universal binary or Mach-O file");
+            final ArchMap<MachO.Slice> slices = new ArchMap<>();
+            slices.put(platform.getArch(), new MachO.Slice(0, length));
+            return slices;
+        }
+        return MachO.slices(Binaries.read(ch, 0, MachO.fatHeaderSize(count, head.getInt(0) == MachO.FAT_MAGIC_64)), length);
+    }
+
+    /**
+     * Copies the given slice, {@link FileChannel#transferTo} may copy fewer
+     * bytes than requested, hence, it is called until all bytes were copied.
+     * A non-blocking target may accept no bytes at all, which is retried only
+     * {@value #MAX_STALLS} times in a row instead of spinning until it does.
+     *
+     * @param source to copy from.
+     * @param slice to copy.
+     * @param target to copy to.
+     * @throws IOException if reading or writing fails, if the source shrank
+     *     while copying, or if the target accepted no bytes too often.
+     */
+    private static void transfer(final @NotNull FileChannel source, final @NotNull MachO.Slice slice, final @NotNull WritableByteChannel target) throws IOException {
+        final long end = slice.offset + slice.size;
+        int stalls = 0;
+        for (long position = slice.offset; position < end; ) {
+            final long n = source.transferTo(position, end - position, target);
+            if (n > 0) {
+                position += n;
+                stalls = 0;
+            } else if (position >= source.size()) {
+                throw new IOException("Universal binary was truncated while copying");
+            } else if (++stalls > MAX_STALLS) {
+                throw new IOException("Target accepted no bytes, it must be a blocking channel");
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.fleshgrinder.platform;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
@@ -81,4 +83,110 @@ final class Utils {
         } while (++i < l);
         return sb.toString();
     }
+
+    /**
+     * Checks that the given range is within the bounds of the given length.
+     *
+     * @param from index of the first element (inclusive).
+     * @param to index of the last element (exclusive).
+     * @param length of the sequence the range is applied to.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     */
+    static void checkRange(final int from, final int to, final int length) throws IndexOutOfBoundsException {
+        if (from < 0 || from > to || to > length) throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + length);
+    }
+
+    /**
+     * Checks whether the given range of chars equals the given id.
+     *
+     * @param id to compare with.
+     * @param chars to compare.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return {@code true} if the range equals the id.
+     */
+    @Contract(pure = true)
+    static boolean regionEquals(final @NotNull String id, final @NotNull CharSequence chars, final int from, final int to) {
+        final int l = id.length();
+        if (l != to - from) return false;
+        for (int i = 0; i < l; i++) if (id.charAt(i) != chars.charAt(from + i)) return false;
+        return true;
+    }
+
+    /** @see #regionEquals(String, CharSequence, int, int) */
+    @Contract(pure = true)
+    static boolean regionEquals(final @NotNull String id, final char @NotNull [] chars, final int from, final int to) {
+        final int l = id.length();
+        if (l != to - from) return false;
+        for (int i = 0; i < l; i++) if (id.charAt(i) != chars[from + i]) return false;
+        return true;
+    }
+
+    /** @see #regionEquals(String, CharSequence, int, int) */
+    @Contract(pure = true)
+    static boolean regionEquals(final @NotNull String id, final byte @NotNull [] bytes, final int from, final int to) {
+        final int l = id.length();
+        if (l != to - from) return false;
+        for (int i = 0; i < l; i++) if (id.charAt(i) != bytes[from + i]) return false;
+        return true;
+    }
+
+    /** @see #regionEquals(String, CharSequence, int, int) */
+    @Contract(pure = true)
+    static boolean regionEquals(final @NotNull String id, final @NotNull ByteBuffer bytes, final int from, final int to) {
+        final int l = id.length();
+        if (l != to - from) return false;
+        for (int i = 0; i < l; i++) if (id.charAt(i) != bytes.get(from + i)) return false;
+        return true;
+    }
+
+    /**
+     * Gets the index of the first dash ({@code -}) in the given range of chars.
+     *
+     * @param chars to search.
+     * @param from index of the first char (inclusive).
+     * @param to index of the last char (exclusive).
+     * @return index of the first dash or {@code -1} if there is none.
+     */
+    @Contract(pure = true)
+    static int indexOfDash(final @NotNull CharSequence chars, final int from, final int to) {
+        for (int i = from; i < to; i++) if (chars.charAt(i) == '-') return i;
+        return -1;
+    }
+
+    /** @see #indexOfDash(CharSequence, int, int) */
+    @Contract(pure = true)
+    static int indexOfDash(final char @NotNull [] chars, final int from, final int to) {
+        for (int i = from; i < to; i++) if (chars[i] == '-') return i;
+        return -1;
+    }
+
+    /** @see #indexOfDash(CharSequence, int, int) */
+    @Contract(pure = true)
+    static int indexOfDash(final byte @NotNull [] bytes, final int from, final int to) {
+        for (int i = from; i < to; i++) if (bytes[i] == '-') return i;
+        return -1;
+    }
+
+    /** @see #indexOfDash(CharSequence, int, int) */
+    @Contract(pure = true)
+    static int indexOfDash(final @NotNull ByteBuffer bytes, final int from, final int to) {
+        for (int i = from; i < to; i++) if (bytes.get(i) == '-') return i;
+        return -1;
+    }
+
+    /**
+     * Decodes the remaining bytes of the given buffer as ISO-8859-1 without
+     * modifying its position, used to construct exception messages.
+     *
+     * @param bytes to decode.
+     * @return the decoded string.
+     */
+    @Contract(pure = true)
+    static @NotNull String toString(final @NotNull ByteBuffer bytes) {
+        final int from = bytes.position();
+        final byte[] buf = new byte[bytes.limit() - from];
+        for (int i = 0; i < buf.length; i++) buf[i] = bytes.get(from + i);
+        return new String(buf, StandardCharsets.ISO_8859_1);
+    }
 }
@@ -0,0 +1,71 @@
+package com.fleshgrinder.platform;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Virtual thread utilities.
+ *
+ * <p>Virtual threads do not exist before Java 21, hence, the API is looked up
+ * reflectively, once, and nothing is created if it is unavailable. This keeps
+ * the library compilable with and runnable on Java 8.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {}
+
+    /**
+     * Creates a new executor that starts a new virtual thread for every task.
+     *
+     * @param name prefix of the names of the threads, which are numbered, or
+     *     {@code null} for unnamed threads.
+     * @return the new executor, or {@code null} if virtual threads are not
+     *     supported.
+     */
+    @Contract(pure = true)
+    static @Nullable ExecutorService newExecutorOrNull(final @Nullable String name) {
+        if (Api.OF_VIRTUAL == null) return null;
+        try {
+            final Object builder = Api.OF_VIRTUAL.invoke(null);
+            if (name != null) Api.NAME.invoke(builder, name, 0L);
+            return (ExecutorService) Api.NEW_EXECUTOR.invoke(null, (ThreadFactory) Api.FACTORY.invoke(builder));
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    /** Lazy holder of the virtual thread API, all {@code null} if it is unavailable. */
+    private static final class Api {
+        /** {@code Thread.ofVirtual()} */
+        static final @Nullable Method OF_VIRTUAL;
+        /** {@code Thread.Builder.name(String, long)} */
+        static final @Nullable Method NAME;
+        /** {@code Thread.Builder.factory()} */
+        static final @Nullable Method FACTORY;
+        /** {@code Executors.newThreadPerTaskExecutor(ThreadFactory)} */
+        static final @Nullable Method NEW_EXECUTOR;
+
+        static {
+            Method ofVirtual = null, name = null, factory = null, newExecutor = null;
+            try {
+                final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                name = builder.getMethod("name", String.class, long.class);
+                factory = builder.getMethod("factory");
+                newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                // Java 19 and 20 have the API as a preview, which throws unless enabled.
+                ofVirtual.invoke(null);
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                ofVirtual = name = factory = newExecutor = null;
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            FACTORY = factory;
+            NEW_EXECUTOR = newExecutor;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.fleshgrinder.platform;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Asynchronous process utilities.
+ *
+ * <p>This is the Java 9+ implementation that is selected from
+ * {@code META-INF/versions/9} of the multi-release JAR. The process exit is
+ * observed through {@link Process#onExit()} and the timeout through
+ * {@link CompletableFuture#completeOnTimeout}, hence, no thread is blocked
+ * while waiting.
+ */
+final class Processes {
+    private Processes() {}
+
+    /**
+     * Waits asynchronously for the given process to exit.
+     *
+     * @param proc to wait for.
+     * @param timeout maximum time to wait.
+     * @param unit of the timeout.
+     * @param executor unused, the exit is observed without blocking.
+     * @return future that completes with {@code true} if the process exited,
+     *     or with {@code false} if it did not exit in time.
+     */
+    @Contract("_, _, _, _ -> new")
+    static @NotNull CompletableFuture<Boolean> onExit(final @NotNull Process proc, final long timeout, final @NotNull TimeUnit unit, final @NotNull Executor executor) {
+        return proc.onExit().thenApply(it -> Boolean.TRUE).completeOnTimeout(Boolean.FALSE, timeout, unit);
+    }
+}
@@ -0,0 +1,100 @@
+package com.fleshgrinder.junit
+
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * Builds a minimal ELF executable header whose only program header is a
+ * `PT_INTERP` segment with the given [interpreter], or without any program
+ * header if it is `null`.
+ */
+fun elf(
+    interpreter: String?,
+    is64: Boolean = true,
+    order: ByteOrder = ByteOrder.LITTLE_ENDIAN,
+    machine: Int = 0x3E,
+    osabi: Int = 0,
+): ByteArray {
+    val ehsize = if (is64) 0x40 else 0x34
+    val phentsize = if (is64) 0x38 else 0x20
+    val phnum = if (interpreter == null) 0 else 1
+    val interp = interpreter?.let { "$it\u0000".toByteArray(Charsets.US_ASCII) } ?: ByteArray(0)
+    val b = ByteBuffer.allocate(ehsize + phentsize * phnum + interp.size).order(order)
+    b.put(byteArrayOf(0x7F, 'E'.code.toByte(), 'L'.code.toByte(), 'F'.code.toByte()))
+    b.put(if (is64) 2 else 1).put(if (order == ByteOrder.LITTLE_ENDIAN) 1 else 2).put(1).put(osabi.toByte())
+    b.position(0x10)
+    b.putShort(2).putShort(machine.toShort()).putInt(1) // e_type, e_machine, e_version
+    if (is64) b.putLong(0).putLong(ehsize.toLong()).putLong(0) else b.putInt(0).putInt(ehsize).putInt(0)
+    b.putInt(0).putShort(ehsize.toShort()).putShort(phentsize.toShort()).putShort(phnum.toShort())
+    b.putShort(0).putShort(0).putShort(0) // e_shentsize, e_shnum, e_shstrndx
+    if (interpreter != null) {
+        val offset = (ehsize + phentsize).toLong()
+        b.putInt(3) // PT_INTERP
+        if (is64) {
+            b.putInt(4).putLong(offset).putLong(0).putLong(0).putLong(interp.size.toLong()).putLong(interp.size.toLong()).putLong(1)
+        } else {
+            b.putInt(offset.toInt()).putInt(0).putInt(0).putInt(interp.size).putInt(interp.size).putInt(4).putInt(1)
+        }
+        b.put(interp)
+    }
+    return b.array()
+}
+
+/**
+ * Builds a minimal ELF shared object with a `PT_LOAD` segment that spans the
+ * whole file, a `PT_DYNAMIC` segment with a `DT_NEEDED` entry for each of the
+ * [needed] libraries and a `DT_RUNPATH` entry if [runpath] is not `null`, and
+ * a `PT_INTERP` segment if [interpreter] is not `null`.
+ */
+fun elfDynamic(
+    needed: List<String>,
+    runpath: String? = null,
+    interpreter: String? = null,
+    is64: Boolean = true,
+    order: ByteOrder = ByteOrder.LITTLE_ENDIAN,
+    machine: Int = 0x3E,
+    osabi: Int = 0,
+): ByteArray {
+    val base = 0x10000L
+    val ehsize = if (is64) 0x40 else 0x34
+    val phentsize = if (is64) 0x38 else 0x20
+    val phnum = if (interpreter == null) 2 else 3
+    val interp = interpreter?.let { "$it\u0000".toByteArray(Charsets.US_ASCII) } ?: ByteArray(0)
+    val strings = listOfNotNull(*needed.toTypedArray(), runpath)
+    val strtab = ByteArrayOutputStream().apply { write(0) }
+    val offsets = strings.map { s -> strtab.size().also { strtab.write("$s\u0000".toByteArray(Charsets.US_ASCII)) } }
+    val dynent = if (is64) 16 else 8
+    val dynnum = strings.size + 3
+    val dynamic = ehsize + phentsize * phnum + interp.size
+    val str = dynamic + dynent * dynnum
+    val size = str + strtab.size()
+
+    val b = ByteBuffer.allocate(size).order(order)
+    fun word(value: Long) { if (is64) b.putLong(value) else b.putInt(value.toInt()) }
+    fun segment(type: Int, offset: Int, filesz: Int) {
+        b.putInt(type)
+        if (is64) b.putInt(4)
+        word(offset.toLong()); word(base + offset); word(base + offset); word(filesz.toLong()); word(filesz.toLong())
+        if (!is64) b.putInt(4)
+        word(8)
+    }
+    b.put(byteArrayOf(0x7F, 'E'.code.toByte(), 'L'.code.toByte(), 'F'.code.toByte()))
+    b.put(if (is64) 2 else 1).put(if (order == ByteOrder.LITTLE_ENDIAN) 1 else 2).put(1).put(osabi.toByte())
+    b.position(0x10)
+    b.putShort(3).putShort(machine.toShort()).putInt(1) // e_type, e_machine, e_version
+    word(0); word(ehsize.toLong()); word(0)
+    b.putInt(0).putShort(ehsize.toShort()).putShort(phentsize.toShort()).putShort(phnum.toShort())
+    b.putShort(0).putShort(0).putShort(0) // e_shentsize, e_shnum, e_shstrndx
+    segment(1, 0, size) // PT_LOAD
+    segment(2, dynamic, dynent * dynnum) // PT_DYNAMIC
+    if (interpreter != null) segment(3, ehsize + phentsize * phnum, interp.size) // PT_INTERP
+    b.put(interp)
+    needed.indices.forEach { word(1); word(offsets[it].toLong()) } // DT_NEEDED
+    if (runpath != null) { word(29); word(offsets.last().toLong()) } // DT_RUNPATH
+    word(5); word(base + str) // DT_STRTAB
+    word(10); word(strtab.size().toLong()) // DT_STRSZ
+    word(0); word(0) // DT_NULL
+    b.put(strtab.toByteArray())
+    return b.array()
+}
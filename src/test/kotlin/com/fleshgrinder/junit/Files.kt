@@ -0,0 +1,14 @@
+package com.fleshgrinder.junit
+
+import java.io.File
+
+/** Number of bytes in a gibibyte. */
+const val GIB = 1L shl 30
+
+/**
+ * Writes the given files relative to this directory, like a fake procfs or
+ * sysfs tree, with every content terminated by a newline like the kernel does.
+ */
+fun File.tree(vararg files: Pair<String, String>): File = apply {
+    for ((path, content) in files) resolve(path).apply { parentFile.mkdirs() }.writeText("$content\n")
+}
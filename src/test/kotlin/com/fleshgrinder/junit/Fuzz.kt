@@ -0,0 +1,27 @@
+package com.fleshgrinder.junit
+
+import kotlin.random.Random
+
+/**
+ * Generates [count] deterministic pseudo-random strings that consist of one
+ * to [maxWords] words from the given [vocabulary] joined with random
+ * [separators], including none at all.
+ */
+fun fuzz(
+    vocabulary: List<String>,
+    count: Int = 50_000,
+    maxWords: Int = 5,
+    separators: List<String> = listOf("", "-", "_", ".", " ", "/"),
+    seed: Int = 42,
+): Sequence<String> {
+    val random = Random(seed)
+    return generateSequence {
+        buildString {
+            repeat(random.nextInt(1, maxWords + 1)) {
+                if (it != 0) append(separators.random(random))
+                val word = vocabulary.random(random)
+                append(if (random.nextInt(4) == 0) word.uppercase() else word)
+            }
+        }
+    }.take(count)
+}
@@ -0,0 +1,41 @@
+package com.fleshgrinder.junit
+
+import java.nio.ByteBuffer
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.assertAll
+
+/**
+ * Asserts that every range overload returns [expected] if it is called with
+ * [value] embedded in unrelated alphanumeric input, which ensures that the
+ * overloads never look beyond the range.
+ */
+fun <T : Any> assertRanges(
+    value: String,
+    expected: T?,
+    charSequence: (CharSequence, Int, Int) -> T?,
+    charArray: (CharArray, Int, Int) -> T?,
+    byteArray: (ByteArray, Int, Int) -> T?,
+    byteBuffer: (ByteBuffer) -> T?,
+) {
+    val chars = "z${value}z"
+    val from = 1
+    val to = chars.length - 1
+    val bytes = chars.toByteArray(Charsets.ISO_8859_1)
+    val buffer = ByteBuffer.wrap(bytes, from, to - from)
+    assertAll(
+        { assertEquals(expected, charSequence(chars, from, to), "CharSequence") },
+        { assertEquals(expected, charSequence(StringBuilder(chars), from, to), "StringBuilder") },
+        { assertEquals(expected, charArray(chars.toCharArray(), from, to), "CharArray") },
+        { assertEquals(expected, byteArray(bytes, from, to), "ByteArray") },
+        { assertEquals(expected, byteBuffer(buffer), "ByteBuffer") },
+        { assertEquals(from, buffer.position(), "ByteBuffer.position") },
+    )
+}
+
+/** Turns an [IllegalArgumentException] of the given [block] into `null`. */
+inline fun <T : Any> orNull(block: () -> T): T? =
+    try {
+        block()
+    } catch (_: IllegalArgumentException) {
+        null
+    }
@@ -1,13 +1,18 @@
 package com.fleshgrinder.platform
 
 import org.intellij.lang.annotations.Language as L
+import com.fleshgrinder.junit.assertRanges
 import com.fleshgrinder.junit.clearSystemProperty
 import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.junit.fuzz
 import com.fleshgrinder.junit.generexWithGarbage
+import com.fleshgrinder.junit.orNull
 import com.fleshgrinder.junit.testsOf
 import com.fleshgrinder.junit.toTests
 import com.fleshgrinder.junit.withSystemProperty
 import com.fleshgrinder.platform.Arch.*
+import java.nio.ByteOrder.BIG_ENDIAN
+import java.nio.ByteOrder.LITTLE_ENDIAN
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNotNull
@@ -44,6 +49,15 @@ private class ArchTest {
         assertThrows<IllegalStateException> { clearSystemProperty("os.arch") { current() } }
     }
 
+    @Test @ResourceLock(SYSTEM_PROPERTIES) fun `current follows changes of the system property`() =
+        withSystemProperty("os.arch", "amd64") {
+            assertAll(
+                { assertEquals(X86_64, current()) },
+                { withSystemProperty("os.arch", "aarch64") { assertEquals(ARM_64, current()) } },
+                { assertEquals(X86_64, current()) },
+            )
+        }
+
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun unknown() =
         testsOf("", "bash", "ksh", "m680000", "nvptx64", "script.sh", "sh64", "sh 64", "shell", "zsh") {
             withSystemProperty("os.arch", it) {
@@ -106,13 +120,78 @@ private class ArchTest {
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun `X86_32 aliases`() = aliasTestsOf(X86_32, "(ia|x)32", "(i[1-7]|x)86", "pentium", "win ?32")
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun `X86_64 aliases`() = aliasTestsOf(X86_64, "(amd ?|win ?|x(86 ?)?)64", "em64t", "i[89]86", "ia32e")
 
+    @TestFactory fun ranges() =
+        (values().map(Arch::toString) + listOf("", "AMD64", "aarch64_be", "linux-x86-64", "unknown", "x86-")).toTests {
+            val parsed = parseOrNull(it)
+            val found = fromStringOrNull(it)
+            assertAll(
+                { assertRanges(it, parsed, ::parseOrNull, ::parseOrNull, ::parseOrNull, ::parseOrNull) },
+                { assertRanges(it, parsed, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { b -> orNull { parse(b) } }) },
+                { assertRanges(it, found, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull) },
+                { assertRanges(it, found, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { b -> orNull { fromString(b) } }) },
+            )
+        }
+
+    @Test fun `ranges are checked`() {
+        assertAll(
+            { assertThrows<IndexOutOfBoundsException> { parseOrNull("abc", -1, 2) } },
+            { assertThrows<IndexOutOfBoundsException> { parseOrNull(CharArray(3), 2, 1) } },
+            { assertThrows<IndexOutOfBoundsException> { fromStringOrNull(ByteArray(3), 0, 4) } },
+        )
+    }
+
     @Test @ResourceLock(SYSTEM_PROPERTIES) fun `SUPERH_32 JVM special value`() = withSystemProperty("os.arch", "sh") { assertEquals(SUPERH_32, current(), "current") }
     @Test @ResourceLock(SYSTEM_PROPERTIES) fun `SUPERH_32_BE JVM special value`() = withSystemProperty("os.arch", "shbe") { assertEquals(SUPERH_32_BE, current(), "current") }
 
+    /** The regular expression cascade that [Arch.parseOrNull] used before it was replaced by a [KeywordMatcher]. */
+    val legacy = listOf(
+        Regex("""(?s).*\b((amd|x(86)?)-?64|em64t|i[89]86|ia32e)\b.*?""") to X86_64,
+        Regex("""(?s).*\b((ia|x)32|(i[1-7]|x)86|pentium)\b.*?""") to X86_32,
+        Regex("""(?s).*\b(aarch(-?64)?-?(be|eb)(-?64)?|arm-?(64-?(eb|be)|(eb|be)-?64))\b.*?""") to ARM_64_BE,
+        Regex("""(?s).*\barm(-?32)?-?(be|eb)(32)?\b.*?""") to ARM_32_BE,
+        Regex("""(?s).*\ba(arch|rm)-?(64|v([8-9]|[1-9]\d+))\b.*?""") to ARM_64,
+        Regex("""(?s).*\barm(-?32|-?v([1-36]|4t?|5(te)?|7e?)?)?\b.*?""") to ARM_32,
+        Regex("""(?s).*\bi(a-?64-?(32|n)|tanium-?32)\b.*?""") to ITANIUM_32,
+        Regex("""(?s).*\bi(a-?64|tanium(64)?)\b.*?""") to ITANIUM_64,
+        Regex("""(?s).*\bm68(k|000)\b.*?""") to M68K_32,
+        Regex("""(?s).*\bmips-?(64-?(le|el)|(le|el)-?64)\b.*?""") to MIPS_64_LE,
+        Regex("""(?s).*\bmips(-?32)?-?(le|el)(32)?\b.*?""") to MIPS_32_LE,
+        Regex("""(?s).*\bmips-?64\b.*?""") to MIPS_64,
+        Regex("""(?s).*\bmips(32)?\b.*?""") to MIPS_32,
+        Regex("""(?s).*\bp(ower(-?(pc|rs))?|pc)-?(64-?(le|el)|(le|el)-?64)\b.*?""") to PPC_64_LE,
+        Regex("""(?s).*\bp(ower(-?(pc|rs))?|pc)(-?32)?-?(le|el)(32)?\b.*?""") to PPC_32_LE,
+        Regex("""(?s).*\bp(ower(-?(pc|rs))?|pc)-?64\b.*?""") to PPC_64,
+        Regex("""(?s).*\bp(ower(-?(pc|rs))?|pc)(32)?\b.*?""") to PPC_32,
+        Regex("""(?s).*\brisc-?v-?64\b.*?""") to RISCV_64,
+        Regex("""(?s).*\brisc-?v(32)?\b.*?""") to RISCV_32,
+        Regex("""(?s).*\b(s390(x(64)?|-?64)|ibm-?z-?64)\b.*?""") to S390_64,
+        Regex("""(?s).*\b(s390|ibm-?z)(32)?\b.*?""") to S390_32,
+        Regex("""(?s).*\b(sparc-?(64|v(9|[1-9]\d+))|ultra-?sparc)\b.*?""") to SPARC_64,
+        Regex("""(?s).*\b(hyper|micro|super|turbo)?sparc(32)?\b.*?""") to SPARC_32,
+        Regex("""(?s).*\bs(uper)?h(-?32)?-?(be|eb)(32)?\b.*?""") to SUPERH_32_BE,
+        Regex("""(?s).*\b(superh(32)?|sh-?32)\b.*?""") to SUPERH_32,
+        Regex("""(?s).*\b(dec)?alpha(64)?\b.*?""") to ALPHA_64,
+        Regex("""(?s).*\bw(in)?-?32\b.*?""") to X86_32,
+        Regex("""(?s).*\bw(in)?-?64\b.*?""") to X86_64,
+    )
+
+    fun legacyParseOrNull(value: String): Arch? {
+        if (value.isEmpty()) return null
+        val it = Utils.normalize(value)
+        return values().firstOrNull { v -> v.toString() == it } ?: legacy.firstOrNull { (regex) -> regex.matches(it) }?.second
+    }
+
+    @Test fun `parseOrNull agrees with the legacy regular expression cascade`() {
+        (values().map(Arch::toString).asSequence() + fuzz(listOf("aarch", "arm", "amd", "x", "86", "64", "32", "em64t", "i386", "i686", "i886", "ia", "ia32e", "pentium", "be", "eb", "le", "el", "v", "v4t", "v5te", "v7", "v7e", "v8", "v9", "v10", "v123", "itanium", "n", "m68k", "m68000", "mips", "ppc", "power", "pc", "rs", "risc", "riscv", "v", "s390", "s390x", "ibm", "z", "sparc", "sparcv9", "ultra", "hyper", "super", "turbo", "superh", "sh", "h", "dec", "alpha", "w", "win", "windows", "linux", "gz", "tar", "1", "2"))).forEach {
+            assertEquals(legacyParseOrNull(it), parseOrNull(it), it)
+        }
+    }
+
     @TestFactory fun is32bit() =
         testsOf(ARM_32, ARM_32_BE, ITANIUM_32, S390_32, M68K_32, MIPS_32, MIPS_32_LE, PPC_32, PPC_32_LE, RISCV_32, SPARC_32, SUPERH_32, SUPERH_32_BE, X86_32) {
             assertAll(
                 { assertEquals(32, it.bitness) },
+                { assertEquals(4, it.pointerSize) },
                 { assertTrue(it.is32bit, "is32bit") },
                 { assertFalse(it.is64bit, "is64bit") },
             )
@@ -122,11 +201,18 @@ private class ArchTest {
         testsOf(ALPHA_64, ARM_64, ARM_64_BE, ITANIUM_64, S390_64, MIPS_64, MIPS_64_LE, PPC_64, PPC_64_LE, RISCV_64, SPARC_64, X86_64) {
             assertAll(
                 { assertEquals(64, it.bitness) },
+                { assertEquals(8, it.pointerSize) },
                 { assertFalse(it.is32bit, "is32bit") },
                 { assertTrue(it.is64bit, "is64bit") },
             )
         }
 
+    @TestFactory fun getByteOrder() =
+        enumTestsOf<Arch> {
+            val big = it in setOf(ARM_32_BE, ARM_64_BE, M68K_32, MIPS_32, MIPS_64, PPC_32, PPC_64, S390_32, S390_64, SPARC_32, SPARC_64, SUPERH_32_BE)
+            assertEquals(if (big) BIG_ENDIAN else LITTLE_ENDIAN, it.byteOrder)
+        }
+
     @TestFactory fun isArm() = isserTestsOf(ARM_32, ARM_32_BE, ARM_64, ARM_64_BE) { isArm }
     @TestFactory fun isArmBe() = isserTestsOf(ARM_32_BE, ARM_64_BE) { isArmBe }
     @TestFactory fun isArmLe() = isserTestsOf(ARM_32, ARM_64) { isArmLe }
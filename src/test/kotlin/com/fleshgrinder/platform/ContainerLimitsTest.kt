@@ -0,0 +1,154 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.GIB
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.junit.tree
+import java.io.File
+import java.util.BitSet
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.io.TempDir
+
+private fun bits(vararg indices: Int) = BitSet().apply { indices.forEach { set(it) } }
+
+private class ContainerLimitsTest {
+    @Test fun `cgroup v2 limits of a container`(@TempDir root: File) {
+        root.tree(
+            "proc/self/cgroup" to "0::/",
+            "proc/self/mountinfo" to """
+                |1251 1249 0:26 / / rw,relatime - overlay overlay rw,lowerdir=/l,upperdir=/u,workdir=/w
+                |1258 1251 0:27 /kubepods/pod1/abc /sys/fs/cgroup ro,nosuid,nodev,noexec,relatime - cgroup2 cgroup rw
+            """.trimMargin(),
+            "sys/fs/cgroup/cpu.max" to "150000 100000",
+            "sys/fs/cgroup/cpuset.cpus.effective" to "0-3",
+            "sys/fs/cgroup/memory.max" to "${2 * GIB}",
+        )
+        val limits = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 16)
+        assertAll(
+            { assertEquals(1.5, limits.cpuLimit) },
+            { assertEquals(bits(0, 1, 2, 3), limits.cpuset) },
+            { assertEquals(2 * GIB, limits.memoryLimit) },
+            { assertEquals(2, limits.availableCpus) },
+        )
+    }
+
+    @Test fun `cgroup v2 without limits`(@TempDir root: File) {
+        root.tree(
+            "proc/self/cgroup" to "0::/user.slice/user-1000.slice/session-2.scope",
+            "proc/self/mountinfo" to "35 24 0:30 / /sys/fs/cgroup rw,nosuid,nodev,noexec,relatime shared:9 - cgroup2 cgroup2 rw,nsdelegate",
+            "sys/fs/cgroup/user.slice/user-1000.slice/session-2.scope/cpu.max" to "max 100000",
+            "sys/fs/cgroup/user.slice/user-1000.slice/session-2.scope/memory.max" to "max",
+        )
+        val limits = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 8)
+        assertAll(
+            { assertEquals(-1.0, limits.cpuLimit) },
+            { assertNull(limits.cpuset) },
+            { assertEquals(-1, limits.memoryLimit) },
+            { assertEquals(8, limits.availableCpus) },
+        )
+    }
+
+    @Test fun `cgroup v1 limits of a container`(@TempDir root: File) {
+        root.tree(
+            "proc/self/cgroup" to """
+                |12:memory:/docker/abc
+                |6:cpuset:/docker/abc
+                |4:cpu,cpuacct:/docker/abc
+                |1:name=systemd:/docker/abc
+                |0::/docker/abc
+            """.trimMargin(),
+            "proc/self/mountinfo" to """
+                |30 25 0:26 / /sys/fs/cgroup/unified rw,nosuid,nodev,noexec,relatime shared:10 - cgroup2 cgroup2 rw
+                |33 25 0:29 /docker/abc /sys/fs/cgroup/cpu,cpuacct rw,nosuid,nodev,noexec,relatime shared:14 - cgroup cgroup rw,cpu,cpuacct
+                |34 25 0:30 /docker/abc /sys/fs/cgroup/cpuset rw,nosuid,nodev,noexec,relatime shared:15 - cgroup cgroup rw,cpuset
+                |38 25 0:34 /docker /sys/fs/cgroup/memory rw,nosuid,nodev,noexec,relatime shared:19 - cgroup cgroup rw,memory
+            """.trimMargin(),
+            "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_quota_us" to "50000",
+            "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_period_us" to "100000",
+            "sys/fs/cgroup/cpuset/cpuset.effective_cpus" to "2,4-5",
+            "sys/fs/cgroup/memory/abc/memory.limit_in_bytes" to "${512L shl 20}",
+        )
+        val limits = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 8)
+        assertAll(
+            { assertEquals(0.5, limits.cpuLimit) },
+            { assertEquals(bits(2, 4, 5), limits.cpuset) },
+            { assertEquals(512L shl 20, limits.memoryLimit) },
+            { assertEquals(1, limits.availableCpus) },
+        )
+    }
+
+    @Test fun `cgroup v1 without limits`(@TempDir root: File) {
+        root.tree(
+            "proc/self/cgroup" to "4:cpu,cpuacct:/\n3:memory:/\n2:cpuset:/",
+            "proc/self/mountinfo" to """
+                |33 25 0:29 / /sys/fs/cgroup/cpu,cpuacct rw - cgroup cgroup rw,cpu,cpuacct
+                |34 25 0:30 / /sys/fs/cgroup/memory rw - cgroup cgroup rw,memory
+                |35 25 0:31 / /sys/fs/cgroup/cpu\040set rw - cgroup cgroup rw,cpuset
+            """.trimMargin(),
+            "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_quota_us" to "-1",
+            "sys/fs/cgroup/cpu,cpuacct/cpu.cfs_period_us" to "100000",
+            "sys/fs/cgroup/memory/memory.limit_in_bytes" to "9223372036854771712",
+            "sys/fs/cgroup/cpu set/cpuset.cpus" to "0-5",
+        )
+        val limits = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 8)
+        assertAll(
+            { assertEquals(-1.0, limits.cpuLimit) },
+            { assertEquals(bits(0, 1, 2, 3, 4, 5), limits.cpuset) },
+            { assertEquals(-1, limits.memoryLimit) },
+            { assertEquals(6, limits.availableCpus) },
+        )
+    }
+
+    @TestFactory fun `cgroup v1 memory is unlimited at LONG_MAX rounded down to pages`(@TempDir root: File) =
+        testsOf(4 to "9223372036854771712", 16 to "9223372036854759424", 64 to "9223372036854710272", 256 to "9223372036854513664") { (kib, unlimited) ->
+            val dir = root.resolve("$kib").tree(
+                "proc/self/cgroup" to "3:memory:/",
+                "proc/self/mountinfo" to "34 25 0:30 / /sys/fs/cgroup/memory rw - cgroup cgroup rw,memory",
+                "sys/fs/cgroup/memory/memory.limit_in_bytes" to unlimited,
+            )
+            assertEquals(-1, ContainerLimits.read(dir.resolve("proc").toPath(), dir.toPath(), 4).memoryLimit)
+        }
+
+    @Test fun `large mountinfo is read completely`(@TempDir root: File) {
+        val mounts = (1..500).joinToString("\n") { "$it 1 0:$it / /mnt/$it rw - tmpfs tmpfs rw" }
+        root.tree(
+            "proc/self/cgroup" to "0::/app",
+            "proc/self/mountinfo" to "$mounts\n999 1 0:999 / /sys/fs/cgroup rw - cgroup2 cgroup2 rw",
+            "sys/fs/cgroup/app/cpu.max" to "200000 100000",
+        )
+        assertEquals(2.0, ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 4).cpuLimit)
+    }
+
+    @Test fun `missing and invalid files are unlimited`(@TempDir root: File) {
+        val missing = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 4)
+        root.tree(
+            "proc/self/cgroup" to "0::/",
+            "proc/self/mountinfo" to "1 1 0:1 / /sys/fs/cgroup rw - cgroup2 cgroup2 rw",
+            "sys/fs/cgroup/cpu.max" to "lots 100000",
+            "sys/fs/cgroup/cpuset.cpus.effective" to "0-a",
+            "sys/fs/cgroup/memory.max" to "",
+        )
+        val invalid = ContainerLimits.read(root.resolve("proc").toPath(), root.toPath(), 4)
+        assertAll(listOf(missing, invalid).map { limits ->
+            {
+                assertEquals(-1.0, limits.cpuLimit)
+                assertNull(limits.cpuset)
+                assertEquals(-1, limits.memoryLimit)
+                assertEquals(4, limits.availableCpus)
+            }
+        })
+    }
+
+    @Test fun `current limits are cached`() {
+        val limits = ContainerLimits.current()
+        assertAll(
+            { assertSame(limits, ContainerLimits.current()) },
+            { assertTrue(limits.availableCpus in 1..CpuTopology.current().logicalCpus) },
+        )
+    }
+}
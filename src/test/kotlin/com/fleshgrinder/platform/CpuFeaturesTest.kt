@@ -0,0 +1,142 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.platform.Arch.ARM_32
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.MIPS_64
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.CpuFeature.AES
+import com.fleshgrinder.platform.CpuFeature.ASIMDDP
+import com.fleshgrinder.platform.CpuFeature.ASIMDHP
+import com.fleshgrinder.platform.CpuFeature.ASIMDRDM
+import com.fleshgrinder.platform.CpuFeature.ATOMICS
+import com.fleshgrinder.platform.CpuFeature.AVX
+import com.fleshgrinder.platform.CpuFeature.AVX2
+import com.fleshgrinder.platform.CpuFeature.AVX512BW
+import com.fleshgrinder.platform.CpuFeature.AVX512CD
+import com.fleshgrinder.platform.CpuFeature.AVX512DQ
+import com.fleshgrinder.platform.CpuFeature.AVX512F
+import com.fleshgrinder.platform.CpuFeature.AVX512VL
+import com.fleshgrinder.platform.CpuFeature.AVX512_VNNI
+import com.fleshgrinder.platform.CpuFeature.BMI1
+import com.fleshgrinder.platform.CpuFeature.BMI2
+import com.fleshgrinder.platform.CpuFeature.CRC32
+import com.fleshgrinder.platform.CpuFeature.CX16
+import com.fleshgrinder.platform.CpuFeature.DCPOP
+import com.fleshgrinder.platform.CpuFeature.F16C
+import com.fleshgrinder.platform.CpuFeature.FMA
+import com.fleshgrinder.platform.CpuFeature.FP
+import com.fleshgrinder.platform.CpuFeature.FPHP
+import com.fleshgrinder.platform.CpuFeature.LAHF
+import com.fleshgrinder.platform.CpuFeature.LRCPC
+import com.fleshgrinder.platform.CpuFeature.LZCNT
+import com.fleshgrinder.platform.CpuFeature.MOVBE
+import com.fleshgrinder.platform.CpuFeature.NEON
+import com.fleshgrinder.platform.CpuFeature.PCLMULQDQ
+import com.fleshgrinder.platform.CpuFeature.PMULL
+import com.fleshgrinder.platform.CpuFeature.POPCNT
+import com.fleshgrinder.platform.CpuFeature.SHA1
+import com.fleshgrinder.platform.CpuFeature.SHA2
+import com.fleshgrinder.platform.CpuFeature.SSE
+import com.fleshgrinder.platform.CpuFeature.SSE2
+import com.fleshgrinder.platform.CpuFeature.SSE3
+import com.fleshgrinder.platform.CpuFeature.SSE4_1
+import com.fleshgrinder.platform.CpuFeature.SSE4_2
+import com.fleshgrinder.platform.CpuFeature.SSSE3
+import com.fleshgrinder.platform.CpuFeature.SVE
+import com.fleshgrinder.platform.CpuFeature.SVE2
+import com.fleshgrinder.platform.CpuFeature.XSAVE
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.EnumSet
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.io.TempDir
+
+private const val AT_HWCAP = 16L
+private const val AT_HWCAP2 = 26L
+
+private fun proc(name: String): Path = Paths.get(CpuFeaturesTest::class.java.getResource("/proc/$name")!!.toURI())
+
+private fun auxv(vararg entries: Pair<Long, Long>): ByteArray {
+    val b = ByteBuffer.allocate(16 * (entries.size + 3)).order(ByteOrder.nativeOrder())
+    b.putLong(33).putLong(0x7FFF0000) // AT_SYSINFO_EHDR
+    entries.forEach { (type, value) -> b.putLong(type).putLong(value) }
+    b.putLong(6).putLong(4096) // AT_PAGESZ
+    return b.array()
+}
+
+private class CpuFeaturesTest {
+    @Test fun `x86 flags are read from cpuinfo`() {
+        assertEquals(
+            EnumSet.of(
+                SSE, SSE2, SSE3, SSSE3, SSE4_1, SSE4_2, POPCNT, CX16, LAHF, XSAVE, AVX, AVX2, FMA, F16C, BMI1, BMI2,
+                LZCNT, MOVBE, PCLMULQDQ, AES, AVX512F, AVX512BW, AVX512CD, AVX512DQ, AVX512VL, AVX512_VNNI,
+            ),
+            CpuFeatures.read(proc("x86-64-avx512"), X86_64),
+        )
+    }
+
+    @Test fun `x86 without AVX`() {
+        assertEquals(
+            EnumSet.of(SSE, SSE2, SSE3, SSSE3, SSE4_1, SSE4_2, POPCNT, CX16, LAHF, PCLMULQDQ, AES),
+            CpuFeatures.read(proc("x86-64-westmere"), X86_64),
+        )
+    }
+
+    @Test fun `aarch64 features are read from cpuinfo without auxv`() {
+        assertEquals(
+            EnumSet.of(FP, NEON, AES, PMULL, SHA1, SHA2, CRC32, ATOMICS, FPHP, ASIMDHP, ASIMDRDM, LRCPC, DCPOP, ASIMDDP),
+            CpuFeatures.read(proc("aarch64-graviton2"), ARM_64),
+        )
+    }
+
+    @Test fun `arm features are read from cpuinfo`() {
+        assertEquals(EnumSet.of(NEON, CRC32), CpuFeatures.read(proc("arm-raspberrypi3"), ARM_32))
+    }
+
+    @Test fun `aarch64 features are read from auxv`(@TempDir tempDir: File) {
+        tempDir.resolve("self").mkdirs()
+        tempDir.resolve("self/auxv").writeBytes(auxv(AT_HWCAP to (1L shl 0 or (1L shl 1) or (1L shl 8) or (1L shl 22)), AT_HWCAP2 to (1L shl 1)))
+        tempDir.resolve("cpuinfo").writeText("Features\t: fp\n")
+        assertEquals(EnumSet.of(FP, NEON, ATOMICS, SVE, SVE2), CpuFeatures.read(tempDir.toPath(), ARM_64))
+    }
+
+    @Test fun `auxv without hwcap is ignored`() {
+        assertNull(CpuFeatures.parseAuxv(ByteBuffer.wrap(auxv()).order(ByteOrder.nativeOrder())))
+    }
+
+    @Test fun `features are unknown on other archs or without proc`(@TempDir tempDir: File) {
+        assertEquals(EnumSet.noneOf(CpuFeature::class.java), CpuFeatures.read(proc("x86-64-avx512"), MIPS_64))
+        assertEquals(EnumSet.noneOf(CpuFeature::class.java), CpuFeatures.read(proc("x86-64-avx512"), null))
+        assertEquals(EnumSet.noneOf(CpuFeature::class.java), CpuFeatures.read(tempDir.toPath(), X86_64))
+    }
+
+    @Test fun `only the first flags line is read`() {
+        val cpuinfo = "processor\t: 0\nflags\t\t: sse\n\nprocessor\t: 1\nflags\t\t: sse sse2\n"
+        assertEquals(EnumSet.of(SSE), CpuFeatures.parseCpuinfo(cpuinfo.toByteArray(), true))
+    }
+
+    @Test fun `lines that only start with the label are skipped`() {
+        val cpuinfo = "flagsx\t: sse2\nflags\t\t: sse\n"
+        assertEquals(EnumSet.of(SSE), CpuFeatures.parseCpuinfo(cpuinfo.toByteArray(), true))
+    }
+
+    @Test fun `current features are copied`() {
+        val features = CpuFeatures.current()
+        assertNotSame(features, CpuFeatures.current())
+        assertTrue(features.all { it.isPresent })
+    }
+
+    @TestFactory fun `every feature exists on x86 or ARM`() = enumTestsOf<CpuFeature> {
+        assertTrue(it.cpuinfo(true) != null || it.cpuinfo(false) != null)
+        if (it.hwcap() >= 0) assertTrue(it.cpuinfo(false) != null)
+    }
+}
@@ -0,0 +1,120 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.junit.tree
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.PPC_64_LE
+import com.fleshgrinder.platform.Arch.X86_64
+import java.io.File
+import java.util.BitSet
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+/** Writes a cache of the first CPU. */
+private fun cache(index: Int, level: Int, type: String, size: String, line: Int = 64) = arrayOf(
+    "devices/system/cpu/cpu0/cache/index$index/level" to "$level",
+    "devices/system/cpu/cpu0/cache/index$index/type" to type,
+    "devices/system/cpu/cpu0/cache/index$index/size" to size,
+    "devices/system/cpu/cpu0/cache/index$index/coherency_line_size" to "$line",
+)
+
+private class CpuTopologyTest {
+    @Test fun `topology of a two socket host with SMT`(@TempDir sys: File) {
+        sys.tree(
+            "devices/system/cpu/online" to "0-7",
+            "devices/system/node/online" to "0-1",
+            *(0..7).map { "devices/system/cpu/cpu$it/topology/thread_siblings_list" to "${it % 4},${it % 4 + 4}" }.toTypedArray(),
+            *cache(0, 1, "Data", "48K"),
+            *cache(1, 1, "Instruction", "32K"),
+            *cache(2, 2, "Unified", "1280K"),
+            *cache(3, 3, "Unified", "48M"),
+        )
+        val topology = CpuTopology.read(sys.toPath(), X86_64, 1)
+        assertAll(
+            { assertEquals(8, topology.logicalCpus) },
+            { assertEquals(4, topology.physicalCores) },
+            { assertEquals(2, topology.threadsPerCore) },
+            { assertEquals(2, topology.numaNodes) },
+            { assertEquals(48 * 1024, topology.l1DataCacheSize) },
+            { assertEquals(1280 * 1024, topology.l2CacheSize) },
+            { assertEquals(48 * 1024 * 1024, topology.l3CacheSize) },
+            { assertEquals(64, topology.cacheLineSize) },
+        )
+    }
+
+    @Test fun `hybrid cores are counted individually`(@TempDir sys: File) {
+        sys.tree(
+            "devices/system/cpu/online" to "0-5",
+            "devices/system/cpu/cpu0/topology/thread_siblings_list" to "0-1",
+            "devices/system/cpu/cpu1/topology/thread_siblings_list" to "0-1",
+            "devices/system/cpu/cpu2/topology/thread_siblings_list" to "2-3",
+            "devices/system/cpu/cpu3/topology/thread_siblings_list" to "2-3",
+            "devices/system/cpu/cpu4/topology/thread_siblings_list" to "4",
+            "devices/system/cpu/cpu5/topology/thread_siblings_list" to "5",
+        )
+        val topology = CpuTopology.read(sys.toPath(), X86_64, 1)
+        assertAll(
+            { assertEquals(6, topology.logicalCpus) },
+            { assertEquals(4, topology.physicalCores) },
+            { assertEquals(2, topology.threadsPerCore) },
+            { assertEquals(1, topology.numaNodes) },
+        )
+    }
+
+    @Test fun `offline siblings are ignored`(@TempDir sys: File) {
+        sys.tree(
+            "devices/system/cpu/online" to "0-1",
+            "devices/system/cpu/cpu0/topology/thread_siblings_list" to "0,2",
+            "devices/system/cpu/cpu1/topology/thread_siblings_list" to "1,3",
+            *cache(0, 1, "Data", "64K", line = 128),
+        )
+        val topology = CpuTopology.read(sys.toPath(), ARM_64, 1)
+        assertAll(
+            { assertEquals(2, topology.physicalCores) },
+            { assertEquals(1, topology.threadsPerCore) },
+            { assertEquals(64 * 1024, topology.l1DataCacheSize) },
+            { assertEquals(0, topology.l2CacheSize) },
+            { assertEquals(128, topology.cacheLineSize) },
+        )
+    }
+
+    @Test fun `missing sysfs falls back to the defaults of the arch`(@TempDir sys: File) {
+        val topology = CpuTopology.read(sys.toPath(), PPC_64_LE, 3)
+        assertAll(
+            { assertEquals(3, topology.logicalCpus) },
+            { assertEquals(3, topology.physicalCores) },
+            { assertEquals(1, topology.threadsPerCore) },
+            { assertEquals(1, topology.numaNodes) },
+            { assertEquals(32 * 1024, topology.l1DataCacheSize) },
+            { assertEquals(0, topology.l3CacheSize) },
+            { assertEquals(128, topology.cacheLineSize) },
+        )
+    }
+
+    @TestFactory fun `lists are parsed`() =
+        testsOf("" to "", "0" to "0", "0-3" to "0123", "0-1,4,6-7" to "01467") { (value, expected) ->
+            val set = BitSet().apply { expected.forEach { set(it - '0') } }
+            assertEquals(set, CpuTopology.list(value))
+        }
+
+    @TestFactory fun `invalid lists are rejected`() =
+        testsOf("a", "0-", "3-1", "-1", "0,,1") {
+            assertThrows<NumberFormatException> { CpuTopology.list(it) }
+        }
+
+    @Test fun `current topology is cached`() {
+        val topology = CpuTopology.current()
+        assertAll(
+            { assertSame(topology, CpuTopology.current()) },
+            { assertTrue(topology.logicalCpus >= 1) },
+            { assertTrue(topology.physicalCores in 1..topology.logicalCpus) },
+            { assertTrue(topology.cacheLineSize >= 32) },
+        )
+    }
+}
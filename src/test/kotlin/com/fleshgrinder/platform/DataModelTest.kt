@@ -0,0 +1,104 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.toTests
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.M68K_32
+import com.fleshgrinder.platform.Arch.RISCV_32
+import com.fleshgrinder.platform.Arch.X86_32
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.DataModel.CType
+import com.fleshgrinder.platform.DataModel.CType.INT
+import com.fleshgrinder.platform.DataModel.CType.LONG
+import com.fleshgrinder.platform.DataModel.CType.LONG_LONG
+import com.fleshgrinder.platform.DataModel.CType.MAX_ALIGN_T
+import com.fleshgrinder.platform.DataModel.CType.POINTER
+import com.fleshgrinder.platform.DataModel.CType.SIZE_T
+import com.fleshgrinder.platform.DataModel.CType.WCHAR_T
+import com.fleshgrinder.platform.Os.DARWIN
+import com.fleshgrinder.platform.Os.FREEBSD
+import com.fleshgrinder.platform.Os.LINUX
+import com.fleshgrinder.platform.Os.WINDOWS
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+
+private class DataModelTest {
+    private fun DataModel.layout() = CType.values().map { (if (it == MAX_ALIGN_T) null else sizeOf(it)) to alignOf(it) }
+
+    @TestFactory fun invariants() = PlatformSet.allOf().toTests {
+        val m = it.dataModel
+        assertAll(CType.values().map { type ->
+            {
+                val align = m.alignOf(type)
+                assertTrue(align > 0 && align and (align - 1) == 0, "$type alignment $align is a power of two")
+                if (type != MAX_ALIGN_T) assertTrue(align <= m.sizeOf(type), "$type alignment $align <= size")
+                assertTrue(align <= m.alignOf(MAX_ALIGN_T), "$type alignment $align <= max_align_t")
+            }
+        })
+        assertEquals(it.arch.pointerSize, m.sizeOf(POINTER))
+        assertEquals(m.sizeOf(POINTER), m.sizeOf(SIZE_T))
+        assertEquals(
+            when {
+                it.arch.is32bit -> "ILP32"
+                it.os == WINDOWS -> "LLP64"
+                else -> "LP64"
+            },
+            m.name,
+        )
+    }
+
+    @Test fun `linux-x86-64 is LP64`() {
+        val m = Platform.of(LINUX, X86_64).dataModel
+        assertEquals(listOf(4 to 4, 8 to 8, 8 to 8, 8 to 8, 8 to 8, 4 to 4, null to 16), m.layout())
+    }
+
+    @Test fun `windows-x86-64 is LLP64`() {
+        val m = Platform.of(WINDOWS, X86_64).dataModel
+        assertEquals("LLP64", m.name)
+        assertEquals(listOf(4 to 4, 4 to 4, 8 to 8, 8 to 8, 8 to 8, 2 to 2, null to 8), m.layout())
+    }
+
+    @Test fun `linux-x86-32 aligns long long to 4 bytes`() {
+        val m = Platform.of(LINUX, X86_32).dataModel
+        assertEquals(listOf(4 to 4, 4 to 4, 8 to 4, 4 to 4, 4 to 4, 4 to 4, null to 16), m.layout())
+        assertEquals(8, Platform.of(WINDOWS, X86_32).dataModel.alignOf(LONG_LONG))
+    }
+
+    @Test fun `m68k aligns everything to 2 bytes`() {
+        val m = Platform.of(LINUX, M68K_32).dataModel
+        assertEquals(listOf(2), CType.values().map { m.alignOf(it) }.distinct())
+        assertEquals(4, m.sizeOf(INT))
+        assertEquals(4, m.sizeOf(WCHAR_T))
+    }
+
+    @Test fun `darwin-arm-64 aligns max_align_t to 8 bytes`() {
+        val m = Platform.of(DARWIN, ARM_64).dataModel
+        assertEquals(listOf(4 to 4, 8 to 8, 8 to 8, 8 to 8, 8 to 8, 4 to 4, null to 8), m.layout())
+    }
+
+    @Test fun `riscv-32 aligns max_align_t to 16 bytes`() {
+        val m = Platform.of(LINUX, RISCV_32).dataModel
+        assertEquals(listOf(4 to 4, 4 to 4, 8 to 8, 4 to 4, 4 to 4, 4 to 4, null to 16), m.layout())
+    }
+
+    @Test fun `max_align_t has no size`() {
+        val m = Platform.of(LINUX, X86_64).dataModel
+        assertThrows<IllegalArgumentException> { m.sizeOf(MAX_ALIGN_T) }
+        assertTrue(m.toString().endsWith("MAX_ALIGN_T=?/16}"), m.toString())
+    }
+
+    @Test fun `identical models are shared`() {
+        assertSame(Platform.of(LINUX, ARM_64).dataModel, Platform.of(FREEBSD, ARM_64).dataModel)
+        assertSame(Platform.of(LINUX, X86_64).dataModel, Platform.of(DARWIN, X86_64).dataModel)
+        assertEquals(Platform.of(LINUX, X86_64).dataModel.toString(), Platform.of(LINUX, ARM_64).dataModel.toString())
+    }
+
+    @Test fun `long is as wide as a pointer except on Windows`() {
+        assertEquals(8, Platform.of(DARWIN, ARM_64).dataModel.sizeOf(LONG))
+        assertEquals(4, Platform.of(WINDOWS, ARM_64).dataModel.sizeOf(LONG))
+    }
+}
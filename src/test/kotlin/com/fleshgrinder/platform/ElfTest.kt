@@ -0,0 +1,95 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.elf
+import com.fleshgrinder.junit.elfDynamic
+import com.fleshgrinder.junit.testsOf
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder.BIG_ENDIAN
+import java.nio.ByteOrder.LITTLE_ENDIAN
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+private class ElfTest {
+    @TestFactory fun `interpreter is found in every class and byte order`() =
+        testsOf(true to LITTLE_ENDIAN, true to BIG_ENDIAN, false to LITTLE_ENDIAN, false to BIG_ENDIAN) { (is64, order) ->
+            val buffer = ByteBuffer.wrap(elf("/lib/ld-musl-x86_64.so.1", is64, order))
+            buffer.position(7)
+            assertAll(
+                { assertEquals("/lib/ld-musl-x86_64.so.1", Elf.interpreter(buffer)) },
+                { assertEquals(7, buffer.position()) },
+            )
+        }
+
+    @Test fun `interpreter is read from files`(@TempDir tempDir: File) {
+        val file = tempDir.resolve("exe").apply { writeBytes(elf("/lib64/ld-linux-x86-64.so.2")) }
+        assertEquals("/lib64/ld-linux-x86-64.so.2", Elf.interpreter(file.toPath()))
+    }
+
+    @Test fun `static executables have no interpreter`() {
+        assertNull(Elf.interpreter(ByteBuffer.wrap(elf(null))))
+    }
+
+    @TestFactory fun `invalid images are rejected`() =
+        testsOf(
+            "empty" to ByteArray(0),
+            "not ELF" to "#!/usr/bin/env sh\nexit 0\n".toByteArray(),
+            "unknown class" to elf(null).also { it[4] = 3 },
+            "unknown data" to elf(null).also { it[5] = 3 },
+            "truncated header" to elf(null).copyOf(0x30),
+            "truncated program header" to elf("/lib/ld-musl-x86_64.so.1").let { it.copyOf(it.size - 32) },
+            name = { it.first },
+        ) { (_, bytes) ->
+            assertThrows<IllegalArgumentException> { Elf.interpreter(ByteBuffer.wrap(bytes)) }
+        }
+
+    @TestFactory fun `dynamic section is read in every class and byte order`() =
+        testsOf(true to LITTLE_ENDIAN, true to BIG_ENDIAN, false to LITTLE_ENDIAN, false to BIG_ENDIAN) { (is64, order) ->
+            val dynamic = Elf.dynamic(ByteBuffer.wrap(elfDynamic(listOf("libz.so.1", "libc.so.6"), "\$ORIGIN:/opt/lib", is64 = is64, order = order, machine = 8)))
+            assertAll(
+                { assertEquals(listOf("libz.so.1", "libc.so.6"), dynamic.needed) },
+                { assertEquals(listOf("\$ORIGIN", "/opt/lib"), dynamic.runpath) },
+                { assertNull(dynamic.interpreter) },
+                { assertEquals(is64, dynamic.platform!!.arch.is64bit) },
+                { assertTrue(dynamic.requiresGlibc()) },
+                { assertFalse(dynamic.requiresMusl()) },
+            )
+        }
+
+    @Test fun `dynamic section is read from files`(@TempDir tempDir: File) {
+        val file = tempDir.resolve("libfoo.so").apply { writeBytes(elfDynamic(listOf("libc.musl-x86_64.so.1"), interpreter = "/lib/ld-musl-x86_64.so.1")) }
+        val dynamic = Elf.dynamic(file.toPath())
+        assertAll(
+            { assertEquals("/lib/ld-musl-x86_64.so.1", dynamic.interpreter) },
+            { assertEquals(listOf("libc.musl-x86_64.so.1"), dynamic.needed) },
+            { assertEquals(emptyList<String>(), dynamic.runpath) },
+            { assertTrue(dynamic.requiresMusl()) },
+            { assertFalse(dynamic.requiresGlibc()) },
+        )
+    }
+
+    @Test fun `static executables have no dynamic section`() {
+        val dynamic = Elf.dynamic(ByteBuffer.wrap(elf(null)))
+        assertAll(
+            { assertEquals(emptyList<String>(), dynamic.needed) },
+            { assertFalse(dynamic.requiresMusl()) },
+            { assertFalse(dynamic.requiresGlibc()) },
+        )
+    }
+
+    @TestFactory fun `invalid dynamic sections are rejected`() =
+        testsOf(
+            "truncated string table" to elfDynamic(listOf("libz.so.1")).let { it.copyOf(it.size - 4) },
+            "string offset out of bounds" to elfDynamic(listOf("libz.so.1")).also { it[0x40 + 2 * 0x38 + 8] = 0x7F },
+            name = { it.first },
+        ) { (_, bytes) ->
+            assertThrows<IllegalArgumentException> { Elf.dynamic(ByteBuffer.wrap(bytes)) }
+        }
+}
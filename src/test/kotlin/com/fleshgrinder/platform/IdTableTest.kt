@@ -0,0 +1,26 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.assertRanges
+import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.junit.testsOf
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertThrows
+
+private class IdTableTest {
+    val table = IdTable(Arch.values())
+
+    @TestFactory fun `every id is found`() =
+        enumTestsOf<Arch> {
+            assertRanges(it.toString(), it, table::get, table::get, table::get) { b -> table.get(b, b.position(), b.limit()) }
+        }
+
+    @TestFactory fun `anything else is not found`() =
+        testsOf("", "x", "x86", "x86-6", "x86-644", "X86-64", "x86_64", "-x86-64", "x86-64-", "arm-32-le", "superh-32-be-x", "x86-64\u0000") {
+            assertRanges<Arch>(it, null, table::get, table::get, table::get) { b -> table.get(b, b.position(), b.limit()) }
+        }
+
+    @Test fun `colliding hash codes are rejected`() {
+        assertThrows<IllegalArgumentException> { IdTable(arrayOf("Aa", "BB")) }
+    }
+}
@@ -0,0 +1,80 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.testsOf
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+
+private class KeywordMatcherTest {
+    val matcher = KeywordMatcher.Builder<String>()
+        .add("ab+c", "first")
+        .add("x(86)?-?64", "second")
+        .add("v[1-9]\\d*", "third")
+        .add("a|b", "fourth")
+        .build()
+
+    @TestFactory fun symbols() =
+        testsOf('-' to 0, '0' to 1, '9' to 10, 'a' to 11, 'A' to 11, 'z' to 36, 'Z' to 36, '_' to 0, ' ' to 0, 'ä' to 0) { (c, symbol) ->
+            assertEquals(symbol, KeywordMatcher.symbol(c))
+        }
+
+    @Test fun `empty input never matches`() {
+        assertNull(matcher.match(""))
+    }
+
+    @TestFactory fun `keywords only match at word boundaries`() =
+        testsOf("xabc", "abcx", "x86x64", "v0", "vv1", "ab", "ac", "x8664a") {
+            assertNull(matcher.match(it))
+        }
+
+    @TestFactory fun `keywords are matched case insensitive with arbitrary separators`() =
+        testsOf("ABC", "abbbc", "foo.abc", "abc_foo", "foo/ABBC/bar", "x:abc:x") {
+            assertEquals("first", matcher.match(it))
+        }
+
+    @Test fun `keyword with the highest priority wins regardless of its position`() {
+        assertAll(
+            { assertEquals("first", matcher.match("a x64 v1 abc")) },
+            { assertEquals("second", matcher.match("b v9 x86_64")) },
+            { assertEquals("third", matcher.match("a v123456789")) },
+            { assertEquals("fourth", matcher.match("b")) },
+        )
+    }
+
+    @Test fun `range is respected`() {
+        assertAll(
+            { assertEquals("second", matcher.match("abc x64", 3, 7)) },
+            { assertEquals("fourth", matcher.match("abc", 0, 1)) },
+            { assertNull(matcher.match("xabc", 1, 3)) },
+        )
+    }
+
+    @Test fun `channels are matched independently in the same scan`() {
+        val matcher = KeywordMatcher.Builder<String>()
+            .add("a", "a")
+            .add("b", "b")
+            .channel()
+            .add("a", "channel a")
+            .add("c", "channel c")
+            .build()
+        assertAll(
+            { matcher.scan("c b", 0, 3).let { assertEquals("b", matcher.first(it)); assertEquals("channel c", matcher.second(it)) } },
+            { matcher.scan("b a", 0, 3).let { assertEquals("a", matcher.first(it)); assertEquals("channel a", matcher.second(it)) } },
+            { matcher.scan("b", 0, 1).let { assertEquals("b", matcher.first(it)); assertNull(matcher.second(it)) } },
+            { matcher.scan("c", 0, 1).let { assertNull(matcher.first(it)); assertEquals("channel c", matcher.second(it)) } },
+            { assertEquals("a", matcher.match("c a")) },
+        )
+    }
+
+    @Test fun `there are at most two channels`() {
+        assertThrows<IllegalStateException> { KeywordMatcher.Builder<String>().channel().channel() }
+    }
+
+    @TestFactory fun `invalid keywords are rejected`() =
+        testsOf("(a", "a)", "[a", "A", "a.b", "\\w") {
+            assertThrows<IllegalArgumentException> { KeywordMatcher.Builder<String>().add(it, it).build() }
+        }
+}
@@ -0,0 +1,115 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.platform.Arch.ARM_32
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.MicroArch.ARM_64_V8_1
+import com.fleshgrinder.platform.MicroArch.ARM_64_V8_2
+import com.fleshgrinder.platform.MicroArch.ARM_64_V8_4
+import com.fleshgrinder.platform.MicroArch.X86_64_V2
+import com.fleshgrinder.platform.MicroArch.X86_64_V3
+import com.fleshgrinder.platform.MicroArch.X86_64_V4
+import com.fleshgrinder.platform.Os.LINUX
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.EnumSet
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+
+private fun proc(name: String): Path = Paths.get(MicroArchTest::class.java.getResource("/proc/$name")!!.toURI())
+
+private class MicroArchTest {
+    private val linux = Platform.of(LINUX, X86_64)
+
+    @TestFactory fun `ids round trip`() = enumTestsOf<MicroArch> {
+        val id = Platform.of(LINUX, it.arch).toString(it)
+        assertAll(
+            { assertEquals("$LINUX-$it", id) },
+            { assertEquals(it, MicroArch.fromString(it.toString())) },
+            { assertEquals(it, MicroArch.parse(id)) },
+            { assertEquals(Platform.of(LINUX, it.arch), Platform.parse(id)) },
+        )
+    }
+
+    @Test fun `ids extend the arch`() {
+        assertAll(
+            { assertEquals("x86-64-v3", X86_64_V3.toString()) },
+            { assertEquals("arm-64-v8-2", ARM_64_V8_2.toString()) },
+            { assertEquals("linux-x86-64-v3", linux.toString(X86_64_V3)) },
+            { assertThrows<IllegalArgumentException> { linux.toString(ARM_64_V8_2) } },
+        )
+    }
+
+    @TestFactory fun `levels are parsed from artifact names and compiler flags`() =
+        testsOf(
+            "libfoo-linux-x86-64-v3.so" to X86_64_V3,
+            "libfoo-linux-x86_64_v4.so" to X86_64_V4,
+            "foo-1.0.0-windows-amd64-v2.zip" to X86_64_V2,
+            "-march=armv8.2-a" to ARM_64_V8_2,
+            "libfoo-linux-aarch64-v8.4.so" to ARM_64_V8_4,
+            "libfoo-linux-arm-64-v8-1.so" to ARM_64_V8_1,
+            name = { it.first },
+        ) { (value, level) ->
+            assertEquals(level, MicroArch.parseOrNull(value))
+        }
+
+    @TestFactory fun `plain archs and unrelated versions are no levels`() =
+        testsOf("libfoo-linux-x86-64.so", "libfoo-v3-linux-x86-64.so", "x86-64-v3x", "armv8-a", "v8.2") {
+            assertAll(
+                { assertNull(MicroArch.parseOrNull(it)) },
+                { assertThrows<IllegalArgumentException> { MicroArch.parse(it) } },
+                { assertNull(MicroArch.fromStringOrNull(it)) },
+            )
+        }
+
+    @Test fun `levels include lower levels`() {
+        assertAll(
+            { assertTrue(X86_64_V4.features.containsAll(X86_64_V3.features)) },
+            { assertTrue(X86_64_V3.features.containsAll(X86_64_V2.features)) },
+            { assertTrue(ARM_64_V8_4.features.containsAll(ARM_64_V8_2.features)) },
+            { assertTrue(ARM_64_V8_2.features.containsAll(ARM_64_V8_1.features)) },
+        )
+    }
+
+    @Test fun `highest supported level is detected`() {
+        assertAll(
+            { assertEquals(X86_64_V4, MicroArch.best(X86_64, CpuFeatures.read(proc("x86-64-avx512"), X86_64))) },
+            { assertEquals(X86_64_V2, MicroArch.best(X86_64, CpuFeatures.read(proc("x86-64-westmere"), X86_64))) },
+            { assertEquals(ARM_64_V8_2, MicroArch.best(ARM_64, CpuFeatures.read(proc("aarch64-graviton2"), ARM_64))) },
+            { assertNull(MicroArch.best(ARM_32, CpuFeatures.read(proc("arm-raspberrypi3"), ARM_32))) },
+            { assertNull(MicroArch.best(ARM_64, X86_64_V4.features)) },
+        )
+    }
+
+    @Test fun `resolve tries supported levels from the highest downwards`() {
+        val tried = mutableListOf<String>()
+        val resolved = MicroArch.resolve(linux, X86_64_V3.features) { id -> tried += id; id.takeIf { it == "linux-x86-64-v2" } }
+        assertAll(
+            { assertEquals("linux-x86-64-v2", resolved) },
+            { assertEquals(listOf("linux-x86-64-v3", "linux-x86-64-v2"), tried) },
+        )
+    }
+
+    @Test fun `resolve falls back to the plain platform`() {
+        val tried = mutableListOf<String>()
+        val resolved = MicroArch.resolve(linux, EnumSet.noneOf(CpuFeature::class.java)) { id -> tried += id; id }
+        val missing = MicroArch.resolve<String>(Platform.of(LINUX, ARM_64), ARM_64_V8_4.features) { id -> tried += id; null }
+        assertAll(
+            { assertEquals("linux-x86-64", resolved) },
+            { assertNull(missing) },
+            { assertEquals(listOf("linux-x86-64", "linux-arm-64-v8-4", "linux-arm-64-v8-3", "linux-arm-64-v8-2", "linux-arm-64-v8-1", "linux-arm-64"), tried) },
+        )
+    }
+
+    @Test fun `current level matches the current features`() {
+        val arch = Arch.currentOrNull()
+        assertEquals(arch?.let { MicroArch.best(it, CpuFeatures.current()) }, MicroArch.current())
+    }
+}
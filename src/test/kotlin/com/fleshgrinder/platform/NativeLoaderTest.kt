@@ -0,0 +1,193 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.Os.LINUX
+import java.io.File
+import java.io.IOException
+import java.net.URLClassLoader
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.attribute.FileTime
+import java.security.MessageDigest
+import java.util.EnumSet
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.jar.JarEntry
+import java.util.jar.JarOutputStream
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+private class NativeLoaderTest {
+    private val linux = Platform.of(LINUX, X86_64)
+    private val content = ByteArray(200_000) { (it * 7).toByte() }
+
+    private fun File.classLoader(name: String = "libfoo.so", bytes: ByteArray = content, id: String = linux.toString(), sha256: String? = sha256(bytes)): ClassLoader {
+        val dir = resolve("classes/native/$id").apply { mkdirs() }
+        dir.resolve(name).writeBytes(bytes)
+        if (sha256 != null) dir.resolve("$name.sha256").writeText("$sha256  $name\n")
+        return URLClassLoader(arrayOf(resolve("classes").toURI().toURL()), null)
+    }
+
+    private fun File.jarClassLoader(sha256: String? = sha256(content)): ClassLoader {
+        val jar = resolve("foo.jar")
+        JarOutputStream(jar.outputStream()).use { out ->
+            out.putNextEntry(JarEntry("native/$linux/libfoo.so"))
+            out.write(content)
+            if (sha256 != null) {
+                out.putNextEntry(JarEntry("native/$linux/libfoo.so.sha256"))
+                out.write("$sha256  libfoo.so\n".toByteArray())
+            }
+        }
+        return URLClassLoader(arrayOf(jar.toURI().toURL()), null)
+    }
+
+    private fun sha256(bytes: ByteArray) =
+        MessageDigest.getInstance("SHA-256").digest(bytes).joinToString("") { "%02x".format(it) }
+
+    @Test fun `libraries are extracted into a content addressed directory`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val path = NativeLoader(tempDir.classLoader(), cache, linux).extract("libfoo.so")
+        assertAll(
+            { assertEquals(cache.resolve(sha256(content)).resolve("libfoo.so").toAbsolutePath(), path) },
+            { assertArrayEquals(content, Files.readAllBytes(path)) },
+            { assertEquals(listOf(".lock", "libfoo.so"), path.parent.toFile().list()!!.sorted()) },
+        )
+    }
+
+    @Test fun `libraries without a hash are extracted into a fingerprint directory`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val classLoader = tempDir.classLoader(sha256 = null)
+        val path = NativeLoader(classLoader, cache, linux).extract("libfoo.so")
+        tempDir.resolve("classes/native/$linux/libfoo.so").setLastModified(0)
+        val changed = NativeLoader(classLoader, cache, linux).extract("libfoo.so")
+        assertAll(
+            { assertNotEquals(sha256(content), path.parent.fileName.toString()) },
+            { assertArrayEquals(content, Files.readAllBytes(path)) },
+            { assertNotEquals(path, changed) },
+            { assertArrayEquals(content, Files.readAllBytes(changed)) },
+        )
+    }
+
+    @Test fun `libraries in JARs are extracted`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val path = NativeLoader(tempDir.resolve("a").apply { mkdirs() }.jarClassLoader(), cache, linux).extract("libfoo.so")
+        val fingerprinted = NativeLoader(tempDir.resolve("b").apply { mkdirs() }.jarClassLoader(sha256 = null), cache, linux).extract("libfoo.so")
+        assertAll(
+            { assertEquals(cache.resolve(sha256(content)).resolve("libfoo.so").toAbsolutePath(), path) },
+            { assertArrayEquals(content, Files.readAllBytes(path)) },
+            { assertNotEquals(path, fingerprinted) },
+            { assertArrayEquals(content, Files.readAllBytes(fingerprinted)) },
+        )
+    }
+
+    @Test fun `libraries that do not match their hash are not extracted`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val loader = NativeLoader(tempDir.classLoader(sha256 = sha256(content.reversedArray())), cache, linux)
+        assertThrows<IOException> { loader.extract("libfoo.so") }
+        assertEquals(listOf(".lock"), cache.resolve(sha256(content.reversedArray())).toFile().list()!!.toList())
+    }
+
+    @TestFactory fun `invalid hashes are rejected`(@TempDir tempDir: File) =
+        testsOf("", "abc", "x" + sha256(content).drop(1), sha256(content) + "0") { sha256 ->
+            val loader = NativeLoader(tempDir.resolve("${sha256.hashCode()}").classLoader(sha256 = sha256), tempDir.resolve("cache").toPath(), linux)
+            assertThrows<IOException> { loader.extract("libfoo.so") }
+        }
+
+    @Test fun `cached copies are not extracted again`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val classLoader = tempDir.classLoader()
+        val path = NativeLoader(classLoader, cache, linux).extract("libfoo.so")
+        val modified = FileTime.fromMillis(0)
+        Files.setLastModifiedTime(path, modified)
+        assertAll(
+            { assertEquals(path, NativeLoader(classLoader, cache, linux).extract("libfoo.so")) },
+            { assertEquals(modified, Files.getLastModifiedTime(path)) },
+        )
+    }
+
+    @Test fun `truncated copies are extracted again`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val classLoader = tempDir.classLoader()
+        val path = NativeLoader(classLoader, cache, linux).extract("libfoo.so")
+        Files.write(path, content.copyOf(100))
+        assertEquals(path, NativeLoader(classLoader, cache, linux).extract("libfoo.so"))
+        assertArrayEquals(content, Files.readAllBytes(path))
+    }
+
+    @Test fun `different content is extracted next to each other`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val v1 = NativeLoader(tempDir.resolve("v1").classLoader(), cache, linux).extract("libfoo.so")
+        val v2 = NativeLoader(tempDir.resolve("v2").classLoader(bytes = content.reversedArray()), cache, linux).extract("libfoo.so")
+        assertAll(
+            { assertNotEquals(v1, v2) },
+            { assertArrayEquals(content, Files.readAllBytes(v1)) },
+            { assertArrayEquals(content.reversedArray(), Files.readAllBytes(v2)) },
+        )
+    }
+
+    @Test fun `concurrent extraction writes once`(@TempDir tempDir: File) {
+        val cache = tempDir.resolve("cache").toPath()
+        val classLoader = tempDir.classLoader()
+        val start = CountDownLatch(1)
+        val executor = Executors.newFixedThreadPool(8)
+        try {
+            val futures = (1..8).map {
+                executor.submit<Path> {
+                    start.await()
+                    NativeLoader(classLoader, cache, linux).extract("libfoo.so")
+                }
+            }
+            start.countDown()
+            val paths = futures.map { it.get(10, TimeUnit.SECONDS) }.distinct()
+            assertAll(
+                { assertEquals(1, paths.size) },
+                { assertArrayEquals(content, Files.readAllBytes(paths.single())) },
+                { assertEquals(listOf(".lock", "libfoo.so"), paths.single().parent.toFile().list()!!.sorted()) },
+            )
+        } finally {
+            executor.shutdownNow()
+        }
+    }
+
+    @Test fun `builds for the highest supported level are preferred`(@TempDir tempDir: File) {
+        val v2 = content.reversedArray()
+        tempDir.classLoader(bytes = ByteArray(1), id = linux.toString(MicroArch.X86_64_V4))
+        tempDir.classLoader(bytes = v2, id = linux.toString(MicroArch.X86_64_V2))
+        val classLoader = tempDir.classLoader()
+        val cache = tempDir.resolve("cache").toPath()
+        assertAll(
+            { assertArrayEquals(v2, Files.readAllBytes(NativeLoader(classLoader, cache, linux, MicroArch.X86_64_V3.features).extract("libfoo.so"))) },
+            { assertArrayEquals(content, Files.readAllBytes(NativeLoader(classLoader, cache, linux, EnumSet.noneOf(CpuFeature::class.java)).extract("libfoo.so"))) },
+        )
+    }
+
+    @Test fun `libraries of other platforms are not found`(@TempDir tempDir: File) {
+        val loader = NativeLoader(tempDir.classLoader(), tempDir.resolve("cache").toPath(), Platform.of(Os.WINDOWS, X86_64))
+        assertAll(
+            { assertNull(loader.extractOrNull("libfoo.so")) },
+            { assertThrows<IllegalArgumentException> { loader.extract("libfoo.so") } },
+            { assertTrue(!tempDir.resolve("cache").exists()) },
+        )
+    }
+
+    @TestFactory fun `invalid names are rejected`(@TempDir tempDir: File) =
+        testsOf("", ".", "..", ".lock", "../libfoo.so", "lib/libfoo.so", "lib\\libfoo.so") { name ->
+            val loader = NativeLoader(tempDir.classLoader(), tempDir.resolve("cache").toPath(), linux)
+            assertThrows<IllegalArgumentException> { loader.extractOrNull(name) }
+        }
+
+    @TestFactory fun `default cache directory is per user`() = enumTestsOf<Os> {
+        assertEquals("jvm-platform", NativeLoader.defaultCacheDir(it).fileName.toString())
+    }
+}
@@ -0,0 +1,119 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.toTests
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.Os.DARWIN
+import com.fleshgrinder.platform.Os.LINUX
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.util.ConcurrentModificationException
+import kotlin.random.Random
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertThrows
+
+private class OrdinalMapTest {
+    private class Case<K : Comparable<K>>(val name: String, val keys: List<K>, val new: () -> MutableMap<K, String>) {
+        override fun toString() = name
+
+        fun check() {
+            val random = Random(42)
+            val actual = new()
+            val expected = HashMap<K, String>()
+            repeat(10_000) {
+                val key = keys.random(random)
+                val value = random.nextInt(8).toString()
+                when (random.nextInt(4)) {
+                    0, 1 -> assertEquals(expected.put(key, value), actual.put(key, value), "put")
+                    2 -> assertEquals(expected.remove(key), actual.remove(key), "remove")
+                    else -> {
+                        assertEquals(expected[key], actual[key], "get")
+                        assertEquals(expected.containsKey(key), actual.containsKey(key), "containsKey")
+                        assertEquals(expected.containsValue(value), actual.containsValue(value), "containsValue")
+                    }
+                }
+                assertEquals(expected.size, actual.size, "size")
+            }
+
+            val sorted = expected.toSortedMap().toList()
+            assertEquals(sorted, actual.toList(), "iteration")
+            assertEquals(sorted, mutableListOf<Pair<K, String>>().also { list -> actual.forEach { k, v -> list += k to v } }, "forEach")
+            assertEquals(expected, actual)
+            assertEquals(actual, expected)
+            assertEquals(expected.hashCode(), actual.hashCode())
+            assertEquals(expected.toString().length, actual.toString().length)
+
+            actual.entries.forEach { it.setValue(it.value + "!") }
+            expected.entries.forEach { it.setValue(it.value + "!") }
+            assertEquals(expected, actual, "setValue")
+
+            actual.entries.removeIf { it.value.startsWith("1") }
+            expected.entries.removeIf { it.value.startsWith("1") }
+            assertEquals(expected, actual, "removeIf")
+
+            val buf = ByteArrayOutputStream()
+            ObjectOutputStream(buf).use { it.writeObject(actual) }
+            assertEquals(actual, ObjectInputStream(ByteArrayInputStream(buf.toByteArray())).use { it.readObject() }, "serialization")
+
+            actual.clear()
+            assertTrue(actual.isEmpty())
+            assertEquals(emptyList<Pair<K, String>>(), actual.toList())
+        }
+    }
+
+    private val platforms = Os.values().flatMap { os -> Arch.values().map { arch -> Platform.of(os, arch) } }
+
+    private val cases = sequenceOf(
+        Case("PlatformMap", platforms) { PlatformMap() },
+        Case("OsMap", Os.values().asList()) { OsMap() },
+        Case("ArchMap", Arch.values().asList()) { ArchMap() },
+    )
+
+    @TestFactory fun `behaves like a sorted HashMap`() = cases.toTests { it.check() }
+
+    @Test fun `foreign and null keys are absent`() {
+        @Suppress("UNCHECKED_CAST")
+        val map = PlatformMap<String>().apply { put(LINUX, X86_64, "x") } as MutableMap<Any?, String>
+        assertNull(map[LINUX])
+        assertNull(map[null])
+        assertFalse(map.containsKey("linux-x86-64"))
+        assertNull(map.remove(X86_64))
+        assertEquals(1, map.size)
+    }
+
+    @Test fun `null values are rejected`() {
+        @Suppress("UNCHECKED_CAST")
+        val map = OsMap<String>() as MutableMap<Os, String?>
+        assertThrows<NullPointerException> { map[LINUX] = null }
+        assertTrue(map.isEmpty())
+    }
+
+    @Test fun `Os and Arch overloads`() {
+        val map = PlatformMap<String>()
+        assertNull(map.put(DARWIN, ARM_64, "a"))
+        assertEquals("a", map[Platform.of(DARWIN, ARM_64)])
+        assertEquals("a", map.get(DARWIN, ARM_64))
+        assertEquals("a", map.remove(DARWIN, ARM_64))
+        assertNull(map.get(DARWIN, ARM_64))
+        assertTrue(map.isEmpty())
+    }
+
+    @Test fun `copy constructors`() {
+        val platforms = mapOf(Platform.of(LINUX, X86_64) to 1, Platform.of(DARWIN, ARM_64) to 2)
+        assertEquals(platforms, PlatformMap(platforms))
+        assertEquals(mapOf(LINUX to 1), OsMap(mapOf(LINUX to 1)))
+        assertEquals(mapOf(X86_64 to 1), ArchMap(mapOf(X86_64 to 1)))
+    }
+
+    @Test fun `forEach detects modification`() {
+        val map = ArchMap(mapOf(X86_64 to 1, ARM_64 to 2))
+        assertThrows<ConcurrentModificationException> { map.forEach { _, _ -> map.remove(X86_64) } }
+    }
+}
@@ -1,8 +1,11 @@
 package com.fleshgrinder.platform
 
+import com.fleshgrinder.junit.assertRanges
 import com.fleshgrinder.junit.clearSystemProperties
 import com.fleshgrinder.junit.enumTestsOf
+import com.fleshgrinder.junit.fuzz
 import com.fleshgrinder.junit.generexWithGarbage
+import com.fleshgrinder.junit.orNull
 import com.fleshgrinder.junit.testsOf
 import com.fleshgrinder.junit.toTests
 import com.fleshgrinder.junit.withSystemProperties
@@ -85,6 +88,18 @@ private class OsTest {
             }
         }
 
+    @Test @ResourceLock(SYSTEM_PROPERTIES) fun `current follows changes of every system property it depends on`() =
+        withSystemProperties("file.separator" to "/", "java.vm.name" to "HotSpot", "os.name" to "Linux") {
+            assertAll(
+                { assertEquals(LINUX, current()) },
+                { withSystemProperty("java.vm.name", "Dalvik") { assertEquals(ANDROID, current()) } },
+                { withSystemProperty("file.separator", "\\") { assertEquals(WINDOWS, current()) } },
+                { withSystemProperty("os.name", "FreeBSD") { assertEquals(FREEBSD, current()) } },
+                { withSystemProperty("os.name", String(charArrayOf('L', 'i', 'n', 'u', 'x'))) { assertEquals(LINUX, current()) } },
+                { assertEquals(LINUX, current()) },
+            )
+        }
+
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun names() =
         enumTestsOf<Os> {
             val name = it.name
@@ -134,6 +149,62 @@ private class OsTest {
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun `WINDOWS aliases`() = aliasTestsOf(WINDOWS, "W(in(dows)?)?(7|8|10|32|64|XP)")
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun `ZOS aliases`() = aliasTestsOf(ZOS, "z/?OS")
 
+    @TestFactory fun ranges() =
+        (values().map(Os::toString) + listOf("", "Linux", "Mac OS X", "windows-10-x64", "unknown", "linux-")).toTests {
+            val parsed = parseOrNull(it)
+            val found = fromStringOrNull(it)
+            assertAll(
+                { assertRanges(it, parsed, ::parseOrNull, ::parseOrNull, ::parseOrNull, ::parseOrNull) },
+                { assertRanges(it, parsed, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { b -> orNull { parse(b) } }) },
+                { assertRanges(it, found, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull) },
+                { assertRanges(it, found, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { b -> orNull { fromString(b) } }) },
+            )
+        }
+
+    @Test fun `ranges are checked`() {
+        assertAll(
+            { assertThrows<IndexOutOfBoundsException> { parseOrNull("abc", -1, 2) } },
+            { assertThrows<IndexOutOfBoundsException> { parseOrNull(CharArray(3), 2, 1) } },
+            { assertThrows<IndexOutOfBoundsException> { fromStringOrNull(ByteArray(3), 0, 4) } },
+        )
+    }
+
+    /** The regular expression cascade that [Os.parseOrNull] used before it was replaced by a [KeywordMatcher]. */
+    val legacy = listOf(
+        Regex("""(?s).*\bandroid\b.*?""") to ANDROID,
+        Regex("""(?s).*\b(linux|u?nix)\b.*?""") to LINUX,
+        Regex("""(?s).*\b(apple|darwin|ios|mac(osx?)?|os-?x)\b.*?""") to DARWIN,
+        Regex("""(?s).*\b(w(7|8|1[01]|32|64|xp)|win(dows)?(\d|\d\d|xp)?)\b.*?""") to WINDOWS,
+        Regex("""(?s).*\baix\b.*?""") to AIX,
+        Regex("""(?s).*\bdragon-?fly(bsd)?\b.*?""") to DRAGONFLYBSD,
+        Regex("""(?s).*\bfree-?bsd\b.*?""") to FREEBSD,
+        Regex("""(?s).*\bfuchsia\b.*?""") to FUCHSIA,
+        Regex("""(?s).*\bhaiku\b.*?""") to HAIKU,
+        Regex("""(?s).*\bhp-?ux\b.*?""") to HPUX,
+        Regex("""(?s).*\b(ibm-?i|os-?400)\b.*?""") to IBMI,
+        Regex("""(?s).*\billum(os)?\b.*?""") to ILLUMOS,
+        Regex("""(?s).*\bnet-?bsd\b.*?""") to NETBSD,
+        Regex("""(?s).*\bopen-?bsd\b.*?""") to OPENBSD,
+        Regex("""(?s).*\bplan-?9\b.*?""") to PLAN9,
+        Regex("""(?s).*\b(qnx|procnto)\b.*?""") to QNX,
+        Regex("""(?s).*\bredox\b.*?""") to REDOX,
+        Regex("""(?s).*\b(s(olaris|un-?os))\b.*?""") to SOLARIS,
+        Regex("""(?s).*\bvx-?works\b.*?""") to VXWORKS,
+        Regex("""(?s).*\bz-?os\b.*?""") to ZOS,
+    )
+
+    fun legacyParseOrNull(value: String): Os? {
+        if (value.isEmpty()) return null
+        val it = Utils.normalize(value)
+        return values().firstOrNull { v -> v.toString() == it } ?: legacy.firstOrNull { (regex) -> regex.matches(it) }?.second
+    }
+
+    @Test fun `parseOrNull agrees with the legacy regular expression cascade`() {
+        (values().map(Os::toString).asSequence() + fuzz(listOf("android", "linux", "unix", "nix", "apple", "darwin", "ios", "mac", "macos", "macosx", "os", "x", "osx", "w", "win", "windows", "7", "8", "10", "11", "12", "32", "64", "xp", "aix", "dragon", "fly", "dragonfly", "bsd", "free", "net", "open", "fuchsia", "haiku", "hp", "ux", "ibm", "i", "400", "illum", "illumos", "plan", "9", "qnx", "procnto", "redox", "solaris", "sun", "vx", "works", "z", "x86", "amd", "gz"))).forEach {
+            assertEquals(legacyParseOrNull(it), parseOrNull(it), it)
+        }
+    }
+
     @TestFactory fun exeExt() = enumTestsOf<Os>(WINDOWS) { assertExtension("", it::getExecutableExtension, it::withExecutableExtension, it::withExecutableExtension) }
     @Test fun exeExtWindows() = assertExtension(".exe", WINDOWS::getExecutableExtension, WINDOWS::withExecutableExtension, WINDOWS::withExecutableExtension)
 
@@ -0,0 +1,201 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.elf
+import com.fleshgrinder.junit.elfDynamic
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.platform.Arch.ARM_32_BE
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.MIPS_64_LE
+import com.fleshgrinder.platform.Arch.PPC_32
+import com.fleshgrinder.platform.Arch.PPC_64_LE
+import com.fleshgrinder.platform.Arch.S390_64
+import com.fleshgrinder.platform.Arch.SPARC_64
+import com.fleshgrinder.platform.Arch.X86_32
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.Os.DARWIN
+import com.fleshgrinder.platform.Os.FREEBSD
+import com.fleshgrinder.platform.Os.LINUX
+import com.fleshgrinder.platform.Os.SOLARIS
+import com.fleshgrinder.platform.Os.WINDOWS
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.ByteOrder.BIG_ENDIAN
+import java.nio.ByteOrder.LITTLE_ENDIAN
+import java.nio.channels.FileChannel
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+private fun machO(cputype: Int, is64: Boolean = true, order: ByteOrder = LITTLE_ENDIAN): ByteArray =
+    ByteBuffer.allocate(28).order(order)
+        .putInt(if (is64) 0xFEEDFACF.toInt() else 0xFEEDFACE.toInt())
+        .putInt(cputype)
+        .array()
+
+private fun fat(vararg cputypes: Int, is64: Boolean = false): ByteArray {
+    val size = if (is64) 32 else 20
+    val b = ByteBuffer.allocate(8 + size * cputypes.size)
+    b.putInt(if (is64) 0xCAFEBABF.toInt() else 0xCAFEBABE.toInt()).putInt(cputypes.size)
+    cputypes.forEachIndexed { i, it -> b.putInt(8 + i * size, it) }
+    return b.array()
+}
+
+private fun pe(machine: Int, offset: Int = 0x80): ByteArray {
+    val b = ByteBuffer.allocate(offset + 24).order(LITTLE_ENDIAN)
+    b.put('M'.code.toByte()).put('Z'.code.toByte())
+    b.putInt(0x3C, offset)
+    b.position(offset)
+    b.put('P'.code.toByte()).put('E'.code.toByte()).put(0).put(0).putShort(machine.toShort())
+    return b.array()
+}
+
+private class PlatformBinaryTest {
+    @TestFactory fun `platform is detected from the headers`() =
+        testsOf(
+            "ELF x86-64" to elf(null) to Platform.of(LINUX, X86_64),
+            "ELF x86-32" to elf(null, is64 = false, machine = 3) to Platform.of(LINUX, X86_32),
+            "ELF aarch64 GNU" to elf(null, machine = 183, osabi = 3) to Platform.of(LINUX, ARM_64),
+            "ELF armeb" to elf(null, is64 = false, order = BIG_ENDIAN, machine = 40) to Platform.of(LINUX, ARM_32_BE),
+            "ELF mips64el" to elf(null, machine = 8) to Platform.of(LINUX, MIPS_64_LE),
+            "ELF ppc" to elf(null, is64 = false, order = BIG_ENDIAN, machine = 20) to Platform.of(LINUX, PPC_32),
+            "ELF ppc64le" to elf(null, machine = 21) to Platform.of(LINUX, PPC_64_LE),
+            "ELF s390x" to elf(null, order = BIG_ENDIAN, machine = 22) to Platform.of(LINUX, S390_64),
+            "ELF FreeBSD" to elf(null, osabi = 9) to Platform.of(FREEBSD, X86_64),
+            "ELF Solaris sparcv9" to elf(null, order = BIG_ENDIAN, machine = 43, osabi = 6) to Platform.of(SOLARIS, SPARC_64),
+            "Mach-O arm64" to machO(0x0100000C) to Platform.of(DARWIN, ARM_64),
+            "Mach-O i386" to machO(7, is64 = false) to Platform.of(DARWIN, X86_32),
+            "Mach-O ppc" to machO(18, is64 = false, order = BIG_ENDIAN) to Platform.of(DARWIN, PPC_32),
+            "universal x86_64 arm64" to fat(0x01000007, 0x0100000C) to Platform.of(DARWIN, X86_64),
+            "universal unknown arm64" to fat(0x42, 0x0100000C) to Platform.of(DARWIN, ARM_64),
+            "universal 64-bit" to fat(0x0100000C, is64 = true) to Platform.of(DARWIN, ARM_64),
+            "PE amd64" to pe(0x8664) to Platform.of(WINDOWS, X86_64),
+            "PE i386" to pe(0x014C) to Platform.of(WINDOWS, X86_32),
+            "PE arm64" to pe(0xAA64) to Platform.of(WINDOWS, ARM_64),
+            name = { it.first.first },
+        ) { (input, expected) ->
+            val buffer = ByteBuffer.wrap(byteArrayOf(1, 2, 3) + input.second)
+            buffer.position(3)
+            assertAll(
+                { assertEquals(expected, Platform.ofBinary(buffer)) },
+                { assertEquals(3, buffer.position()) },
+            )
+        }
+
+    @TestFactory fun `unknown binaries are rejected`() =
+        testsOf(
+            "empty" to ByteArray(0),
+            "script" to "#!/usr/bin/env sh\nexit 0\n".toByteArray(),
+            "ELF unknown machine" to elf(null, machine = 0x1234),
+            "ELF unknown OSABI" to elf(null, osabi = 0xFF),
+            "ELF x86-64 big endian" to elf(null, order = BIG_ENDIAN),
+            "Mach-O unknown cputype" to machO(0x42),
+            "universal without slices" to fat(),
+            "Java class file" to ByteBuffer.allocate(8).putInt(0xCAFEBABE.toInt()).putShort(0).putShort(52).array(),
+            "MZ without PE" to pe(0x8664).also { it[0x80] = 0 },
+            "PE unknown machine" to pe(0x1234),
+            "PE header out of bounds" to pe(0x8664).copyOf(0x84),
+            name = { it.first },
+        ) { (_, bytes) ->
+            assertAll(
+                { assertNull(Platform.ofBinaryOrNull(ByteBuffer.wrap(bytes))) },
+                { assertThrows<IllegalArgumentException> { Platform.ofBinary(ByteBuffer.wrap(bytes)) } },
+            )
+        }
+
+    @Test fun `platform is detected from files`(@TempDir tempDir: File) {
+        val file = tempDir.resolve("libfoo.so.1").apply { writeBytes(elf("/lib/ld-musl-aarch64.so.1", machine = 183)) }
+        assertEquals(Platform.of(LINUX, ARM_64), Platform.ofBinary(file.toPath()))
+    }
+
+    @TestFactory fun `PE header is found beyond the head of files`(@TempDir tempDir: File) =
+        testsOf(0x80, Binaries.HEAD - 6, Binaries.HEAD - 5, Binaries.HEAD, 0x10000) { offset ->
+            val file = tempDir.resolve("$offset.exe").apply { writeBytes(pe(0xAA64, offset)) }
+            assertEquals(Platform.of(WINDOWS, ARM_64), Platform.ofBinary(file.toPath()))
+        }
+
+    @Test fun `unknown files are rejected`(@TempDir tempDir: File) {
+        val file = tempDir.resolve("empty").apply { writeBytes(ByteArray(0)) }
+        assertAll(
+            { assertNull(Platform.ofBinaryOrNull(file.toPath())) },
+            { assertThrows<IllegalArgumentException> { Platform.ofBinary(file.toPath()) } },
+        )
+    }
+
+    @TestFactory fun `libraries are loadable on matching platforms`() =
+        testsOf(
+            "glibc" to elfDynamic(listOf("libc.so.6")) to false,
+            "musl" to elfDynamic(listOf("libc.musl-x86_64.so.1")) to true,
+            "musl libc.so" to elfDynamic(listOf("libc.so")) to true,
+            "libc agnostic on glibc" to elfDynamic(listOf("libz.so.1")) to false,
+            "libc agnostic on musl" to elfDynamic(listOf("libz.so.1")) to true,
+            "GNU OSABI" to elfDynamic(listOf("libc.so.6"), osabi = 3) to false,
+            name = { it.first.first },
+        ) { (input, musl) ->
+            assertTrue(Platform.isLoadable(ByteBuffer.wrap(input.second), Platform.of(LINUX, X86_64)) { musl })
+        }
+
+    @TestFactory fun `libraries are not loadable on other platforms`() =
+        testsOf(
+            "glibc on musl" to elfDynamic(listOf("libc.so.6")) to Platform.of(LINUX, X86_64),
+            "musl interpreter on glibc" to elfDynamic(emptyList(), interpreter = "/lib/ld-musl-x86_64.so.1") to Platform.of(LINUX, X86_64),
+            "32-bit on 64-bit" to elfDynamic(emptyList(), is64 = false, machine = 3) to Platform.of(LINUX, X86_64),
+            "big endian on little endian" to elfDynamic(emptyList(), order = BIG_ENDIAN, machine = 183) to Platform.of(LINUX, ARM_64),
+            "FreeBSD on Linux" to elfDynamic(emptyList(), osabi = 9) to Platform.of(LINUX, X86_64),
+            "Mach-O on Linux" to machO(0x01000007) to Platform.of(LINUX, X86_64),
+            "PE on Linux" to pe(0x8664) to Platform.of(LINUX, X86_64),
+            "malformed" to elfDynamic(listOf("libz.so.1")).let { it.copyOf(it.size - 4) } to Platform.of(LINUX, X86_64),
+            "script" to "#!/usr/bin/env sh\n".toByteArray() to Platform.of(LINUX, X86_64),
+            name = { it.first.first },
+        ) { (input, platform) ->
+            val glibc = input.first.startsWith("glibc")
+            assertFalse(Platform.isLoadable(ByteBuffer.wrap(input.second), platform) { glibc })
+        }
+
+    @Test fun `ELF files without OS match any OS`() {
+        val library = ByteBuffer.wrap(elfDynamic(listOf("libc.so.1"), order = BIG_ENDIAN, machine = 43))
+        assertTrue(Platform.isLoadable(library, Platform.of(SOLARIS, SPARC_64)) { false })
+    }
+
+    @Test fun `non-ELF libraries are loadable on their platform`() {
+        assertAll(
+            { assertTrue(Platform.isLoadable(ByteBuffer.wrap(fat(0x01000007, 0x0100000C)), Platform.of(DARWIN, X86_64)) { false }) },
+            { assertTrue(Platform.isLoadable(ByteBuffer.wrap(pe(0xAA64)), Platform.of(WINDOWS, ARM_64)) { false }) },
+        )
+    }
+
+    @Test fun `libraries are checked with positional reads`(@TempDir tempDir: File) {
+        fun loadable(bytes: ByteArray, platform: Platform, musl: Boolean): Boolean {
+            val file = tempDir.resolve("lib").apply { writeBytes(bytes) }
+            return FileChannel.open(file.toPath()).use { Platform.isLoadable(it, platform) { musl } }
+        }
+        assertAll(
+            { assertTrue(loadable(elfDynamic(listOf("libc.musl-x86_64.so.1")), Platform.of(LINUX, X86_64), true), "musl") },
+            { assertFalse(loadable(elfDynamic(listOf("libc.musl-x86_64.so.1")), Platform.of(LINUX, X86_64), false), "musl on glibc") },
+            { assertFalse(loadable(elfDynamic(listOf("libz.so.1")).let { it.copyOf(it.size - 4) }, Platform.of(LINUX, X86_64), false), "malformed") },
+            { assertTrue(loadable(fat(0x0100000C, 0x01000007), Platform.of(DARWIN, X86_64), false), "universal") },
+            { assertTrue(loadable(pe(0xAA64, offset = 0x400), Platform.of(WINDOWS, ARM_64), false), "PE") },
+            { assertFalse(loadable(ByteArray(0), Platform.of(LINUX, X86_64), false), "empty") },
+        )
+    }
+
+    @TestFactory fun `universal binaries are loadable if any slice matches`() =
+        testsOf(
+            "x86_64 first" to fat(0x01000007, 0x0100000C),
+            "arm64 first" to fat(0x0100000C, 0x01000007),
+            name = { it.first },
+        ) { (_, bytes) ->
+            assertAll(
+                { assertTrue(Platform.isLoadable(ByteBuffer.wrap(bytes), Platform.of(DARWIN, X86_64)) { false }, "darwin-x86-64") },
+                { assertTrue(Platform.isLoadable(ByteBuffer.wrap(bytes), Platform.of(DARWIN, ARM_64)) { false }, "darwin-arm-64") },
+                { assertFalse(Platform.isLoadable(ByteBuffer.wrap(bytes), Platform.of(DARWIN, PPC_32)) { false }, "darwin-ppc-32") },
+                { assertFalse(Platform.isLoadable(ByteBuffer.wrap(bytes), Platform.of(LINUX, ARM_64)) { false }, "linux-arm-64") },
+            )
+        }
+}
@@ -0,0 +1,103 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.testsOf
+import java.io.File
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.io.TempDir
+
+private class PlatformExecutorsTest {
+    private data class Case(val allowed: Int, val quota: Double, val smt: Int, val parallelism: Int, val cores: Int)
+
+    @TestFactory fun `parallelism is derived from the limits`() =
+        testsOf(
+            Case(16, -1.0, 2, 16, 8),
+            Case(16, 1.5, 2, 2, 2),
+            Case(16, 0.1, 1, 1, 1),
+            Case(4, 8.0, 1, 4, 4),
+            Case(3, -1.0, 2, 3, 2),
+            Case(0, -1.0, 1, 1, 1),
+        ) { (allowed, quota, smt, parallelism, cores) ->
+            val executors = PlatformExecutors(allowed, quota, smt)
+            assertAll(
+                { assertEquals(parallelism, executors.parallelism) },
+                { assertEquals(cores, executors.coreParallelism) },
+                { assertEquals(parallelism * 8, executors.blockingParallelism) },
+            )
+        }
+
+    @Test fun `allowed CPUs are read from the status`(@TempDir proc: File) {
+        proc.resolve("self").mkdirs()
+        proc.resolve("self/status").writeText("Name:\tjava\nCpus_allowed:\t0f0f\nCpus_allowed_list:\t0-3,8-11\nMems_allowed_list:\t0\n")
+        assertEquals(8, PlatformExecutors.allowedCpus(proc.toPath()))
+    }
+
+    @TestFactory fun `unknown allowed CPUs`(@TempDir proc: File) =
+        testsOf(null, "Name:\tjava\n", "Name:\tjava\nCpus_allowed_list:\t\n", "Name:\tjava\nCpus_allowed_list:\tx") { status ->
+            proc.resolve("self").mkdirs()
+            proc.resolve("self/status").apply { if (status == null) delete() else writeText(status) }
+            assertEquals(-1, PlatformExecutors.allowedCpus(proc.toPath()))
+        }
+
+    @Test fun `pools have the recommended parallelism`() {
+        val executors = PlatformExecutors(4, 2.0, 1)
+        val cpu = executors.newCpuBoundPool()
+        val blocking = executors.newPlatformBlockingPool()
+        try {
+            assertAll(
+                { assertEquals(2, cpu.parallelism) },
+                { assertEquals(16, blocking.maximumPoolSize) },
+                { assertTrue(blocking.allowsCoreThreadTimeOut()) },
+                { assertTrue(blocking.submit<String> { Thread.currentThread().name }.get(10, TimeUnit.SECONDS).startsWith("blocking-")) },
+            )
+        } finally {
+            cpu.shutdownNow()
+            blocking.shutdownNow()
+        }
+    }
+
+    @Test fun `blocking pools run tasks`() {
+        val pool = PlatformExecutors.current().newBlockingPool()
+        try {
+            assertEquals(42, pool.submit<Int> { 42 }.get(10, TimeUnit.SECONDS))
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+
+    @Test fun `blocking pools use virtual threads on Java 21+`() {
+        val isVirtual = runCatching { Thread::class.java.getMethod("isVirtual") }.getOrNull()
+        assumeTrue(isVirtual != null, "virtual threads require Java 21+")
+        val pool = PlatformExecutors.current().newBlockingPool()
+        try {
+            assertEquals(true, pool.submit<Any> { isVirtual!!.invoke(Thread.currentThread()) }.get(10, TimeUnit.SECONDS))
+        } finally {
+            pool.shutdownNow()
+        }
+    }
+
+    @Test fun `virtual threads are found on every Java version that has them`() {
+        val hasVirtualThreads = runCatching { Thread::class.java.getMethod("isVirtual") }.isSuccess
+        val pool = VirtualThreads.newExecutorOrNull("virtual-")
+        try {
+            assertEquals(hasVirtualThreads, pool != null)
+            if (pool != null) assertEquals("virtual-0", pool.submit<String> { Thread.currentThread().name }.get(10, TimeUnit.SECONDS))
+        } finally {
+            pool?.shutdownNow()
+        }
+    }
+
+    @Test fun `current parallelism is cached`() {
+        val executors = PlatformExecutors.current()
+        assertAll(
+            { assertSame(executors, PlatformExecutors.current()) },
+            { assertTrue(executors.parallelism in 1..CpuTopology.current().logicalCpus) },
+        )
+    }
+}
@@ -1,15 +1,41 @@
 package com.fleshgrinder.platform
 
+import com.fleshgrinder.junit.elf
 import com.fleshgrinder.platform.Os.WINDOWS
 import java.io.File
 import java.io.PrintWriter
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeUnit.SECONDS
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.jupiter.api.AfterAll
 import org.junit.jupiter.api.Assertions
+import org.junit.jupiter.api.Assertions.assertAll
+import org.junit.jupiter.api.Assertions.assertDoesNotThrow
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.io.TempDir
+import org.junit.jupiter.api.parallel.ResourceAccessMode.READ
+import org.junit.jupiter.api.parallel.ResourceLock
+import org.junit.jupiter.api.parallel.Resources.SYSTEM_PROPERTIES
 
+// Starting the first process initializes ProcessImpl, which fails if another
+// test changed os.name at that moment.
+@ResourceLock(SYSTEM_PROPERTIES, mode = READ)
 private class PlatformMuslTest {
+    val executor: ExecutorService = Executors.newCachedThreadPool()
     val isWindows = Os.currentOrNull() == WINDOWS
 
+    @AfterAll fun shutdown() {
+        executor.shutdownNow()
+    }
+
     inline fun File.ldd(name: String, content: Appendable.() -> Unit): String {
         val lddFile = resolve("ldd-$name.bat")
         lddFile.createNewFile()
@@ -77,6 +103,29 @@ private class PlatformMuslTest {
         Assertions.assertFalse(Platform.hasMusl(lddPath))
     }
 
+    @Test fun `musl program interpreter wins over ldd`(@TempDir tempDir: File) {
+        val exe = tempDir.resolve("java").apply { writeBytes(elf("/lib/ld-musl-x86_64.so.1")) }
+        val lddPath = tempDir.ldd("glibc", "ldd (GNU libc) 2.31")
+        Assertions.assertTrue(Platform.hasMusl(exe.path, lddPath))
+    }
+
+    @Test fun `glibc program interpreter wins over ldd`(@TempDir tempDir: File) {
+        val exe = tempDir.resolve("java").apply { writeBytes(elf("/lib64/ld-linux-x86-64.so.2")) }
+        val lddPath = tempDir.ldd("musl", "musl libc (x86_64)")
+        Assertions.assertFalse(Platform.hasMusl(exe.path, lddPath))
+    }
+
+    @Test fun `ldd is the fallback if the executable has no program interpreter`(@TempDir tempDir: File) {
+        val exe = tempDir.resolve("java").apply { writeBytes(elf(null)) }
+        val lddPath = tempDir.ldd("musl", "musl libc (x86_64)")
+        Assertions.assertTrue(Platform.hasMusl(exe.path, lddPath))
+    }
+
+    @Test fun `ldd is the fallback if the executable cannot be read`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("musl", "musl libc (x86_64)")
+        Assertions.assertTrue(Platform.hasMusl("/non/existing/path", lddPath))
+    }
+
     @Test fun `hasMusl returns false if ldd is missing`() {
         Assertions.assertFalse(Platform.hasMusl("/non/existing/path"))
     }
@@ -99,4 +148,124 @@ private class PlatformMuslTest {
         val lddPath = tempDir.ldd("hang") { appendLine(if (isWindows) "@ECHO OFF\n:loop\ngoto loop" else "#!/usr/bin/env sh\ntail -f /dev/null") }
         Assertions.assertFalse(Platform.hasMusl(lddPath))
     }
+
+    @Test fun `hasMusl reads and writes the probe cache`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("musl", "musl libc (x86_64)")
+        val file = tempDir.resolve("probes").toPath()
+        assertAll(
+            { assertTrue(Platform.hasMusl("/non/existing/path", lddPath, ProbeCache(file, "boot")), "probed") },
+            { assertTrue(Platform.hasMusl("/non/existing/path", "/non/existing/path", ProbeCache(file, "boot")), "cached") },
+            { assertFalse(Platform.hasMusl("/non/existing/path", "/non/existing/path", ProbeCache(file, "reboot")), "reboot") },
+        )
+    }
+
+    @Test fun `inconclusive probes are not written to the probe cache`(@TempDir tempDir: File) {
+        val hang = tempDir.ldd("hang") { appendLine(if (isWindows) "@ECHO OFF\n:loop\ngoto loop" else "#!/usr/bin/env sh\ntail -f /dev/null") }
+        val musl = tempDir.ldd("musl", "musl libc (x86_64)")
+        val file = tempDir.resolve("probes").toPath()
+        assertAll(
+            { assertFalse(Platform.hasMusl("/non/existing/path", "/non/existing/path", ProbeCache(file, "boot")), "missing") },
+            { assertFalse(Platform.hasMusl("/non/existing/path", hang, ProbeCache(file, "boot")), "timeout") },
+            { assertTrue(Platform.hasMusl("/non/existing/path", musl, ProbeCache(file, "boot")), "probed") },
+        )
+    }
+
+    @Test fun `hasMuslAsync reads the probe cache`(@TempDir tempDir: File) {
+        val cache = ProbeCache(tempDir.resolve("probes").toPath(), "boot").apply { put("musl", "true") }
+        assertTrue(Platform.hasMuslAsync("/non/existing/path", "/non/existing/path", executor, 1, SECONDS, cache).get(1, SECONDS))
+    }
+
+    @Test fun `hasMuslAsync reads the program interpreter`(@TempDir tempDir: File) {
+        val exe = tempDir.resolve("java").apply { writeBytes(elf("/lib/ld-musl-aarch64.so.1")) }
+        assertTrue(Platform.hasMuslAsync(exe.path, "/non/existing/path", executor, 1, SECONDS).get(1, SECONDS))
+    }
+
+    @Test fun `hasMuslAsync falls back to ldd`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("musl", "musl libc (x86_64)")
+        assertTrue(Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 1, SECONDS).get(2, SECONDS))
+    }
+
+    @Test fun `hasMuslAsync returns false for glibc ldd`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("glibc", "ldd (GNU libc) 2.31")
+        assertFalse(Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 1, SECONDS).get(2, SECONDS))
+    }
+
+    @Test fun `hasMuslAsync kills hanging ldd process at the deadline`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("hang") { appendLine(if (isWindows) "@ECHO OFF\n:loop\ngoto loop" else "#!/usr/bin/env sh\ntail -f /dev/null") }
+        assertFalse(Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 100, MILLISECONDS).get(2, SECONDS))
+    }
+
+    @Test fun `timed out probes are forgotten`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("slow") {
+            if (isWindows) appendLine("@ECHO OFF\nping -n 2 127.0.0.1 > NUL\nECHO musl libc (x86_64)")
+            else appendLine("#!/usr/bin/env sh\nsleep 0.3\necho 'musl libc (x86_64)'")
+        }
+        assertAll(
+            { assertFalse(Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 1, MILLISECONDS).get(2, SECONDS), "deadline") },
+            { assertTrue(Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 5, SECONDS).get(10, SECONDS), "async") },
+            { assertTrue(Platform.hasMusl(lddPath), "sync") },
+        )
+    }
+
+    @Test fun `sync callers of a shared probe get false if the executor rejects it`(@TempDir tempDir: File) {
+        val lddPath = tempDir.ldd("slow") {
+            if (isWindows) appendLine("@ECHO OFF\nping -n 2 127.0.0.1 > NUL\nECHO musl libc (x86_64)")
+            else appendLine("#!/usr/bin/env sh\nsleep 0.3\necho 'musl libc (x86_64)'")
+        }
+        val tasks = AtomicInteger()
+        val rejectsAfterFirst = Executor { if (tasks.getAndIncrement() == 0) it.run() else throw RejectedExecutionException() }
+        val async = Platform.hasMuslAsync("/non/existing/path", lddPath, rejectsAfterFirst, 5, SECONDS)
+        assertAll(
+            { assertFalse(assertDoesNotThrow<Boolean> { Platform.hasMusl(lddPath) }, "shared") },
+            { assertFalse(async.get(2, SECONDS), "async") },
+            { assertTrue(Platform.hasMusl(lddPath), "forgotten") },
+        )
+    }
+
+    @Test fun `hasMuslAsync returns false if the executor rejects`() {
+        val rejecting = Executor { throw RejectedExecutionException() }
+        assertFalse(Platform.hasMuslAsync("/non/existing/path", "/non/existing/path", rejecting, 1, SECONDS).getNow(null))
+    }
+
+    @Test fun `hasMuslAsync never throws`() {
+        assertDoesNotThrow { Platform.hasMuslAsync(executor).get(2, SECONDS) }
+    }
+
+    @Test fun `concurrent probes of the same ldd share a single process`(@TempDir tempDir: File) {
+        val spawns = tempDir.resolve("spawns")
+        val lddPath = tempDir.ldd("single-flight") {
+            if (isWindows) {
+                appendLine("@ECHO OFF")
+                appendLine("ECHO spawn>> \"${spawns.absolutePath}\"")
+                appendLine("ping -n 2 127.0.0.1 > NUL")
+                appendLine("ECHO musl libc (x86_64)")
+            } else {
+                appendLine("#!/usr/bin/env sh")
+                appendLine("echo spawn >> '${spawns.absolutePath}'")
+                appendLine("sleep 0.3")
+                appendLine("echo 'musl libc (x86_64)'")
+            }
+        }
+        val threads = 200
+        val pool = Executors.newFixedThreadPool(threads)
+        try {
+            val start = CountDownLatch(1)
+            val results = (0 until threads).map { i ->
+                pool.submit<Boolean> {
+                    start.await()
+                    if (i % 2 == 0) Platform.hasMusl(lddPath)
+                    else Platform.hasMuslAsync("/non/existing/path", lddPath, executor, 5, SECONDS).get()
+                }
+            }
+            start.countDown()
+            assertAll(
+                { assertTrue(results.all { it.get(10, SECONDS) }, "results") },
+                { assertEquals(1, spawns.readLines().size, "spawns") },
+                { assertTrue(Platform.hasMusl(lddPath), "cached") },
+                { assertEquals(1, spawns.readLines().size, "spawns after completion") },
+            )
+        } finally {
+            pool.shutdownNow()
+        }
+    }
 }
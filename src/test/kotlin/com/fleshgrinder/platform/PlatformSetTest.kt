@@ -0,0 +1,102 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.X86_64
+import com.fleshgrinder.platform.Os.DARWIN
+import com.fleshgrinder.platform.Os.LINUX
+import com.fleshgrinder.platform.Os.WINDOWS
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.util.TreeSet
+import kotlin.random.Random
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+
+private class PlatformSetTest {
+    private val all = Os.values().flatMap { os -> Arch.values().map { arch -> Platform.of(os, arch) } }
+
+    private fun random(random: Random) = all.filterTo(TreeSet()) { random.nextInt(4) == 0 }
+
+    @Test fun `allOf contains every platform in order`() {
+        assertEquals(all, PlatformSet.allOf().toList())
+        assertEquals(all.size, PlatformSet.allOf().size)
+        assertTrue(PlatformSet.noneOf().isEmpty())
+        assertEquals(PlatformSet.allOf(), PlatformSet.noneOf().complement())
+    }
+
+    @Test fun `behaves like a TreeSet`() {
+        val random = Random(42)
+        repeat(100) {
+            val a = random(random)
+            val b = random(random)
+            val x = PlatformSet.copyOf(a)
+            val y = PlatformSet.copyOf(b)
+
+            assertEquals(a.toList(), x.toList())
+            assertEquals(a.toList(), mutableListOf<Platform>().also { list -> x.forEach { list += it } })
+            assertEquals(a.size, x.size)
+            assertEquals(a.hashCode(), x.hashCode())
+            assertEquals(a, x)
+            assertEquals(x, a)
+            all.forEach { assertEquals(a.contains(it), x.contains(it), "$it") }
+            all.forEach { assertEquals(a.contains(it), x.contains(it.os, it.arch), "$it") }
+
+            assertEquals(a.union(b), x.union(y))
+            assertEquals(a.intersect(b), x.intersection(y))
+            assertEquals(a.subtract(b), x.difference(y))
+            assertEquals(all.subtract(a), x.complement())
+            assertEquals(a.containsAll(b), x.containsAll(y))
+            assertTrue(x.containsAll(x.intersection(y)))
+        }
+    }
+
+    @Test fun `contains rejects foreign objects`() {
+        val set = PlatformSet.allOf() as Set<*>
+        assertFalse(set.contains("linux-x86-64"))
+        assertFalse(set.contains(null))
+    }
+
+    @Test fun `copyOf returns PlatformSets as is`() {
+        val set = PlatformSet.of(Platform.of(LINUX, X86_64))
+        assertSame(set, PlatformSet.copyOf(set))
+    }
+
+    @Test fun `builder does not affect built sets`() {
+        val builder = PlatformSet.builder().add(LINUX, X86_64).add(Platform.of(DARWIN, ARM_64))
+        val first = builder.build()
+        val second = builder.remove(Platform.of(LINUX, X86_64)).addAll(listOf(Platform.of(WINDOWS, X86_64))).build()
+        assertEquals(PlatformSet.of(Platform.of(LINUX, X86_64), Platform.of(DARWIN, ARM_64)), first)
+        assertEquals(PlatformSet.of(Platform.of(DARWIN, ARM_64), Platform.of(WINDOWS, X86_64)), second)
+        assertEquals(PlatformSet.allOf(), builder.addAll(PlatformSet.allOf()).build())
+    }
+
+    @Test fun `cannot be modified`() {
+        @Suppress("UNCHECKED_CAST")
+        val set = PlatformSet.of(Platform.of(LINUX, X86_64)) as MutableSet<Platform>
+        assertThrows<UnsupportedOperationException> { set.add(Platform.of(DARWIN, ARM_64)) }
+        assertThrows<UnsupportedOperationException> { set.remove(Platform.of(LINUX, X86_64)) }
+        assertThrows<UnsupportedOperationException> { set.clear() }
+        assertThrows<UnsupportedOperationException> { set.iterator().apply { next() }.remove() }
+    }
+
+    @Test fun `iterator is exhausted`() {
+        val it = PlatformSet.noneOf().iterator()
+        assertFalse(it.hasNext())
+        assertThrows<NoSuchElementException> { it.next() }
+    }
+
+    @Test fun `PlatformSet can be serialized and deserialized`() {
+        val expected = PlatformSet.of(Platform.of(LINUX, X86_64), Platform.of(DARWIN, ARM_64))
+        val buf = ByteArrayOutputStream()
+        ObjectOutputStream(buf).use { it.writeObject(expected) }
+        val actual = ObjectInputStream(ByteArrayInputStream(buf.toByteArray())).use { it.readObject() }
+        assertEquals(expected, actual)
+        assertTrue(actual is PlatformSet)
+    }
+}
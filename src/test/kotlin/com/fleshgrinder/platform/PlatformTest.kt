@@ -1,6 +1,9 @@
 package com.fleshgrinder.platform
 
+import com.fleshgrinder.junit.assertRanges
+import com.fleshgrinder.junit.fuzz
 import com.fleshgrinder.junit.generexWithGarbage
+import com.fleshgrinder.junit.orNull
 import com.fleshgrinder.junit.toTests
 import com.fleshgrinder.junit.withSystemProperties
 import com.fleshgrinder.platform.Arch.ARM_64
@@ -27,6 +30,7 @@ import org.junit.jupiter.api.Assertions.assertAll
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertNotNull
 import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.TestFactory
 import org.junit.jupiter.api.assertThrows
@@ -39,17 +43,17 @@ private class PlatformTest {
     }
 
     @Test fun `Platform can be serialized and deserialized`() {
-        val expected = Platform(LINUX, X86_64)
+        val expected = Platform.of(LINUX, X86_64)
         val buf = ByteArrayOutputStream()
         ObjectOutputStream(buf).use { it.writeObject(expected) }
         val actual = ObjectInputStream(ByteArrayInputStream(buf.toByteArray())).use { it.readObject() }
-        assertEquals(expected, actual)
+        assertSame(expected, actual)
     }
 
     @TestFactory @ResourceLock(SYSTEM_PROPERTIES) fun ids() = sequence {
         Os.values().forEach { os ->
             Arch.values().forEach { arch ->
-                yield(Platform(os, arch))
+                yield(Platform.of(os, arch))
             }
         }
     }.toTests {
@@ -61,12 +65,12 @@ private class PlatformTest {
         ) {
             val id = it.toString()
             assertAll(
-                { assertEquals(it, current(), "current") },
-                { assertEquals(it, currentOrNull(), "currentOrNull") },
-                { assertEquals(it, fromString(id), "fromString") },
-                { assertEquals(it, fromStringOrNull(id), "fromStringOrNull") },
-                { assertEquals(it, parse(id), "parse") },
-                { assertEquals(it, parseOrNull(id), "parseOrNull") },
+                { assertSame(it, current(), "current") },
+                { assertSame(it, currentOrNull(), "currentOrNull") },
+                { assertSame(it, fromString(id), "fromString") },
+                { assertSame(it, fromStringOrNull(id), "fromStringOrNull") },
+                { assertSame(it, parse(id), "parse") },
+                { assertSame(it, parseOrNull(id), "parseOrNull") },
             )
         }
     }
@@ -121,10 +125,42 @@ private class PlatformTest {
         }
     }
 
+    @Test fun `parseOrNull agrees with Os and Arch parseOrNull`() {
+        val vocabulary = listOf(
+            "android", "linux", "darwin", "mac", "osx", "win", "windows", "w", "freebsd", "net", "bsd", "solaris", "sun", "os", "z", "aix",
+            "x86", "x", "64", "32", "86", "amd", "aarch", "arm", "v7", "v8", "be", "le", "el", "ia", "mips", "ppc", "power", "s390x", "sparc", "sh",
+            "1", "2", "3", "jdk", "hotspot", "musl", "tar", "gz", "zip", "repo", "com", "acme",
+        )
+        (sequenceOf("/repo/com/acme/foo/1.2.3/foo-1.2.3-linux-x86_64-musl.tar.gz") + fuzz(vocabulary, maxWords = 8)).forEach {
+            val os = Os.parseOrNull(it)
+            val arch = Arch.parseOrNull(it)
+            assertEquals(if (os != null && arch != null) Platform.of(os, arch) else null, parseOrNull(it), it)
+        }
+    }
+
+    @TestFactory fun ranges() =
+        listOf("", "linux-x86-64", "darwin-arm-64", "windows-x86-32", "Linux X86-64", "/repo/com/acme/foo/1.2.3/foo-1.2.3-linux-x86_64-musl.tar.gz", "linux-", "-x86-64", "linux-x", "unknown-x86-64").toTests {
+            val parsed = parseOrNull(it)
+            val found = fromStringOrNull(it)
+            assertAll(
+                { assertRanges(it, parsed, ::parseOrNull, ::parseOrNull, ::parseOrNull, ::parseOrNull) },
+                { assertRanges(it, parsed, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { c, f, t -> orNull { parse(c, f, t) } }, { b -> orNull { parse(b) } }) },
+                { assertRanges(it, found, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull, ::fromStringOrNull) },
+                { assertRanges(it, found, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { c, f, t -> orNull { fromString(c, f, t) } }, { b -> orNull { fromString(b) } }) },
+            )
+        }
+
+    @Test fun `parse reports the missing part as cause`() {
+        assertAll(
+            { assertEquals("Unknown operating system: x86-64", assertThrows<IllegalArgumentException> { parse("x86-64") }.cause?.message) },
+            { assertEquals("Unknown architecture: linux", assertThrows<IllegalArgumentException> { parse("linux".toByteArray(), 0, 5) }.cause?.message) },
+        )
+    }
+
     @Test fun compare() {
-        val a = Platform(DARWIN, ARM_64)
-        val b = Platform(LINUX, X86_32)
-        val c = Platform(WINDOWS, X86_64)
+        val a = Platform.of(DARWIN, ARM_64)
+        val b = Platform.of(LINUX, X86_32)
+        val c = Platform.of(WINDOWS, X86_64)
         val sorted = TreeSet<Platform>().apply {
             add(c)
             add(a)
@@ -138,10 +174,25 @@ private class PlatformTest {
         )
     }
 
+    @Test fun `compareTo agrees with the ids`() {
+        val platforms = Os.values().flatMap { os -> Arch.values().map { arch -> Platform.of(os, arch) } }
+        assertEquals(platforms.sortedBy { it.toString() }, platforms.sorted())
+    }
+
+    @Suppress("DEPRECATION")
+    @Test fun `constructed Platform equals the canonical instance`() {
+        val platform = Platform(LINUX, X86_64)
+        assertAll(
+            { assertEquals(Platform.of(LINUX, X86_64), platform) },
+            { assertEquals(Platform.of(LINUX, X86_64).hashCode(), platform.hashCode()) },
+            { assertEquals(0, platform.compareTo(Platform.of(LINUX, X86_64))) },
+        )
+    }
+
     @Test fun `equals and hashCode`() {
         EqualsVerifier.forClass(Platform::class.java)
             .withNonnullFields("os", "arch", "id")
-            .withOnlyTheseFields("id")
+            .withOnlyTheseFields("os", "arch")
             .verify()
     }
 }
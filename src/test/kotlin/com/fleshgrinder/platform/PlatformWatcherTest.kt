@@ -0,0 +1,124 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.GIB
+import com.fleshgrinder.junit.tree
+import java.io.File
+import java.io.RandomAccessFile
+import java.lang.management.ManagementFactory
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.function.Consumer
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+private class PlatformWatcherTest {
+    private fun File.cgroup(cpuMax: String = "200000 100000", memoryMax: String = "${2 * GIB}"): File = tree(
+        "proc/self/cgroup" to "0::/",
+        "proc/self/mountinfo" to "1 1 0:1 / /sys/fs/cgroup rw - cgroup2 cgroup2 rw",
+        "sys/fs/cgroup/cpu.max" to cpuMax,
+        "sys/fs/cgroup/cpuset.cpus.effective" to "0-7",
+        "sys/fs/cgroup/memory.max" to memoryMax,
+    )
+
+    /** Overwrites the file in place, like the kernel does, without truncating it first. */
+    private fun File.overwrite(content: String) = RandomAccessFile(this, "rw").use {
+        it.write("$content\n".toByteArray())
+        it.setLength(content.length + 1L)
+    }
+
+    private fun watcher(root: File) = PlatformWatcher(root.resolve("proc").toPath(), root.toPath(), 8)
+
+    @Test fun `listeners are notified about changed limits`(@TempDir root: File) {
+        val watcher = watcher(root.cgroup())
+        val changes = mutableListOf<ContainerLimits>()
+        watcher.addListener { changes += it }
+        root.resolve("sys/fs/cgroup/cpu.max").overwrite("150000 100000")
+        root.resolve("sys/fs/cgroup/memory.max").overwrite("max")
+        assertAll(
+            { assertTrue(watcher.check()) },
+            { assertEquals(1, changes.size) },
+            { assertEquals(1.5, changes.single().cpuLimit) },
+            { assertEquals(-1, changes.single().memoryLimit) },
+            { assertEquals(changes.single(), watcher.limits) },
+        )
+    }
+
+    @Test fun `listeners are not notified without changes`(@TempDir root: File) {
+        val watcher = watcher(root.cgroup())
+        val changes = mutableListOf<ContainerLimits>()
+        watcher.addListener { changes += it }
+        val limits = watcher.limits
+        root.resolve("sys/fs/cgroup/cpu.max").overwrite("200000 100000")
+        val unchanged = watcher.check()
+        root.resolve("sys/fs/cgroup/cpu.max").overwrite("400000 200000")
+        val equal = watcher.check()
+        assertAll(
+            { assertFalse(unchanged) },
+            { assertFalse(equal) },
+            { assertEquals(emptyList<ContainerLimits>(), changes) },
+            { assertEquals(limits, watcher.limits) },
+        )
+    }
+
+    @Test fun `removed listeners and closed watchers are not notified`(@TempDir root: File) {
+        val watcher = watcher(root.cgroup())
+        val changes = mutableListOf<ContainerLimits>()
+        val listener = Consumer<ContainerLimits> { changes += it }
+        watcher.addListener(listener)
+        assertTrue(watcher.removeListener(listener))
+        root.resolve("sys/fs/cgroup/cpu.max").overwrite("100000 100000")
+        assertTrue(watcher.check())
+        watcher.addListener(listener)
+        watcher.close()
+        root.resolve("sys/fs/cgroup/cpu.max").overwrite("300000 100000")
+        assertAll(
+            { assertFalse(watcher.check()) },
+            { assertEquals(emptyList<ContainerLimits>(), changes) },
+        )
+    }
+
+    @Test fun `checks without changes do not allocate`(@TempDir root: File) {
+        val threads = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(threads != null && threads.isThreadAllocatedMemorySupported, "allocated bytes are not supported")
+        threads!!.isThreadAllocatedMemoryEnabled = true
+        val watcher = watcher(root.cgroup())
+        val checks = 10_000
+        repeat(checks) { watcher.check() }
+        val id = Thread.currentThread().id
+        val before = threads.getThreadAllocatedBytes(id)
+        repeat(checks) { watcher.check() }
+        val allocated = threads.getThreadAllocatedBytes(id) - before
+        assertEquals(0, allocated / checks, "bytes per check, $allocated in total")
+    }
+
+    @Test fun `started watchers notify on their own`(@TempDir root: File) {
+        val changes = LinkedBlockingQueue<ContainerLimits>()
+        PlatformWatcher.start(root.cgroup().resolve("proc").toPath(), root.toPath(), 8, 50, TimeUnit.MILLISECONDS).use { watcher ->
+            watcher.addListener { changes += it }
+            root.resolve("sys/fs/cgroup/cpu.max").overwrite("350000 100000")
+            assertEquals(3.5, changes.poll(10, TimeUnit.SECONDS)?.cpuLimit)
+        }
+    }
+
+    @Test fun `nothing is watched without a cgroup`(@TempDir root: File) {
+        PlatformWatcher.start(root.resolve("proc").toPath(), root.toPath(), 4, 1, TimeUnit.SECONDS).use { watcher ->
+            assertAll(
+                { assertEquals(-1.0, watcher.limits.cpuLimit) },
+                { assertNull(watcher.limits.cpuset) },
+                { assertEquals(4, watcher.limits.availableCpus) },
+                { assertFalse(watcher.check()) },
+            )
+        }
+    }
+
+    @Test fun `invalid intervals are rejected`(@TempDir root: File) {
+        assertThrows<IllegalArgumentException> { PlatformWatcher.start(root.toPath(), root.toPath(), 1, 0, TimeUnit.SECONDS) }
+    }
+}
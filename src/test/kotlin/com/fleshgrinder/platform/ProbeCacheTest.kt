@@ -0,0 +1,85 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.clearSystemProperty
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.junit.withSystemProperty
+import java.io.File
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+import org.junit.jupiter.api.parallel.ResourceLock
+import org.junit.jupiter.api.parallel.Resources.SYSTEM_PROPERTIES
+
+private class ProbeCacheTest {
+    private val key = "0f9e6a1c-4a4e-4b8e-9a0e-3c1d2b3a4f5e 1634400000000 /usr/lib/jvm/java-17/bin/java"
+
+    @Test fun `results are shared with later processes`(@TempDir tempDir: File) {
+        val file = tempDir.resolve("cache/probes")
+        ProbeCache(file.toPath(), key).apply {
+            put("musl", "true")
+            put("cpu", "avx2 sse4_2")
+        }
+        val cache = ProbeCache(file.toPath(), key)
+        assertAll(
+            { assertEquals("true", cache.get("musl")) },
+            { assertEquals("avx2 sse4_2", cache.get("cpu")) },
+            { assertNull(cache.get("unknown")) },
+            { assertEquals("key=$key\ncpu=avx2 sse4_2\nmusl=true\n", file.readText()) },
+            { assertEquals(listOf("probes"), file.parentFile.list()!!.toList()) },
+        )
+    }
+
+    @TestFactory fun `results of another boot or JVM are ignored`(@TempDir tempDir: File) =
+        testsOf(
+            "reboot" to key.replaceBefore(' ', "d7c1b9a2-0000-4000-8000-000000000000"),
+            "JVM update" to key.replace("1634400000000", "1634500000000"),
+            "other JVM" to key.replace("java-17", "java-11"),
+        ) { (name, other) ->
+            val file = tempDir.resolve(name).toPath()
+            ProbeCache(file, key).put("musl", "true")
+            val cache = ProbeCache(file, other)
+            assertNull(cache.get("musl"))
+            cache.put("musl", "false")
+            assertEquals("false", ProbeCache(file, other).get("musl"))
+            assertNull(ProbeCache(file, key).get("musl"))
+        }
+
+    @TestFactory fun `damaged files are ignored`(@TempDir tempDir: File) =
+        testsOf(
+            "empty" to "",
+            "truncated" to "key=$key\nmusl=tr",
+            "garbage" to "\u0000\u0001\u0002",
+            name = { it.first },
+        ) { (name, content) ->
+            val file = tempDir.resolve(name).apply { writeText(content) }
+            assertNull(ProbeCache(file.toPath(), key).get("musl"))
+        }
+
+    @Test fun `unwritable files are ignored`(@TempDir tempDir: File) {
+        val parent = tempDir.resolve("file").apply { writeText("") }
+        val cache = ProbeCache(parent.resolve("probes").toPath(), key)
+        cache.put("musl", "true")
+        assertEquals("true", cache.get("musl"))
+    }
+
+    @TestFactory fun `invalid results are rejected`(@TempDir tempDir: File) =
+        testsOf("key" to "value", "a=b" to "value", "a\nb" to "value", "musl" to "true\nfalse") { (probe, result) ->
+            assertThrows<IllegalArgumentException> { ProbeCache(tempDir.resolve("probes").toPath(), key).put(probe, result) }
+        }
+
+    @Test @ResourceLock(SYSTEM_PROPERTIES) fun `cache is disabled by default`() =
+        clearSystemProperty(ProbeCache.PROPERTY) { assertNull(ProbeCache.create()) }
+
+    @Test @ResourceLock(SYSTEM_PROPERTIES) fun `cache is enabled with the system property`(@TempDir tempDir: File) {
+        assumeTrue(File("/proc/sys/kernel/random/boot_id").exists(), "boot ID is Linux only")
+        val file = tempDir.resolve("probes")
+        withSystemProperty(ProbeCache.PROPERTY, file.path) { ProbeCache.create()!!.put("musl", "true") }
+        assertTrue(file.readText().endsWith("musl=true\n"))
+    }
+}
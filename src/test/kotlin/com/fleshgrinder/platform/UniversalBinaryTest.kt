@@ -0,0 +1,130 @@
+package com.fleshgrinder.platform
+
+import com.fleshgrinder.junit.testsOf
+import com.fleshgrinder.platform.Arch.ARM_64
+import com.fleshgrinder.platform.Arch.PPC_32
+import com.fleshgrinder.platform.Arch.X86_64
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.ByteOrder.LITTLE_ENDIAN
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.WritableByteChannel
+import org.junit.jupiter.api.Assertions.assertArrayEquals
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.TestFactory
+import org.junit.jupiter.api.assertAll
+import org.junit.jupiter.api.assertThrows
+import org.junit.jupiter.api.io.TempDir
+
+private const val CPU_TYPE_X86_64 = 0x01000007
+private const val CPU_TYPE_ARM64 = 0x0100000C
+
+/** Builds a universal binary whose slices are aligned to 16 bytes. */
+private fun fat(vararg slices: Pair<Int, ByteArray>, is64: Boolean = false): ByteArray {
+    val entry = if (is64) 32 else 20
+    val offsets = slices.runningFold((8 + entry * slices.size + 15) and -16) { offset, (_, payload) -> (offset + payload.size + 15) and -16 }
+    val b = ByteBuffer.allocate(if (slices.isEmpty()) offsets.last() else offsets[slices.size - 1] + slices.last().second.size)
+    b.putInt(if (is64) 0xCAFEBABF.toInt() else 0xCAFEBABE.toInt()).putInt(slices.size)
+    slices.forEachIndexed { i, (cputype, payload) ->
+        b.putInt(cputype).putInt(0)
+        if (is64) b.putLong(offsets[i].toLong()).putLong(payload.size.toLong()).putInt(4).putInt(0)
+        else b.putInt(offsets[i]).putInt(payload.size).putInt(4)
+    }
+    slices.forEachIndexed { i, (_, payload) -> b.position(offsets[i]); b.put(payload) }
+    return b.array()
+}
+
+private fun payload(cputype: Int, size: Int): ByteArray =
+    ByteBuffer.allocate(size).order(LITTLE_ENDIAN).putInt(0xFEEDFACF.toInt()).putInt(cputype).array().also {
+        for (i in 8 until size) it[i] = (i * 31).toByte()
+    }
+
+private class UniversalBinaryTest {
+    private val x86 = payload(CPU_TYPE_X86_64, 1000)
+    private val arm = payload(CPU_TYPE_ARM64, 333)
+
+    @TestFactory fun `slices are extracted from 32-bit and 64-bit headers`(@TempDir tempDir: File) =
+        testsOf(false, true) { is64 ->
+            val source = tempDir.resolve("$is64.dylib").apply { writeBytes(fat(CPU_TYPE_X86_64 to x86, 0x42 to ByteArray(7), CPU_TYPE_ARM64 to arm, is64 = is64)) }
+            val target = tempDir.resolve("$is64-arm64.dylib")
+            assertAll(
+                { assertEquals(setOf(X86_64, ARM_64), UniversalBinary.archs(source.toPath())) },
+                { assertTrue(UniversalBinary.extract(source.toPath(), ARM_64, target.toPath())) },
+                { assertArrayEquals(arm, target.readBytes()) },
+                { assertTrue(UniversalBinary.extract(source.toPath(), X86_64, target.toPath())) },
+                { assertArrayEquals(x86, target.readBytes()) },
+            )
+        }
+
+    @Test fun `missing archs are not extracted`(@TempDir tempDir: File) {
+        val source = tempDir.resolve("libfoo.dylib").apply { writeBytes(fat(CPU_TYPE_X86_64 to x86)) }
+        val target = tempDir.resolve("ppc.dylib")
+        assertAll(
+            { assertFalse(UniversalBinary.extract(source.toPath(), PPC_32, target.toPath())) },
+            { assertFalse(target.exists()) },
+        )
+    }
+
+    @Test fun `slices are transferred to any channel`(@TempDir tempDir: File) {
+        val source = tempDir.resolve("libfoo.dylib").apply { writeBytes(fat(CPU_TYPE_X86_64 to x86, CPU_TYPE_ARM64 to arm)) }
+        val out = ByteArrayOutputStream()
+        FileChannel.open(source.toPath()).use { ch ->
+            ch.position(5)
+            assertAll(
+                { assertEquals(arm.size.toLong(), UniversalBinary.transferTo(ch, ARM_64, Channels.newChannel(out))) },
+                { assertEquals(-1, UniversalBinary.transferTo(ch, PPC_32, Channels.newChannel(out))) },
+                { assertEquals(5, ch.position()) },
+            )
+        }
+        assertArrayEquals(arm, out.toByteArray())
+    }
+
+    @Test fun `targets that accept no bytes are not retried forever`(@TempDir tempDir: File) {
+        val source = tempDir.resolve("libfoo.dylib").apply { writeBytes(fat(CPU_TYPE_X86_64 to x86, CPU_TYPE_ARM64 to arm)) }
+        val full = object : WritableByteChannel {
+            override fun write(src: ByteBuffer) = 0
+            override fun isOpen() = true
+            override fun close() {}
+        }
+        FileChannel.open(source.toPath()).use { ch ->
+            assertThrows<IOException> { UniversalBinary.transferTo(ch, ARM_64, full) }
+        }
+    }
+
+    @Test fun `first slice of an arch wins`(@TempDir tempDir: File) {
+        val arm64e = payload(CPU_TYPE_ARM64, 64)
+        val source = tempDir.resolve("libfoo.dylib").apply { writeBytes(fat(CPU_TYPE_ARM64 to arm, CPU_TYPE_ARM64 to arm64e)) }
+        val target = tempDir.resolve("arm64.dylib")
+        UniversalBinary.extract(source.toPath(), ARM_64, target.toPath())
+        assertArrayEquals(arm, target.readBytes())
+    }
+
+    @Test fun `thin files are a single slice`(@TempDir tempDir: File) {
+        val source = tempDir.resolve("libfoo.dylib").apply { writeBytes(arm) }
+        val target = tempDir.resolve("arm64.dylib")
+        assertAll(
+            { assertEquals(setOf(ARM_64), UniversalBinary.archs(source.toPath())) },
+            { assertTrue(UniversalBinary.extract(source.toPath(), ARM_64, target.toPath())) },
+            { assertArrayEquals(arm, target.readBytes()) },
+        )
+    }
+
+    @TestFactory fun `invalid files are rejected`(@TempDir tempDir: File) =
+        testsOf(
+            "empty" to ByteArray(0),
+            "not Mach-O" to "#!/usr/bin/env sh\n".toByteArray(),
+            "truncated header" to fat(CPU_TYPE_X86_64 to x86, CPU_TYPE_ARM64 to arm).copyOf(30),
+            "truncated slice" to fat(CPU_TYPE_X86_64 to x86, CPU_TYPE_ARM64 to arm).let { it.copyOf(it.size - 1) },
+            "truncated 64-bit slice" to fat(CPU_TYPE_ARM64 to arm, is64 = true).let { it.copyOf(it.size - 1) },
+            name = { it.first },
+        ) { (name, bytes) ->
+            val source = tempDir.resolve(name).apply { writeBytes(bytes) }
+            assertThrows<IllegalArgumentException> { UniversalBinary.archs(source.toPath()) }
+        }
+}